@@ -148,7 +148,7 @@ public class CliExport {
 		profileManager.loadActiveProfile();
 
 		ProfileData profileData = new ProfileData(profileManager);
-		profileData.updateEventLists();
+		profileData.updateEventLists().join();
 
 		int fails = 0;
 		for (Map.Entry<ExportTool, List<ExportSettings>> entry : CliOptions.get().getExportSettings().entrySet()) {
@@ -35,6 +35,7 @@ import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step1Task;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step2Task;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step3Task;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step4Task;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateScheduler;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
 import net.nikr.eve.jeveasset.gui.tabs.values.DataSetCreator;
@@ -68,12 +69,14 @@ public class CliUpdate {
 				continue; //Error loading profile
 			}
 			ProfileData profileData = new ProfileData(profileManager);
-			profileData.updateEventLists();
+			profileData.updateEventLists().join();
 			List<UpdateTask> updateTasks = new ArrayList<>();
-			updateTasks.add(new Step1Task(profileManager));
-			updateTasks.add(new Step2Task(profileManager, true, true, true, true, true, true, true, true, true, true, true));
-			updateTasks.add(new Step3Task(profileManager, true));
-			updateTasks.add(new Step4Task(profileManager));
+			UpdateScheduler scheduler = new UpdateScheduler();
+			updateTasks.add(new Step1Task(profileManager, scheduler));
+			Step2Task step2Task = new Step2Task(profileManager, scheduler, true, true, true, true, true, true, true, true, true, true, true);
+			updateTasks.add(step2Task);
+			updateTasks.add(new Step3Task(profileManager, scheduler, step2Task, true));
+			updateTasks.add(new Step4Task(profileManager, scheduler));
 			updateTasks.add(new PriceDataTask(priceDataGetter, profileData, false));
 			for (UpdateTask updateTask : updateTasks) {
 				updateTask.addPropertyChangeListener(new PropertyChangeListener() {
@@ -91,7 +94,7 @@ public class CliUpdate {
 			//Update tracker locations
 			AssetValue.updateData();
 			//Update eventlists
-			profileData.updateEventLists();
+			profileData.updateEventLists().join();
 			//Create value tracker point
 			DataSetCreator.createTrackerDataPoint(profileData, date);
 			TrackerData.save("Added", true);
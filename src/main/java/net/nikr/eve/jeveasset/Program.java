@@ -60,6 +60,7 @@ import net.nikr.eve.jeveasset.data.profile.ProfileManager;
 import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.AddedData;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames;
 import net.nikr.eve.jeveasset.data.settings.PriceHistoryDatabase;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.data.settings.TempDirs;
@@ -111,6 +112,7 @@ import net.nikr.eve.jeveasset.gui.tabs.values.ValueRetroTab;
 import net.nikr.eve.jeveasset.gui.tabs.values.ValueTableTab;
 import net.nikr.eve.jeveasset.i18n.GuiFrame;
 import net.nikr.eve.jeveasset.i18n.GuiShared;
+import net.nikr.eve.jeveasset.io.online.CitadelGetter;
 import net.nikr.eve.jeveasset.io.online.PriceDataGetter;
 import net.nikr.eve.jeveasset.io.online.Updater;
 import net.nikr.eve.jeveasset.io.shared.DesktopUtil;
@@ -366,6 +368,7 @@ public class Program implements ActionListener {
 		TempDirs.fixTempDir();
 		StaticData.load();
 		Settings.load();
+		OwnerNames.load();
 		TrackerData.load();
 		AddedData.load();
 		PriceHistoryDatabase.load();
@@ -597,6 +600,14 @@ public class Program implements ActionListener {
 		updateEventLists(null, null, null, null);
 	}
 
+	/**
+	 * Update prices for the typeIDs (blocking).
+	 * @param typeIDs
+	 */
+	public final void updateEventLists(Set<Integer> typeIDs) {
+		updateEventLists(null, null, typeIDs, null);
+	}
+
 	private synchronized void updateEventLists(Set<Long> itemIDs, Set<Long> locationIDs, Set<Integer> typeIDs, OutbidProcesserOutput output) {
 		LOG.info("Updating EventList");
 		for (JMainTab jMainTab : mainWindow.getTabs()) {
@@ -779,6 +790,7 @@ public class Program implements ActionListener {
 			Settings.waitForEmptySaveQueue();
 		}
 		TrackerData.waitForEmptySaveQueue();
+		CitadelGetter.waitForEmptySaveQueue();
 	}
 
 	private void showAbout() {
@@ -23,7 +23,9 @@ package net.nikr.eve.jeveasset.data.api.accounts;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import net.nikr.eve.jeveasset.data.settings.Settings;
@@ -71,6 +73,7 @@ public class EsiOwner extends AbstractOwner implements OwnerType {
 	private Date accountNextUpdate = Settings.getNow();
 	private EsiCallbackURL callbackURL;
 	private Set<RolesEnum> roles = EnumSet.noneOf(RolesEnum.class);
+	private final Map<String, String> etags = new HashMap<>(); //Not saved: only valid for the data in memory
 
 	public EsiOwner() {}
 
@@ -128,6 +131,27 @@ public class EsiOwner extends AbstractOwner implements OwnerType {
 		this.roles = roles;
 	}
 
+	/**
+	 * ETags of the ESI responses the current data was converted from.
+	 * @param key data type
+	 * @return ETags or null
+	 */
+	public synchronized String getEtags(String key) {
+		return etags.get(key);
+	}
+
+	public synchronized void setEtags(String key, String value) {
+		etags.put(key, value);
+	}
+
+	/**
+	 * Remove the ETags of a data type.
+	 * @param key data type (all keys starting with it is removed)
+	 */
+	public synchronized void removeEtags(String key) {
+		etags.keySet().removeIf(k -> k.startsWith(key));
+	}
+
 	@Override
 	public boolean isCorporation() {
 		return isRoles();
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.profile;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Contract items stored by contract ID (shared by all owners and profiles).
+ * Contract items never change, so the items of a contract is only added once (append-only).
+ */
+public class ContractItems {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ContractItems.class);
+
+	public static final String DEFAULT_CONNECTION_URL = "jdbc:sqlite:" + FileUtil.getPathContractItemsDatabase();
+
+	private static final String TABLE_NAME = "contractitems";
+	private static final int BATCH_SIZE = 500;
+
+	private static String connectionUrl = DEFAULT_CONNECTION_URL;
+	private static Set<Integer> contractIDs = null;
+
+	/**
+	 * Change the database (used by tests).
+	 * @param connectionUrl
+	 */
+	public static synchronized void setConnectionUrl(String connectionUrl) {
+		ContractItems.connectionUrl = connectionUrl;
+		contractIDs = null;
+	}
+
+	/**
+	 * @param contractID
+	 * @return true if the contract items is stored
+	 */
+	public static synchronized boolean contains(int contractID) {
+		return getContractIDs().contains(contractID);
+	}
+
+	/**
+	 * Get stored contract items.
+	 * @param ids contract IDs
+	 * @return contract ID = contract items (contracts that is not stored are not included)
+	 */
+	public static synchronized Map<Integer, List<RawContractItem>> get(Collection<Integer> ids) {
+		Map<Integer, List<RawContractItem>> map = new HashMap<>();
+		List<Integer> stored = new ArrayList<>();
+		for (Integer contractID : ids) {
+			if (getContractIDs().contains(contractID)) {
+				stored.add(contractID);
+			}
+		}
+		if (stored.isEmpty()) {
+			return map;
+		}
+		try (Connection connection = DriverManager.getConnection(connectionUrl)) {
+			for (int from = 0; from < stored.size(); from += BATCH_SIZE) {
+				List<Integer> batch = stored.subList(from, Math.min(from + BATCH_SIZE, stored.size()));
+				StringBuilder sql = new StringBuilder("SELECT * FROM " + TABLE_NAME + " WHERE contractid IN (");
+				for (int i = 0; i < batch.size(); i++) {
+					if (i > 0) {
+						sql.append(",");
+					}
+					sql.append("?");
+				}
+				sql.append(")");
+				try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+					for (int i = 0; i < batch.size(); i++) {
+						statement.setInt(i + 1, batch.get(i));
+					}
+					try (ResultSet rs = statement.executeQuery()) {
+						while (rs.next()) {
+							int contractID = rs.getInt("contractid");
+							RawContractItem contractItem = RawContractItem.create();
+							contractItem.setRecordID(rs.getLong("recordid"));
+							contractItem.setIncluded(getBoolean(rs, "included"));
+							contractItem.setSingleton(getBoolean(rs, "singleton"));
+							contractItem.setQuantity(getInteger(rs, "quantity"));
+							contractItem.setRawQuantity(getInteger(rs, "rawquantity"));
+							contractItem.setTypeID(getInteger(rs, "typeid"));
+							contractItem.setItemID(getLong(rs, "itemid"));
+							contractItem.setLicensedRuns(getInteger(rs, "runs"));
+							contractItem.setME(getInteger(rs, "me"));
+							contractItem.setTE(getInteger(rs, "te"));
+							map.computeIfAbsent(contractID, k -> new ArrayList<>()).add(contractItem);
+						}
+					}
+				}
+			}
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+		return map;
+	}
+
+	/**
+	 * Add contract items. Contracts that is already stored or have no items are ignored.
+	 * @param contractItems contract ID = contract items
+	 */
+	public static synchronized void add(Map<Integer, ? extends Collection<? extends RawContractItem>> contractItems) {
+		Map<Integer, Collection<? extends RawContractItem>> insert = new HashMap<>();
+		for (Map.Entry<Integer, ? extends Collection<? extends RawContractItem>> entry : contractItems.entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null || entry.getValue().isEmpty() || getContractIDs().contains(entry.getKey())) {
+				continue;
+			}
+			insert.put(entry.getKey(), entry.getValue());
+		}
+		if (insert.isEmpty()) {
+			return;
+		}
+		String sql = "INSERT OR IGNORE INTO " + TABLE_NAME + "(contractid,recordid,included,singleton,quantity,rawquantity,typeid,itemid,runs,me,te) VALUES(?,?,?,?,?,?,?,?,?,?,?)";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement(sql)) {
+			int i = 0;
+			connection.setAutoCommit(false);
+			for (Map.Entry<Integer, Collection<? extends RawContractItem>> entry : insert.entrySet()) {
+				for (RawContractItem contractItem : entry.getValue()) {
+					statement.setInt(1, entry.getKey());
+					setLong(statement, 2, contractItem.getRecordID());
+					setBoolean(statement, 3, contractItem.isIncluded());
+					setBoolean(statement, 4, contractItem.isSingleton());
+					setInteger(statement, 5, contractItem.getQuantity());
+					setInteger(statement, 6, contractItem.getRawQuantity());
+					setInteger(statement, 7, contractItem.getTypeID());
+					setLong(statement, 8, contractItem.getItemID());
+					setInteger(statement, 9, contractItem.getLicensedRuns());
+					setInteger(statement, 10, contractItem.getME());
+					setInteger(statement, 11, contractItem.getTE());
+					statement.addBatch();
+					i++;
+					if (i % 1000 == 0) {
+						statement.executeBatch(); // Execute every 1000 items.
+					}
+				}
+			}
+			statement.executeBatch();
+			connection.commit();
+			connection.setAutoCommit(true);
+			contractIDs.addAll(insert.keySet());
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	private static Set<Integer> getContractIDs() {
+		if (contractIDs == null) {
+			contractIDs = new HashSet<>();
+			createTable();
+			String sql = "SELECT DISTINCT contractid FROM " + TABLE_NAME;
+			try (Connection connection = DriverManager.getConnection(connectionUrl);
+					PreparedStatement statement = connection.prepareStatement(sql);
+					ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					contractIDs.add(rs.getInt("contractid"));
+				}
+			} catch (SQLException ex) {
+				LOG.error(ex.getMessage(), ex);
+			}
+		}
+		return contractIDs;
+	}
+
+	private static void createTable() {
+		String sql = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (\n"
+				+ "	contractid integer NOT NULL,\n"
+				+ "	recordid integer NOT NULL,\n"
+				+ "	included integer,\n"
+				+ "	singleton integer,\n"
+				+ "	quantity integer,\n"
+				+ "	rawquantity integer,\n"
+				+ "	typeid integer,\n"
+				+ "	itemid integer,\n"
+				+ "	runs integer,\n"
+				+ "	me integer,\n"
+				+ "	te integer,\n"
+				+ "	PRIMARY KEY (contractid, recordid)\n"
+				+ ");";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.INTEGER);
+		} else {
+			statement.setInt(index, value);
+		}
+	}
+
+	private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.INTEGER);
+		} else {
+			statement.setLong(index, value);
+		}
+	}
+
+	private static void setBoolean(PreparedStatement statement, int index, Boolean value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.INTEGER);
+		} else {
+			statement.setInt(index, value ? 1 : 0);
+		}
+	}
+
+	private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+		int value = rs.getInt(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Long getLong(ResultSet rs, String column) throws SQLException {
+		long value = rs.getLong(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Boolean getBoolean(ResultSet rs, String column) throws SQLException {
+		int value = rs.getInt(column);
+		return rs.wasNull() ? null : value != 0;
+	}
+}
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.SplashUpdater;
 import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
@@ -67,6 +68,7 @@ import net.nikr.eve.jeveasset.data.settings.types.LastTransactionType;
 import net.nikr.eve.jeveasset.data.settings.types.LocationsType;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.SoundsSettingsPanel.SoundOption;
 import net.nikr.eve.jeveasset.gui.shared.CaseInsensitiveComparator;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListDispatcher;
 import net.nikr.eve.jeveasset.gui.shared.table.EventListManager;
 import net.nikr.eve.jeveasset.gui.shared.table.containers.Percent;
 import net.nikr.eve.jeveasset.gui.sounds.SoundPlayer;
@@ -110,6 +112,11 @@ public class ProfileData {
 	private final List<String> ownerNames = new ArrayList<>();
 	private final Map<Long, OwnerType> owners = new HashMap<>();
 	private Set<Integer> staticTypeIDs = null;
+	//Wallet Archive (paged in on request)
+	private final List<MyJournal> journalArchived = new ArrayList<>();
+	private final List<MyTransaction> transactionsArchived = new ArrayList<>();
+	private WalletArchive.Cursor journalCursor = new WalletArchive.Cursor();
+	private WalletArchive.Cursor transactionsCursor = new WalletArchive.Cursor();
 
 	public ProfileData(ProfileManager profileManager) {
 		this.profileManager = profileManager;
@@ -329,19 +336,7 @@ public class ProfileData {
 		}
 		updateOutbidOwned(marketOrdersList);
 		AddedData.getMarketOrders().commitQueue();
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					marketOrdersEventList.getReadWriteLock().writeLock().lock();
-					List<MyMarketOrder> cache = new ArrayList<>(marketOrdersEventList);
-					marketOrdersEventList.clear();
-					marketOrdersEventList.addAll(cache);
-				} finally {
-					marketOrdersEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
+		EventListDispatcher.refresh(marketOrdersEventList);
 	}
 
 	public void updateLocations(Set<Long> locationIDs) {
@@ -378,7 +373,7 @@ public class ProfileData {
 		if (typeIDs == null || typeIDs.isEmpty()) {
 			return;
 		}
-		//Update Items dynamic values
+		//Update Items dynamic values (the price table is already invalidated by the settings that changed)
 		for (Item item : StaticData.get().getItems().values()) {
 			double before = item.getPriceReprocessed();
 			double price = ApiIdConverter.getPriceReprocessed(item);
@@ -393,6 +388,7 @@ public class ProfileData {
 				typeIDs.add(item.getTypeID());
 			}
 		}
+		ApiIdConverter.invalidatePrices(); //Manufacturing prices changed
 		updatePrices(marketOrdersEventList, typeIDs);
 		updatePrices(contractItemEventList, typeIDs);
 		updatePrices(miningEventList, typeIDs);
@@ -400,11 +396,34 @@ public class ProfileData {
 		updateIndustryJobPrices(industryJobsEventList, typeIDs);
 	}
 
-	public void updateEventLists() {
-		updateEventLists(new Date());
+	public CompletableFuture<Void> updateEventLists() {
+		return updateEventLists(new Date());
 	}
 
-	public synchronized void updateEventLists(Date addedDate) {
+	/**
+	 * Update all data.
+	 * The EventLists are updated asynchronously on the EDT.
+	 * @param addedDate
+	 * @return future completed when the EventLists have been updated
+	 */
+	public synchronized CompletableFuture<Void> updateEventLists(Date addedDate) {
+		ApiIdConverter.invalidatePrices(); //Settings may have changed
+		//Wallet Archive: Move old journal and transactions out of memory
+		journalArchived.clear();
+		transactionsArchived.clear();
+		journalCursor = new WalletArchive.Cursor();
+		transactionsCursor = new WalletArchive.Cursor();
+		if (Settings.get().isWalletArchive()) {
+			Date before = new Date(System.currentTimeMillis() - (Settings.get().getWalletArchiveDays() * 24L * 60L * 60L * 1000L));
+			for (OwnerType owner : profileManager.getOwnerTypes()) {
+				WalletArchive.restore(owner, before); //Window extended
+				WalletArchive.archive(owner, before);
+			}
+		} else { //Archive disabled: Move everything back to the owners
+			for (OwnerType owner : profileManager.getOwnerTypes()) {
+				WalletArchive.restore(owner, null);
+			}
+		}
 		uniqueAssetsDuplicates = new HashMap<>();
 		Set<String> uniqueOwnerNames = new HashSet<>();
 		Map<Long, OwnerType> uniqueOwners = new HashMap<>();
@@ -689,6 +708,7 @@ public class ProfileData {
 			item.setPriceReprocessedMax(ApiIdConverter.getPriceReprocessedMax(item));
 			item.setPriceManufacturing(ApiIdConverter.getPriceManufacturing(item));
 		}
+		ApiIdConverter.invalidatePrices(); //Manufacturing prices changed
 
 		Map<Long, Date> assetAdded = AddedData.getAssets().getAll();
 		Program.ensureEDT(new Runnable() {
@@ -760,139 +780,105 @@ public class ProfileData {
 		accountBalanceList.addAll(accountBalance);
 		skillPointsTotal.clear();
 		skillPointsTotal.putAll(skillPointsTotalCache);
-		//Update EventLists
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					assetsEventList.getReadWriteLock().writeLock().lock();
-					assetsEventList.clear();
-					assetsEventList.addAll(assets);
-				} finally {
-					assetsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					marketOrdersEventList.getReadWriteLock().writeLock().lock();
-					marketOrdersEventList.clear();
-					marketOrdersEventList.addAll(marketOrders);
-				} finally {
-					marketOrdersEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					journalEventList.getReadWriteLock().writeLock().lock();
-					journalEventList.clear();
-					journalEventList.addAll(journals);
-				} finally {
-					journalEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					transactionsEventList.getReadWriteLock().writeLock().lock();
-					transactionsEventList.clear();
-					transactionsEventList.addAll(transactions);
-				} finally {
-					transactionsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					industryJobsEventList.getReadWriteLock().writeLock().lock();
-					industryJobsEventList.clear();
-					industryJobsEventList.addAll(industryJobs);
-				} finally {
-					industryJobsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					contractItemEventList.getReadWriteLock().writeLock().lock();
-					contractItemEventList.clear();
-					contractItemEventList.addAll(contractItems);
-				} finally {
-					contractItemEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					contractEventList.getReadWriteLock().writeLock().lock();
-					contractEventList.clear();
-					contractEventList.addAll(contracts);
-				} finally {
-					contractEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					accountBalanceEventList.getReadWriteLock().writeLock().lock();
-					accountBalanceEventList.clear();
-					accountBalanceEventList.addAll(accountBalance);
-				} finally {
-					accountBalanceEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					skillsEventList.getReadWriteLock().writeLock().lock();
-					skillsEventList.clear();
-					skillsEventList.addAll(skills);
-				} finally {
-					skillsEventList.getReadWriteLock().writeLock().unlock();
-				}
-			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					miningEventList.getReadWriteLock().writeLock().lock();
-					miningEventList.clear();
-					miningEventList.addAll(minings);
-				} finally {
-					miningEventList.getReadWriteLock().writeLock().unlock();
-				}
+		//Update EventLists (applied in a single EDT event)
+		EventListDispatcher.replace(assetsEventList, assets);
+		EventListDispatcher.replace(marketOrdersEventList, marketOrders);
+		EventListDispatcher.replace(journalEventList, journals);
+		EventListDispatcher.replace(transactionsEventList, transactions);
+		EventListDispatcher.replace(industryJobsEventList, industryJobs);
+		EventListDispatcher.replace(contractItemEventList, contractItems);
+		EventListDispatcher.replace(contractEventList, contracts);
+		EventListDispatcher.replace(accountBalanceEventList, accountBalance);
+		EventListDispatcher.replace(skillsEventList, skills);
+		EventListDispatcher.replace(miningEventList, minings);
+		return EventListDispatcher.replace(extractionsEventList, extractions);
+	}
+
+	/**
+	 * Load the next page of archived journal into the journal EventList.
+	 * Archived rows are removed from the EventList on the next updateEventLists().
+	 * @return number of rows added
+	 */
+	public synchronized int loadArchivedJournal() {
+		if (!Settings.get().isWalletArchive()) {
+			return 0;
+		}
+		List<MyJournal> journals = WalletArchive.getJournal(getShownOwners(), journalCursor, WalletArchive.PAGE_SIZE);
+		Set<MyJournal> loaded = new HashSet<>(journalList);
+		loaded.addAll(journalArchived);
+		Map<Long, Date> journalsAdded = AddedData.getJournals().getAll();
+		List<MyJournal> added = new ArrayList<>();
+		for (MyJournal journal : journals) {
+			if (!loaded.add(journal)) {
+				continue; //Already loaded
 			}
-		});
-		Program.ensureEDT(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					extractionsEventList.getReadWriteLock().writeLock().lock();
-					extractionsEventList.clear();
-					extractionsEventList.addAll(extractions);
-				} finally {
-					extractionsEventList.getReadWriteLock().writeLock().unlock();
-				}
+			journal.setFirstPartyName(ApiIdConverter.getOwnerName(journal.getFirstPartyID()));
+			journal.setSecondPartyName(ApiIdConverter.getOwnerName(journal.getSecondPartyID()));
+			Date date = journalsAdded.get(journal.getRefID());
+			journal.setAdded(date != null ? date : journal.getDate());
+			journal.setContext(ApiIdConverter.getContext(journal));
+			added.add(journal);
+		}
+		if (!added.isEmpty()) {
+			journalArchived.addAll(added);
+			List<MyJournal> all = new ArrayList<>(journalList);
+			all.addAll(journalArchived);
+			EventListDispatcher.replace(journalEventList, all);
+		}
+		return added.size();
+	}
+
+	/**
+	 * Load the next page of archived transactions into the transactions EventList.
+	 * Archived rows are removed from the EventList on the next updateEventLists().
+	 * @return number of rows added
+	 */
+	public synchronized int loadArchivedTransactions() {
+		if (!Settings.get().isWalletArchive()) {
+			return 0;
+		}
+		List<MyTransaction> transactions = WalletArchive.getTransactions(getShownOwners(), transactionsCursor, WalletArchive.PAGE_SIZE);
+		Set<MyTransaction> loaded = new HashSet<>(transactionsList);
+		loaded.addAll(transactionsArchived);
+		Map<Long, Date> transactionsAdded = AddedData.getTransactions().getAll();
+		List<MyTransaction> added = new ArrayList<>();
+		for (MyTransaction transaction : transactions) {
+			if (!loaded.add(transaction)) {
+				continue; //Already loaded
 			}
-		});
+			transaction.setClientName(ApiIdConverter.getOwnerName(transaction.getClientID()));
+			transaction.setLocation(ApiIdConverter.getLocation(transaction.getLocationID()));
+			Date date = transactionsAdded.get(transaction.getTransactionID());
+			transaction.setAdded(date != null ? date : transaction.getDate());
+			added.add(transaction);
+		}
+		if (!added.isEmpty()) {
+			transactionsArchived.addAll(added);
+			List<MyTransaction> all = new ArrayList<>(transactionsList);
+			all.addAll(transactionsArchived);
+			EventListDispatcher.replace(transactionsEventList, all);
+		}
+		return added.size();
+	}
+
+	/**
+	 * @return true if there may be more archived journal to load
+	 */
+	public synchronized boolean isJournalArchiveLoadable() {
+		return Settings.get().isWalletArchive() && !journalCursor.isDone();
+	}
+
+	/**
+	 * @return true if there may be more archived transactions to load
+	 */
+	public synchronized boolean isTransactionsArchiveLoadable() {
+		return Settings.get().isWalletArchive() && !transactionsCursor.isDone();
+	}
+
+	private List<OwnerType> getShownOwners() {
+		synchronized (owners) {
+			return new ArrayList<>(owners.values());
+		}
 	}
 
 	public void updateNames(EventList<MyAsset> eventList, Set<Long> itemIDs) {
@@ -1048,37 +1034,7 @@ public class ProfileData {
 	}
 
 	private static <T> void updateList(EventList<T> eventList, List<T> found) {
-		if (found.isEmpty()) {
-			return;
-		}
-		if (found.size() > 2) {
-			Program.ensureEDT(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						eventList.getReadWriteLock().writeLock().lock();
-						List<T> cache = new ArrayList<>(eventList);
-						eventList.clear();
-						eventList.addAll(cache);
-					} finally {
-						eventList.getReadWriteLock().writeLock().unlock();
-					}
-				}
-			});
-		} else {
-			Program.ensureEDT(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						eventList.getReadWriteLock().writeLock().lock();
-						eventList.removeAll(found);
-						eventList.addAll(found);
-					} finally {
-						eventList.getReadWriteLock().writeLock().unlock();
-					}
-				}
-			});
-		}
+		EventListDispatcher.update(eventList, found);
 	}
 
 	private void calcTransactionsPriceData() {
@@ -1337,11 +1293,11 @@ public class ProfileData {
 	}
 
 	private static void updatePrice(EditablePriceType editablePriceType) {
-		editablePriceType.setDynamicPrice(ApiIdConverter.getPrice(editablePriceType.getItem().getTypeID(), editablePriceType.isBPC()));
+		editablePriceType.setDynamicPrice(ApiIdConverter.getPrice(editablePriceType.getItem(), editablePriceType.isBPC()));
 	}
 
 	private static void updatePrice(MyIndustryJob industryJob) {
-		industryJob.setDynamicPrice(ApiIdConverter.getPrice(industryJob.getItem().getTypeID(), industryJob.isBPC()));
+		industryJob.setDynamicPrice(ApiIdConverter.getPrice(industryJob.getItem(), industryJob.isBPC()));
 		industryJob.setOutputPrice(ApiIdConverter.getPrice(industryJob.getProductTypeID(), industryJob.isCopying()));
 	}
 
@@ -1353,7 +1309,7 @@ public class ProfileData {
 			asset.setUserPrice(Settings.get().getUserPrices().get(asset.getItem().getTypeID()));
 		}
 		//Dynamic Price
-		asset.setDynamicPrice(ApiIdConverter.getPrice(asset.getItem().getTypeID(), asset.isBPC()));
+		asset.setDynamicPrice(ApiIdConverter.getPrice(asset.getItem(), asset.isBPC()));
 	}
 
 	private void updateName(MyAsset asset) {
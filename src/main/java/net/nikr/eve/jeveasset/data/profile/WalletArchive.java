@@ -0,0 +1,549 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.profile;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal;
+import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.io.shared.DataConverter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import net.nikr.eve.jeveasset.io.shared.RawConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archive of old journal and transactions (opt-in).
+ * Rows older than the hot window is moved from the owners (profile) to the database,
+ * and is paged back in (newest first) when requested.
+ */
+public class WalletArchive {
+
+	private static final Logger LOG = LoggerFactory.getLogger(WalletArchive.class);
+
+	public static final String DEFAULT_CONNECTION_URL = "jdbc:sqlite:" + FileUtil.getPathWalletArchiveDatabase();
+	public static final int PAGE_SIZE = 10000;
+
+	private static final String JOURNAL = "journal";
+	private static final String TRANSACTIONS = "transactions";
+
+	private static String connectionUrl = DEFAULT_CONNECTION_URL;
+	private static boolean tablesCreated = false;
+
+	/**
+	 * Change the database (used by tests).
+	 * @param connectionUrl
+	 */
+	public static synchronized void setConnectionUrl(String connectionUrl) {
+		WalletArchive.connectionUrl = connectionUrl;
+		tablesCreated = false;
+	}
+
+	/**
+	 * Move journal and transactions older than date from the owner to the archive.
+	 * @param owner
+	 * @param before
+	 * @return number of rows archived
+	 */
+	public static synchronized int archive(OwnerType owner, Date before) {
+		createTables();
+		int count = 0;
+		//Journal
+		Set<MyJournal> journalHot = new HashSet<>();
+		List<MyJournal> journalOld = new ArrayList<>();
+		for (MyJournal journal : owner.getJournal()) {
+			if (journal.getDate().before(before)) {
+				journalOld.add(journal);
+			} else {
+				journalHot.add(journal);
+			}
+		}
+		if (!journalOld.isEmpty() && insertJournal(owner.getOwnerID(), journalOld)) {
+			owner.setJournal(journalHot);
+			count += journalOld.size();
+		}
+		//Transactions
+		Set<MyTransaction> transactionsHot = new HashSet<>();
+		List<MyTransaction> transactionsOld = new ArrayList<>();
+		for (MyTransaction transaction : owner.getTransactions()) {
+			if (transaction.getDate().before(before)) {
+				transactionsOld.add(transaction);
+			} else {
+				transactionsHot.add(transaction);
+			}
+		}
+		if (!transactionsOld.isEmpty() && insertTransactions(owner.getOwnerID(), transactionsOld)) {
+			owner.setTransactions(transactionsHot);
+			count += transactionsOld.size();
+		}
+		if (count > 0) {
+			LOG.info("Archived " + count + " journal/transactions rows for " + owner.getOwnerName());
+		}
+		return count;
+	}
+
+	/**
+	 * Get the next page of archived journal (newest first).
+	 * @param owners owners to include
+	 * @param cursor position of the last page (updated)
+	 * @param limit max rows
+	 * @return journal
+	 */
+	public static synchronized List<MyJournal> getJournal(Collection<OwnerType> owners, Cursor cursor, int limit) {
+		List<MyJournal> journals = new ArrayList<>();
+		Map<Long, OwnerType> ownerMap = toMap(owners);
+		if (ownerMap.isEmpty() || cursor.isDone()) {
+			return journals;
+		}
+		createTables();
+		String sql = "SELECT * FROM " + JOURNAL + " WHERE ownerid IN (" + placeholders(ownerMap.size()) + ")"
+				+ " AND (date < ? OR (date = ? AND (refid < ? OR (refid = ? AND ownerid < ?)))) ORDER BY date DESC, refid DESC, ownerid DESC LIMIT ?";
+		int rows = 0;
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement(sql)) {
+			setPage(statement, ownerMap.keySet(), cursor, limit);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					rows++;
+					RawJournal rawJournal = toRawJournal(rs);
+					cursor.set(rawJournal.getDate().getTime(), rawJournal.getRefID(), rs.getLong("ownerid"));
+					journals.add(DataConverter.toMyJournal(rawJournal, ownerMap.get(rs.getLong("ownerid"))));
+				}
+			}
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+			cursor.setDone();
+			return journals;
+		}
+		if (rows < limit) {
+			cursor.setDone();
+		}
+		return journals;
+	}
+
+	/**
+	 * Get the next page of archived transactions (newest first).
+	 * @param owners owners to include
+	 * @param cursor position of the last page (updated)
+	 * @param limit max rows
+	 * @return transactions
+	 */
+	public static synchronized List<MyTransaction> getTransactions(Collection<OwnerType> owners, Cursor cursor, int limit) {
+		List<MyTransaction> transactions = new ArrayList<>();
+		Map<Long, OwnerType> ownerMap = toMap(owners);
+		if (ownerMap.isEmpty() || cursor.isDone()) {
+			return transactions;
+		}
+		createTables();
+		String sql = "SELECT * FROM " + TRANSACTIONS + " WHERE ownerid IN (" + placeholders(ownerMap.size()) + ")"
+				+ " AND (date < ? OR (date = ? AND (transactionid < ? OR (transactionid = ? AND ownerid < ?)))) ORDER BY date DESC, transactionid DESC, ownerid DESC LIMIT ?";
+		int rows = 0;
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement(sql)) {
+			setPage(statement, ownerMap.keySet(), cursor, limit);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					rows++;
+					RawTransaction rawTransaction = toRawTransaction(rs);
+					cursor.set(rawTransaction.getDate().getTime(), rawTransaction.getTransactionID(), rs.getLong("ownerid"));
+					transactions.add(DataConverter.toMyTransaction(rawTransaction, ownerMap.get(rs.getLong("ownerid"))));
+				}
+			}
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+			cursor.setDone();
+			return transactions;
+		}
+		if (rows < limit) {
+			cursor.setDone();
+		}
+		return transactions;
+	}
+
+	/**
+	 * Move archived journal and transactions back to the owner.
+	 * Used when the archive is disabled (everything) or the hot window is extended (rows newer than the window).
+	 * @param owner
+	 * @param after restore rows at or after this date (null to restore everything)
+	 * @return number of rows restored
+	 */
+	public static synchronized int restore(OwnerType owner, Date after) {
+		if (!exists()) {
+			return 0; //Nothing archived
+		}
+		createTables();
+		long from = after != null ? after.getTime() : Long.MIN_VALUE;
+		int count = 0;
+		//Journal
+		List<MyJournal> journals = new ArrayList<>();
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + JOURNAL + " WHERE ownerid = ? AND date >= ?")) {
+			statement.setLong(1, owner.getOwnerID());
+			statement.setLong(2, from);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					journals.add(DataConverter.toMyJournal(toRawJournal(rs), owner));
+				}
+			}
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+			journals.clear();
+		}
+		if (!journals.isEmpty()) {
+			Set<MyJournal> journalHot = new HashSet<>(owner.getJournal());
+			journalHot.addAll(journals);
+			owner.setJournal(journalHot);
+			delete(JOURNAL, owner.getOwnerID(), from);
+			count += journals.size();
+		}
+		//Transactions
+		List<MyTransaction> transactions = new ArrayList<>();
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + TRANSACTIONS + " WHERE ownerid = ? AND date >= ?")) {
+			statement.setLong(1, owner.getOwnerID());
+			statement.setLong(2, from);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					transactions.add(DataConverter.toMyTransaction(toRawTransaction(rs), owner));
+				}
+			}
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+			transactions.clear();
+		}
+		if (!transactions.isEmpty()) {
+			Set<MyTransaction> transactionsHot = new HashSet<>(owner.getTransactions());
+			transactionsHot.addAll(transactions);
+			owner.setTransactions(transactionsHot);
+			delete(TRANSACTIONS, owner.getOwnerID(), from);
+			count += transactions.size();
+		}
+		if (count > 0) {
+			LOG.info("Restored " + count + " archived journal/transactions rows for " + owner.getOwnerName());
+		}
+		return count;
+	}
+
+	/**
+	 * @return true if the archive database may contain rows (the default database is only created when used)
+	 */
+	private static boolean exists() {
+		return !DEFAULT_CONNECTION_URL.equals(connectionUrl) || new File(FileUtil.getPathWalletArchiveDatabase()).exists();
+	}
+
+	private static void delete(String table, long ownerID, long from) {
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE ownerid = ? AND date >= ?")) {
+			statement.setLong(1, ownerID);
+			statement.setLong(2, from);
+			statement.executeUpdate();
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	private static RawJournal toRawJournal(ResultSet rs) throws SQLException {
+		RawJournal rawJournal = RawJournal.create();
+		rawJournal.setRefID(rs.getLong("refid"));
+		rawJournal.setDate(new Date(rs.getLong("date")));
+		Integer refTypeID = getInteger(rs, "reftypeid");
+		String refTypeString = rs.getString("reftypestring");
+		rawJournal.setRefType(RawConverter.toJournalRefType(refTypeID, refTypeString));
+		rawJournal.setRefTypeString(refTypeString);
+		rawJournal.setAmount(getDouble(rs, "amount"));
+		rawJournal.setBalance(getDouble(rs, "balance"));
+		rawJournal.setContextID(getLong(rs, "contextid"));
+		String contextTypeString = rs.getString("contexttypestring");
+		rawJournal.setContextType(RawConverter.toJournalContextType(rs.getString("contexttype"), contextTypeString));
+		rawJournal.setContextTypeString(contextTypeString);
+		rawJournal.setDescription(rs.getString("description"));
+		rawJournal.setFirstPartyID(getInteger(rs, "firstpartyid"));
+		rawJournal.setSecondPartyID(getInteger(rs, "secondpartyid"));
+		rawJournal.setReason(rs.getString("reason"));
+		rawJournal.setTax(getDouble(rs, "taxamount"));
+		rawJournal.setTaxReceiverID(getInteger(rs, "taxreceiverid"));
+		rawJournal.setAccountKey(rs.getInt("accountkey"));
+		return rawJournal;
+	}
+
+	private static RawTransaction toRawTransaction(ResultSet rs) throws SQLException {
+		RawTransaction rawTransaction = RawTransaction.create();
+		rawTransaction.setTransactionID(rs.getLong("transactionid"));
+		rawTransaction.setDate(new Date(rs.getLong("date")));
+		rawTransaction.setTypeID(rs.getInt("typeid"));
+		rawTransaction.setQuantity(rs.getInt("quantity"));
+		rawTransaction.setUnitPrice(rs.getDouble("price"));
+		rawTransaction.setClientID(rs.getInt("clientid"));
+		rawTransaction.setLocationID(rs.getLong("locationid"));
+		rawTransaction.setBuy(rs.getInt("buy") != 0);
+		rawTransaction.setPersonal(rs.getInt("personal") != 0);
+		rawTransaction.setJournalRefID(rs.getLong("journalrefid"));
+		rawTransaction.setAccountKey(rs.getInt("accountkey"));
+		return rawTransaction;
+	}
+
+	private static boolean insertJournal(long ownerID, List<MyJournal> journals) {
+		String sql = "INSERT OR IGNORE INTO " + JOURNAL + "(ownerid,refid,date,reftypeid,reftypestring,amount,balance,contextid,contexttype,contexttypestring,description,firstpartyid,secondpartyid,reason,taxamount,taxreceiverid,accountkey) VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement(sql)) {
+			int i = 0;
+			connection.setAutoCommit(false);
+			for (MyJournal journal : journals) {
+				statement.setLong(1, ownerID);
+				statement.setLong(2, journal.getRefID());
+				statement.setLong(3, journal.getDate().getTime());
+				setInteger(statement, 4, journal.getRefType() != null ? journal.getRefType().getID() : null);
+				statement.setString(5, journal.getRefTypeString());
+				setDouble(statement, 6, journal.getAmount());
+				setDouble(statement, 7, journal.getBalance());
+				setLong(statement, 8, journal.getContextID());
+				statement.setString(9, journal.getContextType() != null ? journal.getContextType().name() : null);
+				statement.setString(10, journal.getContextTypeString());
+				statement.setString(11, journal.getDescription());
+				setInteger(statement, 12, journal.getFirstPartyID());
+				setInteger(statement, 13, journal.getSecondPartyID());
+				statement.setString(14, journal.getReason());
+				setDouble(statement, 15, journal.getTaxAmount());
+				setInteger(statement, 16, journal.getTaxReceiverID());
+				setInteger(statement, 17, journal.getAccountKey());
+				statement.addBatch();
+				i++;
+				if (i % 1000 == 0 || i == journals.size()) {
+					statement.executeBatch(); // Execute every 1000 items.
+				}
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
+			return true;
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+			return false;
+		}
+	}
+
+	private static boolean insertTransactions(long ownerID, List<MyTransaction> transactions) {
+		String sql = "INSERT OR IGNORE INTO " + TRANSACTIONS + "(ownerid,transactionid,date,typeid,quantity,price,clientid,locationid,buy,personal,journalrefid,accountkey) VALUES(?,?,?,?,?,?,?,?,?,?,?,?)";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement(sql)) {
+			int i = 0;
+			connection.setAutoCommit(false);
+			for (MyTransaction transaction : transactions) {
+				statement.setLong(1, ownerID);
+				statement.setLong(2, transaction.getTransactionID());
+				statement.setLong(3, transaction.getDate().getTime());
+				statement.setInt(4, transaction.getTypeID());
+				statement.setInt(5, transaction.getQuantity());
+				statement.setDouble(6, transaction.getPrice());
+				statement.setLong(7, transaction.getClientID());
+				statement.setLong(8, transaction.getLocationID());
+				statement.setInt(9, transaction.isBuy() ? 1 : 0);
+				statement.setInt(10, transaction.isPersonal() ? 1 : 0);
+				setLong(statement, 11, transaction.getJournalRefID());
+				setInteger(statement, 12, transaction.getAccountKey());
+				statement.addBatch();
+				i++;
+				if (i % 1000 == 0 || i == transactions.size()) {
+					statement.executeBatch(); // Execute every 1000 items.
+				}
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
+			return true;
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+			return false;
+		}
+	}
+
+	private static void createTables() {
+		if (tablesCreated) {
+			return;
+		}
+		String journal = "CREATE TABLE IF NOT EXISTS " + JOURNAL + " (\n"
+				+ "	ownerid integer NOT NULL,\n"
+				+ "	refid integer NOT NULL,\n"
+				+ "	date integer NOT NULL,\n"
+				+ "	reftypeid integer,\n"
+				+ "	reftypestring text,\n"
+				+ "	amount real,\n"
+				+ "	balance real,\n"
+				+ "	contextid integer,\n"
+				+ "	contexttype text,\n"
+				+ "	contexttypestring text,\n"
+				+ "	description text,\n"
+				+ "	firstpartyid integer,\n"
+				+ "	secondpartyid integer,\n"
+				+ "	reason text,\n"
+				+ "	taxamount real,\n"
+				+ "	taxreceiverid integer,\n"
+				+ "	accountkey integer,\n"
+				+ "	PRIMARY KEY (ownerid, refid)\n"
+				+ ");";
+		String transactions = "CREATE TABLE IF NOT EXISTS " + TRANSACTIONS + " (\n"
+				+ "	ownerid integer NOT NULL,\n"
+				+ "	transactionid integer NOT NULL,\n"
+				+ "	date integer NOT NULL,\n"
+				+ "	typeid integer NOT NULL,\n"
+				+ "	quantity integer,\n"
+				+ "	price real,\n"
+				+ "	clientid integer,\n"
+				+ "	locationid integer,\n"
+				+ "	buy integer,\n"
+				+ "	personal integer,\n"
+				+ "	journalrefid integer,\n"
+				+ "	accountkey integer,\n"
+				+ "	PRIMARY KEY (ownerid, transactionid)\n"
+				+ ");";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				Statement statement = connection.createStatement()) {
+			statement.execute(journal);
+			statement.execute("DROP INDEX IF EXISTS journal_date");
+			statement.execute("CREATE INDEX IF NOT EXISTS journal_page ON " + JOURNAL + " (date, refid, ownerid)");
+			statement.execute("CREATE INDEX IF NOT EXISTS journal_owner_date ON " + JOURNAL + " (ownerid, date)");
+			statement.execute("CREATE INDEX IF NOT EXISTS journal_reftype ON " + JOURNAL + " (reftypeid)");
+			statement.execute(transactions);
+			statement.execute("DROP INDEX IF EXISTS transactions_date");
+			statement.execute("CREATE INDEX IF NOT EXISTS transactions_page ON " + TRANSACTIONS + " (date, transactionid, ownerid)");
+			statement.execute("CREATE INDEX IF NOT EXISTS transactions_owner_date ON " + TRANSACTIONS + " (ownerid, date)");
+			statement.execute("CREATE INDEX IF NOT EXISTS transactions_type ON " + TRANSACTIONS + " (typeid)");
+			tablesCreated = true;
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	private static Map<Long, OwnerType> toMap(Collection<OwnerType> owners) {
+		Map<Long, OwnerType> map = new HashMap<>();
+		for (OwnerType owner : owners) {
+			map.put(owner.getOwnerID(), owner);
+		}
+		return map;
+	}
+
+	private static String placeholders(int size) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(",");
+			}
+			builder.append("?");
+		}
+		return builder.toString();
+	}
+
+	private static int setPage(PreparedStatement statement, Set<Long> ownerIDs, Cursor cursor, int limit) throws SQLException {
+		int index = 1;
+		for (Long ownerID : ownerIDs) {
+			statement.setLong(index++, ownerID);
+		}
+		statement.setLong(index++, cursor.date);
+		statement.setLong(index++, cursor.date);
+		statement.setLong(index++, cursor.id);
+		statement.setLong(index++, cursor.id);
+		statement.setLong(index++, cursor.ownerID);
+		statement.setInt(index++, limit);
+		return index;
+	}
+
+	private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.INTEGER);
+		} else {
+			statement.setInt(index, value);
+		}
+	}
+
+	private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.INTEGER);
+		} else {
+			statement.setLong(index, value);
+		}
+	}
+
+	private static void setDouble(PreparedStatement statement, int index, Double value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.REAL);
+		} else {
+			statement.setDouble(index, value);
+		}
+	}
+
+	private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+		int value = rs.getInt(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Long getLong(ResultSet rs, String column) throws SQLException {
+		long value = rs.getLong(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Double getDouble(ResultSet rs, String column) throws SQLException {
+		double value = rs.getDouble(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	/**
+	 * Paging position (date, ID and owner ID of the last row returned).
+	 * The ID is only unique per owner, so the owner ID is needed to page past rows with the same date and ID.
+	 */
+	public static class Cursor {
+		private long date = Long.MAX_VALUE;
+		private long id = Long.MAX_VALUE;
+		private long ownerID = Long.MAX_VALUE;
+		private boolean done = false;
+
+		private void set(long date, long id, long ownerID) {
+			this.date = date;
+			this.id = id;
+			this.ownerID = ownerID;
+		}
+
+		private void setDone() {
+			done = true;
+		}
+
+		/**
+		 * @return true if all archived rows have been returned
+		 */
+		public boolean isDone() {
+			return done;
+		}
+	}
+}
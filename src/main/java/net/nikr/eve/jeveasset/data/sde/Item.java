@@ -84,6 +84,7 @@ public class Item implements Comparable<Item>, ItemType {
 	private int blueprintTypeID = 0;
 	private final int productQuantity;
 	private final boolean blueprint;
+	private final boolean blueprintTech2;
 	private final boolean formula;
 	private final String version;
 	private final List<ReprocessedMaterial> reprocessedMaterials = new ArrayList<>();
@@ -94,6 +95,7 @@ public class Item implements Comparable<Item>, ItemType {
 	private double priceReprocessed;
 	private double priceReprocessedMax;
 	private double priceManufacturing;
+	private int priceSlot = -1;
 
 	public Item(int typeID) {
 		this(typeID, emptyType(typeID), "", "", -1, -1, -1, -1, -1, "", false, 0, 0, 1, "", "", null);
@@ -120,6 +122,7 @@ public class Item implements Comparable<Item>, ItemType {
 		this.productTypeID = productTypeID;
 		this.productQuantity = productQuantity;
 		this.blueprint = this.category.equals(CATEGORY_BLUEPRINT) && group.toLowerCase().contains("blueprint");
+		this.blueprintTech2 = this.blueprint && name.toLowerCase().contains("ii");
 		this.formula = this.category.equals(CATEGORY_BLUEPRINT) && group.toLowerCase().contains("reaction formulas");
 		this.version = version;
 		if (slot != null) {
@@ -248,6 +251,14 @@ public class Item implements Comparable<Item>, ItemType {
 		return blueprint;
 	}
 
+	public boolean isBlueprintTech1() {
+		return blueprint && !blueprintTech2;
+	}
+
+	public boolean isBlueprintTech2() {
+		return blueprintTech2;
+	}
+
 	public boolean isFormula() {
 		return formula;
 	}
@@ -314,6 +325,18 @@ public class Item implements Comparable<Item>, ItemType {
 		this.priceManufacturing = priceManufacturing;
 	}
 
+	/**
+	 * Index in the resolved price table (-1 if not in the table).
+	 * @return
+	 */
+	public int getPriceSlot() {
+		return priceSlot;
+	}
+
+	public void setPriceSlot(int priceSlot) {
+		this.priceSlot = priceSlot;
+	}
+
 	@Override
 	public String toString() {
 		return name;
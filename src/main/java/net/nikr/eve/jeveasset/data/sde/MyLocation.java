@@ -21,8 +21,8 @@
 
 package net.nikr.eve.jeveasset.data.sde;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.shared.table.containers.Security;
 import net.nikr.eve.jeveasset.i18n.General;
@@ -32,7 +32,7 @@ import uk.me.candle.eve.pricing.options.NamedPriceLocation;
 
 public class MyLocation implements Comparable<MyLocation>, NamedPriceLocation {
 
-	private final static Map<Long, MyLocation> CACHE = new HashMap<>();
+	private final static Map<Long, MyLocation> CACHE = new ConcurrentHashMap<>(); //One instance per locationID
 
 	private final long locationID; //LocationID : long
 	private String location;
@@ -60,18 +60,16 @@ public class MyLocation implements Comparable<MyLocation>, NamedPriceLocation {
 	public static MyLocation create(long locationID) {
 		MyLocation cached = CACHE.get(locationID);
 		if (cached == null) {
-			cached = new MyLocation(locationID);
-			CACHE.put(locationID, cached);
+			cached = CACHE.computeIfAbsent(locationID, MyLocation::new);
 		}
 		return cached;
 	}
 
 	public static MyLocation create(long stationID, String station, long systemID, String system, long constellationID, String constellation, long regionID, String region, String security, boolean citadel, boolean userLocation) {
 		final MyLocation newLocation = new MyLocation(stationID, station, systemID, system, constellationID, constellation, regionID, region, security, citadel, userLocation);
-		MyLocation cached = CACHE.get(newLocation.getLocationID());
+		MyLocation cached = CACHE.putIfAbsent(newLocation.getLocationID(), newLocation);
 		if (cached == null) { //New
 			cached = newLocation;
-			CACHE.put(newLocation.getLocationID(), newLocation);
 		} else { //Update
 			cached.updateLocation(newLocation);
 		}
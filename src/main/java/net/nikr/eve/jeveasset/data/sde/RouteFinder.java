@@ -20,6 +20,8 @@
  */
 package net.nikr.eve.jeveasset.data.sde;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -38,6 +40,7 @@ public class RouteFinder {
 	private final Graph<SolarSystem> graph;
 	private final Map<Long, SolarSystem> systemCache;
 	private final Map<Route, Integer> distance = new HashMap<>();
+	private final Map<Long, long[]> neighbours = new HashMap<>();
 
 	private RouteFinder() {
 		// build the graph.
@@ -58,9 +61,59 @@ public class RouteFinder {
 				to = SolarSystem.create(systemCache, jump.getTo());
 			}
 			graph.addEdge(new Edge<>(from, to));
+			addNeighbour(neighbours, from.getSystemID(), to.getSystemID());
+			addNeighbour(neighbours, to.getSystemID(), from.getSystemID());
 		}
 	}
 
+	static void addNeighbour(Map<Long, long[]> neighbours, long fromSystemID, long toSystemID) {
+		long[] systemIDs = neighbours.get(fromSystemID);
+		if (systemIDs == null) {
+			neighbours.put(fromSystemID, new long[] {toSystemID});
+		} else if (Arrays.binarySearch(systemIDs, toSystemID) < 0) {
+			systemIDs = Arrays.copyOf(systemIDs, systemIDs.length + 1);
+			systemIDs[systemIDs.length - 1] = toSystemID;
+			Arrays.sort(systemIDs);
+			neighbours.put(fromSystemID, systemIDs);
+		}
+	}
+
+	/**
+	 * Jumps to all systems within maxJumps of the system (one breadth-first search).
+	 * Thread safe.
+	 * @param systemID
+	 * @param maxJumps
+	 * @return jumps from the system (include the system itself)
+	 */
+	public SystemJumps getSystemJumps(long systemID, int maxJumps) {
+		return getSystemJumps(neighbours, systemID, maxJumps);
+	}
+
+	static SystemJumps getSystemJumps(Map<Long, long[]> neighbours, long systemID, int maxJumps) {
+		Map<Long, Integer> jumps = new HashMap<>();
+		ArrayDeque<Long> queue = new ArrayDeque<>();
+		jumps.put(systemID, 0);
+		queue.add(systemID);
+		while (!queue.isEmpty()) {
+			long current = queue.poll();
+			int next = jumps.get(current) + 1;
+			if (next > maxJumps) {
+				continue;
+			}
+			long[] systemIDs = neighbours.get(current);
+			if (systemIDs == null) {
+				continue;
+			}
+			for (long neighbour : systemIDs) {
+				if (!jumps.containsKey(neighbour)) {
+					jumps.put(neighbour, next);
+					queue.add(neighbour);
+				}
+			}
+		}
+		return new SystemJumps(jumps);
+	}
+
 	public Integer distanceBetween(Long fromSystemID, Long toSystemID) {
 		if (fromSystemID == null || toSystemID == null) {
 			return null;
@@ -99,6 +152,45 @@ public class RouteFinder {
 		return DISTANCE;
 	}
 
+	/**
+	 * Jumps from one system, stored as sorted primitive arrays.
+	 */
+	public static class SystemJumps {
+
+		private final long[] systemIDs;
+		private final int[] jumps;
+
+		private SystemJumps(Map<Long, Integer> map) {
+			systemIDs = new long[map.size()];
+			int index = 0;
+			for (Long systemID : map.keySet()) {
+				systemIDs[index] = systemID;
+				index++;
+			}
+			Arrays.sort(systemIDs);
+			jumps = new int[systemIDs.length];
+			for (int i = 0; i < systemIDs.length; i++) {
+				jumps[i] = map.get(systemIDs[i]);
+			}
+		}
+
+		/**
+		 * @param systemID
+		 * @return number of jumps or -1, if the system is not within range
+		 */
+		public int getJumps(long systemID) {
+			int index = Arrays.binarySearch(systemIDs, systemID);
+			if (index < 0) {
+				return -1;
+			}
+			return jumps[index];
+		}
+
+		public int size() {
+			return systemIDs.length;
+		}
+	}
+
 	private static class Route {
 
 		private final Long lowSystemID;
@@ -59,6 +59,7 @@ public class Citadel {
 	private boolean citadel;
 	private CitadelSource source;
 	private MyLocation myLocation;
+	private boolean locationUpdated;
 
 	/**
 	 * Empty location
@@ -84,7 +85,6 @@ public class Citadel {
 		this.userLocation = userLocation;
 		this.citadel = citadel;
 		this.source = source;
-		updateLocation();
 	}
 
 	public void update(Citadel citadel) {
@@ -97,7 +97,11 @@ public class Citadel {
 		updateLocation();
 	}
 
-	private void updateLocation() {
+	/**
+	 * Update the shared MyLocation (one instance per locationID).
+	 * Done when the citadel is used, not when it's created.
+	 */
+	void updateLocation() {
 		MyLocation system = StaticData.get().getLocation(systemID);
 		if (!isEmpty() && system != null) { //Location is valid -> return locations
 			if (userLocation) {
@@ -108,6 +112,7 @@ public class Citadel {
 		} else { //Location not valid -> return fallback location
 			myLocation = null;
 		}
+		locationUpdated = true;
 	}
 
 	public long getLocationID() {
@@ -139,12 +144,15 @@ public class Citadel {
 	}
 
 	public MyLocation toLocation() {
+		if (!locationUpdated) {
+			updateLocation();
+		}
 		return myLocation;
 	}
 
 	@Override
 	public String toString() {
-		return myLocation.toString();
+		return toLocation().toString();
 	}
 
 }
@@ -21,38 +21,92 @@
 
 package net.nikr.eve.jeveasset.data.settings;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
 
-
+/**
+ * Copy-on-write citadel cache.
+ * Reads are lock free: changes are made to a copy that is published in one step.
+ */
 public class CitadelSettings {
-	private final Map<Long, Citadel> cache = new HashMap<>();
+	private volatile Map<Long, Citadel> cache = Collections.emptyMap();
 
 	public Citadel get(long location) {
 		return cache.get(location);
 	}
 
+	/**
+	 * Snapshot of all citadels (not changed by later updates).
+	 * @return
+	 */
 	public Iterable<Map.Entry<Long, Citadel>> getCache() {
 		return cache.entrySet();
 	}
 
 	public void put(long locationID, Citadel citadel) {
-		Citadel old = cache.get(locationID);
-		if (old != null && !old.isEmpty() && old.getSource().getPriority() > citadel.getSource().getPriority()) {
-			return;
+		putAll(Collections.singletonMap(locationID, citadel));
+	}
+
+	/**
+	 * Add or update citadels.
+	 * All changes are published at once.
+	 * @param citadels
+	 * @return true if anything changed
+	 */
+	public boolean putAll(Collection<Citadel> citadels) {
+		Map<Long, Citadel> map = new HashMap<>();
+		for (Citadel citadel : citadels) {
+			map.put(citadel.getLocationID(), citadel);
 		}
-		if (old == null) {
-			cache.put(locationID, citadel);
+		return putAll(map);
+	}
+
+	private synchronized boolean putAll(Map<Long, Citadel> citadels) {
+		Map<Long, Citadel> copy = null;
+		for (Map.Entry<Long, Citadel> entry : citadels.entrySet()) {
+			long locationID = entry.getKey();
+			Citadel citadel = entry.getValue();
+			Citadel old = cache.get(locationID);
+			if (old != null && !old.isEmpty() && old.getSource().getPriority() > citadel.getSource().getPriority()) {
+				continue;
+			}
+			if (copy == null) {
+				copy = new HashMap<>(cache);
+			}
+			citadel.updateLocation(); //After the priority check: the MyLocation is shared
+			copy.put(locationID, citadel);
 			ApiIdConverter.addLocation(citadel);
-		} else {
-			old.update(citadel);
 		}
+		if (copy == null) {
+			return false;
+		}
+		cache = Collections.unmodifiableMap(copy);
+		return true;
 	}
 
 	public void remove(long locationID) {
-		cache.remove(locationID);
-		MyLocation.reset(locationID);
+		removeAll(Collections.singleton(locationID));
+	}
+
+	/**
+	 * Remove citadels.
+	 * All changes are published at once.
+	 * @param locationIDs
+	 * @return true if anything changed
+	 */
+	public synchronized boolean removeAll(Collection<Long> locationIDs) {
+		for (long locationID : locationIDs) {
+			MyLocation.reset(locationID);
+		}
+		Map<Long, Citadel> copy = new HashMap<>(cache);
+		if (!copy.keySet().removeAll(locationIDs)) {
+			return false;
+		}
+		cache = Collections.unmodifiableMap(copy);
+		return true;
 	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.nikr.eve.jeveasset.io.local.OwnerNamesReader;
+import net.nikr.eve.jeveasset.io.local.OwnerNamesWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Owner names cache (ownerID to name) with time to live and negative entries (invalid IDs).
+ * Saved to it's own file (not in the settings).
+ * Reads are lock-free.
+ */
+public class OwnerNames {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OwnerNames.class);
+
+	private static final long ONE_DAY = 1000L * 60L * 60L * 24L;
+	private static final int NAME_DAYS = 30; //Names expire after 1-30 days (spread by ID)
+	private static final int INVALID_DAYS = 30; //Invalid IDs are retried after 30 days
+
+	private static final Map<Long, OwnerName> NAMES = new ConcurrentHashMap<>();
+
+	private OwnerNames() { }
+
+	public static void load() {
+		Map<Long, OwnerName> names = OwnerNamesReader.load();
+		if (names != null) {
+			NAMES.putAll(names);
+		}
+		//Import from settings (old versions)
+		if (importSettings(Settings.get().getOwners(), Settings.get().getOwnersNextUpdate())) {
+			save();
+		}
+	}
+
+	/**
+	 * Import names and invalid IDs (next update without a name) from old settings.
+	 * The imported entries are removed from the maps.
+	 * @param owners ownerID to name
+	 * @param ownersNextUpdate ownerID to next update
+	 * @return true if anything was imported
+	 */
+	public static boolean importSettings(Map<Long, String> owners, Map<Long, Date> ownersNextUpdate) {
+		if (owners.isEmpty() && ownersNextUpdate.isEmpty()) {
+			return false;
+		}
+		long now = System.currentTimeMillis();
+		for (Map.Entry<Long, String> entry : owners.entrySet()) {
+			if (!NAMES.containsKey(entry.getKey())) {
+				NAMES.put(entry.getKey(), new OwnerName(entry.getValue(), now));
+			}
+		}
+		int invalid = 0;
+		for (Map.Entry<Long, Date> entry : ownersNextUpdate.entrySet()) {
+			if (owners.containsKey(entry.getKey()) || NAMES.containsKey(entry.getKey()) || entry.getValue() == null) {
+				continue;
+			}
+			//Invalid ID: Retried at the same date as before
+			NAMES.put(entry.getKey(), new OwnerName(null, entry.getValue().getTime() - (ONE_DAY * INVALID_DAYS)));
+			invalid++;
+		}
+		LOG.info("Imported " + owners.size() + " owner names and " + invalid + " invalid IDs from settings");
+		owners.clear();
+		ownersNextUpdate.clear();
+		return true;
+	}
+
+	public static void save() {
+		OwnerNamesWriter.save(NAMES);
+	}
+
+	/**
+	 * @param ownerID
+	 * @return the name or null, if the ID is unknown or invalid
+	 */
+	public static String getName(long ownerID) {
+		OwnerName ownerName = NAMES.get(ownerID);
+		if (ownerName == null) {
+			return null;
+		}
+		return ownerName.getName();
+	}
+
+	/**
+	 * @param ownerID
+	 * @return true if the ID is unknown or expired
+	 */
+	public static boolean isUpdatable(long ownerID) {
+		OwnerName ownerName = NAMES.get(ownerID);
+		return ownerName == null || ownerName.getExpires(ownerID) < System.currentTimeMillis();
+	}
+
+	public static void put(long ownerID, String name) {
+		NAMES.put(ownerID, new OwnerName(name, System.currentTimeMillis()));
+	}
+
+	public static void putInvalid(long ownerID) {
+		NAMES.put(ownerID, new OwnerName(null, System.currentTimeMillis()));
+	}
+
+	public static int size() {
+		return NAMES.size();
+	}
+
+	public static class OwnerName {
+
+		private final String name;
+		private final long resolved;
+
+		public OwnerName(String name, long resolved) {
+			this.name = name;
+			this.resolved = resolved;
+		}
+
+		/**
+		 * @return the name or null, if the ID is invalid
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public long getResolved() {
+			return resolved;
+		}
+
+		public boolean isInvalid() {
+			return name == null;
+		}
+
+		private long getExpires(long ownerID) {
+			if (isInvalid()) {
+				return resolved + (ONE_DAY * INVALID_DAYS);
+			} else {
+				return resolved + (ONE_DAY * (1 + Math.floorMod(ownerID, NAME_DAYS)));
+			}
+		}
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary price data table (typeID, all PriceData values and the update time).
+ * The file is memory-mapped and changed entries are updated in place.
+ *
+ * Layout: header (magic, version, count, settings key) followed by fixed size records:
+ * typeID (int), sellMax, sellAvg, sellMedian, sellPercentile, sellMin,
+ * buyMax, buyAvg, buyMedian, buyPercentile, buyMin (double), updated (long)
+ */
+public class PriceDataCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PriceDataCache.class);
+
+	private static final int MAGIC = 0x4A455044; //JEPD
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int RECORD_SIZE = 4 + (10 * 8) + 8;
+	private static final int INITIAL_CAPACITY = 4096;
+	private static final int COUNT_POSITION = 8;
+	private static final int KEY_POSITION = 12;
+
+	private static String filename = FileUtil.getPathPriceDataCache();
+	private static RandomAccessFile file;
+	private static MappedByteBuffer buffer;
+	private static final Map<Integer, Integer> SLOTS = new HashMap<>();
+	private static int count = 0;
+	private static int capacity = 0;
+	private static long lastUpdated = 0;
+
+	/**
+	 * Change the file (used by tests).
+	 * @param filename
+	 */
+	public static synchronized void setFilename(String filename) {
+		close();
+		PriceDataCache.filename = filename;
+	}
+
+	/**
+	 * Load all price data.
+	 * @return price data or null if the cache is empty
+	 */
+	public static synchronized Map<Integer, PriceData> load() {
+		if (!open()) {
+			return null;
+		}
+		Map<Integer, PriceData> priceData = new HashMap<>();
+		for (Map.Entry<Integer, Integer> entry : SLOTS.entrySet()) {
+			priceData.put(entry.getKey(), read(entry.getValue()));
+		}
+		if (priceData.isEmpty()) {
+			return null;
+		}
+		return priceData;
+	}
+
+	/**
+	 * Get price data for a single type.
+	 * @param typeID
+	 * @return price data or null if not cached
+	 */
+	public static synchronized PriceData get(int typeID) {
+		if (!open()) {
+			return null;
+		}
+		Integer slot = SLOTS.get(typeID);
+		if (slot == null) {
+			return null;
+		}
+		return read(slot);
+	}
+
+	/**
+	 * Get when the price data for a type was last updated.
+	 * @param typeID
+	 * @return update date or null if not cached
+	 */
+	public static synchronized Date getUpdated(int typeID) {
+		if (!open()) {
+			return null;
+		}
+		Integer slot = SLOTS.get(typeID);
+		if (slot == null) {
+			return null;
+		}
+		return new Date(buffer.getLong(position(slot) + RECORD_SIZE - 8));
+	}
+
+	/**
+	 * @return newest update time of all entries (0 if empty)
+	 */
+	public static synchronized long getLastUpdated() {
+		if (!open()) {
+			return 0;
+		}
+		return lastUpdated;
+	}
+
+	/**
+	 * @return key of the price settings the data was updated with (0 if unknown)
+	 */
+	public static synchronized int getKey() {
+		if (!open()) {
+			return 0;
+		}
+		return buffer.getInt(KEY_POSITION);
+	}
+
+	/**
+	 * Set the key of the price settings the data was updated with.
+	 * Data updated with other settings (ex. another source or location) is not fresh.
+	 * @param key
+	 */
+	public static synchronized void setKey(int key) {
+		if (!open()) {
+			return;
+		}
+		buffer.putInt(KEY_POSITION, key);
+		buffer.force();
+	}
+
+	/**
+	 * Write price data. Existing entries are updated in place, new entries are appended.
+	 * @param priceData
+	 * @param updated update time
+	 */
+	public static synchronized void update(Map<Integer, PriceData> priceData, long updated) {
+		if (priceData.isEmpty() || !open()) {
+			return;
+		}
+		try {
+			ensureCapacity(count + priceData.size());
+		} catch (IOException ex) {
+			LOG.error(ex.getMessage(), ex);
+			return;
+		}
+		for (Map.Entry<Integer, PriceData> entry : priceData.entrySet()) {
+			Integer slot = SLOTS.get(entry.getKey());
+			if (slot == null) {
+				slot = count;
+				SLOTS.put(entry.getKey(), slot);
+				count++;
+			}
+			write(slot, entry.getKey(), entry.getValue(), updated);
+		}
+		lastUpdated = Math.max(lastUpdated, updated);
+		buffer.putInt(COUNT_POSITION, count);
+		buffer.force();
+	}
+
+	/**
+	 * Unmap and close the file.
+	 */
+	public static synchronized void close() {
+		buffer = null;
+		SLOTS.clear();
+		count = 0;
+		capacity = 0;
+		lastUpdated = 0;
+		if (file != null) {
+			try {
+				file.close();
+			} catch (IOException ex) {
+				LOG.error(ex.getMessage(), ex);
+			}
+			file = null;
+		}
+	}
+
+	private static boolean open() {
+		if (buffer != null) {
+			return true;
+		}
+		try {
+			File parent = new File(filename).getParentFile();
+			if (parent != null && !parent.exists()) {
+				parent.mkdirs();
+			}
+			file = new RandomAccessFile(filename, "rw");
+			long length = file.length();
+			int fileCapacity = (int) Math.max(0, (length - HEADER_SIZE) / RECORD_SIZE);
+			map(Math.max(INITIAL_CAPACITY, fileCapacity));
+			if (length < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				//New or incompatible file
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putInt(COUNT_POSITION, 0);
+				buffer.putInt(KEY_POSITION, 0);
+				return true;
+			}
+			int stored = buffer.getInt(COUNT_POSITION);
+			if (stored < 0 || stored > fileCapacity) {
+				LOG.warn("Price data cache corrupted: reset");
+				buffer.putInt(COUNT_POSITION, 0);
+				return true;
+			}
+			for (int slot = 0; slot < stored; slot++) {
+				int position = position(slot);
+				SLOTS.put(buffer.getInt(position), slot);
+				lastUpdated = Math.max(lastUpdated, buffer.getLong(position + RECORD_SIZE - 8));
+			}
+			count = stored;
+			return true;
+		} catch (IOException ex) {
+			LOG.error(ex.getMessage(), ex);
+			close();
+			return false;
+		}
+	}
+
+	private static void ensureCapacity(int needed) throws IOException {
+		if (needed > capacity) {
+			map(Math.max(needed, capacity * 2));
+		}
+	}
+
+	private static void map(int newCapacity) throws IOException {
+		//Mapping beyond the end of the file grows the file
+		buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + ((long) newCapacity * RECORD_SIZE));
+		capacity = newCapacity;
+	}
+
+	private static int position(int slot) {
+		return HEADER_SIZE + (slot * RECORD_SIZE);
+	}
+
+	private static PriceData read(int slot) {
+		int position = position(slot) + 4;
+		PriceData priceData = new PriceData();
+		priceData.setSellMax(buffer.getDouble(position));
+		priceData.setSellAvg(buffer.getDouble(position + 8));
+		priceData.setSellMedian(buffer.getDouble(position + 16));
+		priceData.setSellPercentile(buffer.getDouble(position + 24));
+		priceData.setSellMin(buffer.getDouble(position + 32));
+		priceData.setBuyMax(buffer.getDouble(position + 40));
+		priceData.setBuyAvg(buffer.getDouble(position + 48));
+		priceData.setBuyMedian(buffer.getDouble(position + 56));
+		priceData.setBuyPercentile(buffer.getDouble(position + 64));
+		priceData.setBuyMin(buffer.getDouble(position + 72));
+		return priceData;
+	}
+
+	private static void write(int slot, int typeID, PriceData priceData, long updated) {
+		int position = position(slot);
+		buffer.putInt(position, typeID);
+		position = position + 4;
+		buffer.putDouble(position, priceData.getSellMax());
+		buffer.putDouble(position + 8, priceData.getSellAvg());
+		buffer.putDouble(position + 16, priceData.getSellMedian());
+		buffer.putDouble(position + 24, priceData.getSellPercentile());
+		buffer.putDouble(position + 32, priceData.getSellMin());
+		buffer.putDouble(position + 40, priceData.getBuyMax());
+		buffer.putDouble(position + 48, priceData.getBuyAvg());
+		buffer.putDouble(position + 56, priceData.getBuyMedian());
+		buffer.putDouble(position + 64, priceData.getBuyPercentile());
+		buffer.putDouble(position + 72, priceData.getBuyMin());
+		buffer.putLong(position + 80, updated);
+	}
+}
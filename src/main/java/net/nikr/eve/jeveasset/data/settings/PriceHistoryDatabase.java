@@ -27,10 +27,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -51,10 +55,70 @@ public class PriceHistoryDatabase {
 	public static final String DEFAULT_CONNECTION_URL = "jdbc:sqlite:" + FileUtil.getPathPriceHistoryDatabase();
 	public static final String ZKILLBOARD_TABLE = "zkillboard";
 	public static final String ZBLACKLIST_TABLE = "zblacklist";
+	public static final String ZQUEUE_TABLE = "zqueue";
 	public static final String PRICEDATA_TABLE = "pricedata";
+	public static final String COMPACTION_TABLE = "compaction";
+	/**
+	 * Daily rows older than this is merged into the weekly and monthly tables.
+	 */
+	public static final int DAILY_RETENTION_DAYS = 365;
+	private static final int LOOKUP_BATCH_SIZE = 400; //SQLite default limit is 999 parameters
+	private static final String[] ZKILLBOARD_COLUMNS = {"price"};
+	private static final String[] PRICEDATA_COLUMNS = {"sellmax", "sellavg", "sellmedian", "sellpercentile", "sellmin", "buymax", "buypercentile", "buyavg", "buymedian", "buymin"};
 
 	public static final DateFormatThreadSafe DATE = new DateFormatThreadSafe("yyyy-MM-dd", true);
 
+	/**
+	 * Price history resolution.
+	 * Weekly and monthly data is stored in rollup tables (table name + suffix) dated by the first day of the period.
+	 */
+	public static enum Resolution {
+		DAY(null, null),
+		WEEK("_week", "date(%s, '-6 days', 'weekday 1')"), //Monday
+		MONTH("_month", "date(%s, 'start of month')");
+
+		private final String suffix;
+		private final String period;
+
+		private Resolution(String suffix, String period) {
+			this.suffix = suffix;
+			this.period = period;
+		}
+
+		public String getTable(String table) {
+			if (suffix == null) {
+				return table;
+			} else {
+				return table + suffix;
+			}
+		}
+
+		private String getPeriod(String date) {
+			return String.format(period, date);
+		}
+
+		/**
+		 * Get the resolution needed to show the date range.
+		 * @param from null for all
+		 * @param to null for now
+		 * @return
+		 */
+		public static Resolution get(Date from, Date to) {
+			if (from == null) {
+				return DAY; //Daily rows is limited by the retention
+			}
+			long end = to != null ? to.getTime() : System.currentTimeMillis();
+			long days = (end - from.getTime()) / (24L * 60L * 60L * 1000L);
+			if (days <= DAILY_RETENTION_DAYS) {
+				return DAY;
+			} else if (days <= DAILY_RETENTION_DAYS * 3) {
+				return WEEK;
+			} else {
+				return MONTH;
+			}
+		}
+	}
+
 	private static String connectionUrl = DEFAULT_CONNECTION_URL;
 	private static PriceHistoryDatabase instance;
 
@@ -69,15 +133,26 @@ public class PriceHistoryDatabase {
 	}
 
 	private void init() {
-		if (!tableZKillboardExist()) { //New database: Empty
-			createZKillboardTable();
+		for (Resolution resolution : Resolution.values()) {
+			String zKillboardTable = resolution.getTable(ZKILLBOARD_TABLE);
+			if (!tableExist(zKillboardTable)) { //New database: Empty
+				createZKillboardTable(zKillboardTable);
+			}
+			String priceDataTable = resolution.getTable(PRICEDATA_TABLE);
+			if (!tableExist(priceDataTable)) { //New database: Empty
+				createPriceDataTable(priceDataTable);
+			}
 		}
 		if (!tableZBlacklistExist()) { //New database: Empty
 			createZBlacklistTable();
 		}
-		if (!tablePriceDataExist()) { //New database: Empty
-			createPriceDataTable();
+		if (!tableZQueueExist()) { //New database: Empty
+			createZQueueTable();
 		}
+		if (!tableCompactionExist()) { //New database: Empty
+			createCompactionTable();
+		}
+		createIndexes();
 	}
 
 	protected static void setConnectionUrl(String connectionUrl) {
@@ -93,6 +168,15 @@ public class PriceHistoryDatabase {
 
 	public static void load() {
 		getInstance().init();
+		getInstance().compact();
+	}
+
+	/**
+	 * Merge daily rows older than the retention into the weekly and monthly tables.
+	 * Only does work when the retention boundary has moved (about once a month).
+	 */
+	public static void compactData() {
+		getInstance().compact();
 	}
 
 	/**
@@ -109,7 +193,35 @@ public class PriceHistoryDatabase {
 	 * @param data
 	 */
 	public static void setZKillboard(Map<Item, Set<PriceHistoryData>> data) {
-		getInstance().updateZKillboard(data);
+		getInstance().updateZKillboard(data, new HashSet<>());
+	}
+
+	/**
+	 * Add zKillboard data and blacklisted typeIDs in a single transaction.
+	 * The typeIDs are removed from the queue.
+	 * Handles duplicates
+	 * @param data
+	 * @param blacklist
+	 */
+	public static void setZKillboard(Map<Item, Set<PriceHistoryData>> data, Set<Integer> blacklist) {
+		getInstance().updateZKillboard(data, blacklist);
+	}
+
+	/**
+	 * Add typeIDs to the queue (typeIDs to be updated from zKillboard).
+	 * Used to resume interrupted updates.
+	 * @param typeIDs
+	 */
+	public static void addZQueue(Collection<Integer> typeIDs) {
+		getInstance().insertZQueue(typeIDs);
+	}
+
+	/**
+	 * Get queued typeIDs (not updated yet).
+	 * @return
+	 */
+	public static Set<Integer> getZQueue() {
+		return getInstance().selectZQueue();
 	}
 
 	/**
@@ -151,7 +263,17 @@ public class PriceHistoryDatabase {
 	 * @return
 	 */
 	public static Map<Item, Set<PriceHistoryData>> getZKillboard(Set<Integer> typeIDs) {
-		return getInstance().selectZKillboard(typeIDs);
+		return getInstance().selectZKillboard(typeIDs, Resolution.DAY);
+	}
+
+	/**
+	 * Get all data in database.
+	 * @param typeIDs
+	 * @param resolution
+	 * @return
+	 */
+	public static Map<Item, Set<PriceHistoryData>> getZKillboard(Set<Integer> typeIDs, Resolution resolution) {
+		return getInstance().selectZKillboard(typeIDs, resolution);
 	}
 
 	/**
@@ -161,32 +283,89 @@ public class PriceHistoryDatabase {
 	 * @return
 	 */
 	public static Map<Item, Set<PriceHistoryData>> getPriceData(Set<Integer> typeIDs, PriceMode priceMode) {
-		return getInstance().selectPriceData(typeIDs, priceMode);
+		return getInstance().selectPriceData(typeIDs, priceMode, Resolution.DAY);
 	}
 
-	private void updateZKillboard(Map<Item, Set<PriceHistoryData>> map) {
-		Set<PriceHistoryData> insert = new HashSet<>();
-		//Add new data
-		for (Set<PriceHistoryData> set : map.values()) {
-			insert.addAll(set);
+	/**
+	 * Get all data in database.
+	 * @param typeIDs
+	 * @param priceMode
+	 * @param resolution
+	 * @return
+	 */
+	public static Map<Item, Set<PriceHistoryData>> getPriceData(Set<Integer> typeIDs, PriceMode priceMode, Resolution resolution) {
+		return getInstance().selectPriceData(typeIDs, priceMode, resolution);
+	}
+
+	private void updateZKillboard(Map<Item, Set<PriceHistoryData>> map, Set<Integer> blacklist) {
+		if (map.isEmpty() && blacklist.isEmpty()) {
+			return;
+		}
+		Set<Integer> done = new HashSet<>(blacklist);
+		Set<Integer> updated = new HashSet<>();
+		for (Item item : map.keySet()) {
+			done.add(item.getTypeID());
+		}
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement insertData = connection.prepareStatement("INSERT OR IGNORE INTO " + ZKILLBOARD_TABLE + "  (typeid,date,price) VALUES(?,?,?)");
+				PreparedStatement insertBlacklist = connection.prepareStatement("INSERT OR IGNORE INTO " + ZBLACKLIST_TABLE + "  (typeid) VALUES(?)");
+				PreparedStatement deleteQueue = connection.prepareStatement("DELETE FROM " + ZQUEUE_TABLE + " WHERE typeid = ?")) {
+			connection.setAutoCommit(false);
+			String compacted = selectCompacted(connection, ZKILLBOARD_TABLE);
+			int i = 0;
+			for (Set<PriceHistoryData> set : map.values()) {
+				for (PriceHistoryData killboardData : set) {
+					updated.add(killboardData.getTypeID());
+					insertData.setInt(1, killboardData.getTypeID());
+					insertData.setString(2, killboardData.getDateString());
+					insertData.setDouble(3, killboardData.getPrice());
+					insertData.addBatch();
+					i++;
+					if (i % 1000 == 0) {
+						insertData.executeBatch(); // Execute every 1000 items.
+					}
+				}
+			}
+			insertData.executeBatch();
+			for (Integer typeID : blacklist) {
+				insertBlacklist.setInt(1, typeID);
+				insertBlacklist.addBatch();
+			}
+			insertBlacklist.executeBatch();
+			for (Integer typeID : done) {
+				deleteQueue.setInt(1, typeID);
+				deleteQueue.addBatch();
+			}
+			deleteQueue.executeBatch();
+			refreshRollups(connection, ZKILLBOARD_TABLE, ZKILLBOARD_COLUMNS, updated, null, compacted);
+			if (compacted != null) { //Remove daily rows that is already compacted
+				try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + ZKILLBOARD_TABLE + " WHERE typeid = ? AND date < ?")) {
+					for (Integer typeID : updated) {
+						statement.setInt(1, typeID);
+						statement.setString(2, compacted);
+						statement.addBatch();
+					}
+					statement.executeBatch();
+				}
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
 		}
-		//Update database
-		insertZKillboard(insert);
 	}
 
-	private void insertZKillboard(Set<PriceHistoryData> insert) {
+	private void insertZQueue(Collection<Integer> insert) {
 		if (insert == null || insert.isEmpty()) {
 			return;
 		}
-		String sql = "INSERT OR IGNORE INTO " + ZKILLBOARD_TABLE + "  (typeid,date,price) VALUES(?,?,?)";
+		String sql = "INSERT OR IGNORE INTO " + ZQUEUE_TABLE + "  (typeid) VALUES(?)";
 		try (Connection connection = DriverManager.getConnection(connectionUrl);
 				PreparedStatement statement = connection.prepareStatement(sql)) {
 			int i = 0;
 			connection.setAutoCommit(false);
-			for (PriceHistoryData killboardData : insert) {
-				statement.setInt(1, killboardData.getTypeID());
-				statement.setString(2, killboardData.getDateString());
-				statement.setDouble(3, killboardData.getPrice());
+			for (Integer typeID : insert) {
+				statement.setInt(1, typeID);
 				statement.addBatch();
 				i++;
 				if (i % 1000 == 0 || i == insert.size()) {
@@ -274,6 +453,7 @@ public class PriceHistoryDatabase {
 					statement.executeBatch(); // Execute every 1000 items.
 				}
 			}
+			refreshRollups(connection, PRICEDATA_TABLE, PRICEDATA_COLUMNS, insert.keySet(), date, selectCompacted(connection, PRICEDATA_TABLE));
 			connection.commit();
 			connection.setAutoCommit(true);
 		} catch (SQLException ex) {
@@ -281,35 +461,66 @@ public class PriceHistoryDatabase {
 		}
 	}
 
-	private Map<Item, Set<PriceHistoryData>> selectZKillboard(Set<Integer> typeIDs) {
+	private Map<Item, Set<PriceHistoryData>> selectZKillboard(Set<Integer> typeIDs, Resolution resolution) {
 		Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
-		StringBuilder builder = new StringBuilder();
-		boolean first = true;
 		for (int typeID : typeIDs) {
-			if (first) {
-				first = false;
-			} else {
-				builder.append(", ");
+			data.put(ApiIdConverter.getItem(typeID), new TreeSet<>());
+		}
+		try (Connection connection = DriverManager.getConnection(connectionUrl)) {
+			String compacted = selectCompacted(connection, ZKILLBOARD_TABLE);
+			for (List<Integer> batch : getBatches(typeIDs)) {
+				try (PreparedStatement statement = prepareSelect(connection, ZKILLBOARD_TABLE, ZKILLBOARD_COLUMNS, resolution, compacted, batch);
+						ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						int typeID = rs.getInt("typeid");
+						String date = rs.getString("date");
+						double price = rs.getDouble("price");
+						try {
+							Item item = ApiIdConverter.getItem(typeID);
+							data.get(item).add(new PriceHistoryData(typeID, item, date, price));
+						} catch (ParseException ex) {
+							//Ignore
+						}
+					}
+				}
 			}
-			builder.append(typeID);
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
 		}
+		return data;
+	}
 
+	private Map<Item, Set<PriceHistoryData>> selectPriceData(Set<Integer> typeIDs, PriceMode priceMode, Resolution resolution) {
+		Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
 		for (int typeID : typeIDs) {
 			data.put(ApiIdConverter.getItem(typeID), new TreeSet<>());
 		}
-		String sql = "SELECT * FROM " + ZKILLBOARD_TABLE + " WHERE typeid IN (" + builder.toString()  + ")";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				ResultSet rs = statement.executeQuery();) {
-			while (rs.next()) {
-				int typeID = rs.getInt("typeid");
-				String date = rs.getString("date");
-				double price = rs.getDouble("price");
-				try {
-					Item item = ApiIdConverter.getItem(typeID);
-					data.get(item).add(new PriceHistoryData(typeID, item, date, price));
-				} catch (ParseException ex) {
-					//Ignore
+		try (Connection connection = DriverManager.getConnection(connectionUrl)) {
+			String compacted = selectCompacted(connection, PRICEDATA_TABLE);
+			for (List<Integer> batch : getBatches(typeIDs)) {
+				try (PreparedStatement statement = prepareSelect(connection, PRICEDATA_TABLE, PRICEDATA_COLUMNS, resolution, compacted, batch);
+						ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						int typeID = rs.getInt("typeid");
+						String date = rs.getString("date");
+						PriceData priceData = new PriceData();
+						priceData.setSellMax(rs.getDouble("sellmax"));
+						priceData.setSellAvg(rs.getDouble("sellavg"));
+						priceData.setSellMedian(rs.getDouble("sellmedian"));
+						priceData.setSellPercentile(rs.getDouble("sellpercentile"));
+						priceData.setSellMin(rs.getDouble("sellmin"));
+						priceData.setBuyMax(rs.getDouble("buymax"));
+						priceData.setBuyPercentile(rs.getDouble("buypercentile"));
+						priceData.setBuyAvg(rs.getDouble("buyavg"));
+						priceData.setBuyMedian(rs.getDouble("buymedian"));
+						priceData.setBuyMin(rs.getDouble("buymin"));
+						try {
+							Item item = ApiIdConverter.getItem(typeID);
+							data.get(item).add(new PriceHistoryData(typeID, item, date, PriceMode.getDefaultPrice(priceData, priceMode)));
+						} catch (ParseException ex) {
+							//Ignore
+						}
+					}
 				}
 			}
 		} catch (SQLException ex) {
@@ -318,50 +529,201 @@ public class PriceHistoryDatabase {
 		return data;
 	}
 
-	private Map<Item, Set<PriceHistoryData>> selectPriceData(Set<Integer> typeIDs, PriceMode priceMode) {
-		Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
-		StringBuilder builder = new StringBuilder();
-		boolean first = true;
-		for (int typeID : typeIDs) {
-			if (first) {
-				first = false;
-			} else {
-				builder.append(", ");
+	/**
+	 * Select rows for a batch of typeIDs.
+	 * Daily data older than the compaction boundary is taken from the weekly table.
+	 */
+	private PreparedStatement prepareSelect(Connection connection, String table, String[] columns, Resolution resolution, String compacted, List<Integer> typeIDs) throws SQLException {
+		String select = "SELECT typeid,date," + String.join(",", columns) + " FROM ";
+		String placeholders = String.join(",", Collections.nCopies(typeIDs.size(), "?"));
+		boolean union = resolution == Resolution.DAY && compacted != null;
+		String sql = select + resolution.getTable(table) + " WHERE typeid IN (" + placeholders + ")";
+		if (union) {
+			sql = sql + " UNION ALL " + select + Resolution.WEEK.getTable(table) + " WHERE typeid IN (" + placeholders + ") AND date < ?";
+		}
+		PreparedStatement statement = connection.prepareStatement(sql);
+		int index = 1;
+		for (Integer typeID : typeIDs) {
+			statement.setInt(index++, typeID);
+		}
+		if (union) {
+			for (Integer typeID : typeIDs) {
+				statement.setInt(index++, typeID);
 			}
-			builder.append(typeID);
+			statement.setString(index, compacted);
 		}
-		for (int typeID : typeIDs) {
-			data.put(ApiIdConverter.getItem(typeID), new TreeSet<>());
+		return statement;
+	}
+
+	private static List<List<Integer>> getBatches(Collection<Integer> typeIDs) {
+		List<List<Integer>> batches = new ArrayList<>();
+		List<Integer> batch = new ArrayList<>();
+		for (Integer typeID : typeIDs) {
+			batch.add(typeID);
+			if (batch.size() >= LOOKUP_BATCH_SIZE) {
+				batches.add(batch);
+				batch = new ArrayList<>();
+			}
 		}
-		String sql = "SELECT * FROM " + PRICEDATA_TABLE + " WHERE typeid IN (" + builder.toString()  + ")";
-		try (Connection connection = DriverManager.getConnection(connectionUrl);
-				PreparedStatement statement = connection.prepareStatement(sql);
-				ResultSet rs = statement.executeQuery();) {
-			while (rs.next()) {
-				int typeID = rs.getInt("typeid");
-				String date = rs.getString("date");
-				PriceData priceData = new PriceData();
-				priceData.setSellMax(rs.getDouble("sellmax"));
-				priceData.setSellAvg(rs.getDouble("sellavg"));
-				priceData.setSellMedian(rs.getDouble("sellmedian"));
-				priceData.setSellPercentile(rs.getDouble("sellpercentile"));
-				priceData.setSellMin(rs.getDouble("sellmin"));
-				priceData.setBuyMax(rs.getDouble("buymax"));
-				priceData.setBuyPercentile(rs.getDouble("buypercentile"));
-				priceData.setBuyAvg(rs.getDouble("buyavg"));
-				priceData.setBuyMedian(rs.getDouble("buymedian"));
-				priceData.setBuyMin(rs.getDouble("buymin"));
-				try {
-					Item item = ApiIdConverter.getItem(typeID);
-					data.get(item).add(new PriceHistoryData(typeID, item, date, PriceMode.getDefaultPrice(priceData, priceMode)));
-				} catch (ParseException ex) {
-					//Ignore
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		return batches;
+	}
+
+	/**
+	 * Update the weekly and monthly rows from the daily rows.
+	 * Periods before the compaction boundary is only added if missing.
+	 * @param connection
+	 * @param table daily table
+	 * @param columns averaged columns
+	 * @param typeIDs typeIDs to update
+	 * @param from first date to update (the period containing it is updated) or null for all
+	 * @param compacted compaction boundary or null: periods before it are final
+	 * @throws SQLException
+	 */
+	private void refreshRollups(Connection connection, String table, String[] columns, Set<Integer> typeIDs, String from, String compacted) throws SQLException {
+		if (typeIDs.isEmpty()) {
+			return;
+		}
+		for (Resolution resolution : Resolution.values()) {
+			if (resolution == Resolution.DAY) {
+				continue;
+			}
+			try (PreparedStatement statement = connection.prepareStatement(getRollupSql(table, columns, resolution, from != null, true, false))) {
+				for (Integer typeID : typeIDs) {
+					int index = 1;
+					statement.setInt(index++, typeID);
+					if (from != null) {
+						statement.setString(index++, from);
+					}
+					statement.setString(index, compacted != null ? compacted : "");
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+			if (compacted == null || from != null) { //Periods from the date are never before the compaction boundary
+				continue;
+			}
+			try (PreparedStatement statement = connection.prepareStatement(getRollupSql(table, columns, resolution, false, true, true))) {
+				for (Integer typeID : typeIDs) {
+					statement.setInt(1, typeID);
+					statement.setString(2, compacted);
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+		}
+	}
+
+	/**
+	 * Update the weekly and monthly rows, for all typeIDs, from the date and forward.
+	 * @param connection
+	 * @param table daily table
+	 * @param columns averaged columns
+	 * @param from first date to update (the period containing it is updated) or null for all
+	 * @param compacted compaction boundary or null: periods before it are final
+	 * @throws SQLException
+	 */
+	private void refreshRollups(Connection connection, String table, String[] columns, String from, String compacted) throws SQLException {
+		for (Resolution resolution : Resolution.values()) {
+			if (resolution == Resolution.DAY) {
+				continue;
+			}
+			try (PreparedStatement statement = connection.prepareStatement(getRollupSql(table, columns, resolution, from != null, false, false))) {
+				int index = 1;
+				if (from != null) {
+					statement.setString(index++, from);
 				}
+				statement.setString(index, compacted != null ? compacted : "");
+				statement.executeUpdate();
 			}
+		}
+	}
+
+	private String getRollupSql(String table, String[] columns, Resolution resolution, boolean from, boolean typeID, boolean compacted) {
+		StringBuilder builder = new StringBuilder();
+		if (compacted) {
+			builder.append("INSERT OR IGNORE INTO ").append(resolution.getTable(table));
+		} else {
+			builder.append("INSERT OR REPLACE INTO ").append(resolution.getTable(table));
+		}
+		builder.append(" (typeid,date,").append(String.join(",", columns)).append(")");
+		builder.append(" SELECT typeid,").append(resolution.getPeriod("date")).append(" AS period");
+		for (String column : columns) {
+			builder.append(",AVG(").append(column).append(")");
+		}
+		builder.append(" FROM ").append(table);
+		builder.append(" WHERE 1=1");
+		if (typeID) {
+			builder.append(" AND typeid = ?");
+		}
+		if (from) {
+			builder.append(" AND date >= ").append(resolution.getPeriod("?"));
+		}
+		if (compacted) {
+			builder.append(" GROUP BY typeid, period HAVING period < ?");
+		} else {
+			builder.append(" GROUP BY typeid, period HAVING period >= ?");
+		}
+		return builder.toString();
+	}
+
+	private void compact() {
+		compact(ZKILLBOARD_TABLE, ZKILLBOARD_COLUMNS);
+		compact(PRICEDATA_TABLE, PRICEDATA_COLUMNS);
+	}
+
+	/**
+	 * Move the compaction boundary forward.
+	 * The boundary is the Monday before the first day of the month of the retention cutoff:
+	 * That way no week is split and the only split month was complete before it was split.
+	 * @param table daily table
+	 * @param columns averaged columns
+	 */
+	private void compact(String table, String[] columns) {
+		try (Connection connection = DriverManager.getConnection(connectionUrl)) {
+			String compacted = selectCompacted(connection, table);
+			String boundary;
+			try (PreparedStatement statement = connection.prepareStatement("SELECT date('now', ?, 'start of month', '-6 days', 'weekday 1')")) {
+				statement.setString(1, "-" + DAILY_RETENTION_DAYS + " days");
+				try (ResultSet rs = statement.executeQuery()) {
+					rs.next();
+					boundary = rs.getString(1);
+				}
+			}
+			if (boundary == null || (compacted != null && boundary.compareTo(compacted) <= 0)) {
+				return; //Nothing to do
+			}
+			connection.setAutoCommit(false);
+			//Make sure all the rows is in the weekly and monthly tables
+			refreshRollups(connection, table, columns, compacted, compacted);
+			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE date < ?")) {
+				statement.setString(1, boundary);
+				statement.executeUpdate();
+			}
+			try (PreparedStatement statement = connection.prepareStatement("INSERT OR REPLACE INTO " + COMPACTION_TABLE + " (tablename,date) VALUES(?,?)")) {
+				statement.setString(1, table);
+				statement.setString(2, boundary);
+				statement.executeUpdate();
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
 		} catch (SQLException ex) {
 			LOG.error(ex.getMessage(), ex);
 		}
-		return data;
+	}
+
+	private String selectCompacted(Connection connection, String table) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("SELECT date FROM " + COMPACTION_TABLE + " WHERE tablename = ?")) {
+			statement.setString(1, table);
+			try (ResultSet rs = statement.executeQuery()) {
+				if (rs.next()) {
+					return rs.getString("date");
+				}
+			}
+		}
+		return null;
 	}
 
 	public static String getZKillboardDate() {
@@ -390,6 +752,22 @@ public class PriceHistoryDatabase {
 		return typeIDs;
 	}
 
+	private Set<Integer> selectZQueue() {
+		Set<Integer> typeIDs = new HashSet<>();
+		String sql = "SELECT typeid FROM " + ZQUEUE_TABLE;
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				PreparedStatement statement = connection.prepareStatement(sql);
+				ResultSet rs = statement.executeQuery();
+				) {
+			while (rs.next()) {
+				typeIDs.add(rs.getInt("typeid"));
+			}
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+		return typeIDs;
+	}
+
 	private Set<Integer> selectZBlacklist() {
 		Set<Integer> typeIDs = new HashSet<>();
 		String sql = "SELECT typeid FROM " + ZBLACKLIST_TABLE;
@@ -406,8 +784,8 @@ public class PriceHistoryDatabase {
 		return typeIDs;
 	}
 
-	private void createZKillboardTable() {
-		String sql = "CREATE TABLE IF NOT EXISTS " + ZKILLBOARD_TABLE + " (\n"
+	private void createZKillboardTable(String table) {
+		String sql = "CREATE TABLE IF NOT EXISTS " + table + " (\n"
 				+ "	typeid INTEGER,\n"
 				+ "	date TEXT,\n"
 				+ "	price REAL,\n"
@@ -433,8 +811,48 @@ public class PriceHistoryDatabase {
 		}
 	}
 
-	private void createPriceDataTable() {
-		String sql = "CREATE TABLE IF NOT EXISTS " + PRICEDATA_TABLE + " (\n"
+	private void createCompactionTable() {
+		String sql = "CREATE TABLE IF NOT EXISTS " + COMPACTION_TABLE + " (\n"
+				+ "	tablename TEXT PRIMARY KEY,\n"
+				+ "	date TEXT\n"
+				+ ");";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * UNIQUE(typeid, date) is the (typeid, date) index.
+	 * The date indexes is used to find updated typeIDs and by the compaction.
+	 */
+	private void createIndexes() {
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE INDEX IF NOT EXISTS " + ZKILLBOARD_TABLE + "_date ON " + ZKILLBOARD_TABLE + " (date, typeid)");
+			statement.execute("CREATE INDEX IF NOT EXISTS " + PRICEDATA_TABLE + "_date ON " + PRICEDATA_TABLE + " (date, typeid)");
+			statement.execute("CREATE INDEX IF NOT EXISTS " + ZBLACKLIST_TABLE + "_typeid ON " + ZBLACKLIST_TABLE + " (typeid)");
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	private void createZQueueTable() {
+		String sql = "CREATE TABLE IF NOT EXISTS " + ZQUEUE_TABLE + " (\n"
+				+ "	typeid INTEGER PRIMARY KEY\n"
+				+ ");";
+		try (Connection connection = DriverManager.getConnection(connectionUrl);
+				Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		} catch (SQLException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	private void createPriceDataTable(String table) {
+		String sql = "CREATE TABLE IF NOT EXISTS " + table + " (\n"
 				+ "	typeid INTEGER,\n"
 				+ "	date TEXT,\n"
 				+ "	sellmax REAL,\n"
@@ -457,16 +875,16 @@ public class PriceHistoryDatabase {
 		}
 	}
 
-	private boolean tableZKillboardExist() {
-		return tableExist(ZKILLBOARD_TABLE);
-	}
-
 	private boolean tableZBlacklistExist() {
 		return tableExist(ZBLACKLIST_TABLE);
 	}
 
-	private boolean tablePriceDataExist() {
-		return tableExist(PRICEDATA_TABLE);
+	private boolean tableZQueueExist() {
+		return tableExist(ZQUEUE_TABLE);
+	}
+
+	private boolean tableCompactionExist() {
+		return tableExist(COMPACTION_TABLE);
 	}
 
 	public static boolean tableExist(String tableName) {
@@ -66,6 +66,7 @@ import net.nikr.eve.jeveasset.i18n.TabsOrders;
 import net.nikr.eve.jeveasset.i18n.TabsTransaction;
 import net.nikr.eve.jeveasset.io.local.SettingsReader;
 import net.nikr.eve.jeveasset.io.local.SettingsWriter;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -99,7 +100,8 @@ public class Settings {
 		FLAG_SAVE_CONTRACT_HISTORY,
 		FLAG_SAVE_MINING_HISTORY,
 		FLAG_MANUFACTURING_DEFAULT,
-		FLAG_EASY_CHART_COLORS
+		FLAG_EASY_CHART_COLORS,
+		FLAG_WALLET_ARCHIVE
 	}
 
 	public static enum TransactionProfitPrice {
@@ -144,7 +146,7 @@ public class Settings {
 	//Price						Saved by PriceDataGetter.process() in pricedata.dat (on api update)
 	private Map<Integer, PriceData> priceDatas = new HashMap<>(); //TypeID : int
 //API Data
-	//Api id to owner name		Saved by TaskDialog.update() (on API update)
+	//Api id to owner name		Only used to import from old settings (see OwnerNames)
 	private final Map<Long, Date> ownersNextUpdate = new HashMap<>();
 	private final Map<Long, String> owners = new HashMap<>();
 //!! - Values
@@ -201,6 +203,9 @@ public class Settings {
 	private boolean windowAlwaysOnTop = false;
 	//Assets
 	private int maximumPurchaseAge = 0;
+	private int walletArchiveDays = 90;
+	//Price History
+	private int priceHistoryConcurrent = 2;
 	private int transactionProfitMargin = 0;
 	private TransactionProfitPrice transactionProfitPrice = TransactionProfitPrice.LASTEST;
 	//Reprocess price
@@ -294,6 +299,7 @@ public class Settings {
 		flags.put(SettingFlag.FLAG_SAVE_MINING_HISTORY, true);
 		flags.put(SettingFlag.FLAG_MANUFACTURING_DEFAULT, true);
 		flags.put(SettingFlag.FLAG_EASY_CHART_COLORS, false);
+		flags.put(SettingFlag.FLAG_WALLET_ARCHIVE, false);
 		cacheFlags();
 		//Default Filters
 		List<Filter> filter;
@@ -431,6 +437,7 @@ public class Settings {
 
 	public void setPriceDataSettings(final PriceDataSettings priceDataSettings) {
 		this.priceDataSettings = priceDataSettings;
+		ApiIdConverter.invalidatePrices();
 	}
 
 	public Map<Integer, UserItem<Integer, Double>> getUserPrices() {
@@ -439,6 +446,7 @@ public class Settings {
 
 	public void setUserPrices(final Map<Integer, UserItem<Integer, Double>> userPrices) {
 		this.userPrices = userPrices;
+		ApiIdConverter.invalidatePrices();
 	}
 
 	public Map<Long, UserItem<Long, String>> getUserItemNames() {
@@ -451,6 +459,7 @@ public class Settings {
 
 	public void setPriceData(final Map<Integer, PriceData> priceData) {
 		this.priceDatas = priceData;
+		ApiIdConverter.invalidatePrices();
 	}
 
 	public Map<Long, String> getEveNames() {
@@ -701,6 +710,30 @@ public class Settings {
 		this.maximumPurchaseAge = maximumPurchaseAge;
 	}
 
+	/**
+	 * Journal and transactions older than this is moved to the wallet archive (if enabled).
+	 * @return days
+	 */
+	public int getWalletArchiveDays() {
+		return walletArchiveDays;
+	}
+
+	public void setWalletArchiveDays(final int walletArchiveDays) {
+		this.walletArchiveDays = walletArchiveDays;
+	}
+
+	/**
+	 * Max number of zKillboard price history requests in flight at the same time.
+	 * @return
+	 */
+	public int getPriceHistoryConcurrent() {
+		return priceHistoryConcurrent;
+	}
+
+	public void setPriceHistoryConcurrent(final int priceHistoryConcurrent) {
+		this.priceHistoryConcurrent = priceHistoryConcurrent;
+	}
+
 	public TransactionProfitPrice getTransactionProfitPrice() {
 		return transactionProfitPrice;
 	}
@@ -826,6 +859,7 @@ public class Settings {
 
 	public void setBlueprintBasePriceTech1(final boolean blueprintsTech1) {
 		flags.put(SettingFlag.FLAG_BLUEPRINT_BASE_PRICE_TECH_1, blueprintsTech1);
+		ApiIdConverter.invalidatePrices();
 	}
 
 	public boolean isBlueprintBasePriceTech2() {
@@ -834,6 +868,7 @@ public class Settings {
 
 	public void setBlueprintBasePriceTech2(final boolean blueprintsTech2) {
 		flags.put(SettingFlag.FLAG_BLUEPRINT_BASE_PRICE_TECH_2, blueprintsTech2);
+		ApiIdConverter.invalidatePrices();
 	}
 
 	public boolean isManufacturingDefault() {
@@ -842,6 +877,7 @@ public class Settings {
 
 	public void setManufacturingDefault(final boolean manufacturingDefault) {
 		flags.put(SettingFlag.FLAG_MANUFACTURING_DEFAULT, manufacturingDefault);
+		ApiIdConverter.invalidatePrices();
 	}
 
 	public boolean isEasyChartColors() {
@@ -867,6 +903,14 @@ public class Settings {
 	public void setJournalHistory(final boolean journalHistory) {
 		flags.put(SettingFlag.FLAG_JOURNAL_HISTORY, journalHistory);
 	}
+
+	public boolean isWalletArchive() {
+		return flags.get(SettingFlag.FLAG_WALLET_ARCHIVE);
+	}
+
+	public void setWalletArchive(final boolean walletArchive) {
+		flags.put(SettingFlag.FLAG_WALLET_ARCHIVE, walletArchive);
+	}
 	public boolean isMarketOrderHistory() {
 		return flags.get(SettingFlag.FLAG_MARKET_ORDER_HISTORY);
 	}
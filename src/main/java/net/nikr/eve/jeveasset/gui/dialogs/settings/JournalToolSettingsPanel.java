@@ -21,11 +21,16 @@
 
 package net.nikr.eve.jeveasset.gui.dialogs.settings;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import javax.swing.GroupLayout;
 import javax.swing.JCheckBox;
+import javax.swing.JLabel;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.images.Images;
+import net.nikr.eve.jeveasset.gui.shared.DocumentFactory.ValueFlag;
+import net.nikr.eve.jeveasset.gui.shared.components.JIntegerField;
 import net.nikr.eve.jeveasset.gui.shared.components.JLabelMultiline;
 import net.nikr.eve.jeveasset.i18n.DialoguesSettings;
 
@@ -33,6 +38,9 @@ import net.nikr.eve.jeveasset.i18n.DialoguesSettings;
 public class JournalToolSettingsPanel extends JSettingsPanel {
 
 	private final JCheckBox jSaveHistory;
+	private final JCheckBox jArchive;
+	private final JLabel jArchiveDaysLabel;
+	private final JIntegerField jArchiveDays;
 
 	public JournalToolSettingsPanel(final Program program, final SettingsDialog settingsDialog) {
 		super(program, settingsDialog, DialoguesSettings.get().journal(), Images.TOOL_JOURNAL.getIcon());
@@ -41,27 +49,67 @@ public class JournalToolSettingsPanel extends JSettingsPanel {
 
 		JLabelMultiline jSaveHistoryWarning = new JLabelMultiline(DialoguesSettings.get().saveHistoryWarning(), 2);
 
+		jArchive = new JCheckBox(DialoguesSettings.get().journalArchive());
+		jArchive.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				jArchiveDaysLabel.setEnabled(jArchive.isSelected());
+				jArchiveDays.setEnabled(jArchive.isSelected());
+			}
+		});
+
+		jArchiveDaysLabel = new JLabel(DialoguesSettings.get().journalArchiveDays());
+		jArchiveDays = new JIntegerField("90", ValueFlag.POSITIVE_AND_NOT_ZERO);
+
+		JLabelMultiline jArchiveWarning = new JLabelMultiline(DialoguesSettings.get().journalArchiveWarning(), 2);
+
 		layout.setHorizontalGroup(
 			layout.createParallelGroup(GroupLayout.Alignment.LEADING)
 				.addComponent(jSaveHistory)
 				.addComponent(jSaveHistoryWarning, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE, Integer.MAX_VALUE)
+				.addComponent(jArchive)
+				.addGroup(layout.createSequentialGroup()
+					.addComponent(jArchiveDaysLabel)
+					.addComponent(jArchiveDays)
+				)
+				.addComponent(jArchiveWarning, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE, Integer.MAX_VALUE)
 		);
 		layout.setVerticalGroup(
 			layout.createSequentialGroup()
 				.addComponent(jSaveHistory, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jSaveHistoryWarning, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE)
+				.addComponent(jArchive, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addGroup(layout.createParallelGroup(GroupLayout.Alignment.TRAILING)
+					.addComponent(jArchiveDaysLabel, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+					.addComponent(jArchiveDays, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				)
+				.addComponent(jArchiveWarning, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE)
 		);
 	}
 
 	@Override
 	public UpdateType save() {
+		int archiveDays;
+		try {
+			archiveDays = Integer.parseInt(jArchiveDays.getText());
+		} catch (NumberFormatException ex) {
+			archiveDays = Settings.get().getWalletArchiveDays();
+		}
+		boolean update = Settings.get().isWalletArchive() != jArchive.isSelected()
+				|| (jArchive.isSelected() && Settings.get().getWalletArchiveDays() != archiveDays);
 		Settings.get().setJournalHistory(jSaveHistory.isSelected());
-		return UpdateType.NONE;
+		Settings.get().setWalletArchive(jArchive.isSelected());
+		Settings.get().setWalletArchiveDays(archiveDays);
+		return update ? UpdateType.FULL_UPDATE : UpdateType.NONE;
 	}
 
 	@Override
 	public void load() {
 		jSaveHistory.setSelected(Settings.get().isJournalHistory());
+		jArchive.setSelected(Settings.get().isWalletArchive());
+		jArchiveDays.setText(String.valueOf(Settings.get().getWalletArchiveDays()));
+		jArchiveDaysLabel.setEnabled(jArchive.isSelected());
+		jArchiveDays.setEnabled(jArchive.isSelected());
 	}
 
 }
@@ -25,16 +25,22 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import javax.swing.GroupLayout;
 import javax.swing.JButton;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.PriceHistoryDatabase;
+import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.images.Images;
+import net.nikr.eve.jeveasset.gui.shared.DocumentFactory.ValueFlag;
+import net.nikr.eve.jeveasset.gui.shared.components.JIntegerField;
+import net.nikr.eve.jeveasset.io.online.ZkillboardPricesHistoryGetter;
 import net.nikr.eve.jeveasset.i18n.DialoguesSettings;
 
 
 public class PriceHistoryToolSettingsPanel extends JSettingsPanel {
 
 	private final JButton jClearBlacklist;
+	private final JIntegerField jConcurrent;
 
 	public PriceHistoryToolSettingsPanel(final Program program, final SettingsDialog settingsDialog) {
 		super(program, settingsDialog, DialoguesSettings.get().priceHistory(), Images.TOOL_PRICE_HISTORY.getIcon());
@@ -50,22 +56,42 @@ public class PriceHistoryToolSettingsPanel extends JSettingsPanel {
 			}
 		});
 
+		JLabel jConcurrentLabel = new JLabel(DialoguesSettings.get().priceHistoryConcurrent());
+		jConcurrent = new JIntegerField("2", ValueFlag.POSITIVE_AND_NOT_ZERO);
+
 		layout.setHorizontalGroup(
 			layout.createParallelGroup(GroupLayout.Alignment.LEADING)
 				.addComponent(jClearBlacklist)
+				.addGroup(layout.createSequentialGroup()
+					.addComponent(jConcurrentLabel)
+					.addComponent(jConcurrent)
+				)
 		);
 		layout.setVerticalGroup(
 			layout.createSequentialGroup()
 				.addComponent(jClearBlacklist, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addGroup(layout.createParallelGroup(GroupLayout.Alignment.TRAILING)
+					.addComponent(jConcurrentLabel, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+					.addComponent(jConcurrent, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				)
 		);
 	}
 
 	@Override
 	public UpdateType save() {
+		int concurrent;
+		try {
+			concurrent = Integer.parseInt(jConcurrent.getText());
+		} catch (NumberFormatException ex) {
+			concurrent = Settings.get().getPriceHistoryConcurrent();
+		}
+		Settings.get().setPriceHistoryConcurrent(Math.max(1, Math.min(ZkillboardPricesHistoryGetter.MAX_CONCURRENT, concurrent)));
 		return UpdateType.NONE;
 	}
 
 	@Override
-	public void load() { }
+	public void load() {
+		jConcurrent.setText(String.valueOf(Settings.get().getPriceHistoryConcurrent()));
+	}
 
 }
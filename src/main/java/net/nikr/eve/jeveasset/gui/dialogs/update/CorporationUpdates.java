@@ -0,0 +1,217 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.dialogs.update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyContract;
+import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.io.esi.EsiAccountBalanceGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiAssetsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiBlueprintsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiContractsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiDivisionsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiIndustryJobsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiJournalGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiMarketOrdersGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiTransactionsGetter;
+import net.nikr.eve.jeveasset.io.shared.DataConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Corporation endpoints updated in one update cycle.
+ * Several characters of the same corporation have the same corporation data:
+ * the first owner to update an endpoint is the source,
+ * the other owners of the corporation copy the data from it (instead of updating it again).
+ */
+public class CorporationUpdates {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CorporationUpdates.class);
+
+	private static final Set<Class<?>> SHARED = new HashSet<>(Arrays.asList(
+			EsiAccountBalanceGetter.class,
+			EsiAssetsGetter.class,
+			EsiBlueprintsGetter.class,
+			EsiContractsGetter.class,
+			EsiDivisionsGetter.class,
+			EsiIndustryJobsGetter.class,
+			EsiJournalGetter.class,
+			EsiMarketOrdersGetter.class,
+			EsiTransactionsGetter.class
+	));
+
+	/**
+	 * ETags keys of the endpoints (see AbstractEsiGetter.isNotModified(String))
+	 */
+	private static final Map<Class<?>, String> ETAGS = new HashMap<>();
+	static {
+		ETAGS.put(EsiAssetsGetter.class, "assets");
+		ETAGS.put(EsiBlueprintsGetter.class, "blueprints");
+		ETAGS.put(EsiMarketOrdersGetter.class, "marketorders");
+	}
+
+	private final Map<Object, EsiOwner> sources = new HashMap<>();
+	private final Map<Object, ReentrantLock> locks = new HashMap<>();
+
+	/**
+	 * @param esiOwner
+	 * @param getter
+	 * @return true, if the endpoint of the owner is shared with other owners of the corporation
+	 */
+	public static boolean isShared(EsiOwner esiOwner, Class<?> getter) {
+		return esiOwner.isCorporation() && SHARED.contains(getter);
+	}
+
+	/**
+	 * Jobs of the same corporation endpoint must run one at a time.
+	 * Not a monitor: the jobs do network I/O while holding it (and may run on virtual threads).
+	 * @param esiOwner
+	 * @param getter
+	 * @return the lock of the corporation endpoint
+	 */
+	public synchronized ReentrantLock getLock(EsiOwner esiOwner, Class<?> getter) {
+		return locks.computeIfAbsent(corporationKey(esiOwner, getter), key -> new ReentrantLock());
+	}
+
+	/**
+	 * @param esiOwner
+	 * @param getter
+	 * @return the owner that updated the corporation endpoint in this cycle or null
+	 */
+	public synchronized EsiOwner getSource(EsiOwner esiOwner, Class<?> getter) {
+		return sources.get(corporationKey(esiOwner, getter));
+	}
+
+	public synchronized void setSource(EsiOwner esiOwner, Class<?> getter) {
+		sources.putIfAbsent(corporationKey(esiOwner, getter), esiOwner);
+	}
+
+	/**
+	 * Copy the data (and next update) of a corporation endpoint.
+	 * The copied data is converted for the owner (the same way as the getters does, including history).
+	 * The caller must check that the owner have access to the endpoint.
+	 * @param getter
+	 * @param from source owner
+	 * @param to owner to update
+	 */
+	public static void copy(Class<?> getter, EsiOwner from, EsiOwner to) {
+		if (getter == EsiAccountBalanceGetter.class) {
+			to.setAccountBalances(DataConverter.convertRawAccountBalance(new ArrayList<>(from.getAccountBalances()), to));
+			to.setBalanceLastUpdate(from.getBalanceLastUpdate());
+			to.setBalanceNextUpdate(from.getBalanceNextUpdate());
+		} else if (getter == EsiAssetsGetter.class) {
+			List<MyAsset> assets = new ArrayList<>();
+			for (MyAsset asset : from.getAssets()) {
+				MyAsset copy = copyAsset(asset, to, null);
+				if (copy != null) {
+					assets.add(copy);
+				}
+			}
+			to.setAssets(assets);
+			to.setAssetLastUpdate(from.getAssetLastUpdate());
+			to.setAssetNextUpdate(from.getAssetNextUpdate());
+		} else if (getter == EsiBlueprintsGetter.class) {
+			to.setBlueprints(new HashMap<>(from.getBlueprints()));
+			to.setBlueprintsNextUpdate(from.getBlueprintsNextUpdate());
+		} else if (getter == EsiContractsGetter.class) {
+			Map<MyContract, List<MyContractItem>> contracts = new HashMap<>();
+			if (Settings.get().isContractHistory()) {
+				for (Map.Entry<MyContract, List<MyContractItem>> entry : to.getContracts().entrySet()) {
+					if (!from.getContracts().containsKey(entry.getKey())) {
+						entry.getKey().setESI(false);
+						contracts.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+			for (Map.Entry<MyContract, List<MyContractItem>> entry : from.getContracts().entrySet()) {
+				MyContract contract = copyContract(entry.getKey()); //Not shared: the contracts (and items) are updated per owner
+				List<MyContractItem> contractItems = new ArrayList<>();
+				for (MyContractItem contractItem : entry.getValue()) {
+					contractItems.add(new MyContractItem(contractItem, contract, contractItem.getItem()));
+				}
+				contracts.remove(contract); //Remove old value (if present)
+				contracts.put(contract, contractItems);
+			}
+			to.setContracts(contracts);
+			to.setContractsNextUpdate(from.getContractsNextUpdate());
+		} else if (getter == EsiDivisionsGetter.class) {
+			to.setAssetDivisions(new HashMap<>(from.getAssetDivisions()));
+			to.setWalletDivisions(new HashMap<>(from.getWalletDivisions()));
+		} else if (getter == EsiIndustryJobsGetter.class) {
+			to.setIndustryJobs(DataConverter.convertRawIndustryJobs(new ArrayList<>(from.getIndustryJobs()), to));
+			to.setIndustryJobsNextUpdate(from.getIndustryJobsNextUpdate());
+		} else if (getter == EsiJournalGetter.class) {
+			to.setJournal(DataConverter.convertRawJournals(new ArrayList<>(from.getJournal()), to, Settings.get().isJournalHistory()));
+			to.setJournalNextUpdate(from.getJournalNextUpdate());
+		} else if (getter == EsiMarketOrdersGetter.class) {
+			to.setMarketOrders(DataConverter.convertRawMarketOrders(new ArrayList<>(from.getMarketOrders()), to, Settings.get().isMarketOrderHistory()));
+			to.setMarketOrdersNextUpdate(from.getMarketOrdersNextUpdate());
+		} else if (getter == EsiTransactionsGetter.class) {
+			to.setTransactions(DataConverter.convertRawTransactions(new ArrayList<>(from.getTransactions()), to, Settings.get().isTransactionHistory()));
+			to.setTransactionsNextUpdate(from.getTransactionsNextUpdate());
+		} else {
+			return;
+		}
+		String etags = ETAGS.get(getter);
+		if (etags != null) {
+			to.removeEtags(etags); //The data is no longer the data the ETags was saved for
+		}
+		LOG.info(to.getOwnerName() + " " + getter.getSimpleName() + " copied from " + from.getOwnerName());
+	}
+
+	private static MyContract copyContract(MyContract contract) {
+		MyContract copy = DataConverter.toMyContract(contract);
+		copy.setESI(contract.isESI());
+		return copy;
+	}
+
+	private static MyAsset copyAsset(MyAsset asset, EsiOwner to, MyAsset parent) {
+		List<MyAsset> parents = new ArrayList<>();
+		if (parent != null) {
+			parents.addAll(parent.getParents());
+			parents.add(parent);
+		}
+		MyAsset copy = DataConverter.toMyAsset(asset, to, parents);
+		if (copy != null) {
+			for (MyAsset child : asset.getAssets()) {
+				MyAsset childCopy = copyAsset(child, to, copy);
+				if (childCopy != null) {
+					copy.addAsset(childCopy);
+				}
+			}
+		}
+		return copy;
+	}
+
+	private static Object corporationKey(EsiOwner esiOwner, Class<?> getter) {
+		return Arrays.asList(esiOwner.getOwnerID(), getter);
+	}
+}
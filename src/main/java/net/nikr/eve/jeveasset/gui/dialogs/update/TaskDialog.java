@@ -50,12 +50,14 @@ import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow;
 import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow.LockWorkerAdaptor;
 import net.nikr.eve.jeveasset.i18n.DialoguesUpdate;
 import net.nikr.eve.jeveasset.i18n.GuiShared;
+import net.nikr.eve.jeveasset.io.esi.AbstractEsiGetter;
+import net.nikr.eve.jeveasset.io.local.EsiMetricsWriter;
 
 
 public class TaskDialog {
 
 	private enum TaskAction {
-		OK, CANCEL, MINIMIZE
+		OK, CANCEL, MINIMIZE, METRICS
 	}
 
 	private static final int WIDTH_LOG = 280;
@@ -68,6 +70,7 @@ public class TaskDialog {
 	private final JButton jOK;
 	private final JButton jCancel;
 	private final JButton jMinimize;
+	private final JButton jMetrics;
 	private final JTextPane jErrorMessage;
 	private final JLabel jErrorName;
 	private final JScrollPane jErrorScroll;
@@ -97,6 +100,8 @@ public class TaskDialog {
 
 		listener = new ListenerClass();
 
+		AbstractEsiGetter.getMetrics().reset();
+
 		jWindow = new JDialog(program.getMainWindow().getFrame(), JDialog.DEFAULT_MODALITY_TYPE);
 		jWindow.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
 		jWindow.setResizable(false);
@@ -172,6 +177,11 @@ public class TaskDialog {
 		jCancel.setActionCommand(TaskAction.CANCEL.name());
 		jCancel.addActionListener(listener);
 
+		jMetrics = new JButton(DialoguesUpdate.get().metrics());
+		jMetrics.setActionCommand(TaskAction.METRICS.name());
+		jMetrics.addActionListener(listener);
+		jMetrics.setVisible(false);
+
 		jErrorName = new JLabel("");
 		jErrorName.setFont(new Font(jErrorName.getFont().getName(), Font.BOLD, 15));
 		jErrorName.setVisible(false);
@@ -213,6 +223,7 @@ public class TaskDialog {
 		horizontalGroup.addGroup(layout.createSequentialGroup()
 				.addComponent(jOK, Program.getButtonsWidth(), Program.getButtonsWidth(), Program.getButtonsWidth())
 				.addComponent(jCancel, Program.getButtonsWidth(), Program.getButtonsWidth(), Program.getButtonsWidth())
+				.addComponent(jMetrics, Program.getButtonsWidth(), Program.getButtonsWidth(), Program.getButtonsWidth())
 				);
 		layout.setHorizontalGroup(
 			layout.createSequentialGroup()
@@ -246,6 +257,7 @@ public class TaskDialog {
 		verticalGroup.addGroup(layout.createParallelGroup()
 				.addComponent(jOK, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jCancel, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addComponent(jMetrics, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				);
 		layout.setVerticalGroup(
 			layout.createParallelGroup()
@@ -278,6 +290,16 @@ public class TaskDialog {
 		} else { //Done
 			jIcon.setIcon(new UpdateTask.EmptyIcon());
 			jCancel.setEnabled(false);
+			if (!AbstractEsiGetter.getMetrics().isEmpty()) {
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						EsiMetricsWriter.save(AbstractEsiGetter.getMetrics());
+					}
+				}, "ESI Metrics");
+				thread.start();
+				jMetrics.setVisible(true);
+			}
 			if (!auto && progress != null && progress.isVisible()) {
 				progress.setDone(true);
 			} else {
@@ -368,6 +390,7 @@ public class TaskDialog {
 			jOK.removeActionListener(listener);
 			jCancel.removeActionListener(listener);
 			jMinimize.removeActionListener(listener);
+			jMetrics.removeActionListener(listener);
 			updateTask.removePropertyChangeListener(listener);
 			for (UpdateTask updateTaskLoop : updateTasks) {
 				updateTaskLoop.removeErrorListener();
@@ -379,6 +402,26 @@ public class TaskDialog {
 		}
 	}
 
+	private void showMetrics() {
+		boolean shown = jErrorScroll.isVisible() && jErrorName.getText().equals(DialoguesUpdate.get().metrics());
+		for (UpdateTask task : updateTasks) {
+			task.showLog(false);
+		}
+		if (shown) {
+			jErrorMessage.setText("");
+			jErrorName.setText("");
+			jErrorScroll.setVisible(false);
+			jErrorName.setVisible(false);
+		} else {
+			jErrorName.setText(DialoguesUpdate.get().metrics());
+			jErrorMessage.setText(AbstractEsiGetter.getMetrics().getReport());
+			jErrorMessage.setCaretPosition(0);
+			jErrorScroll.setVisible(true);
+			jErrorName.setVisible(true);
+		}
+		jWindow.pack();
+	}
+
 	private void cancelUpdate() {
 		int cancelledIndex = index;
 		index = updateTasks.size();
@@ -437,6 +480,8 @@ public class TaskDialog {
 			} else if (TaskAction.MINIMIZE.name().equals(e.getActionCommand())) {
 				progress.setVisible(true);
 				jWindow.setVisible(false);
+			} else if (TaskAction.METRICS.name().equals(e.getActionCommand())) {
+				showMetrics();
 			}
 		}
 
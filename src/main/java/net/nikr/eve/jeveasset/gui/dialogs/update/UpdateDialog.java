@@ -23,11 +23,15 @@ package net.nikr.eve.jeveasset.gui.dialogs.update;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import javax.swing.ButtonGroup;
 import javax.swing.GroupLayout.Alignment;
 import javax.swing.JButton;
@@ -54,6 +58,7 @@ import net.nikr.eve.jeveasset.gui.shared.components.JDialogCentered;
 import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
 import net.nikr.eve.jeveasset.i18n.DialoguesUpdate;
 import net.nikr.eve.jeveasset.i18n.General;
+import net.nikr.eve.jeveasset.io.esi.AbstractEsiGetter;
 import net.nikr.eve.jeveasset.io.esi.EsiAccountBalanceGetter;
 import net.nikr.eve.jeveasset.io.esi.EsiAssetsGetter;
 import net.nikr.eve.jeveasset.io.esi.EsiBlueprintsGetter;
@@ -610,6 +615,8 @@ public class UpdateDialog extends JDialogCentered {
 			if (UpdateDialogAction.UPDATE.name().equals(e.getActionCommand())) {
 				setVisible(false);
 				List<UpdateTask> updateTasks = new ArrayList<>();
+				//Each getter is started as soon as the data it depend on is updated
+				UpdateScheduler scheduler = new UpdateScheduler();
 				if (jAssets.isSelected()
 						|| jAccountBalance.isSelected()
 						|| jBlueprints.isSelected()
@@ -622,8 +629,9 @@ public class UpdateDialog extends JDialogCentered {
 						|| jTransactions.isSelected()
 						|| jSkills.isSelected()
 						) {
-					updateTasks.add(new Step1Task(program.getProfileManager()));
-					updateTasks.add(new Step2Task(program.getProfileManager(),
+					Step1Task step1Task = new Step1Task(program.getProfileManager(), scheduler);
+					updateTasks.add(step1Task);
+					Step2Task step2Task = new Step2Task(program.getProfileManager(), scheduler,
 							jAssets.isSelected(),
 							jAccountBalance.isSelected(),
 							jBlueprints.isSelected(),
@@ -634,12 +642,13 @@ public class UpdateDialog extends JDialogCentered {
 							jMarketOrders.isSelected(),
 							jMining.isSelected(),
 							jTransactions.isSelected(),
-							jSkills.isSelected()));
-					updateTasks.add(new Step3Task(program.getProfileManager(),
+							jSkills.isSelected());
+					updateTasks.add(step2Task);
+					updateTasks.add(new Step3Task(program.getProfileManager(), scheduler, step2Task,
 							jAssets.isSelected()));
 				}
 				if (jContracts.isSelected()) {
-					updateTasks.add(new Step4Task(program.getProfileManager()));
+					updateTasks.add(new Step4Task(program.getProfileManager(), scheduler));
 				}
 				if (jPriceDataAll.isSelected() || jPriceDataNew.isSelected()) {
 					updateTasks.add(new PriceDataTask(program.getPriceDataGetter(), program.getProfileData(), jPriceDataAll.isSelected()));
@@ -653,7 +662,15 @@ public class UpdateDialog extends JDialogCentered {
 							//Update tracker locations
 							AssetValue.updateData();
 							//Update eventlists
-							program.updateEventLists();
+							Set<Integer> typeIDs = program.getPriceDataGetter().getUpdatedTypeIDs();
+							if (updateTasks.size() == 1 && updateTasks.get(0) instanceof PriceDataTask && typeIDs != null) {
+								//Only price data updated: reprice the affected rows
+								if (!typeIDs.isEmpty()) {
+									program.updateEventLists(typeIDs);
+								}
+							} else {
+								program.updateEventLists();
+							}
 							//Create value tracker point
 							program.createTrackerDataPoint();
 							//Save settings after updating (if we crash later)
@@ -691,13 +708,33 @@ public class UpdateDialog extends JDialogCentered {
 		}
 	}
 
+	//Key of a owner getter job in the UpdateScheduler
+	private static Object key(EsiOwner esiOwner, Class<?> getter) {
+		return Arrays.asList(esiOwner, getter);
+	}
+
 	public static class Step1Task extends UpdateTask {
 
 		private final ProfileManager profileManager;
+		private final UpdateScheduler scheduler;
 
 		public Step1Task(final ProfileManager profileManager) {
+			this(profileManager, new UpdateScheduler());
+		}
+
+		public Step1Task(final ProfileManager profileManager, final UpdateScheduler scheduler) {
 			super(DialoguesUpdate.get().step1());
 			this.profileManager = profileManager;
+			this.scheduler = scheduler;
+			//Esi
+			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
+				scheduler.add(key(esiOwner, EsiOwnerGetter.class), this, new Runnable() {
+					@Override
+					public void run() {
+						new EsiOwnerGetter(Step1Task.this, esiOwner).run();
+					}
+				}, Collections.emptyList());
+			}
 		}
 
 		@Override
@@ -721,29 +758,14 @@ public class UpdateDialog extends JDialogCentered {
 					addError("Migrated EveKit accounts can safely be deleted", "Delete EveApi accounts in the account manager:\r\nOptions > Accounts... > Edit");
 				}
 			}
-			//Esi
-			List<Runnable> updates = new ArrayList<>();
-			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				updates.add(new EsiOwnerGetter(this, esiOwner));
-			}
-			ThreadWoker.start(this, updates);
+			scheduler.waitFor(this);
 		}
 	}
 
 	public static class Step2Task extends UpdateTask {
 
-		private final ProfileManager profileManager;
-		private final boolean assets;
-		private final boolean accountBalance;
-		private final boolean blueprints;
-		private final boolean bookmarks;
-		private final boolean contracts;
-		private final boolean industryJobs;
-		private final boolean journal;
-		private final boolean marketOrders;
-		private final boolean mining;
-		private final boolean transactions;
-		private final boolean skills;
+		private final UpdateScheduler scheduler;
+		private final CorporationUpdates corporationUpdates = new CorporationUpdates();
 
 		public Step2Task(final ProfileManager profileManager,
 								final boolean assets,
@@ -757,123 +779,227 @@ public class UpdateDialog extends JDialogCentered {
 								final boolean mining,
 								final boolean transactions,
 								final boolean skills) {
-			super(DialoguesUpdate.get().step2());
-			this.profileManager = profileManager;
-			this.assets = assets;
-			this.accountBalance = accountBalance;
-			this.blueprints = blueprints;
-			this.bookmarks = bookmarks;
-			this.contracts = contracts;
-			this.industryJobs = industryJobs;
-			this.journal = journal;
-			this.marketOrders = marketOrders;
-			this.mining = mining;
-			this.transactions = transactions;
-			this.skills = skills;
+			this(profileManager, new UpdateScheduler(), assets, accountBalance, blueprints, bookmarks, contracts, industryJobs, journal, marketOrders, mining, transactions, skills);
 		}
 
-		@Override
-		public void update() {
-			setIcon(null);
+		public Step2Task(final ProfileManager profileManager,
+								final UpdateScheduler scheduler,
+								final boolean assets,
+								final boolean accountBalance,
+								final boolean blueprints,
+								final boolean bookmarks,
+								final boolean contracts,
+								final boolean industryJobs,
+								final boolean journal,
+								final boolean marketOrders,
+								final boolean mining,
+								final boolean transactions,
+								final boolean skills) {
+			super(DialoguesUpdate.get().step2());
+			this.scheduler = scheduler;
 			//Esi
-			List<Runnable> updates = new ArrayList<>();
 			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
+				//Everything depend on the owner (roles, corporation, etc.)
+				List<Object> owner = Collections.singletonList(key(esiOwner, EsiOwnerGetter.class));
 				if (accountBalance) {
-					updates.add(new EsiAccountBalanceGetter(this, esiOwner));
+					add(esiOwner, EsiAccountBalanceGetter.class, owner, () -> new EsiAccountBalanceGetter(this, esiOwner));
 				}
 				if (assets) {
-					updates.add(new EsiAssetsGetter(this, esiOwner));
-					if (esiOwner.isCorporation()) {
-						updates.add(new EsiDivisionsGetter(this, esiOwner));
-					}
+					add(esiOwner, EsiAssetsGetter.class, owner, () -> new EsiAssetsGetter(this, esiOwner));
+					add(esiOwner, EsiDivisionsGetter.class, owner, () -> esiOwner.isCorporation() ? new EsiDivisionsGetter(this, esiOwner) : null);
 				}
 				if (industryJobs) {
-					updates.add(new EsiIndustryJobsGetter(this, esiOwner));
+					add(esiOwner, EsiIndustryJobsGetter.class, owner, () -> new EsiIndustryJobsGetter(this, esiOwner));
 				}
 				if (mining) {
-					updates.add(new EsiMiningGetter(this, esiOwner, Settings.get().isMiningHistory()));
+					add(esiOwner, EsiMiningGetter.class, owner, () -> new EsiMiningGetter(this, esiOwner, Settings.get().isMiningHistory()));
 				}
 				if (marketOrders) {
-					updates.add(new EsiMarketOrdersGetter(this, esiOwner, Settings.get().isMarketOrderHistory()));
+					add(esiOwner, EsiMarketOrdersGetter.class, owner, () -> new EsiMarketOrdersGetter(this, esiOwner, Settings.get().isMarketOrderHistory()));
 				}
 				if (journal) {
-					updates.add(new EsiJournalGetter(this, esiOwner, Settings.get().isJournalHistory()));
+					add(esiOwner, EsiJournalGetter.class, owner, () -> new EsiJournalGetter(this, esiOwner, Settings.get().isJournalHistory()));
 				}
 				if (transactions) {
-					updates.add(new EsiTransactionsGetter(this, esiOwner, Settings.get().isTransactionHistory()));
+					add(esiOwner, EsiTransactionsGetter.class, owner, () -> new EsiTransactionsGetter(this, esiOwner, Settings.get().isTransactionHistory()));
 				}
 				if (contracts) {
-					updates.add(new EsiContractsGetter(this, esiOwner, Settings.get().isContractHistory()));
+					add(esiOwner, EsiContractsGetter.class, owner, () -> new EsiContractsGetter(this, esiOwner, Settings.get().isContractHistory()));
 				}
 				if (blueprints) {
-					updates.add(new EsiBlueprintsGetter(this, esiOwner));
+					add(esiOwner, EsiBlueprintsGetter.class, owner, () -> new EsiBlueprintsGetter(this, esiOwner));
 				}
 				if (bookmarks) {
-					updates.add(new EsiBookmarksGetter(this, esiOwner));
+					add(esiOwner, EsiBookmarksGetter.class, owner, () -> new EsiBookmarksGetter(this, esiOwner));
 				}
 				if (skills) {
-					updates.add(new EsiSkillGetter(this, esiOwner));
+					add(esiOwner, EsiSkillGetter.class, owner, () -> new EsiSkillGetter(this, esiOwner));
 				}
 			}
-			ThreadWoker.start(this, updates);
+		}
+
+		/**
+		 * Add owner getter job.
+		 * The owner (corporation, roles, etc.) is updated by Step1: everything about the owner is decided when the job runs.
+		 * @param esiOwner
+		 * @param getter
+		 * @param dependencies
+		 * @param supplier create the getter or null to skip it
+		 */
+		private void add(EsiOwner esiOwner, Class<?> getter, List<Object> dependencies, Supplier<AbstractEsiGetter> supplier) {
+			scheduler.add(key(esiOwner, getter), this, new Runnable() {
+				@Override
+				public void run() {
+					AbstractEsiGetter esiGetter = supplier.get(); //Create the getter when the dependencies are done
+					if (esiGetter == null) {
+						return;
+					}
+					if (!CorporationUpdates.isShared(esiOwner, getter)) {
+						esiGetter.run();
+						return;
+					}
+					//Corporation endpoint: Update once per corporation and copy the data to the other owners
+					ReentrantLock lock = corporationUpdates.getLock(esiOwner, getter);
+					lock.lock(); //One owner of the corporation at the time
+					try {
+						EsiOwner source = corporationUpdates.getSource(esiOwner, getter);
+						if (source != null) {
+							if (esiGetter.canCopy()) {
+								CorporationUpdates.copy(getter, source, esiOwner);
+							} else {
+								esiGetter.run(); //Not allowed: Report it the same way as the getter (no data is updated)
+							}
+							return;
+						}
+						esiGetter.run();
+						if (esiGetter.isUpdated()) {
+							corporationUpdates.setSource(esiOwner, getter);
+						}
+					} finally {
+						lock.unlock();
+					}
+				}
+			}, dependencies);
+		}
+
+		@Override
+		public void update() {
+			setIcon(null);
+			scheduler.waitFor(this);
 		}
 	}
 
 	public static class Step3Task extends UpdateTask {
 
-		private final ProfileManager profileManager;
-		private final boolean assets;
+		private final UpdateScheduler scheduler;
 		private final Map<EsiOwner, Date> assetNextUpdate = new HashMap<>();
 
 		public Step3Task(final ProfileManager profileManager, final boolean assets) {
+			this(profileManager, new UpdateScheduler(), null, assets);
+		}
+
+		public Step3Task(final ProfileManager profileManager, final UpdateScheduler scheduler, final UpdateTask step2Task, final boolean assets) {
 			super(DialoguesUpdate.get().step3());
-			this.profileManager = profileManager;
-			this.assets = assets;
+			this.scheduler = scheduler;
 			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
 				assetNextUpdate.put(esiOwner, esiOwner.getAssetNextUpdate());
 			}
-		}
-
-		@Override
-		public void update() {
-			setIcon(null);
-			List<Runnable> updates = new ArrayList<>();
 			//Locations
 			if (assets) {
 				//Esi
 				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiLocationsGetter(this, esiOwner));
-					updates.add(new EsiShipGetter(this, esiOwner, assetNextUpdate.getOrDefault(esiOwner, Settings.getNow())));
-					updates.add(new EsiPlanetaryInteractionGetter(this, esiOwner, assetNextUpdate.getOrDefault(esiOwner, Settings.getNow())));
+					//Depend on the owner assets
+					List<Object> ownerAssets = Arrays.asList(key(esiOwner, EsiOwnerGetter.class), key(esiOwner, EsiAssetsGetter.class));
+					scheduler.add(key(esiOwner, EsiLocationsGetter.class), this, new Runnable() {
+						@Override
+						public void run() {
+							new EsiLocationsGetter(Step3Task.this, esiOwner).run();
+						}
+					}, ownerAssets);
+					scheduler.add(key(esiOwner, EsiShipGetter.class), this, new Runnable() {
+						@Override
+						public void run() {
+							new EsiShipGetter(Step3Task.this, esiOwner, assetNextUpdate.getOrDefault(esiOwner, Settings.getNow())).run();
+						}
+					}, ownerAssets);
+					scheduler.add(key(esiOwner, EsiPlanetaryInteractionGetter.class), this, new Runnable() {
+						@Override
+						public void run() {
+							new EsiPlanetaryInteractionGetter(Step3Task.this, esiOwner, assetNextUpdate.getOrDefault(esiOwner, Settings.getNow())).run();
+						}
+					}, ownerAssets);
 				}
 			}
-			updates.add(new EsiFactionWarfareGetter(this));
+			scheduler.add(EsiFactionWarfareGetter.class, this, new Runnable() {
+				@Override
+				public void run() {
+					new EsiFactionWarfareGetter(Step3Task.this).run();
+				}
+			}, Collections.emptyList());
 			//char/corp/alliance IDs to names (ESI)
-			updates.add(new EsiNameGetter(this, profileManager.getOwnerTypes()));
-			ThreadWoker.start(this, updates);
+			//Depend on all owner data
+			List<Object> ownerData = new ArrayList<>();
+			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
+				ownerData.add(key(esiOwner, EsiOwnerGetter.class));
+			}
+			if (step2Task != null) {
+				ownerData.addAll(scheduler.getKeys(step2Task));
+			}
+			scheduler.add(EsiNameGetter.class, this, new Runnable() {
+				@Override
+				public void run() {
+					new EsiNameGetter(Step3Task.this, profileManager.getOwnerTypes()).run();
+				}
+			}, ownerData);
+		}
+
+		@Override
+		public void update() {
+			setIcon(null);
+			scheduler.waitFor(this);
 		}
 	}
 
 	public static class Step4Task extends UpdateTask {
 
-		private final ProfileManager profileManager;
+		private final UpdateScheduler scheduler;
 
 		public Step4Task(final ProfileManager profileManager) {
-			super(DialoguesUpdate.get().step4());
-			this.profileManager = profileManager;
+			this(profileManager, new UpdateScheduler());
 		}
 
-		@Override
-		public void update() {
-			setIcon(null);
+		public Step4Task(final ProfileManager profileManager, final UpdateScheduler scheduler) {
+			super(DialoguesUpdate.get().step4());
+			this.scheduler = scheduler;
 			//Contract Items
 			//Esi
-			List<Runnable> updates = new ArrayList<>();
-			EsiContractItemsGetter.reset();
+			scheduler.add(EsiContractItemsGetter.class, this, new Runnable() {
+				@Override
+				public void run() {
+					EsiContractItemsGetter.reset(); //When the update starts: not when the task is created
+				}
+			}, Collections.emptyList());
+			//Contract items are shared between owners: Depend on all owners contracts
+			List<Object> contracts = new ArrayList<>();
+			contracts.add(EsiContractItemsGetter.class);
 			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				updates.add(new EsiContractItemsGetter(this, esiOwner, profileManager.getEsiOwners()));
+				contracts.add(key(esiOwner, EsiOwnerGetter.class));
+				contracts.add(key(esiOwner, EsiContractsGetter.class));
+			}
+			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
+				scheduler.add(key(esiOwner, EsiContractItemsGetter.class), this, new Runnable() {
+					@Override
+					public void run() {
+						new EsiContractItemsGetter(Step4Task.this, esiOwner, profileManager.getEsiOwners()).run();
+					}
+				}, contracts);
 			}
-			ThreadWoker.start(this, updates, false);
+		}
+
+		@Override
+		public void update() {
+			setIcon(null);
+			scheduler.waitFor(this);
 		}
 	}
 
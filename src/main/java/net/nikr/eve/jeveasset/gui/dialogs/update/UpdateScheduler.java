@@ -0,0 +1,232 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.dialogs.update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs update jobs as soon as the jobs they depend on are done.
+ * Jobs belongs to an UpdateTask: UpdateTask.update() should call waitFor(this),
+ * that starts the scheduler (if needed) and waits for the jobs of that task.
+ * Jobs of later tasks may run (and complete) before the task is shown as started.
+ */
+public class UpdateScheduler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(UpdateScheduler.class);
+
+	private static final int THREADS = 100;
+
+	private final Map<Object, Job> jobs = new LinkedHashMap<>();
+	private ExecutorService threadPool = null;
+	private boolean cancelled = false;
+
+	/**
+	 * Add job.
+	 * @param key unique key used by other jobs to depend on this job
+	 * @param updateTask the task the job belongs to
+	 * @param runnable the job
+	 * @param dependencies keys of jobs that must be done before this job is started (unknown keys are ignored)
+	 */
+	public synchronized void add(Object key, UpdateTask updateTask, Runnable runnable, Collection<?> dependencies) {
+		Job job = new Job(key, updateTask, runnable);
+		for (Object dependencyKey : new LinkedHashSet<>(dependencies)) {
+			Job dependency = jobs.get(dependencyKey);
+			if (dependency != null && !dependency.done) {
+				dependency.dependents.add(job);
+				job.remaining++;
+			}
+		}
+		jobs.put(key, job);
+		if (threadPool != null && job.remaining == 0) {
+			submit(job);
+		}
+	}
+
+	/**
+	 * @param updateTask
+	 * @return keys of all jobs of the task
+	 */
+	public synchronized List<Object> getKeys(UpdateTask updateTask) {
+		List<Object> keys = new ArrayList<>();
+		for (Job job : jobs.values()) {
+			if (job.updateTask == updateTask) {
+				keys.add(job.key);
+			}
+		}
+		return keys;
+	}
+
+	public synchronized boolean contains(Object key) {
+		return jobs.containsKey(key);
+	}
+
+	/**
+	 * Start all jobs without dependencies.
+	 */
+	public synchronized void start() {
+		if (threadPool != null) {
+			return; //Already started
+		}
+		LOG.info("Starting " + jobs.size() + " update jobs");
+		threadPool = ThreadWoker.newExecutor(THREADS);
+		for (Job job : jobs.values()) {
+			if (job.remaining == 0) {
+				submit(job);
+			}
+		}
+		shutdownIfDone();
+	}
+
+	/**
+	 * Wait for all jobs of the task to be done.
+	 * The task progress is updated while waiting.
+	 * If the task is cancelled, all jobs (and tasks) are cancelled.
+	 * @param updateTask
+	 */
+	public void waitFor(UpdateTask updateTask) {
+		start();
+		synchronized (this) {
+			try {
+				while (true) {
+					if (cancelled) {
+						return;
+					}
+					if (updateTask.isCancelled()) {
+						cancel();
+						return;
+					}
+					int total = 0;
+					int done = 0;
+					for (Job job : jobs.values()) {
+						if (job.updateTask == updateTask) {
+							total++;
+							if (job.done) {
+								done++;
+							}
+						}
+					}
+					if (done >= total) {
+						return;
+					}
+					updateTask.setTaskProgress(total, done, 0, 100);
+					wait(500);
+				}
+			} catch (InterruptedException ex) {
+				cancel();
+			}
+		}
+	}
+
+	/**
+	 * Cancel all jobs and tasks.
+	 */
+	public synchronized void cancel() {
+		if (cancelled) {
+			return;
+		}
+		cancelled = true;
+		Set<UpdateTask> updateTasks = new LinkedHashSet<>();
+		for (Job job : jobs.values()) {
+			if (job.future != null) {
+				job.future.cancel(true);
+			}
+			updateTasks.add(job.updateTask);
+		}
+		for (UpdateTask updateTask : updateTasks) {
+			if (!updateTask.isDone()) {
+				updateTask.cancel(true); //Stop the getters (checkCancelled())
+			}
+		}
+		if (threadPool != null) {
+			threadPool.shutdownNow();
+		}
+		notifyAll();
+	}
+
+	private void submit(Job job) {
+		if (cancelled) {
+			return;
+		}
+		if (threadPool.isShutdown()) { //Job added after all jobs was done
+			threadPool = ThreadWoker.newExecutor(THREADS);
+		}
+		job.future = threadPool.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					job.runnable.run();
+				} finally {
+					done(job);
+				}
+			}
+		});
+	}
+
+	private synchronized void done(Job job) {
+		job.done = true;
+		if (!cancelled) {
+			for (Job dependent : job.dependents) {
+				dependent.remaining--;
+				if (dependent.remaining == 0) {
+					submit(dependent);
+				}
+			}
+		}
+		shutdownIfDone();
+		notifyAll();
+	}
+
+	private void shutdownIfDone() {
+		for (Job job : jobs.values()) {
+			if (!job.done) {
+				return;
+			}
+		}
+		threadPool.shutdown();
+	}
+
+	private static class Job {
+		private final Object key;
+		private final UpdateTask updateTask;
+		private final Runnable runnable;
+		private final List<Job> dependents = new ArrayList<>();
+		private int remaining = 0;
+		private boolean done = false;
+		private Future<?> future;
+
+		public Job(Object key, UpdateTask updateTask, Runnable runnable) {
+			this.key = key;
+			this.updateTask = updateTask;
+			this.runnable = runnable;
+		}
+	}
+}
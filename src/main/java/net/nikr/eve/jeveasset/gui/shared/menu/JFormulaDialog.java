@@ -29,10 +29,8 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import javax.swing.GroupLayout;
@@ -54,6 +52,7 @@ import net.nikr.eve.jeveasset.gui.shared.components.JDialogCentered;
 import net.nikr.eve.jeveasset.gui.shared.components.JDropDownButton;
 import net.nikr.eve.jeveasset.gui.shared.table.ColumnManager;
 import net.nikr.eve.jeveasset.gui.shared.table.EnumTableColumn;
+import net.nikr.eve.jeveasset.gui.shared.table.FormulaCache;
 import net.nikr.eve.jeveasset.gui.shared.table.containers.NumberValue;
 import net.nikr.eve.jeveasset.i18n.GuiShared;
 
@@ -392,7 +391,7 @@ public class JFormulaDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extends J
 	public static class Formula {
 		private final String columnName;
 		private final Expression expression;
-		private final Map<Object, Object> values = new HashMap<>();
+		private final FormulaCache values = new FormulaCache();
 		private final Collection<String> usedVariables;
 		private final Collection<String> variableColumns = new ArrayList<>();
 		private final boolean isBoolean;
@@ -426,7 +425,7 @@ public class JFormulaDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extends J
 			return index;
 		}
 
-		public Map<Object, Object> getValues() {
+		public FormulaCache getValues() {
 			return values;
 		}
 
@@ -28,6 +28,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -394,65 +395,54 @@ public class JMenuInfo {
 	}
 
 	static MaterialTotal calcMaterialTotal(final List<Material> selectedList, final List<Material> all) {
-		//Remove none-Material classes
-		List<Material> selected = new ArrayList<>(selectedList);
-		for (int i = 0; i < selected.size(); i++) {
-			Object object = selected.get(i);
+		//Index selection (none-Material classes are ignored)
+		boolean selectedAll = false;
+		Set<String> selectedGroups = new HashSet<>();
+		Set<String> selectedNames = new HashSet<>();
+		Set<String> selectedHeaders = new HashSet<>();
+		Set<List<String>> selectedHeaderGroups = new HashSet<>();
+		Set<List<String>> selectedHeaderNames = new HashSet<>();
+		for (Object object : selectedList) {
 			if (!(object instanceof Material)) {
-				selected.remove(i);
-				i--;
+				continue;
+			}
+			Material selectedMaterial = (Material) object;
+			switch (selectedMaterial.getType()) {
+				case SUMMARY_ALL: //Equals anything/all
+					selectedAll = true;
+					break;
+				case SUMMARY_TOTAL: //Equals group
+					selectedGroups.add(selectedMaterial.getName());
+					break;
+				case SUMMARY: //Equals name
+					selectedNames.add(selectedMaterial.getName());
+					break;
+				case LOCATIONS_ALL: //Equals location
+					selectedHeaders.add(selectedMaterial.getHeader());
+					break;
+				case LOCATIONS_TOTAL: //Equals location and group
+					selectedHeaderGroups.add(Arrays.asList(selectedMaterial.getHeader(), selectedMaterial.getName()));
+					break;
+				case LOCATIONS: //Equals location and name
+					selectedHeaderNames.add(Arrays.asList(selectedMaterial.getHeader(), selectedMaterial.getName()));
+					break;
 			}
 		}
 		long totalCount = 0;
 		double totalValue = 0;
 		double averageValue = 0;
-		boolean add;
 		for (Material material : all) {
-			if (material.getType() == MaterialType.LOCATIONS) {
-				add = false;
-				for (Material selectedMaterial : selected) {
-					//Equals anything/all
-					if (selectedMaterial.getType() == MaterialType.SUMMARY_ALL) {
-						add = true;
-						break;
-					}
-					//Equals group
-					if (selectedMaterial.getType() == MaterialType.SUMMARY_TOTAL
-							&& material.getGroup().equals(selectedMaterial.getName())) {
-						add = true;
-						break;
-					}
-					//Equals name
-					if (selectedMaterial.getType() == MaterialType.SUMMARY
-							&& material.getName().equals(selectedMaterial.getName())) {
-						add = true;
-						break;
-					}
-					//Equals location
-					if (selectedMaterial.getType() == MaterialType.LOCATIONS_ALL
-							&& material.getHeader().equals(selectedMaterial.getHeader())) {
-						add = true;
-						break;
-					}
-					//Equals location and group
-					if (selectedMaterial.getType() == MaterialType.LOCATIONS_TOTAL
-							&& material.getHeader().equals(selectedMaterial.getHeader())
-							&& material.getGroup().equals(selectedMaterial.getName())) {
-						add = true;
-						break;
-					}
-					//Equals location and name
-					if (selectedMaterial.getType() == MaterialType.LOCATIONS
-							&& material.getHeader().equals(selectedMaterial.getHeader())
-							&& material.getName().equals(selectedMaterial.getName())) {
-						add = true;
-						break;
-					}
-				}
-				if (add) {
-					totalCount = totalCount + material.getCount();
-					totalValue = totalValue + material.getValue();
-				}
+			if (material.getType() != MaterialType.LOCATIONS) {
+				continue;
+			}
+			if (selectedAll
+					|| selectedGroups.contains(material.getGroup())
+					|| selectedNames.contains(material.getName())
+					|| selectedHeaders.contains(material.getHeader())
+					|| (!selectedHeaderGroups.isEmpty() && selectedHeaderGroups.contains(Arrays.asList(material.getHeader(), material.getGroup())))
+					|| (!selectedHeaderNames.isEmpty() && selectedHeaderNames.contains(Arrays.asList(material.getHeader(), material.getName())))) {
+				totalCount = totalCount + material.getCount();
+				totalValue = totalValue + material.getValue();
 			}
 		}
 		if (totalCount > 0 && totalValue > 0) {
@@ -77,7 +77,7 @@ public class ColumnManager<T extends Enum<T> & EnumTableColumn<Q>, Q> implements
 			loaded.add(toolName);
 			load();
 		}
-		//Reset cached Formula values on list changes
+		//Evict deleted rows and invalidate updated rows in the Formula cache on list changes
 		eventList.addListEventListener(new ListEventListener<Q>() {
 			@Override @SuppressWarnings("deprecation")
 			public void listChanged(ListEvent<Q> listChanges) {
@@ -86,28 +86,35 @@ public class ColumnManager<T extends Enum<T> & EnumTableColumn<Q>, Q> implements
 				}
 				try {
 					eventList.getReadWriteLock().readLock().lock();
-					List<Q> reset = new ArrayList<>();
+					List<Q> deleted = new ArrayList<>();
+					List<Q> updated = new ArrayList<>();
 					//For each list event
 					while(listChanges.next()) {
 						switch (listChanges.getType()) {
 							case ListEvent.DELETE:
 								Q q = listChanges.getOldValue();
 								if (q != null) {
-									reset.add(q);
+									deleted.add(q);
 								}
 								break;
 							case ListEvent.UPDATE:
 								int index = listChanges.getIndex();
 								if (index >= 0 && index < eventList.size()) {
-									reset.add(eventList.get(index));
+									updated.add(eventList.get(index));
 								}
 								break;
 						}
 					}
-					//Remove changed values
-					if (!reset.isEmpty()) {
+					//Remove deleted values
+					if (!deleted.isEmpty()) {
 						for (Formula formula : formulaColumns.keySet()) {
-							formula.getValues().keySet().removeAll(reset);
+							formula.getValues().remove(deleted);
+						}
+					}
+					//Invalidate updated values (only re-evaluated if the referenced columns changed)
+					if (!updated.isEmpty()) {
+						for (Formula formula : formulaColumns.keySet()) {
+							formula.getValues().invalidate(updated);
 						}
 					}
 				} finally {
@@ -336,7 +343,7 @@ public class ColumnManager<T extends Enum<T> & EnumTableColumn<Q>, Q> implements
 
 	public void resetFormulaData() {
 		for (Formula formula : formulaColumns.keySet()) {
-			formula.getValues().clear(); //Reset calculations
+			formula.getValues().invalidate(); //Reset calculations (re-used if the referenced columns are unchanged)
 		}
 	}
 
@@ -384,13 +384,19 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 		Object object = column.getColumnValue(e);
 		if (object instanceof Formula) {
 			Formula formula = (Formula) object;
-			Object value = formula.getValues().get(e);
-			if (value == null) { //eval
-				value = eval(formula, e);
-				if (value == null) {
-					value = NULL_PLACEHOLDER;
+			FormulaCache cache = formula.getValues();
+			Object value = cache.get(e);
+			if (value == null) {
+				populateVariableColumns(formula);
+				double[] inputs = getInputs(formula, e);
+				value = cache.revalidate(e, inputs); //Re-use if the referenced columns are unchanged
+				if (value == null) { //eval
+					value = eval(formula, e);
+					if (value == null) {
+						value = NULL_PLACEHOLDER;
+					}
+					cache.put(e, value, inputs);
 				}
-				formula.getValues().put(e, value);
 			}
 			if (value.equals(NULL_PLACEHOLDER)) { //Handle NULL_PLACEHOLDER
 				return null;
@@ -401,9 +407,7 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 		}
 	}
 
-	private Object eval(Formula formula, Q e) {
-		final Expression expression = formula.getExpression();
-		//Populate variableColumns
+	private void populateVariableColumns(Formula formula) {
 		if (formula.getVariableColumns().isEmpty()) {
 			for (T t : enumClass.getEnumConstants()) {
 				if (formula.getUsedVariables().contains(JFormulaDialog.getHardName(t))) {
@@ -411,6 +415,43 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 				}
 			}
 		}
+	}
+
+	/**
+	 * Values of the columns used by the formula.
+	 * Used to detect if a cached value is still valid.
+	 * @param formula
+	 * @param e
+	 * @return the input values or null, if the inputs can not be tracked
+	 */
+	private double[] getInputs(Formula formula, Q e) {
+		if (e instanceof StockpileTotal) {
+			return null; //Depends on all items in the stockpile
+		}
+		double[] inputs = new double[formula.getVariableColumns().size()];
+		int i = 0;
+		for (T t : enumClass.getEnumConstants()) {
+			if (!formula.getVariableColumns().contains(t.name())) {
+				continue;
+			}
+			if (i >= inputs.length) {
+				break;
+			}
+			Number number = getValue(t, e);
+			if (number != null) {
+				inputs[i] = number.doubleValue();
+			} else {
+				inputs[i] = Double.NaN;
+			}
+			i++;
+		}
+		return inputs;
+	}
+
+	private Object eval(Formula formula, Q e) {
+		final Expression expression = formula.getExpression();
+		//Populate variableColumns
+		populateVariableColumns(formula);
 		//Set variables
 		if (e instanceof StockpileTotal) {
 			if (formula.isBoolean()) {
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import ca.odell.glazedlists.EventList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.SwingUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects EventList changes from any thread and applies them in a single EDT event.
+ * Changes are queued and the caller return immediately,
+ * use the returned future if you must wait for the lists to be updated.
+ * Multiple changes to the same EventList are coalesced into one.
+ * EventLists are updated in the order they were first queued in the batch, not in a fixed order.
+ * Only one write lock is held at a time (locks are never nested), so the order can not deadlock.
+ */
+public class EventListDispatcher {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EventListDispatcher.class);
+
+	private static final int MAX_UPDATE_SIZE = 2;
+
+	private static final Object LOCK = new Object();
+	private static List<Pending<?>> pendingList = new ArrayList<>();
+	private static Map<EventList<?>, Pending<?>> pendingMap = new IdentityHashMap<>();
+	private static CompletableFuture<Void> future = new CompletableFuture<>();
+	private static boolean scheduled = false;
+	//Metrics
+	private static long batches = 0;
+	private static long totalNanos = 0;
+	private static long lastNanos = 0;
+	private static int lastSize = 0;
+
+	private EventListDispatcher() { }
+
+	/**
+	 * Replace the content of the EventList.
+	 * @param <T>
+	 * @param eventList
+	 * @param data new content (must not be modified after this call)
+	 * @return future completed when the EventList have been updated
+	 */
+	public static <T> CompletableFuture<Void> replace(EventList<T> eventList, Collection<? extends T> data) {
+		synchronized (LOCK) {
+			Pending<T> pending = getPending(eventList);
+			pending.replace = new ArrayList<>(data);
+			pending.refresh = false;
+			pending.updated.clear();
+		}
+		return schedule();
+	}
+
+	/**
+	 * Re-add all items to the EventList (update all rows).
+	 * @param <T>
+	 * @param eventList
+	 * @return future completed when the EventList have been updated
+	 */
+	public static <T> CompletableFuture<Void> refresh(EventList<T> eventList) {
+		synchronized (LOCK) {
+			Pending<T> pending = getPending(eventList);
+			if (pending.replace == null) {
+				pending.refresh = true;
+				pending.updated.clear();
+			}
+		}
+		return schedule();
+	}
+
+	/**
+	 * Re-add the items to the EventList (update rows).
+	 * @param <T>
+	 * @param eventList
+	 * @param found items to update
+	 * @return future completed when the EventList have been updated
+	 */
+	public static <T> CompletableFuture<Void> update(EventList<T> eventList, Collection<? extends T> found) {
+		if (found.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		synchronized (LOCK) {
+			Pending<T> pending = getPending(eventList);
+			if (pending.replace == null && !pending.refresh) {
+				pending.updated.addAll(found);
+				if (pending.updated.size() > MAX_UPDATE_SIZE) {
+					pending.refresh = true;
+					pending.updated.clear();
+				}
+			}
+		}
+		return schedule();
+	}
+
+	/**
+	 * @return future completed when all currently queued changes have been applied
+	 */
+	public static CompletableFuture<Void> getFuture() {
+		synchronized (LOCK) {
+			if (pendingList.isEmpty()) {
+				return CompletableFuture.completedFuture(null);
+			}
+			return future;
+		}
+	}
+
+	public static long getBatches() {
+		synchronized (LOCK) {
+			return batches;
+		}
+	}
+
+	/**
+	 * @return Total EDT time spent applying changes in milliseconds
+	 */
+	public static long getTotalTime() {
+		synchronized (LOCK) {
+			return totalNanos / 1000000;
+		}
+	}
+
+	/**
+	 * @return EDT time spent applying the last batch in milliseconds
+	 */
+	public static long getLastTime() {
+		synchronized (LOCK) {
+			return lastNanos / 1000000;
+		}
+	}
+
+	/**
+	 * @return Number of EventLists updated by the last batch
+	 */
+	public static int getLastSize() {
+		synchronized (LOCK) {
+			return lastSize;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Pending<T> getPending(EventList<T> eventList) {
+		Pending<T> pending = (Pending<T>) pendingMap.get(eventList);
+		if (pending == null) {
+			pending = new Pending<>(eventList);
+			pendingMap.put(eventList, pending);
+			pendingList.add(pending);
+		}
+		return pending;
+	}
+
+	private static CompletableFuture<Void> schedule() {
+		boolean edt = SwingUtilities.isEventDispatchThread();
+		CompletableFuture<Void> batch;
+		synchronized (LOCK) {
+			batch = future;
+			if (!scheduled && !edt) {
+				scheduled = true;
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						flush();
+					}
+				});
+			}
+		}
+		if (edt) {
+			flush(); //Already on the EDT: Apply now
+		}
+		return batch;
+	}
+
+	private static void flush() {
+		List<Pending<?>> batch;
+		CompletableFuture<Void> batchFuture;
+		synchronized (LOCK) {
+			batch = pendingList;
+			batchFuture = future;
+			pendingList = new ArrayList<>();
+			pendingMap = new IdentityHashMap<>();
+			future = new CompletableFuture<>();
+			scheduled = false;
+		}
+		if (batch.isEmpty()) {
+			batchFuture.complete(null);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			for (Pending<?> pending : batch) {
+				pending.apply();
+			}
+		} catch (RuntimeException ex) {
+			batchFuture.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			long nanos = System.nanoTime() - start;
+			synchronized (LOCK) {
+				batches++;
+				totalNanos = totalNanos + nanos;
+				lastNanos = nanos;
+				lastSize = batch.size();
+			}
+			LOG.debug("EventLists updated: " + batch.size() + " lists in " + (nanos / 1000000) + "ms");
+		}
+		batchFuture.complete(null);
+	}
+
+	private static class Pending<T> {
+		private final EventList<T> eventList;
+		private final List<T> updated = new ArrayList<>();
+		private List<T> replace = null;
+		private boolean refresh = false;
+
+		public Pending(EventList<T> eventList) {
+			this.eventList = eventList;
+		}
+
+		private void apply() {
+			try {
+				eventList.getReadWriteLock().writeLock().lock();
+				if (replace != null) {
+					eventList.clear();
+					eventList.addAll(replace);
+				} else if (refresh) {
+					List<T> cache = new ArrayList<>(eventList);
+					eventList.clear();
+					eventList.addAll(cache);
+				} else if (!updated.isEmpty()) {
+					eventList.removeAll(updated);
+					eventList.addAll(updated);
+				}
+			} finally {
+				eventList.getReadWriteLock().writeLock().unlock();
+			}
+		}
+	}
+}
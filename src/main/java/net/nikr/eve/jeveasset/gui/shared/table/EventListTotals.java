@@ -0,0 +1,220 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import java.util.Arrays;
+
+/**
+ * Column totals of an EventList, maintained incrementally from ListEvents.
+ * The values of each row is kept in a primitive array (indexed like the list),
+ * so updated and deleted rows can be subtracted without iterating the whole list.
+ * Large changes (ex. clear/addAll) is handled by recalculating everything.
+ * The totals use compensated (Neumaier) summation, so adding and subtracting does not drift over time.
+ * @param <E>
+ */
+public class EventListTotals<E> {
+
+	/**
+	 * Number of changes in a single ListEvent before everything is recalculated.
+	 */
+	private static final int MAX_INCREMENTAL_CHANGES = 1000;
+
+	public static interface TotalsColumns<E> {
+		/**
+		 * @return number of values per row
+		 */
+		public int getColumnCount();
+		/**
+		 * Set the values of a row. The array is zeroed before the call.
+		 * @param e row
+		 * @param values the values to set
+		 */
+		public void getValues(E e, double[] values);
+	}
+
+	private final EventList<E> eventList;
+	private final TotalsColumns<E> columns;
+	private final int columnCount;
+	private final double[] totals;
+	private final double[] compensation; //Lost low-order bits of totals
+	private final double[] buffer;
+	private double[] data;
+	private int size = 0;
+
+	public EventListTotals(EventList<E> eventList, TotalsColumns<E> columns) {
+		this.eventList = eventList;
+		this.columns = columns;
+		this.columnCount = columns.getColumnCount();
+		this.totals = new double[columnCount];
+		this.compensation = new double[columnCount];
+		this.buffer = new double[columnCount];
+		this.data = new double[Math.max(16, columnCount * 16)];
+		recalculate();
+	}
+
+	/**
+	 * Update the totals from a list event.
+	 * Must be called from a ListEventListener on the same EventList (before reading the totals).
+	 * @param listChanges
+	 */
+	public synchronized void listChanged(ListEvent<E> listChanges) {
+		if (listChanges.isReordering()) {
+			reorder(listChanges.getReorderMap());
+			return;
+		}
+		int changes = 0;
+		while (listChanges.next()) {
+			changes++;
+		}
+		listChanges.reset();
+		if (changes > MAX_INCREMENTAL_CHANGES || changes > size) {
+			recalculateLocked();
+			return;
+		}
+		while (listChanges.next()) {
+			final int index = listChanges.getIndex();
+			switch (listChanges.getType()) {
+				case ListEvent.INSERT:
+					insert(index, eventList.get(index));
+					break;
+				case ListEvent.DELETE:
+					delete(index);
+					break;
+				case ListEvent.UPDATE:
+					update(index, eventList.get(index));
+					break;
+			}
+		}
+		if (size != eventList.size()) { //Better safe than sorry
+			recalculateLocked();
+		}
+	}
+
+	/**
+	 * Recalculate all totals from the EventList.
+	 */
+	public final synchronized void recalculate() {
+		try {
+			eventList.getReadWriteLock().readLock().lock();
+			recalculateLocked();
+		} finally {
+			eventList.getReadWriteLock().readLock().unlock();
+		}
+	}
+
+	public synchronized double getTotal(int column) {
+		return totals[column] + compensation[column];
+	}
+
+	public synchronized double[] getTotals() {
+		double[] copy = new double[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			copy[i] = totals[i] + compensation[i];
+		}
+		return copy;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	private void recalculateLocked() {
+		size = 0;
+		Arrays.fill(totals, 0);
+		Arrays.fill(compensation, 0);
+		ensureCapacity(eventList.size());
+		for (E e : eventList) {
+			int offset = size * columnCount;
+			setValues(e, offset);
+			for (int i = 0; i < columnCount; i++) {
+				add(i, data[offset + i]);
+			}
+			size++;
+		}
+	}
+
+	private void insert(int index, E e) {
+		ensureCapacity(size + 1);
+		int offset = index * columnCount;
+		System.arraycopy(data, offset, data, offset + columnCount, (size - index) * columnCount);
+		setValues(e, offset);
+		for (int i = 0; i < columnCount; i++) {
+			add(i, data[offset + i]);
+		}
+		size++;
+	}
+
+	private void delete(int index) {
+		int offset = index * columnCount;
+		for (int i = 0; i < columnCount; i++) {
+			add(i, -data[offset + i]);
+		}
+		System.arraycopy(data, offset + columnCount, data, offset, (size - index - 1) * columnCount);
+		size--;
+	}
+
+	private void update(int index, E e) {
+		int offset = index * columnCount;
+		for (int i = 0; i < columnCount; i++) {
+			add(i, -data[offset + i]);
+		}
+		setValues(e, offset);
+		for (int i = 0; i < columnCount; i++) {
+			add(i, data[offset + i]);
+		}
+	}
+
+	private void add(int column, double value) {
+		double sum = totals[column];
+		double total = sum + value;
+		if (Math.abs(sum) >= Math.abs(value)) {
+			compensation[column] = compensation[column] + ((sum - total) + value);
+		} else {
+			compensation[column] = compensation[column] + ((value - total) + sum);
+		}
+		totals[column] = total;
+	}
+
+	private void reorder(int[] reorderMap) {
+		double[] reordered = new double[data.length];
+		for (int newIndex = 0; newIndex < reorderMap.length; newIndex++) {
+			System.arraycopy(data, reorderMap[newIndex] * columnCount, reordered, newIndex * columnCount, columnCount);
+		}
+		data = reordered;
+	}
+
+	private void setValues(E e, int offset) {
+		Arrays.fill(buffer, 0);
+		if (e != null) {
+			columns.getValues(e, buffer);
+		}
+		System.arraycopy(buffer, 0, data, offset, columnCount);
+	}
+
+	private void ensureCapacity(int rows) {
+		int needed = rows * columnCount;
+		if (needed > data.length) {
+			data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+		}
+	}
+}
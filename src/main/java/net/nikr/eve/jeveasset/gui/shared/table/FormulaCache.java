@@ -0,0 +1,183 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of formula results keyed by row.
+ * Each entry remember the input values (the referenced columns) it was calculated from.
+ * Invalidated entries are kept, and only re-evaluated if the inputs have changed.
+ */
+public class FormulaCache {
+
+	public static final int DEFAULT_MAX_SIZE = 100000;
+
+	private final int maxSize;
+	private final Map<Object, CacheEntry> entries;
+	private int generation = 0;
+	//Metrics
+	private long hits = 0;
+	private long misses = 0;
+	private long revalidated = 0;
+	private long evictions = 0;
+
+	public FormulaCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public FormulaCache(final int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Object, CacheEntry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, CacheEntry> eldest) {
+				if (size() > FormulaCache.this.maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Get a valid cached value.
+	 * @param row
+	 * @return the cached value or null if the row is not cached or the cached value is stale
+	 */
+	public synchronized Object get(Object row) {
+		CacheEntry entry = entries.get(row);
+		if (entry != null && entry.generation == generation) {
+			hits++;
+			return entry.value;
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Get a stale value, if the inputs is unchanged since it was calculated.
+	 * The entry is valid again after this call.
+	 * @param row
+	 * @param inputs the current values of the referenced columns
+	 * @return the cached value or null if the inputs have changed (or was never cached)
+	 */
+	public synchronized Object revalidate(Object row, double[] inputs) {
+		CacheEntry entry = entries.get(row);
+		if (entry == null || entry.inputs == null || inputs == null) {
+			return null;
+		}
+		if (!Arrays.equals(entry.inputs, inputs)) {
+			return null;
+		}
+		entry.generation = generation;
+		revalidated++;
+		return entry.value;
+	}
+
+	public synchronized void put(Object row, Object value, double[] inputs) {
+		entries.put(row, new CacheEntry(value, inputs, generation));
+	}
+
+	/**
+	 * Mark all values as stale.
+	 * Stale values is re-used if the referenced columns are unchanged.
+	 */
+	public synchronized void invalidate() {
+		generation++;
+	}
+
+	/**
+	 * Mark values for the rows as stale.
+	 * @param rows
+	 */
+	public synchronized void invalidate(Collection<?> rows) {
+		for (Object row : rows) {
+			CacheEntry entry = entries.get(row);
+			if (entry != null) {
+				entry.generation = generation - 1;
+			}
+		}
+	}
+
+	/**
+	 * Remove deleted rows.
+	 * @param rows
+	 */
+	public synchronized void remove(Collection<?> rows) {
+		entries.keySet().removeAll(rows);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getRevalidated() {
+		return revalidated;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public synchronized void resetMetrics() {
+		hits = 0;
+		misses = 0;
+		revalidated = 0;
+		evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "size: " + entries.size() + "/" + maxSize + " hits: " + hits + " misses: " + misses + " revalidated: " + revalidated + " evictions: " + evictions;
+	}
+
+	private static class CacheEntry {
+		private final Object value;
+		private final double[] inputs;
+		private int generation;
+
+		public CacheEntry(Object value, double[] inputs, int generation) {
+			this.value = value;
+			this.inputs = inputs;
+			this.generation = generation;
+		}
+	}
+}
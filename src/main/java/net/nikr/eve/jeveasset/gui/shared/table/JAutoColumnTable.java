@@ -21,25 +21,31 @@
 
 package net.nikr.eve.jeveasset.gui.shared.table;
 
+import ca.odell.glazedlists.SeparatorList;
 import ca.odell.glazedlists.gui.TableFormat;
 import ca.odell.glazedlists.swing.DefaultEventTableModel;
 import java.awt.Component;
 import java.awt.Container;
+import java.awt.FontMetrics;
 import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JViewport;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.event.AncestorEvent;
 import javax.swing.event.AncestorListener;
 import javax.swing.event.ChangeEvent;
@@ -85,6 +91,19 @@ import net.nikr.eve.jeveasset.gui.shared.table.containers.YesNo;
 
 public class JAutoColumnTable extends JTable {
 
+	/**
+	 * Tables with more rows than this is measured by sampling.
+	 */
+	private static final int SAMPLE_THRESHOLD = 2000;
+	/**
+	 * Number of evenly distributed rows measured in sampled mode.
+	 */
+	private static final int SAMPLE_SIZE = 500;
+	/**
+	 * Number of extreme values (longest text, most digits) measured per column in sampled mode.
+	 */
+	private static final int EXTREMES_SIZE = 10;
+
 	private JViewport jViewport = null;
 	private int size = 0;
 	private ResizeMode resizeMode = null;
@@ -95,6 +114,10 @@ public class JAutoColumnTable extends JTable {
 	private boolean autoResizeLock = false;
 	private final Set<Class<?>> disableColumnResizeCache = new HashSet<>();
 	private boolean overwrite;
+	private boolean sampled = true;
+	private boolean resized = false;
+	private int resizeGeneration = 0;
+	private int modelGeneration = 0;
 
 	public JAutoColumnTable(final Program program, final TableModel tableModel) {
 		super(tableModel);
@@ -244,6 +267,20 @@ public class JAutoColumnTable extends JTable {
 		return columnsWidth;
 	}
 
+	/**
+	 * Measure large tables by sampling.
+	 * When enabled, tables with many rows only measure a sample of the rows,
+	 * plus the values with the longest text and most digits (found on a worker thread).
+	 * @param sampled true to enable sampling (default), false to always measure every row
+	 */
+	public void setSampledResize(boolean sampled) {
+		this.sampled = sampled;
+	}
+
+	public boolean isSampledResize() {
+		return sampled;
+	}
+
 	public void disableColumnResizeCache(Class<?> columnClass) {
 		disableColumnResizeCache.add(columnClass);
 	}
@@ -340,6 +377,7 @@ public class JAutoColumnTable extends JTable {
 
 	private void resizeColumnsText() {
 		size = 0;
+		resizeGeneration++;
 		if (resizeMode != ResizeMode.TEXT) {
 			resizeMode = ResizeMode.TEXT;
 			this.getTableHeader().setResizingAllowed(false);
@@ -347,7 +385,164 @@ public class JAutoColumnTable extends JTable {
 		for (int i = 0; i < getColumnCount(); i++) {
 			size = size + resizeColumn(this, getColumnModel().getColumn(i), i);
 		}
+		resized = true;
 		updateScroll();
+		if (isSampled()) {
+			findExtremes();
+		}
+	}
+
+	/**
+	 * Only measure the changed rows.
+	 * Columns can grow, but, never shrink.
+	 * @param firstRow
+	 * @param lastRow
+	 */
+	private void resizeRowsText(final int firstRow, final int lastRow) {
+		final int rowCount = getRowCount();
+		final int last = Math.min(lastRow, rowCount - 1);
+		if (firstRow < 0 || firstRow > last) {
+			return;
+		}
+		boolean changed = false;
+		for (int columnIndex = 0; columnIndex < getColumnCount(); columnIndex++) {
+			TableColumn column = getColumnModel().getColumn(columnIndex);
+			TableCellRenderer renderer = getColumnRenderer(column, columnIndex);
+			int maxWidth = column.getPreferredWidth();
+			for (int rowIndex = firstRow; rowIndex <= last; rowIndex++) {
+				maxWidth = Math.max(maxWidth, getRowWidth(this, renderer, rowIndex, columnIndex) + 4);
+			}
+			if (maxWidth > column.getPreferredWidth()) {
+				size = size + (maxWidth - column.getPreferredWidth());
+				column.setPreferredWidth(maxWidth);
+				changed = true;
+			}
+		}
+		if (changed) {
+			updateScroll();
+		}
+	}
+
+	private boolean isSampled() {
+		return sampled && getRowCount() > SAMPLE_THRESHOLD;
+	}
+
+	/**
+	 * Find the rows with the longest text and most digits.
+	 * The values are read on the EDT (formula columns are not thread safe), only the text is measured on a worker thread.
+	 */
+	private void findExtremes() {
+		if (!(getModel() instanceof FixedEventTableModel)) {
+			return; //Sample only
+		}
+		FixedEventTableModel<?> model = (FixedEventTableModel<?>) getModel();
+		final int columnCount = getColumnCount();
+		final int rowCount = getRowCount();
+		final Object[][] values = new Object[columnCount][rowCount];
+		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+			if (model.getElementAt(rowIndex) instanceof SeparatorList.Separator) {
+				continue; //Separators span all columns
+			}
+			for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+				values[columnIndex][rowIndex] = model.getValueAt(rowIndex, convertColumnIndexToModel(columnIndex));
+			}
+		}
+		ExtremesWorker worker = new ExtremesWorker(values, getFontMetrics(getFont()), resizeGeneration, modelGeneration, rowCount);
+		worker.execute();
+	}
+
+	private class ExtremesWorker extends SwingWorker<List<List<Integer>>, Void> {
+
+		private final Object[][] values;
+		private final FontMetrics fontMetrics;
+		private final int generation;
+		private final int changeGeneration;
+		private final int rowCount;
+
+		public ExtremesWorker(Object[][] values, FontMetrics fontMetrics, int generation, int changeGeneration, int rowCount) {
+			this.values = values;
+			this.fontMetrics = fontMetrics;
+			this.generation = generation;
+			this.changeGeneration = changeGeneration;
+			this.rowCount = rowCount;
+		}
+
+		@Override
+		protected List<List<Integer>> doInBackground() throws Exception {
+			List<List<Integer>> extremes = new ArrayList<>();
+			for (Object[] column : values) {
+				//Min heap of {length, row}: keeps the EXTREMES_SIZE longest values
+				PriorityQueue<int[]> queue = new PriorityQueue<>(EXTREMES_SIZE + 1, (o1, o2) -> Integer.compare(o1[0], o2[0]));
+				for (int rowIndex = 0; rowIndex < column.length; rowIndex++) {
+					Object value = column[rowIndex];
+					if (value == null) {
+						continue;
+					}
+					int length = getLength(value);
+					if (queue.size() < EXTREMES_SIZE) {
+						queue.add(new int[] {length, rowIndex});
+					} else if (length > queue.peek()[0]) {
+						queue.poll();
+						queue.add(new int[] {length, rowIndex});
+					}
+				}
+				List<Integer> rows = new ArrayList<>();
+				for (int[] entry : queue) {
+					rows.add(entry[1]);
+				}
+				extremes.add(rows);
+			}
+			return extremes;
+		}
+
+		private int getLength(Object value) {
+			if (value instanceof Number) {
+				Number number = (Number) value;
+				double d = Math.abs(number.doubleValue());
+				int digits;
+				if (d < 1 || Double.isNaN(d) || Double.isInfinite(d)) {
+					digits = 1;
+				} else {
+					digits = (int) Math.log10(d) + 1;
+				}
+				if (number.doubleValue() < 0) {
+					digits++; //Sign
+				}
+				return digits * fontMetrics.charWidth('0');
+			} else {
+				return fontMetrics.stringWidth(value.toString());
+			}
+		}
+
+		@Override
+		protected void done() {
+			final List<List<Integer>> extremes;
+			try {
+				extremes = get();
+			} catch (InterruptedException | ExecutionException ex) {
+				return;
+			}
+			if (extremes == null || generation != resizeGeneration || changeGeneration != modelGeneration || rowCount != getRowCount() || values.length != getColumnCount() || isLocked()) {
+				return; //Table changed (rows may have moved)
+			}
+			boolean changed = false;
+			for (int columnIndex = 0; columnIndex < extremes.size(); columnIndex++) {
+				TableColumn column = getColumnModel().getColumn(columnIndex);
+				TableCellRenderer renderer = getColumnRenderer(column, columnIndex);
+				int maxWidth = column.getPreferredWidth();
+				for (Integer rowIndex : extremes.get(columnIndex)) {
+					maxWidth = Math.max(maxWidth, getRowWidth(getTable(), renderer, rowIndex, columnIndex) + 4);
+				}
+				if (maxWidth > column.getPreferredWidth()) {
+					size = size + (maxWidth - column.getPreferredWidth());
+					column.setPreferredWidth(maxWidth);
+					changed = true;
+				}
+			}
+			if (changed) {
+				updateScroll();
+			}
+		}
 	}
 
 	public void resizeColumnsWindow() {
@@ -404,45 +599,18 @@ public class JAutoColumnTable extends JTable {
 		Component component = renderer.getTableCellRendererComponent(jTable, column.getHeaderValue(), false, false, 0, columnIndex);
 		int maxWidth = component.getPreferredSize().width;
 
-		if (!overwrite) {
-			renderer = column.getCellRenderer();
-			if (renderer == null) {
-				renderer = getDefaultRenderer(getColumnClass(columnIndex));
-			}
-		}
+		renderer = getColumnRenderer(column, columnIndex);
 		//Rows width
 		final int rowCount = jTable.getRowCount();
-		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
-			final Object cellValue = jTable.getValueAt(rowIndex, columnIndex); //Get cell value
-			if (cellValue == null) { //Ignore null
-				continue;
-			}
-			boolean useCache = !disableColumnResizeCache.contains(cellValue.getClass());
-			Integer savedWidth;
-			if (useCache) {
-				savedWidth = rowsWidth.get(cellValue);
-			} else {
-				savedWidth = null;
+		if (isSampled()) { //Evenly distributed sample (extremes is found by the ExtremesWorker)
+			final int step = Math.max(1, rowCount / SAMPLE_SIZE);
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex = rowIndex + step) {
+				maxWidth = Math.max(maxWidth, getRowWidth(jTable, renderer, rowIndex, columnIndex));
 			}
-			if (savedWidth != null) { //Load row width
-				maxWidth = Math.max(maxWidth, savedWidth);
-			} else { //Calculate the row width
-				if (overwrite) {
-					renderer = jTable.getCellRenderer(rowIndex, columnIndex);
-				}
-				//Ignore SeparatorTableCell
-				if (renderer instanceof SeparatorTableCell) {
-					continue;
-				}
-				component = renderer.getTableCellRendererComponent(jTable, jTable.getValueAt(rowIndex, columnIndex), false, false, rowIndex, columnIndex);
-				if (overwrite) {
-					component = prepareRenderer(renderer, rowIndex, columnIndex);
-				}
-				int width = component.getPreferredSize().width;
-				if (useCache) {
-					rowsWidth.put(cellValue, width);
-				}
-				maxWidth = Math.max(maxWidth, width);
+			maxWidth = Math.max(maxWidth, getRowWidth(jTable, renderer, rowCount - 1, columnIndex));
+		} else {
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+				maxWidth = Math.max(maxWidth, getRowWidth(jTable, renderer, rowIndex, columnIndex));
 			}
 		}
 		//Add margin
@@ -452,6 +620,52 @@ public class JAutoColumnTable extends JTable {
 		return maxWidth; //Return width
 	}
 
+	private TableCellRenderer getColumnRenderer(final TableColumn column, final int columnIndex) {
+		if (overwrite) {
+			return null; //Renderer is found per row
+		}
+		TableCellRenderer renderer = column.getCellRenderer();
+		if (renderer == null) {
+			renderer = getDefaultRenderer(getColumnClass(columnIndex));
+		}
+		return renderer;
+	}
+
+	private int getRowWidth(final JTable jTable, final TableCellRenderer columnRenderer, final int rowIndex, final int columnIndex) {
+		final Object cellValue = jTable.getValueAt(rowIndex, columnIndex); //Get cell value
+		if (cellValue == null) { //Ignore null
+			return 0;
+		}
+		boolean useCache = !disableColumnResizeCache.contains(cellValue.getClass());
+		Integer savedWidth;
+		if (useCache) {
+			savedWidth = rowsWidth.get(cellValue);
+		} else {
+			savedWidth = null;
+		}
+		if (savedWidth != null) { //Load row width
+			return savedWidth;
+		}
+		//Calculate the row width
+		TableCellRenderer renderer = columnRenderer;
+		if (overwrite) {
+			renderer = jTable.getCellRenderer(rowIndex, columnIndex);
+		}
+		//Ignore SeparatorTableCell
+		if (renderer instanceof SeparatorTableCell) {
+			return 0;
+		}
+		Component component = renderer.getTableCellRendererComponent(jTable, cellValue, false, false, rowIndex, columnIndex);
+		if (overwrite) {
+			component = prepareRenderer(renderer, rowIndex, columnIndex);
+		}
+		int width = component.getPreferredSize().width;
+		if (useCache) {
+			rowsWidth.put(cellValue, width);
+		}
+		return width;
+	}
+
 	public void saveColumnsWidth() {
 		EnumTableFormatAdaptor<?, ?> tableFormat = getEnumTableFormatAdaptor();
 		if (!loadingWidth && tableFormat != null && tableFormat.getResizeMode() == ResizeMode.NONE) {
@@ -477,9 +691,13 @@ public class JAutoColumnTable extends JTable {
 		private int to = 0;
 		private int rowsLastTime = 0;
 		private int rowsCount = 0;
+		private int dirtyFirst = -1;
+		private int dirtyLast = -1;
+		private boolean dirtyAll = false;
 
 		@Override
 		public void tableChanged(final TableModelEvent e) {
+			modelGeneration++; //Any change (including reorder) makes the found extremes row indexes stale
 			//XXX - Workaround for Java 7
 			if (getTable().isEditing()) {
 				getTable().getCellEditor().cancelCellEditing();
@@ -490,12 +708,37 @@ public class JAutoColumnTable extends JTable {
 			if (e.getType() == TableModelEvent.INSERT) {
 				rowsCount = rowsCount + (Math.abs(e.getFirstRow() - e.getLastRow()) + 1);
 			}
+			//Track changed rows (Deleted rows may shrink the columns)
+			if (e.getType() == TableModelEvent.DELETE
+					|| e.getFirstRow() < 0
+					|| e.getLastRow() == Integer.MAX_VALUE
+					|| e.getColumn() != TableModelEvent.ALL_COLUMNS) {
+				dirtyAll = true;
+			} else {
+				if (dirtyFirst < 0) {
+					dirtyFirst = e.getFirstRow();
+					dirtyLast = e.getLastRow();
+				} else {
+					dirtyFirst = Math.min(dirtyFirst, e.getFirstRow());
+					dirtyLast = Math.max(dirtyLast, e.getLastRow());
+				}
+			}
 			if (Math.abs(rowsLastTime + rowsCount) == getRowCount() //Last Table Update
 					&& (e.getType() != TableModelEvent.UPDATE
 					|| (e.getType() == TableModelEvent.UPDATE && e.getFirstRow() >= 0))) {
 				rowsLastTime = getRowCount();
 				rowsCount = 0;
-				autoResizeColumns();
+				if (!dirtyAll && resized && !isLocked()
+						&& dirtyFirst >= 0 && dirtyLast - dirtyFirst < SAMPLE_SIZE
+						&& resizeMode == ResizeMode.TEXT
+						&& (getEnumTableFormatAdaptor() == null || getEnumTableFormatAdaptor().getResizeMode() == ResizeMode.TEXT)) {
+					resizeRowsText(dirtyFirst, dirtyLast); //Only changed rows
+				} else {
+					autoResizeColumns();
+				}
+				dirtyFirst = -1;
+				dirtyLast = -1;
+				dirtyAll = false;
 			}
 		}
 
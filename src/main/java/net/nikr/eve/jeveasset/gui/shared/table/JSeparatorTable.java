@@ -30,7 +30,8 @@ public class JSeparatorTable extends JAutoColumnTable {
 	private TableCellRenderer separatorRenderer;
 	private TableCellEditor separatorEditor;
 	private final SeparatorList<?> separatorList;
-	private final Map<Object, Boolean> expandedSate = new HashMap<>();
+	private final Map<Object, Boolean> expandedSate = new HashMap<>(); //Items without SeparatorKey
+	private final Map<Object, Boolean> separatorState = new HashMap<>(); //SeparatorKey
 	private final List<Integer> selectedRows = new ArrayList<>(); //XXX - Workaround for Autoscroller less then optimal behavior on SeparatorList.Separator
 	private boolean defaultState = true;
 
@@ -52,31 +53,38 @@ public class JSeparatorTable extends JAutoColumnTable {
 		if (selectModel != null) {
 			selectModel.setEnabled(false);
 		}
+		//Find changed separators
+		List<SeparatorList.Separator<?>> changed = new ArrayList<>();
 		try {
 			separatorList.getReadWriteLock().readLock().lock();
 			for (int i = 0; i < separatorList.size(); i++) {
 				Object object = separatorList.get(i);
 				if (object instanceof SeparatorList.Separator) {
 					SeparatorList.Separator<?> separator = (SeparatorList.Separator<?>) object;
+					i = i + getVisibleSize(separator); //Skip group items
 					Object first = separator.first();
 					if (first instanceof IgnoreSeparator) {
 						continue;
 					}
 					if (separator.getLimit() != newLimit) {
-						try {
-							separatorList.getReadWriteLock().readLock().unlock();
-							separatorList.getReadWriteLock().writeLock().lock();
-							separator.setLimit(newLimit);
-						} finally {
-							separatorList.getReadWriteLock().writeLock().unlock();
-							separatorList.getReadWriteLock().readLock().lock();
-						}
+						changed.add(separator);
 					}
 				}
 			}
 		} finally {
 			separatorList.getReadWriteLock().readLock().unlock();
 		}
+		//Update changed separators (all at once)
+		if (!changed.isEmpty()) {
+			try {
+				separatorList.getReadWriteLock().writeLock().lock();
+				for (SeparatorList.Separator<?> separator : changed) {
+					separator.setLimit(newLimit);
+				}
+			} finally {
+				separatorList.getReadWriteLock().writeLock().unlock();
+			}
+		}
 		if (selectModel != null) {
 			selectModel.setEnabled(true);
 		}
@@ -85,6 +93,7 @@ public class JSeparatorTable extends JAutoColumnTable {
 
 	public void clearExpandedState() {
 		expandedSate.clear();
+		separatorState.clear();
 		defaultState = true;
 	}
 
@@ -96,7 +105,11 @@ public class JSeparatorTable extends JAutoColumnTable {
 				if (object instanceof SeparatorList.Separator) {
 					SeparatorList.Separator<?> separator = (SeparatorList.Separator) object;
 					final int limit = separator.getLimit();
-					if (limit == 0) { //Collapsed
+					Object key = getSeparatorKey(separator);
+					if (key != null) { //O(1)
+						separatorState.put(key, limit != 0);
+						i = i + getVisibleSize(separator); //Skip group items
+					} else if (limit == 0) { //Collapsed
 						for (Object item : separator.getGroup()) {
 							expandedSate.put(item, false);
 						}
@@ -125,7 +138,10 @@ public class JSeparatorTable extends JAutoColumnTable {
 					SeparatorList.Separator<?> separator = (SeparatorList.Separator) object;
 					Boolean expanded = null;
 					final int oldLimit = separator.getLimit();
-					if (separator.getLimit() == 0) { //Collapsed
+					Object key = getSeparatorKey(separator);
+					if (key != null) { //O(1)
+						expanded = separatorState.get(key);
+					} else if (separator.getLimit() == 0) { //Collapsed
 						Object first = separator.first(); //Lets try first
 						expanded = expandedSate.get(first);
 						if (expanded == null) { //No luck, now it's going to get expensive
@@ -162,6 +178,9 @@ public class JSeparatorTable extends JAutoColumnTable {
 							separatorList.getReadWriteLock().readLock().lock();
 						}
 					}
+					if (key != null) {
+						i = i + getVisibleSize(separator); //Skip group items
+					}
 				}
 			}
 		} finally {
@@ -169,6 +188,24 @@ public class JSeparatorTable extends JAutoColumnTable {
 		}
 	}
 
+	private Object getSeparatorKey(SeparatorList.Separator<?> separator) {
+		Object first = separator.first();
+		if (first instanceof SeparatorKey) {
+			return ((SeparatorKey) first).getSeparatorKey();
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Number of group items shown in the table (collapsed groups is not in the list at all).
+	 * @param separator
+	 * @return
+	 */
+	private int getVisibleSize(SeparatorList.Separator<?> separator) {
+		return Math.min(separator.getLimit(), separator.size());
+	}
+
 	private DefaultEventSelectionModel<?> getEventSelectionModel() {
 		if (selectionModel instanceof DefaultEventSelectionModel<?>) {
 			return (DefaultEventSelectionModel) selectionModel;
@@ -328,10 +365,15 @@ public class JSeparatorTable extends JAutoColumnTable {
 	}
 
 	private void autoResizeRows() {
+		autoResizeRows(0, getEventTableModel().getRowCount() - 1);
+	}
+
+	private void autoResizeRows(final int firstRow, final int lastRow) {
 		if (isLocked()) {
 			return;
 		}
-		for (int row = 0; row < getEventTableModel().getRowCount(); row++) {
+		final int last = Math.min(lastRow, getEventTableModel().getRowCount() - 1);
+		for (int row = Math.max(0, firstRow); row <= last; row++) {
 			autoResizeRow(row, getRowHeight());
 		}
 	}
@@ -372,10 +414,26 @@ public class JSeparatorTable extends JAutoColumnTable {
 		super.tableChanged(e);
 
 		//set row heigh
-		autoResizeRows();
+		if (e != null && e.getType() == TableModelEvent.DELETE) {
+			return; //Row heights of the remaining rows is kept by the JTable
+		}
+		if (e != null && e.getFirstRow() >= 0 && e.getLastRow() != Integer.MAX_VALUE) {
+			autoResizeRows(e.getFirstRow(), e.getLastRow()); //Only changed rows
+		} else {
+			autoResizeRows(); //All rows
+		}
 	}
 
 	public static interface IgnoreSeparator { }
+
+	/**
+	 * Stable key for the separator group of an item.
+	 * Used to save/load the expanded state in O(1) per separator.
+	 * Must be equal for all items in the same group.
+	 */
+	public static interface SeparatorKey {
+		public Object getSeparatorKey();
+	}
 }
 /**
  * Modified from BasicTableUI to allow for spanning cells.
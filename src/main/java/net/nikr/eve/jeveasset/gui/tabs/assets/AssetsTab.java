@@ -63,6 +63,8 @@ import net.nikr.eve.jeveasset.gui.shared.menu.MenuData.AssetMenuData;
 import net.nikr.eve.jeveasset.gui.shared.menu.MenuManager.TableMenu;
 import net.nikr.eve.jeveasset.gui.shared.table.EnumTableFormatAdaptor;
 import net.nikr.eve.jeveasset.gui.shared.table.EventListManager;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListTotals;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListTotals.TotalsColumns;
 import net.nikr.eve.jeveasset.gui.shared.table.EventModels;
 import net.nikr.eve.jeveasset.gui.shared.table.TableFormatFactory;
 import net.nikr.eve.jeveasset.i18n.TabsAssets;
@@ -90,6 +92,7 @@ public class AssetsTab extends JMainTabPrimary implements TagUpdate {
 	private final DefaultEventTableModel<MyAsset> tableModel;
 	private final EventList<MyAsset> eventList;
 	private final FilterList<MyAsset> filterList;
+	private final EventListTotals<MyAsset> totals;
 	private final DefaultEventSelectionModel<MyAsset> selectionModel;
 
 	public static final String NAME = "assets"; //Not to be changed!
@@ -135,6 +138,8 @@ public class AssetsTab extends JMainTabPrimary implements TagUpdate {
 		filterList = new FilterList<>(sortedList);
 		eventList.getReadWriteLock().readLock().unlock();
 
+		//Totals
+		totals = new EventListTotals<>(filterList, new AssetTotalsColumns());
 		filterList.addListEventListener(listener);
 		//Table Model
 		tableModel = EventModels.createTableModel(filterList, tableFormat);
@@ -252,21 +257,10 @@ public class AssetsTab extends JMainTabPrimary implements TagUpdate {
 
 	private void updateStatusbar() {
 		double averageValue = 0;
-		double totalValue = 0;
-		long totalCount = 0;
-		double totalVolume = 0;
-		double totalReprocessed = 0;
-		try {
-			filterList.getReadWriteLock().readLock().lock();
-			for (MyAsset asset : filterList) {
-				totalValue = totalValue + (asset.getDynamicPrice() * asset.getCount());
-				totalCount = totalCount + asset.getCount();
-				totalVolume = totalVolume + asset.getVolumeTotal();
-				totalReprocessed = totalReprocessed + asset.getValueReprocessed();
-			}
-		} finally {
-			filterList.getReadWriteLock().readLock().unlock();
-		}
+		double totalValue = totals.getTotal(AssetTotalsColumns.VALUE);
+		long totalCount = (long) totals.getTotal(AssetTotalsColumns.COUNT);
+		double totalVolume = totals.getTotal(AssetTotalsColumns.VOLUME);
+		double totalReprocessed = totals.getTotal(AssetTotalsColumns.REPROCESSED);
 		if (totalCount > 0 && totalValue > 0) {
 			averageValue = totalValue / totalCount;
 		}
@@ -317,6 +311,7 @@ public class AssetsTab extends JMainTabPrimary implements TagUpdate {
 	private class ListenerClass implements ListEventListener<MyAsset>, ActionListener {
 		@Override
 		public void listChanged(final ListEvent<MyAsset> listChanges) {
+			totals.listChanged(listChanges);
 			updateStatusbar();
 			program.getOverviewTab().updateTable();
 		}
@@ -362,4 +357,25 @@ public class AssetsTab extends JMainTabPrimary implements TagUpdate {
 			program.saveSettings("Assets Table: " + msg); //Save Asset Filters and Export Settings
 		}
 	}
+
+	private static class AssetTotalsColumns implements TotalsColumns<MyAsset> {
+
+		private static final int VALUE = 0;
+		private static final int COUNT = 1;
+		private static final int VOLUME = 2;
+		private static final int REPROCESSED = 3;
+
+		@Override
+		public int getColumnCount() {
+			return 4;
+		}
+
+		@Override
+		public void getValues(MyAsset asset, double[] values) {
+			values[VALUE] = asset.getDynamicPrice() * asset.getCount();
+			values[COUNT] = asset.getCount();
+			values[VOLUME] = asset.getVolumeTotal();
+			values[REPROCESSED] = asset.getValueReprocessed();
+		}
+	}
 }
@@ -29,6 +29,8 @@ import ca.odell.glazedlists.swing.DefaultEventTableModel;
 import ca.odell.glazedlists.swing.TableComparatorChooser;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.AdjustmentEvent;
+import java.awt.event.AdjustmentListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -42,6 +44,7 @@ import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.api.my.MyJournal;
@@ -51,6 +54,7 @@ import net.nikr.eve.jeveasset.gui.frame.StatusPanel;
 import net.nikr.eve.jeveasset.gui.frame.StatusPanel.JStatusLabel;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.components.JFixedToolBar;
+import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow;
 import net.nikr.eve.jeveasset.gui.shared.components.JMainTabPrimary;
 import net.nikr.eve.jeveasset.gui.shared.filter.Filter;
 import net.nikr.eve.jeveasset.gui.shared.filter.Filter.CompareType;
@@ -81,6 +85,8 @@ public class JournalTab extends JMainTabPrimary {
 
 	private final JAutoColumnTable jTable;
 	private final JButton jClearNew;
+	private final JButton jLoadArchived;
+	private final JLockWindow jLockWindow;
 
 	//Table
 	private final JournalFilterControl filterControl;
@@ -111,6 +117,18 @@ public class JournalTab extends JMainTabPrimary {
 		});
 		jToolBar.addButton(jClearNew);
 
+		jLockWindow = new JLockWindow(program.getMainWindow().getFrame());
+
+		jLoadArchived = new JButton(TabsJournal.get().loadArchived(), Images.FILTER_LOAD.getIcon());
+		jLoadArchived.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				loadArchived();
+			}
+		});
+		jLoadArchived.setVisible(Settings.get().isWalletArchive());
+		jToolBar.addButton(jLoadArchived);
+
 		//Table Format
 		tableFormat = TableFormatFactory.journalTableFormat();
 		//Backend
@@ -140,6 +158,20 @@ public class JournalTab extends JMainTabPrimary {
 		installTable(jTable);
 		//Scroll Panels
 		JScrollPane jTableScroll = new JScrollPane(jTable);
+		//Wallet Archive: Load the next page when scrolled to the end
+		jTableScroll.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+			@Override
+			public void adjustmentValueChanged(AdjustmentEvent e) {
+				if (e.getValueIsAdjusting()) {
+					return;
+				}
+				JScrollBar jScrollBar = jTableScroll.getVerticalScrollBar();
+				if (jScrollBar.getValue() > 0 && jScrollBar.getValue() + jScrollBar.getVisibleAmount() >= jScrollBar.getMaximum()
+						&& jLoadArchived.isVisible() && jLoadArchived.isEnabled()) {
+					loadArchived();
+				}
+			}
+		});
 		//Table Filter
 		filterControl = new JournalFilterControl(sortedList);
 		//Menu
@@ -170,6 +202,24 @@ public class JournalTab extends JMainTabPrimary {
 		);
 	}
 
+	private void loadArchived() {
+		jLoadArchived.setEnabled(false);
+		jLockWindow.show(TabsJournal.get().loadingArchived(), new JLockWindow.LockWorker() {
+			@Override
+			public void task() {
+				program.getProfileData().loadArchivedJournal();
+			}
+
+			@Override
+			public void gui() {
+				jLoadArchived.setEnabled(program.getProfileData().isJournalArchiveLoadable());
+			}
+
+			@Override
+			public void hidden() { }
+		});
+	}
+
 	@Override
 	public void clearData() {
 		filterControl.clearCache();
@@ -192,10 +242,14 @@ public class JournalTab extends JMainTabPrimary {
 		}
 		filterControl.createCache();
 		final boolean found = newFound;
+		final boolean archive = Settings.get().isWalletArchive();
+		final boolean loadable = program.getProfileData().isJournalArchiveLoadable();
 		Program.ensureEDT(new Runnable() {
 			@Override
 			public void run() {
 				jClearNew.setEnabled(found);
+				jLoadArchived.setVisible(archive);
+				jLoadArchived.setEnabled(loadable);
 			}
 		});
 	}
@@ -34,11 +34,12 @@ import net.nikr.eve.jeveasset.data.settings.types.LocationType;
 import net.nikr.eve.jeveasset.data.settings.types.OwnersType;
 import net.nikr.eve.jeveasset.data.settings.types.PriceType;
 import net.nikr.eve.jeveasset.gui.shared.CopyHandler.CopySeparator;
+import net.nikr.eve.jeveasset.gui.shared.table.JSeparatorTable.SeparatorKey;
 import net.nikr.eve.jeveasset.gui.shared.table.containers.ModulePriceValue;
 import net.nikr.eve.jeveasset.i18n.TabsLoadout;
 
 
-public class Loadout implements Comparable<Loadout>, LocationType, ItemType, PriceType, CopySeparator, OwnersType {
+public class Loadout implements Comparable<Loadout>, LocationType, ItemType, PriceType, CopySeparator, OwnersType, SeparatorKey {
 
 	public enum FlagType {
 		TOTAL_VALUE("Total Value") {
@@ -242,6 +243,11 @@ public class Loadout implements Comparable<Loadout>, LocationType, ItemType, Pri
 		return String.valueOf(flag.ordinal());
 	}
 
+	@Override
+	public Object getSeparatorKey() {
+		return getSeparator();
+	}
+
 	protected String getCompare() {
 		return key + flag.ordinal() + convertName(name);
 	}
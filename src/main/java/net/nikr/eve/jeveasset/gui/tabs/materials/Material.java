@@ -30,9 +30,10 @@ import net.nikr.eve.jeveasset.data.settings.types.LocationType;
 import net.nikr.eve.jeveasset.data.settings.types.PriceType;
 import net.nikr.eve.jeveasset.gui.shared.CopyHandler.CopySeparator;
 import net.nikr.eve.jeveasset.gui.shared.Formatter;
+import net.nikr.eve.jeveasset.gui.shared.table.JSeparatorTable.SeparatorKey;
 
 
-public class Material implements Comparable<Material>, LocationType, ItemType, PriceType, CopySeparator {
+public class Material implements Comparable<Material>, LocationType, ItemType, PriceType, CopySeparator, SeparatorKey {
 
 	public enum MaterialType {
 		LOCATIONS(2, 1, 1),
@@ -164,6 +165,11 @@ public class Material implements Comparable<Material>, LocationType, ItemType, P
 		return type.getHeaderOrder() + header + type.getGoupeOrder() + group;
 	}
 
+	@Override
+	public Object getSeparatorKey() {
+		return getSeparator();
+	}
+
 	protected String getCompare() {
 		return type.getHeaderOrder() + header + type.getGoupeOrder() + group + type.getNameOrder() + name;
 	}
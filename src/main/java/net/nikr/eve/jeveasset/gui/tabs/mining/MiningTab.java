@@ -49,6 +49,8 @@ import net.nikr.eve.jeveasset.gui.shared.menu.JMenuInfo.AutoNumberFormat;
 import net.nikr.eve.jeveasset.gui.shared.menu.MenuData;
 import net.nikr.eve.jeveasset.gui.shared.menu.MenuManager.TableMenu;
 import net.nikr.eve.jeveasset.gui.shared.table.EnumTableFormatAdaptor;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListTotals;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListTotals.TotalsColumns;
 import net.nikr.eve.jeveasset.gui.shared.table.EventModels;
 import net.nikr.eve.jeveasset.gui.shared.table.JAutoColumnTable;
 import net.nikr.eve.jeveasset.gui.shared.table.TableFormatFactory;
@@ -70,6 +72,7 @@ public class MiningTab extends JMainTabPrimary {
 	private final DefaultEventTableModel<MyMining> tableModel;
 	private final EventList<MyMining> eventList;
 	private final FilterList<MyMining> filterList;
+	private final EventListTotals<MyMining> totals;
 	private final DefaultEventSelectionModel<MyMining> selectionModel;
 
 	public static final String NAME = "mining"; //Not to be changed!
@@ -91,6 +94,8 @@ public class MiningTab extends JMainTabPrimary {
 		eventList.getReadWriteLock().readLock().lock();
 		filterList = new FilterList<>(sortedList);
 		eventList.getReadWriteLock().readLock().unlock();
+		//Totals
+		totals = new EventListTotals<>(filterList, new MiningTotalsColumns());
 		//Listener
 		filterList.addListEventListener(listener);
 		//Table Model
@@ -156,21 +161,10 @@ public class MiningTab extends JMainTabPrimary {
 
 	private void updateStatusbar() {
 		double averageValue = 0;
-		double totalValue = 0;
-		long totalCount = 0;
-		double totalVolume = 0;
-		double totalReprocessed = 0;
-		try {
-			filterList.getReadWriteLock().readLock().lock();
-			for (MyMining mining : filterList) {
-				totalValue = totalValue + mining.getValue();
-				totalCount = totalCount + mining.getCount();
-				totalVolume = totalVolume + mining.getVolumeTotal();
-				totalReprocessed = totalReprocessed + mining.getValueReprocessed();
-			}
-		} finally {
-			filterList.getReadWriteLock().readLock().unlock();
-		}
+		double totalValue = totals.getTotal(MiningTotalsColumns.VALUE);
+		long totalCount = (long) totals.getTotal(MiningTotalsColumns.COUNT);
+		double totalVolume = totals.getTotal(MiningTotalsColumns.VOLUME);
+		double totalReprocessed = totals.getTotal(MiningTotalsColumns.REPROCESSED);
 		if (totalCount > 0 && totalValue > 0) {
 			averageValue = totalValue / totalCount;
 		}
@@ -227,8 +221,30 @@ public class MiningTab extends JMainTabPrimary {
 	private class ListenerClass implements ListEventListener<MyMining> {
 		@Override
 		public void listChanged(final ListEvent<MyMining> listChanges) {
+			totals.listChanged(listChanges);
 			updateStatusbar();
 		}
 	}
 
+	private static class MiningTotalsColumns implements TotalsColumns<MyMining> {
+
+		private static final int VALUE = 0;
+		private static final int COUNT = 1;
+		private static final int VOLUME = 2;
+		private static final int REPROCESSED = 3;
+
+		@Override
+		public int getColumnCount() {
+			return 4;
+		}
+
+		@Override
+		public void getValues(MyMining mining, double[] values) {
+			values[VALUE] = mining.getValue();
+			values[COUNT] = mining.getCount();
+			values[VOLUME] = mining.getVolumeTotal();
+			values[REPROCESSED] = mining.getValueReprocessed();
+		}
+	}
+
 }
@@ -29,6 +29,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
 import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
@@ -37,6 +39,7 @@ import net.nikr.eve.jeveasset.data.api.raw.RawPublicMarketOrder;
 import net.nikr.eve.jeveasset.data.profile.ProfileData;
 import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.data.sde.RouteFinder;
+import net.nikr.eve.jeveasset.data.sde.RouteFinder.SystemJumps;
 import net.nikr.eve.jeveasset.data.settings.Citadel;
 import net.nikr.eve.jeveasset.io.online.CitadelGetter;
 import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
@@ -50,6 +53,7 @@ import org.slf4j.LoggerFactory;
 public class OutbidProcesser {
 
 	private static final Logger LOG = LoggerFactory.getLogger(OutbidProcesser.class);
+	private static final int MAX_JUMPS = getRange(MarketOrderRange._40) * 2;
 
 	private final OutbidProcesserInput input;
 	private final OutbidProcesserOutput output;
@@ -65,85 +69,152 @@ public class OutbidProcesser {
 	}
 
 	private void process() {
-		//Process order updates
-		for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
-			Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
-			if (orders != null) {
-				for (MyMarketOrder marketOrder : orders) {
-					if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
-						output.getUpdates().put(ordersResponse.getOrderID(), ordersResponse);
-					}
-				}
+		Map<Long, MyLocation> locations = new HashMap<>(); //systemID : long
+		//Own order IDs
+		Set<Long> orderIDs = new HashSet<>();
+		for (Set<MyMarketOrder> orders : input.getTypeIDs().values()) {
+			for (MyMarketOrder marketOrder : orders) {
+				orderIDs.add(marketOrder.getOrderID());
 			}
 		}
-		//Process outbid
+		//Process order updates and group public orders by typeID
+		Map<Integer, List<PublicOrder>> publicOrders = new HashMap<>();
 		for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
 			//Regions with data
-			MyLocation orderLocation = ApiIdConverter.getLocation(ordersResponse.getSystemID());
+			Long systemID = RawConverter.toLong(ordersResponse.getSystemID());
+			MyLocation orderLocation = getLocation(locations, systemID);
 			if (!orderLocation.isEmpty()) {
 				output.getRegionIDs().add(orderLocation.getRegionID());
 			}
-			Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
-			if (orders != null) {
-				//Orders to match
-				for (MyMarketOrder marketOrder : orders) {
-					if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
-						continue;
-					}
-					if (!isSameType(marketOrder, ordersResponse)) { //Both buy or both sell
-						continue;
-					}
-					if (!isInRange(marketOrder, ordersResponse)) { //Order range overlap
-						continue;
-					}
-					Outbid outbid = output.getOutbids().get(marketOrder.getOrderID());
-					if (outbid == null) {
-						outbid = new Outbid(ordersResponse);
-						output.getOutbids().put(marketOrder.getOrderID(), outbid);
-					}
-					RawPublicMarketOrder rawPublicMarketOrder = output.getUpdates().get(marketOrder.getOrderID());
-					final double price;
-					final Date issued;
-					if (rawPublicMarketOrder != null) { //Updated price/issued
-						price = rawPublicMarketOrder.getPrice();
-						issued = rawPublicMarketOrder.getIssued();
-					} else { //Old price/issued (better than nothing)
-						price = marketOrder.getPrice();
-						issued = marketOrder.getIssued();
+			if (!input.getTypeIDs().containsKey(ordersResponse.getTypeID())) {
+				continue;
+			}
+			if (orderIDs.contains(ordersResponse.getOrderID())) { //Orders to be updated
+				output.getUpdates().put(ordersResponse.getOrderID(), ordersResponse);
+			}
+			List<PublicOrder> list = publicOrders.get(ordersResponse.getTypeID());
+			if (list == null) {
+				list = new ArrayList<>();
+				publicOrders.put(ordersResponse.getTypeID(), list);
+			}
+			list.add(new PublicOrder(ordersResponse, systemID, orderLocation));
+		}
+		//Resolve own order systems (once per order)
+		Map<Integer, List<OwnOrder>> ownOrders = new HashMap<>();
+		for (Map.Entry<Integer, Set<MyMarketOrder>> entry : input.getTypeIDs().entrySet()) {
+			if (!publicOrders.containsKey(entry.getKey())) {
+				continue; //Nothing to match
+			}
+			List<OwnOrder> list = new ArrayList<>();
+			for (MyMarketOrder marketOrder : entry.getValue()) {
+				Long systemID = getSystemID(marketOrder.getLocationID());
+				list.add(new OwnOrder(marketOrder, systemID, getLocation(locations, systemID)));
+			}
+			ownOrders.put(entry.getKey(), list);
+		}
+		//Process outbid (typeIDs in parallel)
+		Map<Long, SystemJumps> jumps = new ConcurrentHashMap<>();
+		List<TypeResult> results = ownOrders.entrySet().parallelStream()
+				.map(entry -> processType(entry.getValue(), publicOrders.get(entry.getKey()), jumps))
+				.collect(Collectors.toList());
+		for (TypeResult result : results) {
+			output.getOutbids().putAll(result.getOutbids());
+			if (result.isUnknownLocations()) {
+				output.setUnknownLocations();
+			}
+		}
+		if (output.hasUnknownLocations()) {
+			LOG.warn("Unknown market location ignored");
+		}
+		CitadelGetter.set(input.getCitadels().values());
+	}
+
+	private TypeResult processType(List<OwnOrder> ownOrders, List<PublicOrder> publicOrders, Map<Long, SystemJumps> jumps) {
+		TypeResult result = new TypeResult();
+		//Group by buy/sell and region
+		Map<Long, List<PublicOrder>> buyOrders = new HashMap<>();
+		Map<Long, List<PublicOrder>> sellOrders = new HashMap<>();
+		List<PublicOrder> unknownOrders = new ArrayList<>();
+		for (PublicOrder publicOrder : publicOrders) {
+			if (publicOrder.getLocation().isEmpty()) {
+				unknownOrders.add(publicOrder);
+				continue;
+			}
+			Map<Long, List<PublicOrder>> map = publicOrder.getMarketOrder().isBuyOrder() ? buyOrders : sellOrders;
+			List<PublicOrder> list = map.get(publicOrder.getLocation().getRegionID());
+			if (list == null) {
+				list = new ArrayList<>();
+				map.put(publicOrder.getLocation().getRegionID(), list);
+			}
+			list.add(publicOrder);
+		}
+		for (OwnOrder ownOrder : ownOrders) {
+			MyMarketOrder marketOrder = ownOrder.getMarketOrder();
+			if (ownOrder.getLocation().isEmpty()) {
+				if (hasOtherOrders(marketOrder, publicOrders)) {
+					result.setUnknownLocations(); //We can't work with unknown locations
+				}
+				continue;
+			}
+			if (hasOtherOrders(marketOrder, unknownOrders)) {
+				result.setUnknownLocations(); //We can't work with unknown locations
+			}
+			Map<Long, List<PublicOrder>> map = marketOrder.isBuyOrder() ? buyOrders : sellOrders; //Both buy or both sell
+			List<PublicOrder> list = map.get(ownOrder.getLocation().getRegionID()); //Must be in same region
+			if (list == null) {
+				continue;
+			}
+			for (PublicOrder publicOrder : list) {
+				RawPublicMarketOrder ordersResponse = publicOrder.getMarketOrder();
+				if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
+					continue;
+				}
+				if (!isInRange(ownOrder, publicOrder, jumps)) { //Order range overlap
+					continue;
+				}
+				Outbid outbid = result.getOutbids().get(marketOrder.getOrderID());
+				if (outbid == null) {
+					outbid = new Outbid(ordersResponse);
+					result.getOutbids().put(marketOrder.getOrderID(), outbid);
+				}
+				RawPublicMarketOrder rawPublicMarketOrder = output.getUpdates().get(marketOrder.getOrderID());
+				final double price;
+				final Date issued;
+				if (rawPublicMarketOrder != null) { //Updated price/issued
+					price = rawPublicMarketOrder.getPrice();
+					issued = rawPublicMarketOrder.getIssued();
+				} else { //Old price/issued (better than nothing)
+					price = marketOrder.getPrice();
+					issued = marketOrder.getIssued();
+				}
+				if (marketOrder.isBuyOrder()) { //Buy (outbid is higher)
+					outbid.setPrice(Math.max(outbid.getPrice(), ordersResponse.getPrice()));
+					if (ordersResponse.getPrice() > price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
+						outbid.addCount(ordersResponse.getVolumeRemain());
 					}
-					if (marketOrder.isBuyOrder()) { //Buy (outbid is higher)
-						outbid.setPrice(Math.max(outbid.getPrice(), ordersResponse.getPrice()));
-						if (ordersResponse.getPrice() > price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
-							outbid.addCount(ordersResponse.getVolumeRemain());
-						}
-					} else { //Sell (outbid is lower)
-						outbid.setPrice(Math.min(outbid.getPrice(), ordersResponse.getPrice()));
-						if (ordersResponse.getPrice() < price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
-							outbid.addCount(ordersResponse.getVolumeRemain());
-						} else if (ordersResponse.getPrice() == price) {
-							//TODO matching price, compare date?
-						}
+				} else { //Sell (outbid is lower)
+					outbid.setPrice(Math.min(outbid.getPrice(), ordersResponse.getPrice()));
+					if (ordersResponse.getPrice() < price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
+						outbid.addCount(ordersResponse.getVolumeRemain());
 					}
-
 				}
 			}
 		}
-		CitadelGetter.set(input.getCitadels().values());
+		return result;
 	}
 
-	private boolean isInRange(MyMarketOrder fromMarketOrder, RawPublicMarketOrder toMarketOrder) {
-		Long fromSystemID = getSystemID(fromMarketOrder.getLocationID());
-		Long toSystemID = RawConverter.toLong(toMarketOrder.getSystemID());
-		MyLocation fromSystemLocation = ApiIdConverter.getLocation(fromSystemID);
-		MyLocation toSystemLocation = ApiIdConverter.getLocation(toSystemID);
-		if (fromSystemLocation.isEmpty() || toSystemLocation.isEmpty()) {
-			LOG.warn("Unknown market location ignored");
-			output.setUnknownLocations();
-			return false; //We can't work with unknown locations
-		}
-		if (!Objects.equals(fromSystemLocation.getRegionID(), toSystemLocation.getRegionID())) {
-			return false; //Must be in same region
+	private boolean hasOtherOrders(MyMarketOrder marketOrder, List<PublicOrder> publicOrders) {
+		for (PublicOrder publicOrder : publicOrders) {
+			if (!isSameOrder(marketOrder, publicOrder.getMarketOrder()) && isSameType(marketOrder, publicOrder.getMarketOrder())) {
+				return true;
+			}
 		}
+		return false;
+	}
+
+	private boolean isInRange(OwnOrder fromOrder, PublicOrder toOrder, Map<Long, SystemJumps> jumps) {
+		MyMarketOrder fromMarketOrder = fromOrder.getMarketOrder();
+		RawPublicMarketOrder toMarketOrder = toOrder.getMarketOrder();
 		MarketOrderRange fromRange;
 		MarketOrderRange toRange;
 		if (fromMarketOrder.isBuyOrder()) {
@@ -159,16 +230,27 @@ public class OutbidProcesser {
 			return Objects.equals(fromMarketOrder.getLocationID(), toMarketOrder.getLocationID()); //Only match if in the same station
 		} else {
 			int range = getRange(fromRange) + getRange(toRange); //Find overlapping area
-			//int range = Math.max(getRange(response), getRange(marketOrder)); //Use the order with the max range
-			Integer distance = RouteFinder.get().distanceBetween(fromSystemID, toSystemID);
-			if (distance == null) {
+			if (Objects.equals(fromOrder.getSystemID(), toOrder.getSystemID())) {
+				return true; //Same system (0 jumps)
+			}
+			//One search per system, covering the max range of both orders
+			SystemJumps systemJumps = jumps.computeIfAbsent(fromOrder.getSystemID(), systemID -> RouteFinder.get().getSystemJumps(systemID, MAX_JUMPS));
+			int distance = systemJumps.getJumps(toOrder.getSystemID());
+			if (distance < 0) {
 				return false;
 			}
 			return distance <= range;
 		}
 	}
 
-
+	private MyLocation getLocation(Map<Long, MyLocation> locations, Long systemID) {
+		MyLocation location = locations.get(systemID);
+		if (location == null) {
+			location = ApiIdConverter.getLocation(systemID);
+			locations.put(systemID, location);
+		}
+		return location;
+	}
 
 	public static int getRange(MarketOrderRange range) {
 		switch (range) {
@@ -227,7 +309,7 @@ public class OutbidProcesser {
 		private MarketApi marketApi = null;
 
 		public OutbidProcesserInput(ProfileData profileData, MarketOrderRange sellOrderRange) {
-			this.sellOrderRange = sellOrderRange;
+			this(sellOrderRange);
 			for (OwnerType ownerType : profileData.getOwners().values()) { //Copy = thread safe
 				synchronized (ownerType) {
 					for (MyMarketOrder marketOrder : ownerType.getMarketOrders()) { //Synchronized on owner = thread safe
@@ -268,6 +350,10 @@ public class OutbidProcesser {
 			}
 		}
 
+		OutbidProcesserInput(MarketOrderRange sellOrderRange) {
+			this.sellOrderRange = sellOrderRange;
+		}
+
 		public void addOrders(Map<Integer, Set<RawPublicMarketOrder>> orders, Date date) {
 			if (date == null) {
 				return;
@@ -354,6 +440,74 @@ public class OutbidProcesser {
 		}
 	}
 
+	private static class OwnOrder {
+
+		private final MyMarketOrder marketOrder;
+		private final Long systemID;
+		private final MyLocation location;
+
+		public OwnOrder(MyMarketOrder marketOrder, Long systemID, MyLocation location) {
+			this.marketOrder = marketOrder;
+			this.systemID = systemID;
+			this.location = location;
+		}
+
+		public MyMarketOrder getMarketOrder() {
+			return marketOrder;
+		}
+
+		public Long getSystemID() {
+			return systemID;
+		}
+
+		public MyLocation getLocation() {
+			return location;
+		}
+	}
+
+	private static class PublicOrder {
+
+		private final RawPublicMarketOrder marketOrder;
+		private final Long systemID;
+		private final MyLocation location;
+
+		public PublicOrder(RawPublicMarketOrder marketOrder, Long systemID, MyLocation location) {
+			this.marketOrder = marketOrder;
+			this.systemID = systemID;
+			this.location = location;
+		}
+
+		public RawPublicMarketOrder getMarketOrder() {
+			return marketOrder;
+		}
+
+		public Long getSystemID() {
+			return systemID;
+		}
+
+		public MyLocation getLocation() {
+			return location;
+		}
+	}
+
+	private static class TypeResult {
+
+		private final Map<Long, Outbid> outbids = new HashMap<>();
+		private boolean unknownLocations = false;
+
+		public Map<Long, Outbid> getOutbids() {
+			return outbids;
+		}
+
+		public boolean isUnknownLocations() {
+			return unknownLocations;
+		}
+
+		public void setUnknownLocations() {
+			this.unknownLocations = true;
+		}
+	}
+
 	private static class DatedMarketOrders {
 
 		private final Date date;
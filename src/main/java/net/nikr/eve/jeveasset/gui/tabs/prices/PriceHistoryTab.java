@@ -48,6 +48,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import javax.swing.ButtonGroup;
 import javax.swing.DefaultListModel;
@@ -69,6 +70,7 @@ import net.nikr.eve.jeveasset.data.sde.Item;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceMode;
 import net.nikr.eve.jeveasset.data.settings.PriceHistoryDatabase;
+import net.nikr.eve.jeveasset.data.settings.PriceHistoryDatabase.Resolution;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.data.settings.types.LocationType;
 import net.nikr.eve.jeveasset.gui.frame.StatusPanel;
@@ -186,6 +188,8 @@ public class PriceHistoryTab extends JMainTabSecondary {
 	private final DefaultListModel<Item> itemsModel;
 	private final List<Item> shownOrder = new ArrayList<>();
 	private final Set<Integer> shownTypeIDs = new HashSet<>();
+	private boolean zKillboardResumed = false;
+	private Resolution shownResolution = Resolution.DAY;
 	private final Map<Item, Set<PriceHistoryData>> shownData = new TreeMap<>();
 	private final Map<Item, TimePeriodValues> series = new HashMap<>();
 	private final Map<Item, Double> seriesMax = new HashMap<>();
@@ -500,6 +504,7 @@ public class PriceHistoryTab extends JMainTabSecondary {
 			JOptionPane.showMessageDialog(program.getMainWindow().getFrame(), TabsPriceHistory.get().updatingMsg(), TabsPriceHistory.get().updatingTitle(), JOptionPane.PLAIN_MESSAGE, Images.LINK_ZKILLBOARD_32.getIcon());
 			return;
 		}
+		shownResolution = Resolution.get(getFromDate(), getToDate());
 		switch(getPriceHistorySource()) {
 			case ZKILLBOARD:
 				jPriceType.setEnabled(false);
@@ -513,7 +518,7 @@ public class PriceHistoryTab extends JMainTabSecondary {
 	}
 
 	private void showPriceData(Set<Integer> typeIDs) {
-		addNewItemsLocked(PriceHistoryDatabase.getPriceData(typeIDs, jPriceType.getItemAt(jPriceType.getSelectedIndex())));
+		addNewItemsLocked(PriceHistoryDatabase.getPriceData(typeIDs, jPriceType.getItemAt(jPriceType.getSelectedIndex()), shownResolution));
 	}
 
 	private void showZKillboard(Set<Integer> typeIDs) {
@@ -532,19 +537,37 @@ public class PriceHistoryTab extends JMainTabSecondary {
 		update.removeAll(shownTypeIDs); //Remove already in the GUI
 		if (!update.isEmpty()) { //Update from zKillboard API
 			setUpdating(true);
-			GetItems addItem = new GetItems(update);
+			GetItems addItem = new GetItems(update, true);
 			addItem.execute();
 		}
+		resumeZKillboard(typeIDs);
 		show.retainAll(current); //Keep up-to-date items
 		show.removeAll(shownTypeIDs);//Remove already in the GUI
 		if (!show.isEmpty()) { //Load from Database
-			Map<Item, Set<PriceHistoryData>> load = PriceHistoryDatabase.getZKillboard(show);
+			Map<Item, Set<PriceHistoryData>> load = PriceHistoryDatabase.getZKillboard(show, shownResolution);
 			if (!load.isEmpty()) {
 				addNewItemsLocked(load);
 			}
 		}
 	}
 
+	/**
+	 * Resume interrupted updates in the background (once per session).
+	 * @param typeIDs already being updated
+	 */
+	private void resumeZKillboard(Set<Integer> typeIDs) {
+		if (zKillboardResumed) {
+			return;
+		}
+		zKillboardResumed = true;
+		Set<Integer> queue = PriceHistoryDatabase.getZQueue();
+		queue.removeAll(typeIDs);
+		if (!queue.isEmpty()) {
+			GetItems resume = new GetItems(queue, false);
+			resume.execute();
+		}
+	}
+
 	private void addNewItemsLocked(Map<Item, Set<PriceHistoryData>> map) {
 		jLockWindow.show(NAME, new JLockWindow.LockWorker() {
 			@Override
@@ -640,6 +663,10 @@ public class PriceHistoryTab extends JMainTabSecondary {
 		//dataset
 		Date from = getFromDate();
 		Date to = getToDate();
+		if (Resolution.get(from, to) != shownResolution && jSource.isEnabled()) { //Reload at the needed resolution (unless updating)
+			updateData();
+			return;
+		}
 		for (Map.Entry<Item, Set<PriceHistoryData>> entry : shownData.entrySet()) {
 			createSeries(from, to, entry.getKey(), entry.getValue());
 		}
@@ -893,14 +920,24 @@ public class PriceHistoryTab extends JMainTabSecondary {
 
 	private class GetItems extends SwingWorker<Map<Item, Set<PriceHistoryData>>, Void> {
 
-		private final Map<Item, Set<PriceHistoryData>> data = new TreeMap<>();
-		private final Set<Integer> blacklist = new HashSet<>();
+		private static final int BATCH_SIZE = 25;
+
+		private final Map<Item, Set<PriceHistoryData>> batchData = new HashMap<>();
+		private final Set<Integer> batchBlacklist = new HashSet<>();
 		private final Progress progress;
 		private final Set<Integer> typeIDs;
-
-		public GetItems(Set<Integer> typeIDs) {
+		private final boolean priority;
+		private int done = 0;
+
+		/**
+		 * Update price history from zKillboard.
+		 * @param typeIDs
+		 * @param priority true to update shown items (added to the GUI), false to resume queued items in the background
+		 */
+		public GetItems(Set<Integer> typeIDs, boolean priority) {
 			this.typeIDs = typeIDs;
-			if (typeIDs.size() > 1) {
+			this.priority = priority;
+			if (priority && typeIDs.size() > 1) {
 				progress = program.getStatusPanel().addProgress(UpdateType.PRICE_HISTORY, new StatusPanel.ProgressControl() {
 					@Override
 					public boolean isAuto() {
@@ -923,30 +960,54 @@ public class PriceHistoryTab extends JMainTabSecondary {
 
 		@Override
 		protected Map<Item, Set<PriceHistoryData>> doInBackground() throws Exception {
-			int done = 0;
-			int total = typeIDs.size();
-			for (Integer typeID : typeIDs) {
-				if (typeID == null) {
-					done++;
-					updateProgress(done, total);
-					continue;
-				}
-				Item item = ApiIdConverter.getItem(typeID);
-				//Always Add Item
-				Set<PriceHistoryData> output = new TreeSet<>();
-				data.put(item, output);
-				//Update Item
-				Map<String, Double> input = ZkillboardPricesHistoryGetter.getPriceHistory(typeID);
-				//Verify Data
-				if (input == null || input.isEmpty() || !input.containsKey(PriceHistoryDatabase.getZKillboardDate())) {
-					blacklist.add(typeID);
-					if (input == null || input.isEmpty()) {
-						done++;
-						updateProgress(done, total);
-						continue;
+			Set<Integer> update = new HashSet<>(typeIDs);
+			update.remove(null);
+			final int total = typeIDs.size();
+			done = total - update.size();
+			updateProgress(done, total);
+			if (update.isEmpty()) {
+				return new HashMap<>();
+			}
+			PriceHistoryDatabase.addZQueue(update); //Resume, if interrupted
+			final CountDownLatch latch = new CountDownLatch(update.size());
+			ZkillboardPricesHistoryGetter.PriceHistoryListener listener = new ZkillboardPricesHistoryGetter.PriceHistoryListener() {
+				@Override
+				public void received(int typeID, Map<String, Double> input) {
+					try {
+						add(typeID, input);
+					} finally {
+						latch.countDown();
 					}
 				}
-				//Add Data
+			};
+			ZkillboardPricesHistoryGetter.getPriceHistory(update, priority, listener);
+			try {
+				latch.await();
+			} catch (InterruptedException ex) {
+				ZkillboardPricesHistoryGetter.cancel(listener);
+				throw ex;
+			}
+			flush(); //Save remaining to database
+			if (priority) {
+				return PriceHistoryDatabase.getZKillboard(update, shownResolution);
+			} else {
+				return new HashMap<>();
+			}
+		}
+
+		private synchronized void add(int typeID, Map<String, Double> input) {
+			done++;
+			updateProgress(done, typeIDs.size());
+			Item item = ApiIdConverter.getItem(typeID);
+			//Always Add Item
+			Set<PriceHistoryData> output = new TreeSet<>();
+			batchData.put(item, output);
+			//Verify Data
+			if (input == null || input.isEmpty() || !input.containsKey(PriceHistoryDatabase.getZKillboardDate())) {
+				batchBlacklist.add(typeID);
+			}
+			//Add Data
+			if (input != null) {
 				for (Map.Entry<String, Double> entry : input.entrySet()) {
 					try {
 						PriceHistoryData priceHistoryData = new PriceHistoryData(typeID, item, entry.getKey(), entry.getValue());
@@ -955,10 +1016,19 @@ public class PriceHistoryTab extends JMainTabSecondary {
 						//Ignore data
 					}
 				}
-				done++;
-				updateProgress(done, total);
 			}
-			return data;
+			if (batchData.size() >= BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		/**
+		 * Save to database (single transaction).
+		 */
+		private synchronized void flush() {
+			PriceHistoryDatabase.setZKillboard(batchData, batchBlacklist);
+			batchData.clear();
+			batchBlacklist.clear();
 		}
 
 		private void updateProgress(double done, double total) {
@@ -979,17 +1049,20 @@ public class PriceHistoryTab extends JMainTabSecondary {
 			if (progress != null) {
 				program.getStatusPanel().removeProgress(progress);
 			}
-			PriceHistoryDatabase.setZBlacklist(blacklist);
-			PriceHistoryDatabase.setZKillboard(data); //Save to Database
-			addNewItemsLocked(data);
-			setUpdating(false);
+			Map<Item, Set<PriceHistoryData>> data = new HashMap<>();
 			try {
-				get();
+				data = get();
 			} catch (InterruptedException ex) {
+				flush(); //Save remaining to database
 				LOG.error(ex.getMessage(), ex);
 			} catch (ExecutionException ex) {
+				flush(); //Save remaining to database
 				LOG.error(ex.getMessage(), ex);
 			}
+			if (priority) {
+				addNewItemsLocked(data);
+				setUpdating(false);
+			}
 		}
 	}
 
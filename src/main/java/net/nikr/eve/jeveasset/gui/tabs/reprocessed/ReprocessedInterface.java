@@ -24,9 +24,10 @@ package net.nikr.eve.jeveasset.gui.tabs.reprocessed;
 import net.nikr.eve.jeveasset.data.settings.types.ItemType;
 import net.nikr.eve.jeveasset.data.settings.types.PriceType;
 import net.nikr.eve.jeveasset.gui.shared.CopyHandler.CopySeparator;
+import net.nikr.eve.jeveasset.gui.shared.table.JSeparatorTable.SeparatorKey;
 
 
-public interface ReprocessedInterface extends Comparable<ReprocessedInterface>, ItemType, PriceType, CopySeparator {
+public interface ReprocessedInterface extends Comparable<ReprocessedInterface>, ItemType, PriceType, CopySeparator, SeparatorKey {
 	public String getName();
 	public long getPortionSize();
 	public long getQuantity100();
@@ -38,4 +39,9 @@ public interface ReprocessedInterface extends Comparable<ReprocessedInterface>,
 	public boolean isTotal();
 	public boolean isGrandTotal();
 	public ReprocessedTotal getTotal();
+
+	@Override
+	public default Object getSeparatorKey() { //Same as ReprocessedSeparatorComparator
+		return getTotal().isGrandTotal() + "\r\n" + getTotal().getTypeName().toLowerCase();
+	}
 }
@@ -59,6 +59,7 @@ import net.nikr.eve.jeveasset.gui.shared.CopyHandler.CopySeparator;
 import net.nikr.eve.jeveasset.gui.shared.components.JButtonComparable;
 import net.nikr.eve.jeveasset.gui.shared.components.JButtonNull;
 import net.nikr.eve.jeveasset.gui.shared.table.JSeparatorTable.IgnoreSeparator;
+import net.nikr.eve.jeveasset.gui.shared.table.JSeparatorTable.SeparatorKey;
 import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter.StockpileContainer;
 import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter.StockpileFlag;
 import net.nikr.eve.jeveasset.i18n.General;
@@ -546,7 +547,7 @@ public class Stockpile implements Comparable<Stockpile>, LocationsType, OwnersTy
 		}
 	}
 
-	public static class StockpileItem implements Comparable<StockpileItem>, LocationsType, ItemType, BlueprintType, PriceType, CopySeparator, TagsType, OwnersType, MarketDetailType {
+	public static class StockpileItem implements Comparable<StockpileItem>, LocationsType, ItemType, BlueprintType, PriceType, CopySeparator, TagsType, OwnersType, MarketDetailType, SeparatorKey {
 		private static final AtomicLong TS = new AtomicLong();
 		//Constructor
 		private final long id;
@@ -1115,6 +1116,11 @@ public class Stockpile implements Comparable<Stockpile>, LocationsType, OwnersTy
 			return getGroup() + "\r\n" + stockpile.getName().toLowerCase() + "\r\n" + stockpile.getName(); //Sort lower case, but unique by case
 		}
 
+		@Override
+		public Object getSeparatorKey() {
+			return getSeparator();
+		}
+
 		public String getGroup() {
 			return Settings.get().getStockpileGroupSettings().getGroup(stockpile);
 		}
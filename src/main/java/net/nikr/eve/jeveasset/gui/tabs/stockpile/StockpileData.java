@@ -42,6 +42,7 @@ import net.nikr.eve.jeveasset.data.sde.ItemFlag;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.PriceData;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListDispatcher;
 import net.nikr.eve.jeveasset.gui.shared.table.EventListManager;
 import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter;
 import net.nikr.eve.jeveasset.gui.tabs.stockpile.Stockpile.StockpileFilter.StockpileFlag;
@@ -104,6 +105,38 @@ public class StockpileData extends TableData {
 		}
 	}
 
+	/**
+	 * Update the price of the items with the typeIDs (and the totals of their stockpiles).
+	 * Only the affected rows is updated in the EventList.
+	 * @param eventList
+	 * @param typeIDs
+	 */
+	public void updatePrices(EventList<StockpileItem> eventList, Set<Integer> typeIDs) {
+		if (typeIDs == null || typeIDs.isEmpty()) {
+			return;
+		}
+		List<StockpileItem> found = new ArrayList<>();
+		Set<Stockpile> stockpiles = new HashSet<>();
+		try {
+			eventList.getReadWriteLock().readLock().lock();
+			for (StockpileItem item : eventList) {
+				if (item.isTotal() || !typeIDs.contains(item.getItemTypeID())) {
+					continue;
+				}
+				updatePrice(item);
+				found.add(item);
+				stockpiles.add(item.getStockpile());
+			}
+		} finally {
+			eventList.getReadWriteLock().readLock().unlock();
+		}
+		for (Stockpile stockpile : stockpiles) {
+			stockpile.updateTotal();
+			found.add(stockpile.getTotal());
+		}
+		EventListDispatcher.update(eventList, found);
+	}
+
 	public void updateOwners() {
 		//Owners Look-Up
 		ownersName = new HashMap<>();
@@ -351,13 +384,18 @@ public class StockpileData extends TableData {
 		}
 	}
 
-	private void updateItem(StockpileItem item, Stockpile stockpile) {
+	private void updatePrice(StockpileItem item) {
 		final int TYPE_ID = item.getItemTypeID();
 		double price = ApiIdConverter.getPrice(TYPE_ID, item.isBPC());
 		float volume = ApiIdConverter.getVolume(item.getItem(), true);
 		Double transactionAveragePrice = profileData.getTransactionAveragePrice(TYPE_ID);
 		PriceData priceData = ApiIdConverter.getPriceData(TYPE_ID, item.isBPC());
 		item.updateValues(price, volume, transactionAveragePrice, priceData);
+	}
+
+	private void updateItem(StockpileItem item, Stockpile stockpile) {
+		final int TYPE_ID = item.getItemTypeID();
+		updatePrice(item);
 		//Contract Items
 		if (stockpile.isContracts()) {
 			Set<MyContractItem> items = get(contractItems, stockpile).get(TYPE_ID);
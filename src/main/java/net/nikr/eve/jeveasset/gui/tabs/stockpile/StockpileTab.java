@@ -592,6 +592,11 @@ public class StockpileTab extends JMainTabSecondary implements TagUpdate {
 		jOwners.setEnabled(ownerModel.getSize() > 0);
 	}
 
+	@Override
+	public void updatePrices(Set<Integer> typeIDs) {
+		stockpileData.updatePrices(eventList, typeIDs);
+	}
+
 	private void updateOwners() {
 		//Update Owners
 		stockpileData.updateOwners();
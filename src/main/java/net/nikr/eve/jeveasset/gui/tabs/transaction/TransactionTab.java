@@ -31,6 +31,8 @@ import ca.odell.glazedlists.swing.DefaultEventTableModel;
 import ca.odell.glazedlists.swing.TableComparatorChooser;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.AdjustmentEvent;
+import java.awt.event.AdjustmentListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -41,6 +43,7 @@ import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JPopupMenu;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
@@ -50,6 +53,7 @@ import net.nikr.eve.jeveasset.gui.frame.StatusPanel;
 import net.nikr.eve.jeveasset.gui.frame.StatusPanel.JStatusLabel;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.components.JFixedToolBar;
+import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow;
 import net.nikr.eve.jeveasset.gui.shared.components.JMainTabPrimary;
 import net.nikr.eve.jeveasset.gui.shared.filter.Filter;
 import net.nikr.eve.jeveasset.gui.shared.filter.FilterControl;
@@ -78,6 +82,8 @@ public class TransactionTab extends JMainTabPrimary {
 	private final JStatusLabel jBuyOrdersTotal;
 	private final JStatusLabel jBuyOrdersAverage;
 	private final JButton jClearNew;
+	private final JButton jLoadArchived;
+	private final JLockWindow jLockWindow;
 
 	//Table
 	private final TransactionsFilterControl filterControl;
@@ -108,6 +114,18 @@ public class TransactionTab extends JMainTabPrimary {
 		});
 		jToolBar.addButton(jClearNew);
 
+		jLockWindow = new JLockWindow(program.getMainWindow().getFrame());
+
+		jLoadArchived = new JButton(TabsTransaction.get().loadArchived(), Images.FILTER_LOAD.getIcon());
+		jLoadArchived.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				loadArchived();
+			}
+		});
+		jLoadArchived.setVisible(Settings.get().isWalletArchive());
+		jToolBar.addButton(jLoadArchived);
+
 		//Table Format
 		tableFormat = TableFormatFactory.transactionTableFormat();
 		//Backend
@@ -137,6 +155,20 @@ public class TransactionTab extends JMainTabPrimary {
 		installTable(jTable);
 		//Scroll Panels
 		JScrollPane jTableScroll = new JScrollPane(jTable);
+		//Wallet Archive: Load the next page when scrolled to the end
+		jTableScroll.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+			@Override
+			public void adjustmentValueChanged(AdjustmentEvent e) {
+				if (e.getValueIsAdjusting()) {
+					return;
+				}
+				JScrollBar jScrollBar = jTableScroll.getVerticalScrollBar();
+				if (jScrollBar.getValue() > 0 && jScrollBar.getValue() + jScrollBar.getVisibleAmount() >= jScrollBar.getMaximum()
+						&& jLoadArchived.isVisible() && jLoadArchived.isEnabled()) {
+					loadArchived();
+				}
+			}
+		});
 		//Table Filter
 		filterControl = new TransactionsFilterControl(sortedList);
 		//Menu
@@ -195,6 +227,24 @@ public class TransactionTab extends JMainTabPrimary {
 		);
 	}
 
+	private void loadArchived() {
+		jLoadArchived.setEnabled(false);
+		jLockWindow.show(TabsTransaction.get().loadingArchived(), new JLockWindow.LockWorker() {
+			@Override
+			public void task() {
+				program.getProfileData().loadArchivedTransactions();
+			}
+
+			@Override
+			public void gui() {
+				jLoadArchived.setEnabled(program.getProfileData().isTransactionsArchiveLoadable());
+			}
+
+			@Override
+			public void hidden() { }
+		});
+	}
+
 	@Override
 	public void clearData() {
 		filterControl.clearCache();
@@ -217,10 +267,14 @@ public class TransactionTab extends JMainTabPrimary {
 		}
 		filterControl.createCache();
 		final boolean found = newFound;
+		final boolean archive = Settings.get().isWalletArchive();
+		final boolean loadable = program.getProfileData().isTransactionsArchiveLoadable();
 		Program.ensureEDT(new Runnable() {
 			@Override
 			public void run() {
 				jClearNew.setEnabled(found);
+				jLoadArchived.setVisible(archive);
+				jLoadArchived.setEnabled(loadable);
 			}
 		});
 	}
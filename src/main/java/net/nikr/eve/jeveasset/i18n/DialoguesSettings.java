@@ -98,6 +98,9 @@ public abstract class DialoguesSettings extends Bundle {
 
 	// used in TransactionsToolSettingsPanel
 	public abstract String journal();
+	public abstract String journalArchive();
+	public abstract String journalArchiveDays();
+	public abstract String journalArchiveWarning();
 	public abstract String journalSaveHistory();
 
 	// used in ContractToolSettingsPanel
@@ -110,6 +113,7 @@ public abstract class DialoguesSettings extends Bundle {
 
 	// used in PriceHistoryToolSettingsPanel
 	public abstract String priceHistory();
+	public abstract String priceHistoryConcurrent();
 	public abstract String clearBlacklist();
 	public abstract String clearBlacklistMsg();
 	public abstract String clearBlacklistTitle();
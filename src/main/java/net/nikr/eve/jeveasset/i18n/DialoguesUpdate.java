@@ -44,6 +44,7 @@ public abstract class DialoguesUpdate extends Bundle {
 	public abstract String cancelQuestion();
 	public abstract String cancelQuestionTitle();
 	public abstract String minimize();
+	public abstract String metrics();
 
 	// used in UpdateDialog
 	public abstract String firstAccount();
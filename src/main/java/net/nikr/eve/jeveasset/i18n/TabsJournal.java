@@ -50,6 +50,8 @@ public abstract class TabsJournal extends Bundle {
 	public abstract String contracts();
 	public abstract String findIn();
 	public abstract String industryJobs();
+	public abstract String loadArchived();
+	public abstract String loadingArchived();
 	public abstract String title();
 	public abstract String total();
 	public abstract String totalNegative();
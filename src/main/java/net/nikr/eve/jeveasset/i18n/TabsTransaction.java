@@ -45,6 +45,8 @@ public abstract class TabsTransaction extends Bundle {
 	public abstract String buyTotal();
 	public abstract String clearNew();
 	public abstract String corporation();
+	public abstract String loadArchived();
+	public abstract String loadingArchived();
 	public abstract String personal();
 	public abstract String sell();
 	public abstract String sellAvg();
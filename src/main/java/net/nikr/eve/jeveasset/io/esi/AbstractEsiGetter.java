@@ -20,6 +20,8 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -27,14 +29,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
-import net.nikr.eve.jeveasset.gui.shared.Formatter;
 import net.nikr.eve.jeveasset.io.shared.AbstractGetter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
 import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
 import net.troja.eve.esi.ApiClient;
@@ -57,7 +61,12 @@ import net.troja.eve.esi.api.UserInterfaceApi;
 import net.troja.eve.esi.api.WalletApi;
 import net.troja.eve.esi.auth.OAuth;
 import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,7 +75,16 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(AbstractEsiGetter.class);
 
+	private static final String ESI_HOST = "esi.evetech.net";
+	/**
+	 * Replace the ESI host (ex. with a local replay server) or null to use ESI.
+	 * Can be set with -Djeveasset.esi.url=http://127.0.0.1:port
+	 */
+	private static volatile HttpUrl esiUrl = toHttpUrl(System.getProperty("jeveasset.esi.url"));
+	private static final EsiMetrics METRICS = new EsiMetrics();
 	private static OkHttpClient OkHttpClient;
+	private static Cache cache; //Must be before PUBLIC_CLIENT (no initializer: set when PUBLIC_CLIENT is created)
+	private static boolean cacheCreated;
 	private static final ApiClient PUBLIC_CLIENT = new ApiClientBuilder().okHttpClient(getHttpClient()).build();
 	private static final UniverseApi UNIVERSE_API = new UniverseApi(PUBLIC_CLIENT);
 	private static final CharacterApi CHARACTER_API = new CharacterApi(PUBLIC_CLIENT);
@@ -79,14 +97,17 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	protected static final int UNIVERSE_BATCH_SIZE = 100;
 	protected static final int LOCATIONS_BATCH_SIZE = 100;
 	protected static final int DEFAULT_RETRIES = 3;
+	private static final long CACHE_SIZE = 200L * 1024L * 1024L; //200MB
+	private static final int MAX_PAGES_IN_FLIGHT = 10;
+	private static final EsiLimiter LIMITER = new EsiLimiter();
 	/**
-	 * Errors left in in this error limit time frame (can be null)
-	 */
-	private static Integer errorLimit = null;
-	/**
-	 * Date when the error limit will be reset (never null)
+	 * ETags of the responses in this update (call:page = etag)
 	 */
-	private static Date errorReset = new Date();
+	private final Map<String, String> etags = new TreeMap<>();
+	private int etagsCalls = 0;
+	private String etagsKey = null;
+	private String etagsValue = null;
+	private boolean updated = false;
 
 
 	public AbstractEsiGetter(UpdateTask updateTask, EsiOwner owner, boolean forceUpdate, Date nextUpdate, TaskType taskType) {
@@ -96,13 +117,59 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	public static OkHttpClient getHttpClient() {
 		if (OkHttpClient == null || OkHttpClient.interceptors().size() > 100 || OkHttpClient.networkInterceptors().size() > 100) {
 			OkHttpClient = new OkHttpClient.Builder()
+					.cache(getCache())
 					.readTimeout(20, TimeUnit.SECONDS)
 					.writeTimeout(20, TimeUnit.SECONDS)
-					.connectTimeout(20, TimeUnit.SECONDS).build();
+					.connectTimeout(20, TimeUnit.SECONDS)
+					.addInterceptor(new EsiUrlInterceptor())
+					.addInterceptor(METRICS)
+					.addInterceptor(new CachedErrorLimitInterceptor())
+					.build();
 		}
 		return OkHttpClient;
 	}
 
+	public static EsiMetrics getMetrics() {
+		return METRICS;
+	}
+
+	/**
+	 * Send all ESI requests to another server.
+	 * @param url base url (scheme, host and port) or null to use ESI
+	 */
+	public static void setEsiUrl(String url) {
+		esiUrl = toHttpUrl(url);
+	}
+
+	private static HttpUrl toHttpUrl(String url) {
+		if (url == null || url.isEmpty()) {
+			return null;
+		}
+		HttpUrl httpUrl = HttpUrl.parse(url);
+		if (httpUrl == null) {
+			LOG.warn("Invalid ESI url: " + url);
+		}
+		return httpUrl;
+	}
+
+	/**
+	 * On-disk HTTP cache.
+	 * Stale responses are revalidated with If-None-Match (ETag) and reused on 304 Not Modified.
+	 * Created once and shared by all clients (two Cache instances must not use the same directory).
+	 * @return cache or null, if the cache directory is not available
+	 */
+	private static synchronized Cache getCache() {
+		if (!cacheCreated) {
+			cacheCreated = true;
+			try {
+				cache = new Cache(new File(FileUtil.getPathEsiCache()), CACHE_SIZE);
+			} catch (RuntimeException ex) {
+				LOG.warn("ESI cache disabled: " + ex.getMessage());
+			}
+		}
+		return cache;
+	}
+
 	private static boolean forceUpdate(EsiOwner owner, TaskType taskType, boolean forceUpdate) {
 		if (forceUpdate) {
 			return true;
@@ -114,8 +181,62 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		return false;
 	}
 
+	private static class EsiUrlInterceptor implements Interceptor {
+		@Override
+		public Response intercept(Chain chain) throws IOException {
+			HttpUrl url = esiUrl;
+			Request request = chain.request();
+			if (url != null && ESI_HOST.equals(request.url().host())) {
+				request = request.newBuilder()
+						.url(request.url().newBuilder().scheme(url.scheme()).host(url.host()).port(url.port()).build())
+						.build();
+			}
+			return chain.proceed(request);
+		}
+	}
+
+	/**
+	 * Responses served from the cache (without a network request) still hold the error limit headers from when they were cached.
+	 * Remove them, so only the current error limit is used by the limiter and the metrics.
+	 */
+	private static class CachedErrorLimitInterceptor implements Interceptor {
+		@Override
+		public Response intercept(Chain chain) throws IOException {
+			Response response = chain.proceed(chain.request());
+			if (response.networkResponse() == null && response.cacheResponse() != null) {
+				return response.newBuilder()
+						.removeHeader("x-esi-error-limit-remain")
+						.removeHeader("x-esi-error-limit-reset")
+						.build();
+			}
+			return response;
+		}
+	}
+
 	protected abstract RolesEnum[] getRequiredRoles();
 
+	/**
+	 * @return true, if the update was completed without errors (the owner data is up to date)
+	 */
+	public boolean isUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Check if the data of the endpoint can be copied from another owner, instead of updating it.
+	 * Same checks as run(), except the cache time: the owner must be enabled, have a valid authorization and access to the endpoint.
+	 * @return true, if the owner is allowed to get the endpoint data
+	 */
+	public boolean canCopy() {
+		if (owner == null) {
+			return false;
+		}
+		if (isForceUpdate()) {
+			return haveAccess();
+		}
+		return owner.isShowOwner() && !owner.isInvalid() && haveAccess();
+	}
+
 	@Override
 	public void run() {
 		if (!canUpdate()) {
@@ -146,6 +267,10 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		}
 		try {
 			update();
+			updated = true;
+			if (etagsKey != null && etagsValue != null && owner != null) {
+				owner.setEtags(etagsKey, etagsValue); //Data updated: Save ETags
+			}
 		} catch (ApiException ex) {
 			addError("Error Code: " + ex.getCode() + "\r\n" + ex.getResponseBody(), "Error Code: " + ex.getCode() + "\r\n" + ex.getResponseBody(), ex);
 		} catch (TaskCancelledException ex) {
@@ -162,20 +287,17 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	}
 
 	private <R> R updateApi(Updater<ApiResponse<R>, ApiException> updater, int retries) throws ApiException {
-		checkErrors(); //Update timeframe as needed
 		checkCancelled();
+		ApiResponse<R> apiResponse;
+		long start = LIMITER.acquire(this::checkCancelled); //Wait for a free slot (and the error limit)
 		try {
-			ApiResponse<R> apiResponse = updater.update();
-			if (apiResponse == null) {
-				return null;
-			}
-			handleHeaders(apiResponse);
-			logInfo(updater.getStatus(), "Updated");
-			if (owner != null) {
-				owner.setInvalid(false);
-			}
-			return apiResponse.getData();
+			apiResponse = updater.update();
+			LIMITER.release(start, 200);
+		} catch (RuntimeException | Error ex) {
+			LIMITER.release(start, 0);
+			throw ex;
 		} catch (ApiException ex) {
+			LIMITER.release(start, ex.getCode()); //Release before retrying
 			handleHeaders(ex);
 			logWarn(ex.getResponseBody(), ex.getMessage());
 			if (ex.getCode() == 401 && ex.getResponseBody().toLowerCase().contains("error") && ex.getResponseBody().toLowerCase().contains("authorization not provided")) {
@@ -195,11 +317,25 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 					//No problem
 				}
 				logInfo(updater.getStatus(), "Retrying " + retries + " of " + updater.getMaxRetries() + ":");
-				return updateApi(updater, retries);
+				EsiMetrics.retry();
+				try {
+					return updateApi(updater, retries);
+				} finally {
+					EsiMetrics.clearRetry();
+				}
 			} else {
 				throw ex;
 			}
 		}
+		if (apiResponse == null) {
+			return null;
+		}
+		handleHeaders(apiResponse);
+		logInfo(updater.getStatus(), "Updated");
+		if (owner != null) {
+			owner.setInvalid(false);
+		}
+		return apiResponse.getData();
 	}
 
 	protected void handleHeaders(ApiException apiException) {
@@ -214,46 +350,57 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 	protected abstract void update() throws ApiException;
 
-	private void setErrorLimit(Map<String, List<String>> responseHeaders) {
-		if (responseHeaders != null) {
-			setErrorLimit(getHeaderInteger(responseHeaders, "x-esi-error-limit-remain"));
-			setErrorReset(getHeaderInteger(responseHeaders, "x-esi-error-limit-reset"));
+	/**
+	 * Check if all responses in this update are unchanged since the owner data was last converted.
+	 * Must be called after all data have been updated, before the data is converted.
+	 * Return true, to skip the conversion and keep the current owner data.
+	 * @param key data type
+	 * @return true if all responses have the same ETags as the last time
+	 */
+	protected boolean isNotModified(String key) {
+		String value;
+		synchronized (etags) {
+			if (etags.isEmpty() || etags.containsValue(null)) {
+				return false; //Missing ETag
+			}
+			value = etags.toString();
 		}
+		etagsKey = key;
+		etagsValue = value;
+		if (owner == null || !value.equals(owner.getEtags(key))) {
+			return false;
+		}
+		logInfo(null, "Not modified");
+		return true;
 	}
 
-	private synchronized static void setErrorLimit(Integer errorLimit) {
-		if (AbstractEsiGetter.errorLimit != null && errorLimit != null) {
-			AbstractEsiGetter.errorLimit = Math.min(AbstractEsiGetter.errorLimit, errorLimit);
-		} else {
-			AbstractEsiGetter.errorLimit = errorLimit;
+	private int nextEtagsCall() {
+		synchronized (etags) {
+			etagsCalls++;
+			return etagsCalls;
 		}
 	}
 
-	private synchronized static void setErrorReset(Integer errorReset) {
-		if (errorReset != null) {
-			AbstractEsiGetter.errorReset = new Date(System.currentTimeMillis() + (errorReset * 1000L));
+	private void addEtag(int call, int page, ApiResponse<?> response) {
+		synchronized (etags) {
+			etags.put(call + ":" + page, response != null ? getHeader(response.getHeaders(), "etag") : null);
 		}
 	}
 
-	private synchronized static void checkErrors() {
-		if (errorLimit != null && errorLimit < 10) { //Error limit reached
-			try {
-				long wait = (errorReset.getTime() + 1000) - System.currentTimeMillis();
-				LOG.warn("Error limit reached waiting: " + Formatter.milliseconds(wait, false, false));
-				if (wait > 0) { //Negative values throws an Exception
-					Thread.sleep(wait); //Wait until the error window is reset
-				}
-				//Reset
-				AbstractEsiGetter.errorReset = new Date(); //New timeframe
-				AbstractEsiGetter.errorLimit = null; //No errors in this timeframe (yet)
-			} catch (InterruptedException ex) {
-				//No problem
-			}
-		} else if (errorLimit != null && errorLimit < 100) { //At least one error
-			LOG.warn("Error limit: " + errorLimit);
+	private void setErrorLimit(Map<String, List<String>> responseHeaders) {
+		if (responseHeaders != null) {
+			LIMITER.setErrorLimit(getHeaderInteger(responseHeaders, "x-esi-error-limit-remain"), getHeaderInteger(responseHeaders, "x-esi-error-limit-reset"));
 		}
 	}
 
+	/**
+	 * Live concurrency metrics of the ESI requests.
+	 * @return the shared limiter
+	 */
+	public static EsiLimiter getLimiter() {
+		return LIMITER;
+	}
+
 	public MarketApi getMarketApiAuth() {
 		return owner.getMarketApiAuth();
  	}
@@ -380,6 +527,48 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		protected abstract ApiResponse<V> get(K k) throws ApiException;
 	}
 
+	/**
+	 * Batched lookup, where a single invalid ID fails the whole batch.
+	 * Failed batches are split in two and both halves are retried, until the invalid IDs are isolated.
+	 * k invalid IDs in n IDs cost O(k log n) extra requests, instead of one request per ID.
+	 * The handler must return null for a batch that failed because of invalid IDs.
+	 * @param <K> ID
+	 * @param <V> response
+	 * @param list IDs to lookup
+	 * @param batchSize max IDs per request
+	 * @param maxRetries
+	 * @param handler
+	 * @param invalid the invalid IDs are added to this set
+	 * @return responses of the successful batches
+	 * @throws ApiException
+	 */
+	protected final <K, V> Map<List<K>, V> updateBatches(Collection<K> list, int batchSize, int maxRetries, ListHandler<List<K>, V> handler, Set<K> invalid) throws ApiException {
+		Map<List<K>, V> values = new HashMap<>();
+		List<List<K>> batches = splitList(list, batchSize);
+		while (!batches.isEmpty()) {
+			Map<List<K>, V> responses = updateList(batches, maxRetries, handler);
+			values.putAll(responses);
+			List<List<K>> failed = new ArrayList<>();
+			for (List<K> batch : batches) {
+				if (responses.containsKey(batch)) {
+					continue;
+				}
+				if (batch.size() == 1) {
+					invalid.add(batch.get(0));
+				} else { //Bisect
+					int half = batch.size() / 2;
+					failed.add(new ArrayList<>(batch.subList(0, half)));
+					failed.add(new ArrayList<>(batch.subList(half, batch.size())));
+				}
+			}
+			if (!failed.isEmpty()) {
+				LOG.info("Bisecting " + failed.size() + " batches");
+			}
+			batches = failed;
+		}
+		return values;
+	}
+
 	protected class ListUpdater<K, V> implements Updater<ApiResponse<V>, ApiException>, Callable<Map<K, V>> {
 
 		private final ListHandler<K, V> handler;
@@ -562,9 +751,11 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	}
 
 	protected <K> List<K> updatePages(int maxRetries, EsiPagesHandler<K> handler) throws ApiException {
+		final int call = nextEtagsCall();
 		List<K> values = new ArrayList<>();
 		EsiPageUpdater<K> pageUpdater = new EsiPageUpdater<>(handler, 1, "1 of ?", maxRetries);
 		List<K> returnValue = updateApi(pageUpdater);
+		addEtag(call, 1, pageUpdater.getResponse());
 		if (returnValue != null) {
 			values.addAll(returnValue);
 		}
@@ -587,6 +778,9 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 						}
 					}
 				}
+				for (EsiPageUpdater<K> updater : updaters) {
+					addEtag(call, updater.page, updater.getResponse());
+				}
 			} catch (InterruptedException ex) {
 				throw new RuntimeException(ex);
 			} catch (ExecutionException ex) {
@@ -596,6 +790,64 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		return values;
 	}
 
+	/**
+	 * Streaming version of updatePages(int, EsiPagesHandler).
+	 * Each page is handed to the consumer as soon as it's updated (not in page order).
+	 * At most MAX_PAGES_IN_FLIGHT pages are updated (and kept in memory) at the same time.
+	 * If any page fails, the exception is thrown: the consumed data should be discarded.
+	 * @param <K>
+	 * @param maxRetries
+	 * @param handler
+	 * @param consumer called on the updating thread (one page at the time)
+	 * @throws ApiException
+	 */
+	protected <K> void updatePages(int maxRetries, EsiPagesHandler<K> handler, EsiPageConsumer<K> consumer) throws ApiException {
+		final int call = nextEtagsCall();
+		EsiPageUpdater<K> pageUpdater = new EsiPageUpdater<>(handler, 1, "1 of ?", maxRetries);
+		List<K> returnValue = updateApi(pageUpdater);
+		addEtag(call, 1, pageUpdater.getResponse());
+		Integer pages = getHeaderInteger(pageUpdater.getResponse().getHeaders(), "x-pages"); //Get pages header
+		pageUpdater.clear();
+		if (returnValue != null) {
+			consumer.consume(returnValue);
+		}
+		if (pages != null && pages > 1) { //More than one page
+			List<Callable<EsiPageUpdater<K>>> updaters = new ArrayList<>();
+			for (int i = 2; i <= pages; i++) { //Get the remaining pages (we already got page 1 so we start at page 2
+				EsiPageUpdater<K> updater = new EsiPageUpdater<>(handler, i, i + " of " + pages, maxRetries);
+				updaters.add(new Callable<EsiPageUpdater<K>>() {
+					@Override
+					public EsiPageUpdater<K> call() throws Exception {
+						updater.call();
+						return updater;
+					}
+				});
+			}
+			LOG.info("Streaming " + updaters.size() + " pages threads");
+			try {
+				startSubThreadsStream(updaters, MAX_PAGES_IN_FLIGHT, new Consumer<EsiPageUpdater<K>>() {
+					@Override
+					public void accept(EsiPageUpdater<K> updater) {
+						ApiResponse<List<K>> response = updater.getResponse();
+						addEtag(call, updater.page, response);
+						updater.clear(); //Only the consumer keep the page
+						if (response != null && response.getData() != null) {
+							consumer.consume(response.getData());
+						}
+					}
+				});
+			} catch (InterruptedException ex) {
+				throw new RuntimeException(ex);
+			} catch (ExecutionException ex) {
+				ThreadWoker.throwExecutionException(ApiException.class, ex);
+			}
+		}
+	}
+
+	public interface EsiPageConsumer<K> {
+		public void consume(List<K> page);
+	}
+
 	public interface EsiPagesHandler<K> {
 		public ApiResponse<List<K>> get(Integer page) throws ApiException;
 	}
@@ -630,6 +882,13 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 			return response;
 		}
 
+		/**
+		 * Release the response (when the data have been consumed).
+		 */
+		public void clear() {
+			response = null;
+		}
+
 		@Override
 		public String getStatus() {
 			return status;
@@ -642,8 +901,11 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	}
 
 	protected <K> K update(int maxRetries, EsiHandler<K> handler) throws ApiException {
+		final int call = nextEtagsCall();
 		EsiUpdater<K> esiUpdater = new EsiUpdater<>(maxRetries, handler);
-		return esiUpdater.go();
+		K k = esiUpdater.go();
+		addEtag(call, 1, esiUpdater.response);
+		return k;
 	}
 
 	public interface EsiHandler<K> {
@@ -654,6 +916,7 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 		private final int maxRetries;
 		private final EsiHandler<T> handler;
+		private ApiResponse<T> response;
 
 		public EsiUpdater(int maxRetries, EsiHandler<T> handler) {
 			this.maxRetries = maxRetries;
@@ -666,7 +929,8 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 		@Override
 		public ApiResponse<T> update() throws ApiException {
-			return handler.get();
+			response = handler.get();
+			return response;
 		}
 
 		@Override
@@ -20,9 +20,12 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.ListIterator;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import net.troja.eve.esi.ApiException;
 import net.troja.eve.esi.ApiResponse;
@@ -39,7 +42,8 @@ public class EsiAssetsGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		if (owner.isCorporation()) {
-			List<CorporationAssetsResponse> responses = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CorporationAssetsResponse>() {
+			List<List<CorporationAssetsResponse>> pages = new ArrayList<>();
+			updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CorporationAssetsResponse>() {
 				@Override
 				public ApiResponse<List<CorporationAssetsResponse>> get(Integer page) throws ApiException {
 					ApiResponse<List<CorporationAssetsResponse>> apiResponse = getAssetsApiAuth().getCorporationsCorporationIdAssetsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
@@ -49,10 +53,24 @@ public class EsiAssetsGetter extends AbstractEsiGetter {
 					}
 					return apiResponse;
 				}
+			}, new EsiPageConsumer<CorporationAssetsResponse>() {
+				@Override
+				public void consume(List<CorporationAssetsResponse> page) {
+					pages.add(page); //The response is discarded
+				}
 			});
-			owner.setAssets(EsiConverter.toAssetsCorporation(responses, owner));
+			if (isNotModified("assets")) {
+				return;
+			}
+			List<RawAsset> rawAssets = new ArrayList<>();
+			for (ListIterator<List<CorporationAssetsResponse>> iterator = pages.listIterator(); iterator.hasNext();) {
+				rawAssets.addAll(EsiConverter.toRawAssetsCorporation(iterator.next()));
+				iterator.set(null); //Release the page when converted
+			}
+			owner.setAssets(EsiConverter.toAssetsRaw(rawAssets, owner));
 		} else {
-			List<CharacterAssetsResponse> responses = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CharacterAssetsResponse>() {
+			List<List<CharacterAssetsResponse>> pages = new ArrayList<>();
+			updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CharacterAssetsResponse>() {
 				@Override
 				public ApiResponse<List<CharacterAssetsResponse>> get(Integer page) throws ApiException {
 					ApiResponse<List<CharacterAssetsResponse>> apiResponse = getAssetsApiAuth().getCharactersCharacterIdAssetsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
@@ -62,8 +80,21 @@ public class EsiAssetsGetter extends AbstractEsiGetter {
 					}
 					return apiResponse;
 				}
+			}, new EsiPageConsumer<CharacterAssetsResponse>() {
+				@Override
+				public void consume(List<CharacterAssetsResponse> page) {
+					pages.add(page); //The response is discarded
+				}
 			});
-			owner.setAssets(EsiConverter.toAssets(responses, owner));
+			if (isNotModified("assets")) {
+				return;
+			}
+			List<RawAsset> rawAssets = new ArrayList<>();
+			for (ListIterator<List<CharacterAssetsResponse>> iterator = pages.listIterator(); iterator.hasNext();) {
+				rawAssets.addAll(EsiConverter.toRawAssets(iterator.next()));
+				iterator.set(null); //Release the page when converted
+			}
+			owner.setAssets(EsiConverter.toAssetsRaw(rawAssets, owner));
 		}
 	}
 
@@ -46,6 +46,9 @@ public class EsiBlueprintsGetter extends AbstractEsiGetter {
 					return getCorporationApiAuth().getCorporationsCorporationIdBlueprintsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
 				}
 			});
+			if (isNotModified("blueprints")) {
+				return;
+			}
 			owner.setBlueprints(EsiConverter.toBlueprintsCorporation(responses));
 		} else {
 			List<CharacterBlueprintsResponse> responses = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CharacterBlueprintsResponse>() {
@@ -54,6 +57,9 @@ public class EsiBlueprintsGetter extends AbstractEsiGetter {
 					return getCharacterApiAuth().getCharactersCharacterIdBlueprintsWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
 				}
 			});
+			if (isNotModified("blueprints")) {
+				return;
+			}
 			owner.setBlueprints(EsiConverter.toBlueprints(responses));
 		}
 		if (owner.getBlueprints().size() == 25000) {
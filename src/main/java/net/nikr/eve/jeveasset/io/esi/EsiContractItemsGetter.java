@@ -31,8 +31,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.my.MyContract;
 import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.data.profile.ContractItems;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
+import net.nikr.eve.jeveasset.io.shared.DataConverter;
 import net.troja.eve.esi.ApiException;
 import net.troja.eve.esi.ApiResponse;
 import net.troja.eve.esi.model.CharacterContractsItemsResponse;
@@ -63,6 +66,7 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		createContracts(owners);
+		Set<MyContract> updated = new HashSet<>();
 		if (owner.isCorporation()) {
 			List<List<MyContract>> updates = splitList(contracts.get(owner.getOwnerID()), BATCH_SIZE);
 			Map<MyContract, List<CorporationContractsItemsResponse>> responseList = new HashMap<>();
@@ -89,6 +93,7 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 			}
 			for (Map.Entry<MyContract, List<CorporationContractsItemsResponse>> entry : responseList.entrySet()) {
 				owner.setContracts(EsiConverter.toContractItemsCorporation(entry.getKey(), entry.getValue(), owner));
+				updated.add(entry.getKey());
 			}
 		} else {
 			Map<MyContract, List<CharacterContractsItemsResponse>> responses = updateList(contracts.get(owner.getOwnerID()), DEFAULT_RETRIES, new ListHandler<MyContract, List<CharacterContractsItemsResponse>>() {
@@ -102,6 +107,7 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 			});
 			for (Map.Entry<MyContract, List<CharacterContractsItemsResponse>> entry : responses.entrySet()) {
 				owner.setContracts(EsiConverter.toContractItems(entry.getKey(), entry.getValue(), owner));
+				updated.add(entry.getKey());
 			}
 		}
 		//Public contracts (Have blueprint info Runs/Me/Te)
@@ -121,7 +127,14 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 		});
 		for (Map.Entry<MyContract, List<PublicContractsItemsResponse>> entry : responses.entrySet()) {
 			owner.setContracts(EsiConverter.toContractItemsPublic(entry.getKey(), entry.getValue(), owner));
+			updated.add(entry.getKey());
 		}
+		//Contract items never change: Save them, so they are never updated again (by any owner)
+		Map<Integer, List<MyContractItem>> contractItems = new HashMap<>();
+		for (MyContract contract : updated) {
+			contractItems.put(contract.getContractID(), owner.getContracts().get(contract));
+		}
+		ContractItems.add(contractItems);
 	}
 
 	private static synchronized void createContracts(List<EsiOwner> owners) {
@@ -130,6 +143,16 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 			publicContracts = new HashMap<>();
 			Set<MyContract> uniqueContacts = new HashSet<>();
 			Map<Long, EsiOwner> uniqueOwners = new HashMap<>();
+			//Contract items already updated by another owner (or profile)
+			Set<Integer> contractIDs = new HashSet<>();
+			for (EsiOwner esiOwner : owners) {
+				for (Map.Entry<MyContract, List<MyContractItem>> entry : esiOwner.getContracts().entrySet()) {
+					if (entry.getValue() == null || entry.getValue().isEmpty()) {
+						contractIDs.add(entry.getKey().getContractID());
+					}
+				}
+			}
+			Map<Integer, List<RawContractItem>> stored = ContractItems.get(contractIDs);
 			for (EsiOwner esiOwner : owners) {
 				if (!esiOwner.isShowOwner()) {
 					continue;
@@ -145,6 +168,15 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 					if (entry.getValue() != null && !entry.getValue().isEmpty()) {
 						continue; //Ignore contracts that have been already updated
 					}
+					List<RawContractItem> rawContractItems = stored.get(contract.getContractID());
+					if (rawContractItems != null) {
+						List<MyContractItem> contractItems = new ArrayList<>();
+						for (RawContractItem rawContractItem : rawContractItems) {
+							contractItems.add(DataConverter.toMyContractItem(rawContractItem, contract));
+						}
+						entry.setValue(contractItems);
+						continue; //Ignore contracts that have been already updated (by another owner)
+					}
 					if (esiOwner.isCorporation() && contract.isDeleted()) {
 						continue; //Ignore deleted corporation contracts
 					}
@@ -110,18 +110,30 @@ public class EsiConverter extends DataConverter {
 	}
 
 	public static List<MyAsset> toAssets(List<CharacterAssetsResponse> responses, OwnerType owner) {
+		return toAssetsRaw(toRawAssets(responses), owner);
+	}
+
+	public static List<MyAsset> toAssetsCorporation(List<CorporationAssetsResponse> responses, OwnerType owner) {
+		return toAssetsRaw(toRawAssetsCorporation(responses), owner);
+	}
+
+	public static List<RawAsset> toRawAssets(List<CharacterAssetsResponse> responses) {
 		List<RawAsset> rawAssets = new ArrayList<>();
 		for (CharacterAssetsResponse response : responses) {
 			rawAssets.add(new RawAsset(response));
 		}
-		return convertRawAssets(rawAssets, owner);
+		return rawAssets;
 	}
 
-	public static List<MyAsset> toAssetsCorporation(List<CorporationAssetsResponse> responses, OwnerType owner) {
+	public static List<RawAsset> toRawAssetsCorporation(List<CorporationAssetsResponse> responses) {
 		List<RawAsset> rawAssets = new ArrayList<>();
 		for (CorporationAssetsResponse response : responses) {
 			rawAssets.add(new RawAsset(response));
 		}
+		return rawAssets;
+	}
+
+	public static List<MyAsset> toAssetsRaw(List<RawAsset> rawAssets, OwnerType owner) {
 		return convertRawAssets(rawAssets, owner);
 	}
 
@@ -282,7 +294,25 @@ public class EsiConverter extends DataConverter {
 
 	public static Map<Integer, Set<RawPublicMarketOrder>> toPublicMarketOrders(List<MarketOrdersResponse> responses) {
 		Map<Integer, Set<RawPublicMarketOrder>> marketOrders = new HashMap<>();
+		toPublicMarketOrders(responses, marketOrders);
+		return marketOrders;
+	}
+
+	public static void toPublicMarketOrders(List<MarketOrdersResponse> responses, Map<Integer, Set<RawPublicMarketOrder>> marketOrders) {
+		toPublicMarketOrders(responses, marketOrders, null);
+	}
+
+	/**
+	 * Convert public market orders, ignoring orders of other types.
+	 * @param responses
+	 * @param marketOrders typeID to orders
+	 * @param typeIDs only convert orders of these types (null for all types)
+	 */
+	public static void toPublicMarketOrders(List<MarketOrdersResponse> responses, Map<Integer, Set<RawPublicMarketOrder>> marketOrders, Set<Integer> typeIDs) {
 		for (MarketOrdersResponse response : responses) {
+			if (typeIDs != null && !typeIDs.contains(response.getTypeId())) {
+				continue; //Dropped before converting
+			}
 			RawPublicMarketOrder marketOrder = new RawPublicMarketOrder(response);
 			Set<RawPublicMarketOrder> set = marketOrders.get(marketOrder.getTypeID());
 			if (set == null) {
@@ -291,7 +321,6 @@ public class EsiConverter extends DataConverter {
 			}
 			set.add(marketOrder);
 		}
-		return marketOrders;
 	}
 
 	public static List<MySkill> toSkills(List<Skill> responses, OwnerType owner) {
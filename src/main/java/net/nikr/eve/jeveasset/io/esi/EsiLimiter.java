@@ -0,0 +1,318 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import net.nikr.eve.jeveasset.gui.shared.Formatter;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adaptive limit of in-flight ESI requests (AIMD).
+ * The limit is increased by one per limit of healthy responses,
+ * and cut on server errors, slow responses and a low error limit.
+ * Threads waiting for a permit release the lock while waiting (no sleeping under a class lock),
+ * so headers can still be reported and other requests can still complete.
+ * Use a ReentrantLock (not synchronized/wait) so waiting virtual threads don't pin their carrier thread.
+ */
+public class EsiLimiter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiLimiter.class);
+
+	public static final int DEFAULT_MIN_LIMIT = 2;
+	public static final int DEFAULT_MAX_LIMIT = 100;
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+	private static final int ERROR_LIMIT_STOP = 10; //Stop until the error limit is reset
+	private static final int ERROR_LIMIT_WARN = 100; //At least one error
+	private static final double DECREASE_ERROR = 0.5;
+	private static final double DECREASE_SLOW = 0.75;
+	private static final long DECREASE_INTERVAL = 1000; //Only cut the limit once per interval
+	private static final long SLOW_LATENCY_MIN = 2000; //Never considered slow below this
+	private static final int SLOW_LATENCY_FACTOR = 4; //Slow: more than 4 times the fastest response
+	private static final double LATENCY_WEIGHT = 0.2;
+	private static final long WAIT_TIMEOUT = 500; //Check if cancelled every 500ms
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final int minLimit;
+	private final int maxLimit;
+	private double limit;
+	private int inFlight = 0;
+	private int waiting = 0;
+	private long pausedUntil = 0;
+	private long lastDecrease = 0;
+	//Error limit
+	private Integer errorLimit = null;
+	private long errorReset = 0;
+	//Metrics
+	private int peakInFlight = 0;
+	private double latency = 0;
+	private long minLatency = Long.MAX_VALUE;
+	private long requests = 0;
+	private long serverErrors = 0;
+	private long slowResponses = 0;
+	private long decreases = 0;
+
+	public EsiLimiter() {
+		this(DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_INITIAL_LIMIT);
+	}
+
+	public EsiLimiter(int minLimit, int maxLimit, int initialLimit) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+
+	/**
+	 * Wait for a permit.
+	 * Every acquire must be followed by exactly one release.
+	 * @param checkCancelled called while waiting, throw TaskCancelledException to stop waiting
+	 * @return start time (used for release)
+	 */
+	public long acquire(Runnable checkCancelled) {
+		lock.lock();
+		waiting++;
+		try {
+			while (true) {
+				checkCancelled.run();
+				long now = System.currentTimeMillis();
+				if (pausedUntil > now) { //Error limit reached
+					changed.await(Math.min(pausedUntil - now, WAIT_TIMEOUT), TimeUnit.MILLISECONDS);
+					continue;
+				}
+				if (pausedUntil != 0) { //Error limit reset
+					pausedUntil = 0;
+					errorLimit = null; //No errors in this timeframe (yet)
+				}
+				if (inFlight >= getLimit()) {
+					changed.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+					continue;
+				}
+				inFlight++;
+				peakInFlight = Math.max(peakInFlight, inFlight);
+				return System.nanoTime();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new TaskCancelledException();
+		} finally {
+			waiting--;
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Release a permit and adjust the limit from the response.
+	 * @param start returned by acquire
+	 * @param statusCode HTTP status code (0 for IO errors)
+	 */
+	public void release(long start, int statusCode) {
+		lock.lock();
+		try {
+			inFlight--;
+			requests++;
+			long time = (System.nanoTime() - start) / 1000000;
+			if (statusCode == 0 || statusCode >= 500 || statusCode == 420) { //Server error, timeout or error limited
+				serverErrors++;
+				decrease(DECREASE_ERROR);
+			} else {
+				latency = latency == 0 ? time : (latency * (1 - LATENCY_WEIGHT)) + (time * LATENCY_WEIGHT);
+				minLatency = Math.min(minLatency, time);
+				if (time > Math.max(SLOW_LATENCY_MIN, minLatency * SLOW_LATENCY_FACTOR)) {
+					slowResponses++;
+					decrease(DECREASE_SLOW);
+				} else if (limit < maxLimit) {
+					limit = Math.min(maxLimit, limit + (1 / limit));
+				}
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Update the error limit from the x-esi-error-limit-remain and x-esi-error-limit-reset headers.
+	 * @param remain errors left in this timeframe (can be null)
+	 * @param reset seconds until the error limit is reset (can be null)
+	 */
+	public void setErrorLimit(Integer remain, Integer reset) {
+		lock.lock();
+		try {
+			long now = System.currentTimeMillis();
+			boolean sameTimeframe = now <= errorReset;
+			if (reset != null) {
+				errorReset = now + (reset * 1000L);
+			}
+			if (remain == null) {
+				return;
+			}
+			if (errorLimit != null && sameTimeframe) {
+				errorLimit = Math.min(errorLimit, remain);
+			} else {
+				errorLimit = remain;
+			}
+			if (errorLimit < ERROR_LIMIT_STOP) {
+				if (pausedUntil == 0) {
+					pausedUntil = Math.max(now, errorReset) + 1000;
+					LOG.warn("Error limit reached waiting: " + Formatter.milliseconds(pausedUntil - now, false, false));
+					lastDecrease = 0; //Always cut
+					decrease(DECREASE_ERROR);
+				}
+			} else if (errorLimit < ERROR_LIMIT_WARN) {
+				LOG.warn("Error limit: " + errorLimit);
+				decrease(DECREASE_SLOW);
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void decrease(double factor) {
+		long now = System.currentTimeMillis();
+		if (now - lastDecrease < DECREASE_INTERVAL) {
+			return; //Already cut for this burst
+		}
+		lastDecrease = now;
+		decreases++;
+		limit = Math.max(minLimit, limit * factor);
+		LOG.debug("ESI limit decreased: " + this);
+	}
+
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getPeakInFlight() {
+		lock.lock();
+		try {
+			return peakInFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getWaiting() {
+		lock.lock();
+		try {
+			return waiting;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public Integer getErrorLimit() {
+		lock.lock();
+		try {
+			return errorLimit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return milliseconds until requests are allowed again, 0 when not paused by the error limit
+	 */
+	public long getPaused() {
+		lock.lock();
+		try {
+			return Math.max(0, pausedUntil - System.currentTimeMillis());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return average (exponentially weighted) response time in milliseconds
+	 */
+	public long getLatency() {
+		lock.lock();
+		try {
+			return (long) latency;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getRequests() {
+		lock.lock();
+		try {
+			return requests;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getServerErrors() {
+		lock.lock();
+		try {
+			return serverErrors;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getSlowResponses() {
+		lock.lock();
+		try {
+			return slowResponses;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getDecreases() {
+		lock.lock();
+		try {
+			return decreases;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		lock.lock();
+		try {
+			return "limit: " + getLimit() + " in-flight: " + inFlight + " (peak: " + peakInFlight + ") waiting: " + waiting + " latency: " + getLatency() + "ms requests: " + requests + " errors: " + serverErrors + " slow: " + slowResponses + " error limit: " + errorLimit;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -20,6 +20,7 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +56,7 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 				}
 			});
 
+			List<Citadel> citadels = new ArrayList<>();
 			try {
 				Settings.lock("Ship/Container Names");
 				for (Map.Entry<List<Long>, List<CorporationAssetsNamesResponse>> entry : responses.entrySet()) {
@@ -65,7 +67,7 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 							Settings.get().getEveNames().put(itemID, eveName);
 							MyAsset asset = iDs.get(itemID);
 							if (asset.getItem().getCategory().equals(Item.CATEGORY_STRUCTURE)) {
-								CitadelGetter.set(new Citadel(asset.getItemID(), eveName, asset.getLocationID(), false, true, CitadelSource.ESI_LOCATIONS));
+								citadels.add(new Citadel(asset.getItemID(), eveName, asset.getLocationID(), false, true, CitadelSource.ESI_LOCATIONS));
 							}
 						} else { //Remove name (Empty)
 							Settings.get().getEveNames().remove(itemID);
@@ -75,6 +77,7 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 			} finally {
 				Settings.unlock("Ship/Container Names");
 			}
+			CitadelGetter.set(citadels); //Publish all at once
 		} else {
 			Map<List<Long>, List<CharacterAssetsNamesResponse>> responses = updateList(splitList(iDs.keySet(), LOCATIONS_BATCH_SIZE), DEFAULT_RETRIES, new ListHandler<List<Long>, List<CharacterAssetsNamesResponse>>() {
 				@Override
@@ -82,6 +85,7 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 					return getAssetsApiAuth().postCharactersCharacterIdAssetsNamesWithHttpInfo((int) owner.getOwnerID(), t, DATASOURCE, null);
 				}
 			});
+			List<Citadel> citadels = new ArrayList<>();
 			try {
 				Settings.lock("Ship/Container Names");
 				for (Map.Entry<List<Long>, List<CharacterAssetsNamesResponse>> entry : responses.entrySet()) {
@@ -92,7 +96,7 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 							Settings.get().getEveNames().put(itemID, eveName);
 							MyAsset asset = iDs.get(itemID);
 							if (asset.getItem().getCategory().equals(Item.CATEGORY_STRUCTURE)) {
-								CitadelGetter.set(new Citadel(asset.getItemID(), eveName, asset.getLocationID(), false, true, CitadelSource.ESI_LOCATIONS));
+								citadels.add(new Citadel(asset.getItemID(), eveName, asset.getLocationID(), false, true, CitadelSource.ESI_LOCATIONS));
 							}
 						} else { //Remove name (Empty)
 							Settings.get().getEveNames().remove(itemID);
@@ -102,6 +106,7 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 			} finally {
 				Settings.unlock("Ship/Container Names");
 			}
+			CitadelGetter.set(citadels); //Publish all at once
 		}
 	}
 
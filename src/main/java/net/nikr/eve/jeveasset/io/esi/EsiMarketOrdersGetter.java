@@ -58,6 +58,9 @@ public class EsiMarketOrdersGetter extends AbstractEsiGetter {
 					return getMarketApiAuth().getCorporationsCorporationIdOrdersHistoryWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
 				}
 			});
+			if (isNotModified("marketorders" + saveHistory)) {
+				return;
+			}
 			owner.setMarketOrders(EsiConverter.toMarketOrdersCorporation(marketOrders, marketOrdersHistory, owner, saveHistory));
 		} else {
 			List<CharacterOrdersResponse> marketOrders = update(DEFAULT_RETRIES, new EsiHandler<List<CharacterOrdersResponse>>() {
@@ -72,6 +75,9 @@ public class EsiMarketOrdersGetter extends AbstractEsiGetter {
 					return getMarketApiAuth().getCharactersCharacterIdOrdersHistoryWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
 				}
 			});
+			if (isNotModified("marketorders" + saveHistory)) {
+				return;
+			}
 			owner.setMarketOrders(EsiConverter.toMarketOrders(marketOrders, marketOrdersHistory, owner, saveHistory));
 		}
 	}
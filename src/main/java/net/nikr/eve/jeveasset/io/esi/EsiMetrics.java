@@ -0,0 +1,449 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Per endpoint (and owner) metrics of the ESI requests.
+ * Recorded by an OkHttp interceptor: requests, bytes, latency, retries, not modified (304),
+ * cached responses and errors (error limit consumption).
+ */
+public class EsiMetrics implements Interceptor {
+
+	public static final long[] LATENCY_BUCKETS = {50, 100, 250, 500, 1000, 2500, 5000}; //ms (upper bounds)
+	private static final Pattern VERSION = Pattern.compile("^/(v\\d+|latest|legacy|dev)(?=/)");
+	private static final Pattern ID = Pattern.compile("/\\d+(?=/|$)");
+	private static final ThreadLocal<Boolean> RETRY = new ThreadLocal<>();
+
+	private final Map<String, EndpointMetrics> metrics = new ConcurrentHashMap<>();
+	private volatile long start = System.currentTimeMillis();
+	private volatile long end = 0;
+	private Integer errorLimitMin = null;
+
+	/**
+	 * Mark the next request of the current thread as a retry.
+	 */
+	public static void retry() {
+		RETRY.set(true);
+	}
+
+	/**
+	 * Clear the retry mark of the current thread (if the retry failed before the request was made).
+	 */
+	public static void clearRetry() {
+		RETRY.remove();
+	}
+
+	/**
+	 * Start a new run (clear all metrics).
+	 */
+	public synchronized void reset() {
+		metrics.clear();
+		start = System.currentTimeMillis();
+		end = 0;
+		errorLimitMin = null;
+	}
+
+	public boolean isEmpty() {
+		return metrics.isEmpty();
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return time of the last response
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	public synchronized Integer getErrorLimitMin() {
+		return errorLimitMin;
+	}
+
+	/**
+	 * @return metrics per endpoint and owner (copies) sorted by total time
+	 */
+	public List<EndpointMetrics> getMetrics() {
+		List<EndpointMetrics> list = new ArrayList<>();
+		for (EndpointMetrics endpointMetrics : metrics.values()) {
+			list.add(endpointMetrics.copy());
+		}
+		sort(list);
+		return list;
+	}
+
+	/**
+	 * @return metrics per endpoint (all owners) sorted by total time
+	 */
+	public List<EndpointMetrics> getTotals() {
+		Map<String, EndpointMetrics> totals = new LinkedHashMap<>();
+		for (EndpointMetrics endpointMetrics : metrics.values()) {
+			totals.computeIfAbsent(endpointMetrics.getEndpoint(), k -> new EndpointMetrics(k, null)).add(endpointMetrics);
+		}
+		List<EndpointMetrics> list = new ArrayList<>(totals.values());
+		sort(list);
+		return list;
+	}
+
+	/**
+	 * @return human readable report
+	 */
+	public String getReport() {
+		List<EndpointMetrics> totals = getTotals();
+		List<EndpointMetrics> owners = getMetrics();
+		EndpointMetrics all = new EndpointMetrics("All", null);
+		for (EndpointMetrics endpointMetrics : totals) {
+			all.add(endpointMetrics);
+		}
+		StringBuilder builder = new StringBuilder();
+		builder.append("Duration: ").append(formatTime(Math.max(0, (end > 0 ? end : System.currentTimeMillis()) - start)));
+		Integer min = getErrorLimitMin();
+		if (min != null) {
+			builder.append("  Lowest error limit: ").append(min);
+		}
+		builder.append("\r\n");
+		append(builder, all);
+		for (EndpointMetrics total : totals) {
+			builder.append("\r\n");
+			append(builder, total);
+			builder.append("  Owners:");
+			int count = 0;
+			for (EndpointMetrics owner : owners) {
+				if (owner.getOwnerID() == null || !owner.getEndpoint().equals(total.getEndpoint())) {
+					continue;
+				}
+				if (count >= 5) {
+					builder.append(" ...");
+					break;
+				}
+				builder.append(" ").append(owner.getOwnerID()).append(" (").append(owner.getRequests()).append(", ").append(formatTime(owner.getTime())).append(")");
+				count++;
+			}
+			if (count == 0) {
+				builder.append(" -");
+			}
+			builder.append("\r\n");
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Boolean retry = RETRY.get();
+		RETRY.remove();
+		Request request = chain.request();
+		String path = VERSION.matcher(request.url().encodedPath()).replaceFirst("");
+		EndpointMetrics endpointMetrics = getEndpointMetrics(request.method() + " " + ID.matcher(path).replaceAll("/{id}"), getOwnerID(path));
+		long requestStart = System.currentTimeMillis();
+		Response response;
+		try {
+			response = chain.proceed(request);
+		} catch (IOException ex) {
+			endpointMetrics.addResponse(System.currentTimeMillis() - requestStart, retry != null, false, false, true);
+			end = System.currentTimeMillis();
+			throw ex;
+		}
+		long latency = System.currentTimeMillis() - requestStart;
+		Response networkResponse = response.networkResponse();
+		boolean notModified = networkResponse != null && networkResponse.code() == 304;
+		boolean cached = networkResponse == null && response.cacheResponse() != null;
+		boolean error = response.code() >= 400;
+		endpointMetrics.addResponse(latency, retry != null, notModified, cached, error);
+		updateErrorLimit(response.header("x-esi-error-limit-remain"));
+		end = System.currentTimeMillis();
+		ResponseBody body = response.body();
+		if (body == null) {
+			return response;
+		}
+		return response.newBuilder().body(new CountingResponseBody(body, endpointMetrics)).build();
+	}
+
+	private EndpointMetrics getEndpointMetrics(String endpoint, Long ownerID) {
+		return metrics.computeIfAbsent(endpoint + " " + ownerID, k -> new EndpointMetrics(endpoint, ownerID));
+	}
+
+	private synchronized void updateErrorLimit(String header) {
+		if (header == null) {
+			return;
+		}
+		try {
+			int remain = Integer.parseInt(header.trim());
+			if (errorLimitMin == null || remain < errorLimitMin) {
+				errorLimitMin = remain;
+			}
+		} catch (NumberFormatException ex) {
+			//Ignore
+		}
+	}
+
+	private static Long getOwnerID(String path) {
+		String[] parts = path.split("/");
+		//parts[0] is empty (leading slash)
+		if (parts.length > 2 && (parts[1].equals("characters") || parts[1].equals("corporations"))) {
+			try {
+				return Long.valueOf(parts[2]);
+			} catch (NumberFormatException ex) {
+				return null; //ex. /characters/affiliation/
+			}
+		}
+		return null;
+	}
+
+	private static void sort(List<EndpointMetrics> list) {
+		Collections.sort(list, new Comparator<EndpointMetrics>() {
+			@Override
+			public int compare(EndpointMetrics o1, EndpointMetrics o2) {
+				return Long.compare(o2.getTime(), o1.getTime());
+			}
+		});
+	}
+
+	private static void append(StringBuilder builder, EndpointMetrics endpointMetrics) {
+		builder.append(endpointMetrics.getEndpoint()).append("\r\n");
+		builder.append("  Requests: ").append(endpointMetrics.getRequests());
+		builder.append("  Retries: ").append(endpointMetrics.getRetries());
+		builder.append("  Not modified: ").append(endpointMetrics.getNotModified());
+		builder.append("  Cached: ").append(endpointMetrics.getCached());
+		builder.append("  Errors: ").append(endpointMetrics.getErrors());
+		builder.append("  Size: ").append(endpointMetrics.getBytes() / 1024).append("KB");
+		builder.append("\r\n");
+		builder.append("  Time: ").append(formatTime(endpointMetrics.getTime()));
+		builder.append("  Avg: ").append(endpointMetrics.getRequests() > 0 ? endpointMetrics.getTime() / endpointMetrics.getRequests() : 0).append("ms");
+		builder.append("  Max: ").append(endpointMetrics.getMaxTime()).append("ms");
+		builder.append("\r\n");
+		builder.append("  Latency:");
+		long[] histogram = endpointMetrics.getHistogram();
+		for (int i = 0; i < histogram.length; i++) {
+			if (i < LATENCY_BUCKETS.length) {
+				builder.append(" <").append(LATENCY_BUCKETS[i]).append("ms: ");
+			} else {
+				builder.append(" >=").append(LATENCY_BUCKETS[LATENCY_BUCKETS.length - 1]).append("ms: ");
+			}
+			builder.append(histogram[i]);
+		}
+		builder.append("\r\n");
+	}
+
+	private static String formatTime(long time) {
+		if (time < 1000) {
+			return time + "ms";
+		}
+		return String.format("%.1fs", time / 1000.0);
+	}
+
+	public static class EndpointMetrics {
+		private final String endpoint;
+		private final Long ownerID;
+		private long requests = 0;
+		private long retries = 0;
+		private long notModified = 0;
+		private long cached = 0;
+		private long errors = 0;
+		private long bytes = 0;
+		private long time = 0;
+		private long maxTime = 0;
+		private final long[] histogram = new long[LATENCY_BUCKETS.length + 1];
+
+		public EndpointMetrics(String endpoint, Long ownerID) {
+			this.endpoint = endpoint;
+			this.ownerID = ownerID;
+		}
+
+		private synchronized void addResponse(long latency, boolean retry, boolean notModified, boolean cached, boolean error) {
+			requests++;
+			if (retry) {
+				retries++;
+			}
+			if (notModified) {
+				this.notModified++;
+			}
+			if (cached) {
+				this.cached++;
+			}
+			if (error) {
+				errors++;
+			}
+			time += latency;
+			maxTime = Math.max(maxTime, latency);
+			int bucket = 0;
+			while (bucket < LATENCY_BUCKETS.length && latency >= LATENCY_BUCKETS[bucket]) {
+				bucket++;
+			}
+			histogram[bucket]++;
+		}
+
+		private synchronized void addBytes(long count) {
+			bytes += count;
+		}
+
+		private synchronized void add(EndpointMetrics endpointMetrics) {
+			EndpointMetrics other = endpointMetrics.copy();
+			requests += other.requests;
+			retries += other.retries;
+			notModified += other.notModified;
+			cached += other.cached;
+			errors += other.errors;
+			bytes += other.bytes;
+			time += other.time;
+			maxTime = Math.max(maxTime, other.maxTime);
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] += other.histogram[i];
+			}
+		}
+
+		private synchronized EndpointMetrics copy() {
+			EndpointMetrics copy = new EndpointMetrics(endpoint, ownerID);
+			copy.requests = requests;
+			copy.retries = retries;
+			copy.notModified = notModified;
+			copy.cached = cached;
+			copy.errors = errors;
+			copy.bytes = bytes;
+			copy.time = time;
+			copy.maxTime = maxTime;
+			System.arraycopy(histogram, 0, copy.histogram, 0, histogram.length);
+			return copy;
+		}
+
+		/**
+		 * @return method and path template (IDs replaced with {id})
+		 */
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		/**
+		 * @return owner ID (from the path) or null for public endpoints and totals
+		 */
+		public Long getOwnerID() {
+			return ownerID;
+		}
+
+		public synchronized long getRequests() {
+			return requests;
+		}
+
+		public synchronized long getRetries() {
+			return retries;
+		}
+
+		public synchronized long getNotModified() {
+			return notModified;
+		}
+
+		public synchronized long getCached() {
+			return cached;
+		}
+
+		/**
+		 * @return number of error responses (each consume the error limit)
+		 */
+		public synchronized long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return response body size (uncompressed)
+		 */
+		public synchronized long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return total latency in milliseconds (time to response headers)
+		 */
+		public synchronized long getTime() {
+			return time;
+		}
+
+		public synchronized long getMaxTime() {
+			return maxTime;
+		}
+
+		/**
+		 * @return number of responses per latency bucket (see LATENCY_BUCKETS, the last bucket is everything slower)
+		 */
+		public synchronized long[] getHistogram() {
+			return histogram.clone();
+		}
+	}
+
+	private static class CountingResponseBody extends ResponseBody {
+
+		private final ResponseBody body;
+		private final BufferedSource source;
+
+		public CountingResponseBody(ResponseBody body, EndpointMetrics endpointMetrics) {
+			this.body = body;
+			this.source = Okio.buffer(new ForwardingSource(body.source()) {
+				@Override
+				public long read(Buffer sink, long byteCount) throws IOException {
+					long read = super.read(sink, byteCount);
+					if (read > 0) {
+						endpointMetrics.addBytes(read);
+					}
+					return read;
+				}
+			});
+		}
+
+		@Override
+		public MediaType contentType() {
+			return body.contentType();
+		}
+
+		@Override
+		public long contentLength() {
+			return body.contentLength();
+		}
+
+		@Override
+		public BufferedSource source() {
+			return source;
+		}
+
+		@Override
+		public void close() {
+			body.close();
+		}
+	}
+}
@@ -33,9 +33,9 @@ import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
 import net.nikr.eve.jeveasset.data.api.my.MyMining;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
 import net.nikr.eve.jeveasset.data.api.raw.RawJournal.ContextType;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
-import net.nikr.eve.jeveasset.gui.shared.Updatable;
 import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
 import net.troja.eve.esi.ApiException;
 import net.troja.eve.esi.ApiResponse;
@@ -45,7 +45,6 @@ import net.troja.eve.esi.model.UniverseNamesResponse;
 
 public class EsiNameGetter extends AbstractEsiGetter {
 
-	private static final long ONE_DAY = 1000 * 60 * 60 * 24;
 	private final List<OwnerType> ownerTypes;
 
 	public EsiNameGetter(UpdateTask updateTask, List<OwnerType> ownerTypes) {
@@ -56,7 +55,8 @@ public class EsiNameGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		Set<Integer> ids = getOwnerIDs(ownerTypes);
-		Map<List<Integer>, List<UniverseNamesResponse>> responses = updateList(splitList(ids, UNIVERSE_BATCH_SIZE), DEFAULT_RETRIES, new ListHandler<List<Integer>, List<UniverseNamesResponse>>() {
+		Set<Integer> invalid = new HashSet<>();
+		Map<List<Integer>, List<UniverseNamesResponse>> responses = updateBatches(ids, UNIVERSE_BATCH_SIZE, DEFAULT_RETRIES, new ListHandler<List<Integer>, List<UniverseNamesResponse>>() {
 			@Override
 			public ApiResponse<List<UniverseNamesResponse>> get(List<Integer> t) throws ApiException {
 				try {
@@ -64,47 +64,23 @@ public class EsiNameGetter extends AbstractEsiGetter {
 				} catch (ApiException ex) {
 					if (ex.getCode() == 404 && ex.getResponseBody().toLowerCase().contains("ensure all ids are valid before resolving")) {
 						handleHeaders(ex);
-						return null; //Ignore this error we will use another endpoint instead
+						return null; //Invalid ID(s) in this batch: bisect
 					} else {
 						throw ex;
 					}
 				}
 			}
-		});
-
-		Set<Integer> retries = new HashSet<>(ids);
+		}, invalid);
 		for (Map.Entry<List<Integer>, List<UniverseNamesResponse>> entry : responses.entrySet()) {
 			for (UniverseNamesResponse lookup : entry.getValue()) {
-				Settings.get().getOwners().put((long)lookup.getId(), lookup.getName());
+				OwnerNames.put(lookup.getId(), lookup.getName());
 			}
-			retries.removeAll(entry.getKey());
 		}
-		Map<List<Integer>, List<UniverseNamesResponse>> retryResponses = updateList(splitList(retries, 1), DEFAULT_RETRIES, new ListHandler<List<Integer>, List<UniverseNamesResponse>>() {
-			@Override
-			public ApiResponse<List<UniverseNamesResponse>> get(List<Integer> t) throws ApiException {
-				try {
-					return getUniverseApiOpen().postUniverseNamesWithHttpInfo(t, DATASOURCE);
-				} catch (ApiException ex) {
-					if (ex.getCode() == 404 && ex.getResponseBody().toLowerCase().contains("ensure all ids are valid before resolving")) {
-						handleHeaders(ex);
-						return null; //Ignore this error we will use another endpoint instead
-					} else {
-						throw ex;
-					}
-				}
-			}
-		});
-		int count = 30;
-		for (Map.Entry<List<Integer>, List<UniverseNamesResponse>> entry : retryResponses.entrySet()) {
-			for (UniverseNamesResponse lookup : entry.getValue()) {
-				Settings.get().getOwners().put((long)lookup.getId(), lookup.getName());
-				Date date = new Date(System.currentTimeMillis() + (ONE_DAY * count));
-				count--;
-				if (count < 1) {
-					count = 30;
-				}
-				Settings.get().getOwnersNextUpdate().put((long)lookup.getId(), date);
-			}
+		for (Integer id : invalid) {
+			OwnerNames.putInvalid(id); //Skipped until expired
+		}
+		if (!responses.isEmpty() || !invalid.isEmpty()) {
+			OwnerNames.save();
 		}
 	}
 
@@ -156,9 +132,8 @@ public class EsiNameGetter extends AbstractEsiGetter {
 		if (!ApiIdConverter.getLocation(number.longValue()).isEmpty()) {
 			return;
 		}
-		//Next Update
-		Date nextUpdate = Settings.get().getOwnersNextUpdate().get(number.longValue());
-		if (nextUpdate != null && !Updatable.isUpdatable(nextUpdate)) {
+		//Only unknown or expired names
+		if (!OwnerNames.isUpdatable(number.longValue())) {
 			return;
 		}
 		int l = number.intValue();
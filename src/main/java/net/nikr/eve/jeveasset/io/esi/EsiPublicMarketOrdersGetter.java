@@ -20,7 +20,9 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -75,13 +77,17 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		AtomicInteger count = new AtomicInteger(0);
+		AtomicInteger total = new AtomicInteger(0);
+		//Only keep orders of the types we have orders for
+		Set<Integer> typeIDs = input.getTypeIDs().keySet();
 		//Update public market orders
 		publicMarketOrders = true;
-		List<MarketOrdersResponse> responses = updatePagedList(input.getRegionIDs(), new PagedListHandler<Integer, MarketOrdersResponse>() {
+		Map<Integer, Set<RawPublicMarketOrder>> orders = new HashMap<>();
+		updatePagedList(input.getRegionIDs(), new PagedListHandler<Integer, MarketOrdersResponse>() {
 			@Override
 			protected List<MarketOrdersResponse> get(Integer k) throws ApiException {
 				try {
-					return updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketOrdersResponse>() {
+					updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketOrdersResponse>() {
 						@Override
 						public ApiResponse<List<MarketOrdersResponse>> get(Integer page) throws ApiException {
 							ApiResponse<List<MarketOrdersResponse>> response = getMarketApiOpen().getMarketsRegionIdOrdersWithHttpInfo("all", k, DATASOURCE, null, page, null);
@@ -96,7 +102,24 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 							}
 							return response;
 						}
+					}, new EsiPageConsumer<MarketOrdersResponse>() {
+						@Override
+						public void consume(List<MarketOrdersResponse> page) {
+							synchronized (orders) { //Regions are updated in parallel
+								EsiConverter.toPublicMarketOrders(page, orders, typeIDs);
+								total.addAndGet(page.size());
+								for (MarketOrdersResponse ordersResponse : page) {
+									//Find leaking market structures
+									if (ordersResponse.getLocationId() > 100000000) {
+										input.getStructureIDs().add(ordersResponse.getLocationId());
+									}
+									//Map known locationID <=> systemID
+									input.getLocationToSystem().put(ordersResponse.getLocationId(), RawConverter.toLong(ordersResponse.getSystemId()));
+								}
+							}
+						}
 					});
+					return null; //Data is consumed page by page
 				} finally {
 					setProgressAll(input.getRegionIDs().size(), count.incrementAndGet(), 0, 40);
 				}
@@ -106,15 +129,6 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 			addWarning("last-modified changed while updating", "Cache expired while updating");
 		}
 		publicMarketOrders = false;
-		Map<Integer, Set<RawPublicMarketOrder>> orders = EsiConverter.toPublicMarketOrders(responses);
-		for (MarketOrdersResponse ordersResponse : responses) {
-			//Find leaking market structures
-			if (ordersResponse.getLocationId() > 100000000) {
-				input.getStructureIDs().add(ordersResponse.getLocationId());
-			}
-			//Map known locationID <=> systemID
-			input.getLocationToSystem().put(ordersResponse.getLocationId(), RawConverter.toLong(ordersResponse.getSystemId()));
-		}
 		//Get public structures
 		input.getStructureIDs().addAll(update(DEFAULT_RETRIES, new EsiHandler<List<Long>>() {
 			@Override
@@ -126,16 +140,40 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 		count.set(0);
 		MarketApi marketApi = input.getMarketApi();
 		if (marketApi != null) {
-			List<MarketStructuresResponse> structuresResponses = updatePagedList(input.getStructureIDs(), new PagedListHandler<Long, MarketStructuresResponse>() {
+			updatePagedList(input.getStructureIDs(), new PagedListHandler<Long, MarketStructuresResponse>() {
 				@Override
 				protected List<MarketStructuresResponse> get(Long k) throws ApiException {
 					try {
-						return updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketStructuresResponse>() {
+						List<RawPublicMarketOrder> structureOrders = new ArrayList<>();
+						updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketStructuresResponse>() {
 							@Override
 							public ApiResponse<List<MarketStructuresResponse>> get(Integer page) throws ApiException {
 								return marketApi.getMarketsStructuresStructureIdWithHttpInfo(k, DATASOURCE, null, page, null);
 							}
+						}, new EsiPageConsumer<MarketStructuresResponse>() {
+							@Override
+							public void consume(List<MarketStructuresResponse> page) {
+								for (MarketStructuresResponse response : page) {
+									Long systemID = getSystemID(input, response.getLocationId()); //Also find the citadel
+									if (typeIDs.contains(response.getTypeId())) {
+										structureOrders.add(new RawPublicMarketOrder(response, systemID));
+									}
+								}
+								total.addAndGet(page.size());
+							}
 						});
+						//Only add orders from structures where all pages was updated
+						synchronized (orders) { //Structures are updated in parallel
+							for (RawPublicMarketOrder marketOrder : structureOrders) {
+								Set<RawPublicMarketOrder> set = orders.get(marketOrder.getTypeID());
+								if (set == null) {
+									set = new HashSet<>();
+									orders.put(marketOrder.getTypeID(), set);
+								}
+								set.add(marketOrder);
+							}
+						}
+						return null; //Data is consumed page by page
 					} catch (ApiException ex) {
 						if (ex.getCode() == 403 && ex.getResponseBody().toLowerCase().contains("market access denied")) {
 							LOG.warn(ex.getMessage() + ":\n" + ex.getResponseBody());
@@ -148,18 +186,14 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 					}
 				}
 			});
-			for (MarketStructuresResponse response : structuresResponses) {
-				RawPublicMarketOrder marketOrder = new RawPublicMarketOrder(response, getSystemID(input, response.getLocationId()));
-				Set<RawPublicMarketOrder> set = orders.get(marketOrder.getTypeID());
-				if (set == null) {
-					set = new HashSet<>();
-					orders.put(marketOrder.getTypeID(), set);
-				}
-				set.add(marketOrder);
-			}
 		} else {
 			addError("NO ENOUGH ACCESS PRIVILEGES", "No character with market orders structure scope found\r\n(Add scope: [Options] > [Acounts...] > [Edit])");
 		}
+		int kept = 0;
+		for (Set<RawPublicMarketOrder> set : orders.values()) {
+			kept += set.size();
+		}
+		LOG.info("Public market orders: kept " + kept + " of " + total.get());
 		input.addOrders(orders, lastUpdate);
 		//Process data
 		OutbidProcesser.process(input, output);
@@ -21,6 +21,8 @@
 
 package net.nikr.eve.jeveasset.io.local;
 
+import java.util.ArrayList;
+import java.util.List;
 import net.nikr.eve.jeveasset.data.settings.Citadel;
 import net.nikr.eve.jeveasset.data.settings.Citadel.CitadelSource;
 import net.nikr.eve.jeveasset.data.settings.CitadelSettings;
@@ -64,6 +66,7 @@ public final class CitadelReader extends AbstractXmlReader<CitadelSettings> {
 
 	private void parseCitadel(final Element element, final CitadelSettings settings) throws XmlException {
 		NodeList filterNodes = element.getElementsByTagName("citadel");
+		List<Citadel> citadels = new ArrayList<>();
 		for (int i = 0; i < filterNodes.getLength(); i++) {
 			Element currentNode = (Element) filterNodes.item(i);
 			long id = getLong(currentNode, "stationid");
@@ -79,7 +82,8 @@ public final class CitadelReader extends AbstractXmlReader<CitadelSettings> {
 					source = CitadelSource.OLD;
 				}
 			}
-			settings.put(id, new Citadel(id, name, systemId, userLocation, citadel, source));
+			citadels.add(new Citadel(id, name, systemId, userLocation, citadel, source));
 		}
+		settings.putAll(citadels);
 	}
 }
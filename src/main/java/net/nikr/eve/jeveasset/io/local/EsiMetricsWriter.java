@@ -0,0 +1,127 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import net.nikr.eve.jeveasset.io.esi.EsiMetrics;
+import net.nikr.eve.jeveasset.io.esi.EsiMetrics.EndpointMetrics;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Save the ESI metrics of an update run to data/esimetrics/ (one file per run).
+ * Only the newest MAX_FILES runs are kept.
+ */
+public class EsiMetricsWriter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiMetricsWriter.class);
+
+	private static final int MAX_FILES = 20;
+	private static final String PREFIX = "esimetrics-";
+
+	public static void save(EsiMetrics metrics) {
+		String filename = PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(metrics.getStart())) + ".json";
+		EsiMetricsWriter writer = new EsiMetricsWriter();
+		writer.write(FileUtil.getPathEsiMetrics(filename), metrics);
+		writer.cleanup(new File(FileUtil.getPathEsiMetricsDirectory()));
+	}
+
+	protected static void save(String filename, EsiMetrics metrics) {
+		EsiMetricsWriter writer = new EsiMetricsWriter();
+		writer.write(filename, metrics);
+	}
+
+	private void write(String filename, EsiMetrics metrics) {
+		JsonWriter writer = null;
+		try {
+			writer = new JsonWriter(new FileWriter(filename));
+			writer.setIndent("\t");
+			writer.beginObject();
+			writer.name("start").value(metrics.getStart());
+			writer.name("end").value(metrics.getEnd());
+			writer.name("errorlimitmin").value(metrics.getErrorLimitMin());
+			writer.name("endpoints");
+			write(writer, metrics.getTotals());
+			writer.name("owners");
+			write(writer, metrics.getMetrics());
+			writer.endObject();
+			LOG.info("ESI metrics saved");
+		} catch (IOException ex) {
+			LOG.error(ex.getMessage(), ex);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+		}
+	}
+
+	private void write(JsonWriter writer, List<EndpointMetrics> list) throws IOException {
+		writer.beginArray();
+		for (EndpointMetrics endpointMetrics : list) {
+			writer.beginObject();
+			writer.name("endpoint").value(endpointMetrics.getEndpoint());
+			if (endpointMetrics.getOwnerID() != null) {
+				writer.name("owner").value(endpointMetrics.getOwnerID());
+			}
+			writer.name("requests").value(endpointMetrics.getRequests());
+			writer.name("retries").value(endpointMetrics.getRetries());
+			writer.name("notmodified").value(endpointMetrics.getNotModified());
+			writer.name("cached").value(endpointMetrics.getCached());
+			writer.name("errors").value(endpointMetrics.getErrors());
+			writer.name("bytes").value(endpointMetrics.getBytes());
+			writer.name("time").value(endpointMetrics.getTime());
+			writer.name("maxtime").value(endpointMetrics.getMaxTime());
+			writer.name("histogram");
+			writer.beginArray();
+			for (long count : endpointMetrics.getHistogram()) {
+				writer.value(count);
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+		writer.endArray();
+	}
+
+	private void cleanup(File directory) {
+		File[] files = directory.listFiles((File dir, String name) -> name.startsWith(PREFIX) && name.endsWith(".json"));
+		if (files == null || files.length <= MAX_FILES) {
+			return;
+		}
+		Arrays.sort(files); //Oldest first (the filename is the date)
+		for (int i = 0; i < files.length - MAX_FILES; i++) {
+			if (!files[i].delete()) {
+				LOG.warn("Failed to delete: " + files[i].getAbsolutePath());
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames.OwnerName;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+public class OwnerNamesReader extends AbstractBackup {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OwnerNamesReader.class);
+
+	public static Map<Long, OwnerName> load() {
+		return load(FileUtil.getPathOwnerNames(), true);
+	}
+
+	protected static Map<Long, OwnerName> load(String filename, boolean backup) {
+		OwnerNamesReader reader = new OwnerNamesReader();
+		return reader.read(filename, backup);
+	}
+
+	private Map<Long, OwnerName> read(String filename, boolean backup) {
+		File file = new File(filename);
+		if (!file.exists()) {
+			return null;
+		}
+		if (backup) {
+			backup(filename);
+		}
+		JsonReader reader = null;
+		try {
+			lock(filename);
+			reader = new JsonReader(new FileReader(file));
+			Map<Long, OwnerName> names = new HashMap<>();
+			//[[ownerID, resolved, name or null], ...]
+			reader.beginArray();
+			while (reader.hasNext()) {
+				reader.beginArray();
+				long ownerID = reader.nextLong();
+				long resolved = reader.nextLong();
+				String name;
+				if (reader.peek() == JsonToken.NULL) {
+					reader.nextNull();
+					name = null; //Invalid ID
+				} else {
+					name = reader.nextString();
+				}
+				reader.endArray();
+				names.put(ownerID, new OwnerName(name, resolved));
+			}
+			reader.endArray();
+			LOG.info("Owner names loaded");
+			return names;
+		} catch (IOException | JsonParseException | IllegalStateException | NumberFormatException ex) {
+			LOG.warn(ex.getMessage(), ex);
+			if (restoreNewFile(filename)) { //If possible restore from .new (Should be the newest)
+				return read(filename, backup);
+			} else if (restoreBackupFile(filename)) { //If possible restore from .bac (Should be the oldest, but, still worth trying)
+				return read(filename, backup);
+			} else { //Nothing left to try - throw error
+				restoreFailed(filename); //Backup error file
+				LOG.error(ex.getMessage(), ex);
+			}
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+			unlock(filename);
+		}
+		return null;
+	}
+}
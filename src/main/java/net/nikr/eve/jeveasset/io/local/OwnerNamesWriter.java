@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames.OwnerName;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+public class OwnerNamesWriter extends AbstractBackup {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OwnerNamesWriter.class);
+
+	public static void save(Map<Long, OwnerName> names) {
+		save(FileUtil.getPathOwnerNames(), names, true);
+	}
+
+	protected static void save(String filename, Map<Long, OwnerName> names, boolean createBackup) {
+		OwnerNamesWriter writer = new OwnerNamesWriter();
+		writer.write(filename, names, createBackup);
+	}
+
+	private void write(String filename, Map<Long, OwnerName> names, boolean createBackup) {
+		File file;
+		if (createBackup) {
+			file = getNewFile(filename); //Save to .new file
+		} else {
+			file = new File(filename);
+		}
+		JsonWriter writer = null;
+		try {
+			lock(filename);
+			writer = new JsonWriter(new FileWriter(file));
+			writer.setSerializeNulls(true);
+			//[[ownerID, resolved, name or null], ...]
+			writer.beginArray();
+			for (Map.Entry<Long, OwnerName> entry : names.entrySet()) {
+				writer.beginArray();
+				writer.value(entry.getKey());
+				writer.value(entry.getValue().getResolved());
+				writer.value(entry.getValue().getName());
+				writer.endArray();
+			}
+			writer.endArray();
+			LOG.info("Owner names saved");
+		} catch (IOException ex) {
+			LOG.error(ex.getMessage(), ex);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+			//Saving done - create backup and rename new file to target
+			if (createBackup) {
+				backupFile(filename); //Rename .json => .bac (.new is safe) and .new => .json (.bac is safe). That way we always have at least one safe file
+			}
+			unlock(filename); //Last thing to do
+		}
+	}
+}
@@ -60,6 +60,7 @@ import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.Change;
 import net.nikr.eve.jeveasset.data.api.raw.RawMining;
 import net.nikr.eve.jeveasset.data.api.raw.RawSkill;
 import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.data.profile.ContractItems;
 import net.nikr.eve.jeveasset.data.profile.Profile;
 import net.nikr.eve.jeveasset.data.sde.ItemFlag;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
@@ -350,6 +351,7 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 	private void parseContracts(final Element element, final OwnerType owner) throws XmlException {
 		NodeList contractsNodes = element.getElementsByTagName("contracts");
 		Map<MyContract, List<MyContractItem>> contracts = new HashMap<>();
+		Map<Integer, List<RawContractItem>> profileItems = new HashMap<>(); //Old profiles: Contract items saved in the profile
 		for (int a = 0; a < contractsNodes.getLength(); a++) {
 			Element contractsNode = (Element) contractsNodes.item(a);
 			NodeList contractNodes = contractsNode.getElementsByTagName("contract");
@@ -358,16 +360,37 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 				MyContract contract = parseContract(contractNode);
 				NodeList itemNodes = contractNode.getElementsByTagName("contractitem");
 				List<MyContractItem> contractItems = new ArrayList<>();
+				List<RawContractItem> rawContractItems = new ArrayList<>();
 				for (int c = 0; c < itemNodes.getLength(); c++) {
 					Element currentNode = (Element) itemNodes.item(c);
 					RawContractItem rawContractItem = parseContractItem(currentNode);
 					MyContractItem contractItem = DataConverter.toMyContractItem(rawContractItem, contract);
 					contractItems.add(contractItem);
+					rawContractItems.add(rawContractItem);
+				}
+				if (!rawContractItems.isEmpty()) {
+					profileItems.put(contract.getContractID(), rawContractItems);
 				}
 
 				contracts.put(contract, contractItems);
 			}
 		}
+		//Move contract items from the profile to the contract items database
+		ContractItems.add(profileItems);
+		//Get contract items from the contract items database
+		Map<Integer, MyContract> missing = new HashMap<>();
+		for (Map.Entry<MyContract, List<MyContractItem>> entry : contracts.entrySet()) {
+			if (entry.getValue().isEmpty()) {
+				missing.put(entry.getKey().getContractID(), entry.getKey());
+			}
+		}
+		for (Map.Entry<Integer, List<RawContractItem>> entry : ContractItems.get(missing.keySet()).entrySet()) {
+			MyContract contract = missing.get(entry.getKey());
+			List<MyContractItem> contractItems = contracts.get(contract);
+			for (RawContractItem rawContractItem : entry.getValue()) {
+				contractItems.add(DataConverter.toMyContractItem(rawContractItem, contract));
+			}
+		}
 		owner.setContracts(contracts);
 	}
 
@@ -20,6 +20,7 @@
  */
 package net.nikr.eve.jeveasset.io.local;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +44,7 @@ import net.nikr.eve.jeveasset.data.api.my.MySkill;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
 import net.nikr.eve.jeveasset.data.api.raw.RawBlueprint;
 import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.Change;
+import net.nikr.eve.jeveasset.data.profile.ContractItems;
 import net.nikr.eve.jeveasset.data.profile.Profile;
 import net.nikr.eve.jeveasset.io.shared.RawConverter;
 import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
@@ -187,7 +189,7 @@ public final class ProfileWriter extends AbstractXmlWriter {
 		node.appendChild(childNode);
 		writeAssets(xmldoc, childNode, owner.getAssets());
 		writeActiveShip(xmldoc, node, owner.getActiveShip());
-		writeContractItems(xmldoc, node, owner.getContracts());
+		writeContracts(xmldoc, node, owner.getContracts());
 		writeAccountBalances(xmldoc, node, owner.getAccountBalances(), owner.isCorporation());
 		writeMarketOrders(xmldoc, node, owner.getMarketOrders(), owner.isCorporation());
 		writeJournals(xmldoc, node, owner.getJournal(), owner.isCorporation());
@@ -236,11 +238,16 @@ public final class ProfileWriter extends AbstractXmlWriter {
 		}
 	}
 
-	private void writeContractItems(Document xmldoc, Element parentNode, Map<MyContract, List<MyContractItem>> contractItems) {
+	private void writeContracts(Document xmldoc, Element parentNode, Map<MyContract, List<MyContractItem>> contractItems) {
 		Element contractsNode = xmldoc.createElement("contracts");
 		parentNode.appendChild(contractsNode);
+		//Contract items is saved in the contract items database (not in the profile)
+		Map<Integer, List<MyContractItem>> items = new HashMap<>();
 		for (Map.Entry<MyContract, List<MyContractItem>> entry : contractItems.entrySet()) {
-			MyContract contract = entry.getKey();
+			items.put(entry.getKey().getContractID(), entry.getValue());
+		}
+		ContractItems.add(items);
+		for (MyContract contract : contractItems.keySet()) {
 			Element contractNode = xmldoc.createElement("contract");
 			setAttribute(contractNode, "acceptorid", contract.getAcceptorID());
 			setAttribute(contractNode, "assigneeid", contract.getAssigneeID());
@@ -269,20 +276,6 @@ public final class ProfileWriter extends AbstractXmlWriter {
 			setAttribute(contractNode, "forcorp", contract.isForCorp());
 			setAttribute(contractNode, "esi", contract.isESI());
 			contractsNode.appendChild(contractNode);
-			for (MyContractItem contractItem : entry.getValue()) {
-				Element itemNode = xmldoc.createElement("contractitem");
-				setAttribute(itemNode, "included", contractItem.isIncluded());
-				setAttribute(itemNode, "quantity", contractItem.getQuantity());
-				setAttribute(itemNode, "recordid", contractItem.getRecordID());
-				setAttribute(itemNode, "singleton", contractItem.isSingleton());
-				setAttribute(itemNode, "typeid", contractItem.getTypeID());
-				setAttributeOptional(itemNode, "rawquantity", contractItem.getRawQuantity());
-				setAttributeOptional(itemNode, "itemid", contractItem.getItemID());
-				setAttributeOptional(itemNode, "runs", contractItem.getLicensedRuns());
-				setAttributeOptional(itemNode, "me", contractItem.getME());
-				setAttributeOptional(itemNode, "te", contractItem.getTE());
-				contractNode.appendChild(itemNode);
-			}
 		}
 	}
 
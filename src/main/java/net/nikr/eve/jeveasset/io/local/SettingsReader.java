@@ -570,6 +570,14 @@ public final class SettingsReader extends AbstractXmlReader<Boolean> {
 			settings.getOwners().put(ownerID, ownerName);
 			settings.getOwnersNextUpdate().put(ownerID, date);
 		}
+		NodeList invalidNodeList = element.getElementsByTagName("invalidowner");
+		for (int i = 0; i < invalidNodeList.getLength(); i++) {
+			//Read invalid ID (skipped until the date)
+			Element invalidNode = (Element) invalidNodeList.item(i);
+			long ownerID = getLong(invalidNode, "id");
+			Date date = getDate(invalidNode, "date");
+			settings.getOwnersNextUpdate().put(ownerID, date);
+		}
 	}
 
 	private Map<String, List<Value>> parseTrackerData(final Element element) throws XmlException {
@@ -692,9 +700,13 @@ public final class SettingsReader extends AbstractXmlReader<Boolean> {
 			}
 		}
 		int transactionProfitMargin = getIntNotNull(assetSettingsElement, "transactionprofitmargin", 0);
+		int walletArchiveDays = getIntNotNull(assetSettingsElement, "walletarchivedays", 90);
+		int priceHistoryConcurrent = getIntNotNull(assetSettingsElement, "pricehistoryconcurrent", 2);
 		settings.setTransactionProfitPrice(transactionProfitPrice);
 		settings.setMaximumPurchaseAge(maximumPurchaseAge);
 		settings.setTransactionProfitMargin(transactionProfitMargin);
+		settings.setWalletArchiveDays(walletArchiveDays);
+		settings.setPriceHistoryConcurrent(priceHistoryConcurrent);
 	}
 
 	private void parseStockpileGroups(final Element stockpilesElement, final Settings settings) throws XmlException {
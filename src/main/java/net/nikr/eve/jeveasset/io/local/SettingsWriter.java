@@ -174,7 +174,6 @@ public class SettingsWriter extends AbstractXmlWriter {
 		writeTrackerNotes(xmldoc, settings.getTrackerSettings().getNotes());
 		writeTrackerFilters(xmldoc, settings.getTrackerSettings().getFilters(), settings.getTrackerSettings().isSelectNew(), settings.getTrackerSettings().getSkillPointFilters());
 		writeTrackerSettings(xmldoc, settings);
-		writeOwners(xmldoc, settings.getOwners(), settings.getOwnersNextUpdate());
 		writeTags(xmldoc, settings.getTags());
 		writeRoutingSettings(xmldoc, settings.getRoutingSettings());
 		writeMarketOrderOutbid(xmldoc, settings.getPublicMarketOrdersNextUpdate(), settings.getPublicMarketOrdersLastUpdate(), settings.getOutbidOrderRange(), settings.getMarketOrdersOutbid());
@@ -362,18 +361,6 @@ public class SettingsWriter extends AbstractXmlWriter {
 		}
 	}
 
-	private void writeOwners(final Document xmldoc, final Map<Long, String> owners, final Map<Long, Date> ownersNextUpdate) {
-		Element trackerDataNode = xmldoc.createElementNS(null, "owners");
-		xmldoc.getDocumentElement().appendChild(trackerDataNode);
-		for (Map.Entry<Long, String> entry : owners.entrySet()) {
-			Element ownerNode = xmldoc.createElementNS(null, "owner");
-			setAttribute(ownerNode, "name", entry.getValue());
-			setAttribute(ownerNode, "id", entry.getKey());
-			setAttributeOptional(ownerNode, "date", ownersNextUpdate.get(entry.getKey()));
-			trackerDataNode.appendChild(ownerNode);
-		}
-	}
-
 	private void writeTrackerFilters(final Document xmldoc, final Map<String, Boolean> trackerFilters, boolean selectNew, Map<String, TrackerSkillPointFilter> trackerSkillPointFilters) {
 		Element trackerDataNode = xmldoc.createElementNS(null, "trackerfilters");
 		xmldoc.getDocumentElement().appendChild(trackerDataNode);
@@ -595,6 +582,8 @@ public class SettingsWriter extends AbstractXmlWriter {
 		setAttribute(parentNode, "maximumpurchaseage", settings.getMaximumPurchaseAge());
 		setAttribute(parentNode, "transactionprofitprice", settings.getTransactionProfitPrice());
 		setAttribute(parentNode, "transactionprofitmargin", settings.getTransactionProfitMargin());
+		setAttribute(parentNode, "walletarchivedays", settings.getWalletArchiveDays());
+		setAttribute(parentNode, "pricehistoryconcurrent", settings.getPriceHistoryConcurrent());
 	}
 
 	private void writeStockpileGroups(final Document xmldoc, final Settings settings) {
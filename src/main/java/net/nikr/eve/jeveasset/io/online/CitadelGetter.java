@@ -21,85 +21,176 @@
 package net.nikr.eve.jeveasset.io.online;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.data.settings.Citadel;
 import net.nikr.eve.jeveasset.data.settings.CitadelSettings;
 import net.nikr.eve.jeveasset.io.local.CitadelReader;
 import net.nikr.eve.jeveasset.io.local.CitadelWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-
+/**
+ * Citadel cache.
+ * Reads are lock free. Updates are published atomically (per call) and saved in the background.
+ */
 public class CitadelGetter {
 
-	private static CitadelGetter citadelGetter;
+	private static final Logger LOG = LoggerFactory.getLogger(CitadelGetter.class);
+
+	private static final Object SAVE_LOCK = new Object();
+	private static final Object SAVE_QUEUE_SYNC = new Object();
+	private static int saveQueue = 0; //Waiting and running
+	private static int saveWaiting = 0;
+	private static volatile CitadelGetter citadelGetter;
 	private CitadelSettings citadelSettings = new CitadelSettings();
 
 	protected CitadelGetter() { }
 
-	public synchronized static Citadel get(long locationID) {
+	/**
+	 * Get citadel.
+	 * @param locationID
+	 * @return the citadel or an empty placeholder
+	 */
+	public static Citadel get(long locationID) {
 		return getCitadelGetter().getCitadel(locationID);
 	}
 
-	public synchronized static Iterable<Map.Entry<Long, Citadel>> getAll() {
+	/**
+	 * Get the location of a citadel.
+	 * Does not create placeholders.
+	 * @param locationID
+	 * @return the location or null, if the citadel is unknown or empty
+	 */
+	public static MyLocation getLocation(long locationID) {
+		Citadel citadel = getCitadelGetter().citadelSettings.get(locationID);
+		if (citadel == null) {
+			return null;
+		}
+		return citadel.toLocation();
+	}
+
+	/**
+	 * Snapshot of all citadels.
+	 * @return
+	 */
+	public static Iterable<Map.Entry<Long, Citadel>> getAll() {
 		return getCitadelGetter().getCitadelAll();
 	}
 
-	public synchronized static void remove(long locationID) {
-		getCitadelGetter().removeCitadel(locationID);
+	public static void remove(long locationID) {
+		getCitadelGetter().removeCitadels(Collections.singleton(locationID));
 	}
 
-	public synchronized static void remove(Set<Long> locationIDs) {
+	public static void remove(Set<Long> locationIDs) {
 		getCitadelGetter().removeCitadels(locationIDs);
 	}
 
-	public synchronized static void set(Citadel citadel) {
-		getCitadelGetter().setCitadel(citadel);
+	public static void set(Citadel citadel) {
+		getCitadelGetter().setCitadels(Collections.singleton(citadel));
 	}
 
-	public synchronized static void set(Collection<Citadel> citadels) {
+	public static void set(Collection<Citadel> citadels) {
 		getCitadelGetter().setCitadels(citadels);
 	}
 
+	/**
+	 * Wait for pending saves to finish.
+	 */
+	public static void waitForEmptySaveQueue() {
+		while (!saveQueueEmpty()) {
+			synchronized(SAVE_QUEUE_SYNC) {
+				try {
+					SAVE_QUEUE_SYNC.wait();
+				} catch (InterruptedException ex) {
+					//No problem
+				}
+			}
+		}
+	}
+
 	private static CitadelGetter getCitadelGetter() {
-		if (citadelGetter == null) {
-			citadelGetter = new CitadelGetter();
-			citadelGetter.loadXml();
+		CitadelGetter getter = citadelGetter;
+		if (getter == null) {
+			synchronized (CitadelGetter.class) {
+				getter = citadelGetter;
+				if (getter == null) {
+					getter = new CitadelGetter();
+					getter.loadXml();
+					citadelGetter = getter;
+				}
+			}
 		}
-		return citadelGetter;
+		return getter;
 	}
 
+	/**
+	 * Save in the background.
+	 * Saves are coalesced: one running and one waiting at most (the waiting save writes the latest data).
+	 */
 	private void saveXml() {
-		CitadelWriter.save(citadelSettings);
+		if (saveQueueIgnore()) {
+			return;
+		}
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					synchronized (SAVE_LOCK) {
+						saveQueueStart();
+						CitadelWriter.save(citadelSettings);
+					}
+				} catch (RuntimeException ex) {
+					LOG.error(ex.getMessage(), ex);
+				} finally {
+					saveQueueRemove();
+				}
+			}
+		}, "Save Citadels");
+		thread.start();
 	}
 
-	private void loadXml() {
-		citadelSettings = CitadelReader.load();
+	synchronized static boolean saveQueueIgnore() {
+		if (saveWaiting > 0) { //The waiting save will include this update
+			return true;
+		}
+		saveWaiting++;
+		saveQueue++;
+		return false;
 	}
 
-	private void removeCitadel(long locationID) {
-		citadelSettings.remove(locationID);
-		saveXml();
+	/**
+	 * The save is running: the next update needs a new save.
+	 */
+	synchronized static void saveQueueStart() {
+		saveWaiting--;
 	}
 
-	private void removeCitadels(Set<Long> locationIDs) {
-		for (long locationID : locationIDs) {
-			citadelSettings.remove(locationID);
-		}
-		if (!locationIDs.isEmpty()) {
-			saveXml();
+	synchronized static void saveQueueRemove() {
+		saveQueue--;
+		synchronized(SAVE_QUEUE_SYNC) {
+			SAVE_QUEUE_SYNC.notifyAll();
 		}
 	}
 
-	private void setCitadel(Citadel citadel) {
-		citadelSettings.put(citadel.getLocationID(), citadel);
-		saveXml();
+	synchronized static boolean saveQueueEmpty() {
+		return saveQueue == 0;
 	}
 
-	private void setCitadels(Collection<Citadel> citadels) {
-		for (Citadel citadel : citadels) {
-			citadelSettings.put(citadel.getLocationID(), citadel);
+	private void loadXml() {
+		citadelSettings = CitadelReader.load();
+	}
+
+	private void removeCitadels(Collection<Long> locationIDs) {
+		if (citadelSettings.removeAll(locationIDs)) {
+			saveXml();
 		}
-		if (!citadels.isEmpty()) {
+	}
+
+	private void setCitadels(Collection<Citadel> citadels) {
+		if (citadelSettings.putAll(citadels)) {
 			saveXml();
 		}
 	}
@@ -33,12 +33,14 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import net.nikr.eve.jeveasset.SplashUpdater;
 import net.nikr.eve.jeveasset.data.profile.ProfileData;
 import net.nikr.eve.jeveasset.data.sde.Item;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.PriceData;
+import net.nikr.eve.jeveasset.data.settings.PriceDataCache;
 import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceMode;
 import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceSource;
 import net.nikr.eve.jeveasset.data.settings.PriceHistoryDatabase;
@@ -78,6 +80,7 @@ public class PriceDataGetter implements PricingListener {
 	private Set<Integer> queue;
 	private final Map<Integer, PriceData> updatedList = Collections.synchronizedMap(new HashMap<>());
 	private final Map<Integer, PriceData> priceDataList = Collections.synchronizedMap(new HashMap<>());
+	private Set<Integer> updatedTypeIDs = null;
 
 	private long nextUpdate = 0;
 
@@ -113,6 +116,18 @@ public class PriceDataGetter implements PricingListener {
 	 * @return available price data
 	 */
 	private Map<Integer, PriceData> processLoad() {
+		Map<Integer, PriceData> cached = PriceDataCache.load();
+		if (cached != null) {
+			LOG.info("Price data loading (cache)");
+			priceDataList.putAll(cached);
+			long lastUpdated = PriceDataCache.getLastUpdated();
+			if (lastUpdated > getNextUpdateTime()) {
+				setUpdateNext(lastUpdated);
+			}
+			LOG.info("	Price data loaded");
+			return cached;
+		}
+		//Import from the pricing cache
 		Pricing pricing = PricingFactory.getPricing(PricingFetch.FUZZWORK, new DefaultPricingOptions());
 		LOG.info("Price data loading");
 		for (Item item : StaticData.get().getItems().values()) { //For each typeID
@@ -149,6 +164,7 @@ public class PriceDataGetter implements PricingListener {
 			LOG.info("	Price data loaded");
 			Map<Integer, PriceData> hashMap = new HashMap<>();
 			hashMap.putAll(priceDataList);
+			PriceDataCache.update(hashMap, getNextUpdateTime());
 			return hashMap; //Return copy of Map
 		} else {
 			LOG.info("	Price data not loaded");
@@ -177,11 +193,27 @@ public class PriceDataGetter implements PricingListener {
 	 * @param task UpdateTask to update progress on
 	 * @param updateAll true to update all prices. false to only update new/missing prices
 	 * @param pricingOptions Options used doing update
-	 * @param typeIDs TypeIDs to get price data for
+	 * @param allTypeIDs TypeIDs to get price data for (only stale and new types are updated, when updating all)
 	 * @param priceSource Price data source to update from (only used in log)
 	 * @return
 	 */
-	protected Map<Integer, PriceData> processUpdate(final UpdateTask task, final boolean updateAll, final PricingOptions pricingOptions, final Set<Integer> typeIDs, final PriceSource priceSource) {
+	protected Map<Integer, PriceData> processUpdate(final UpdateTask task, final boolean updateAll, final PricingOptions pricingOptions, final Set<Integer> allTypeIDs, final PriceSource priceSource) {
+		this.updatedTypeIDs = null;
+		final int key = getKey(pricingOptions, priceSource);
+		final Set<Integer> typeIDs;
+		if (updateAll) { //Only update stale and new types
+			typeIDs = getStaleTypeIDs(allTypeIDs, key, pricingOptions.getPriceCacheTimer());
+			if (typeIDs.isEmpty()) {
+				LOG.info("Price data update all (" + priceSource + "): all prices are up to date");
+				this.updatedTypeIDs = new HashSet<>();
+				// XXX - Workaround for ConcurrentModificationException in HashMap constructor
+				Map<Integer, PriceData> hashMap = new HashMap<>();
+				hashMap.putAll(priceDataList);
+				return hashMap;
+			}
+		} else {
+			typeIDs = allTypeIDs;
+		}
 		this.updateTask = task;
 		this.update = updateAll;
 		this.typeIDs = Collections.synchronizedSet(new HashSet<>(typeIDs));
@@ -292,6 +324,18 @@ public class PriceDataGetter implements PricingListener {
 				priceDataList.keySet().removeAll(failed); //Remove failed
 				hashMap.putAll(priceDataList);
 				PriceHistoryDatabase.setPriceData(updatedList);
+				PriceDataCache.update(updatedList, System.currentTimeMillis());
+				if (updateAll) {
+					PriceDataCache.setKey(key);
+				}
+				Set<Integer> changed = new HashSet<>();
+				synchronized (updatedList) {
+					for (Integer typeID : updatedList.keySet()) {
+						changed.add(typeID);
+						changed.add(-typeID); //BPC
+					}
+				}
+				this.updatedTypeIDs = changed;
 				return hashMap;
 			} finally {
 				clear(pricing);
@@ -307,6 +351,37 @@ public class PriceDataGetter implements PricingListener {
 		}
 	}
 
+	/**
+	 * TypeIDs with new price data from the last update (BPCs included as negative typeIDs).
+	 * @return updated typeIDs or null if the last update failed
+	 */
+	public Set<Integer> getUpdatedTypeIDs() {
+		return updatedTypeIDs;
+	}
+
+	private Set<Integer> getStaleTypeIDs(final Set<Integer> typeIDs, final int key, final long cacheTimer) {
+		if (PriceDataCache.getKey() != key) {
+			LOG.info("Price data settings changed: updating all prices");
+			return typeIDs;
+		}
+		final long fresh = System.currentTimeMillis() - cacheTimer;
+		Set<Integer> stale = new HashSet<>();
+		for (Integer typeID : typeIDs) {
+			Date updated = PriceDataCache.getUpdated(typeID);
+			if (updated == null || updated.getTime() < fresh || !priceDataList.containsKey(typeID)) {
+				stale.add(typeID);
+			}
+		}
+		LOG.info("Price data: " + stale.size() + " of " + typeIDs.size() + " item types are stale");
+		return stale;
+	}
+
+	private int getKey(final PricingOptions pricingOptions, final PriceSource priceSource) {
+		PriceLocation location = pricingOptions.getLocation();
+		LocationType locationType = pricingOptions.getLocationType();
+		return Objects.hash(priceSource.name(), locationType != null ? locationType.name() : null, location != null ? location.getLocationID() : null);
+	}
+
 	public synchronized Date getNextUpdate() {
 		return new Date(nextUpdate + PRICE_CACHE_TIMER);
 	}
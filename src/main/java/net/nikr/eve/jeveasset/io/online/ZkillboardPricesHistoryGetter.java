@@ -25,28 +25,40 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.data.settings.Settings;
 import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
+/**
+ * zKillboard price history.
+ * Requests are queued (priority first) and run by a configurable number of workers.
+ * All requests share one rate limit (token bucket).
+ */
 public class ZkillboardPricesHistoryGetter {
 	private static final Logger LOG = LoggerFactory.getLogger(ZkillboardPricesHistoryGetter.class);
 
 	private static final long RATE_LIMIT_MS = 1010;
-	private static final ExecutorService THREAD_POOL = Executors.newSingleThreadExecutor();
+	private static final long RATE_LIMITED_WAIT_MS = 10000;
+	private static final long WORKER_IDLE_MS = 30000;
+	private static final int ATTEMPT_COUNT = 3;
+	public static final int MAX_CONCURRENT = 8;
 	private static final Gson GSON = new GsonBuilder().create();
-	private static Long wait = null;
-	private static Long ended = null;
+	private static final TokenBucket RATE_LIMITER = new TokenBucket(RATE_LIMIT_MS);
 	/**
 	* HttpLoggingInterceptor
 	*/
@@ -60,10 +72,23 @@ public class ZkillboardPricesHistoryGetter {
 	 * HTTP Client
 	 */
 	private final OkHttpClient client;
+	private final PriorityBlockingQueue<PriceHistoryRequest> queue = new PriorityBlockingQueue<>();
+	private final Map<Integer, PriceHistoryRequest> pending = new HashMap<>(); //Queued and running
+	private long sequence = 0;
+	private int workers = 0;
 
 	private static ZkillboardPricesHistoryGetter getter;
 
-	private ZkillboardPricesHistoryGetter() {
+	public static interface PriceHistoryListener {
+		/**
+		 * Called from the worker threads.
+		 * @param typeID
+		 * @param priceHistory the price history or null if the request failed
+		 */
+		public void received(int typeID, Map<String, Double> priceHistory);
+	}
+
+	ZkillboardPricesHistoryGetter() {
 		if (LOG.isDebugEnabled()) {
 			client = new OkHttpClient().newBuilder()
 				.addNetworkInterceptor(HTTP_LOGGING_INTERCEPTOR)
@@ -74,70 +99,250 @@ public class ZkillboardPricesHistoryGetter {
 		}
 	}
 
-	public static Map<String, Double> getPriceHistory(int TypeID) {
+	private static synchronized ZkillboardPricesHistoryGetter getGetter() {
 		if (getter == null) {
 			getter = new ZkillboardPricesHistoryGetter();
 		}
-		return getter.update(TypeID);
+		return getter;
 	}
 
-	private Map<String, Double> update(int TypeID) {
-		Future<Map<String, Double>> future = THREAD_POOL.submit(new PriceHistoryUpdate(TypeID));
+	/**
+	 * Get price history (blocking).
+	 * @param typeID
+	 * @return price history or null if the request failed
+	 */
+	public static Map<String, Double> getPriceHistory(int typeID) {
+		final List<Map<String, Double>> result = new ArrayList<>(1);
+		final CountDownLatch latch = new CountDownLatch(1);
+		PriceHistoryListener listener = new PriceHistoryListener() {
+			@Override
+			public void received(int typeID, Map<String, Double> priceHistory) {
+				result.add(priceHistory);
+				latch.countDown();
+			}
+		};
+		getGetter().submit(Collections.singleton(typeID), true, listener);
 		try {
-			return future.get();
+			latch.await();
 		} catch (InterruptedException ex) {
 			LOG.error(ex.getMessage(), ex);
-		} catch (ExecutionException ex) {
-			LOG.error(ex.getMessage(), ex);
+			getGetter().remove(listener);
+			return null; //Failed
 		}
-		return null; //Failed
+		return result.get(0);
 	}
 
-	private class PriceHistoryUpdate implements Callable<Map<String, Double>> {
+	/**
+	 * Queue price history requests.
+	 * Types already queued are only requested once (and moved to the front, if priority is true).
+	 * @param typeIDs
+	 * @param priority true to request before all non-priority types
+	 * @param listener called once for each typeID
+	 */
+	public static void getPriceHistory(Collection<Integer> typeIDs, boolean priority, PriceHistoryListener listener) {
+		getGetter().submit(typeIDs, priority, listener);
+	}
 
-		private final int typeID;
+	/**
+	 * Remove the listener from all queued requests.
+	 * Requests without other listeners are not run.
+	 * @param listener
+	 */
+	public static void cancel(PriceHistoryListener listener) {
+		getGetter().remove(listener);
+	}
 
-		public PriceHistoryUpdate(int typeID) {
-			this.typeID = typeID;
+	void submit(Collection<Integer> typeIDs, boolean priority, PriceHistoryListener listener) {
+		synchronized (pending) {
+			for (Integer typeID : typeIDs) {
+				PriceHistoryRequest request = pending.get(typeID);
+				if (request == null) {
+					request = new PriceHistoryRequest(typeID, priority, sequence++);
+					pending.put(typeID, request);
+					request.listeners.add(listener);
+					queue.add(request);
+					continue;
+				}
+				request.listeners.add(listener);
+				if (priority && !request.priority && queue.remove(request)) { //Move to the front
+					request.priority = true;
+					queue.add(request);
+				}
+			}
+			int concurrent = Math.max(1, Math.min(MAX_CONCURRENT, Settings.get().getPriceHistoryConcurrent()));
+			while (workers < concurrent && workers < pending.size()) {
+				workers++;
+				Thread thread = new Thread(new Worker(), "zKillboard Price History " + workers);
+				thread.setDaemon(true);
+				thread.start();
+			}
 		}
+	}
 
-		@Override
-		public Map<String, Double> call() throws Exception {
-			if (wait != null && ended != null && System.currentTimeMillis() < (ended + wait)) {
-				LOG.info("Waiting: " + (wait) + "ms");
-				Thread.sleep(wait);
+	void remove(PriceHistoryListener listener) {
+		synchronized (pending) {
+			Iterator<PriceHistoryRequest> iterator = pending.values().iterator();
+			while (iterator.hasNext()) {
+				PriceHistoryRequest request = iterator.next();
+				request.listeners.remove(listener);
+				if (request.listeners.isEmpty() && queue.remove(request)) {
+					iterator.remove();
+				}
 			}
+		}
+	}
+
+	/**
+	 * @param typeID
+	 * @return price history or null if the request failed
+	 * @throws InterruptedException
+	 * @throws RateLimitedException still rate limited after all attempts (the request should be retried later)
+	 */
+	Map<String, Double> update(int typeID) throws InterruptedException, RateLimitedException {
+		for (int attempt = 1; attempt <= ATTEMPT_COUNT; attempt++) {
+			RATE_LIMITER.acquire();
 			long start = System.currentTimeMillis();
-			Map<String, Double> results = null;
-			try {
-				results = GSON.fromJson(getCall(typeID).execute().body().string(), new TypeToken<Map<String, Double>>() {}.getType());
+			try (Response response = getCall(typeID).execute()) {
+				if (response.code() == 429) { //Too Many Requests
+					long wait = getRetryAfter(response);
+					LOG.warn("Rate limited: waiting " + wait + "ms");
+					RATE_LIMITER.pause(wait);
+					continue;
+				}
+				Map<String, Double> results = GSON.fromJson(response.body().string(), new TypeToken<Map<String, Double>>() {}.getType());
+				LOG.info("Completed in " + (System.currentTimeMillis() - start) + "ms");
 				if (results == null) {
 					LOG.error("Error fetching price", new Exception("results is null"));
+					return null;
 				}
+				results.remove("typeID");
+				results.remove("currentPrice");
+				return results;
 			} catch (IllegalArgumentException | IOException | JsonParseException ex) {
 				LOG.error("Error fetching price", ex);
+				return null;
 			}
-			long duration = System.currentTimeMillis() - start;
-			LOG.info("Completed in " + duration + "ms");
-			if (duration < RATE_LIMIT_MS) {
-				wait = (RATE_LIMIT_MS - duration);
-				ended = System.currentTimeMillis();
-			} else {
-				wait = null;
-				ended = null;
+		}
+		throw new RateLimitedException();
+	}
+
+	private long getRetryAfter(Response response) {
+		String retryAfter = response.header("Retry-After");
+		if (retryAfter != null) {
+			try {
+				return Long.parseLong(retryAfter.trim()) * 1000L;
+			} catch (NumberFormatException ex) {
+				//Use default
 			}
-			if (results != null) {
-				results.remove("typeID");
-				results.remove("currentPrice");
+		}
+		return RATE_LIMITED_WAIT_MS;
+	}
+
+	private Call getCall(Integer typeID) {
+		Request.Builder request = new Request.Builder()
+				.url("https://zkillboard.com/api/prices/" + typeID+ "/")
+				.addHeader("User-Agent", System.getProperty("http.agent"));
+		return client.newCall(request.build());
+	}
+
+	private class Worker implements Runnable {
+
+		@Override
+		public void run() {
+			while (true) {
+				PriceHistoryRequest request;
+				try {
+					request = queue.poll(WORKER_IDLE_MS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException ex) {
+					request = null;
+				}
+				if (request == null) {
+					synchronized (pending) {
+						if (queue.isEmpty()) {
+							workers--;
+							return;
+						}
+					}
+					continue;
+				}
+				Map<String, Double> results;
+				try {
+					results = update(request.typeID);
+				} catch (RateLimitedException ex) {
+					synchronized (pending) {
+						if (!request.listeners.isEmpty()) {
+							LOG.warn("Rate limited: typeID " + request.typeID + " queued again");
+							queue.add(request); //Retry later (the rate limiter is paused)
+							continue;
+						}
+					}
+					results = null;
+				} catch (InterruptedException ex) {
+					results = null;
+				}
+				List<PriceHistoryListener> listeners;
+				synchronized (pending) {
+					pending.remove(request.typeID);
+					listeners = new ArrayList<>(request.listeners);
+				}
+				for (PriceHistoryListener listener : listeners) {
+					try {
+						listener.received(request.typeID, results);
+					} catch (RuntimeException ex) {
+						LOG.error(ex.getMessage(), ex);
+					}
+				}
+			}
+		}
+	}
+
+	private static class PriceHistoryRequest implements Comparable<PriceHistoryRequest> {
+		private final int typeID;
+		private final long sequence;
+		private final List<PriceHistoryListener> listeners = new ArrayList<>();
+		private boolean priority;
+
+		public PriceHistoryRequest(int typeID, boolean priority, long sequence) {
+			this.typeID = typeID;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(PriceHistoryRequest o) {
+			if (priority != o.priority) {
+				return priority ? -1 : 1;
+			}
+			return Long.compare(sequence, o.sequence);
+		}
+	}
+
+	static class RateLimitedException extends Exception {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Token bucket with room for a single token (requests are started at least interval apart).
+	 */
+	static class TokenBucket {
+		private final long interval;
+		private long next = 0;
+
+		public TokenBucket(long interval) {
+			this.interval = interval;
+		}
+
+		public synchronized void acquire() throws InterruptedException {
+			long now = System.currentTimeMillis();
+			while (now < next) {
+				wait(next - now);
+				now = System.currentTimeMillis();
 			}
-			return results;
+			next = now + interval;
 		}
 
-		public Call getCall(Integer typeID) {
-			Request.Builder request = new Request.Builder()
-					.url("https://zkillboard.com/api/prices/" + typeID+ "/")
-					.addHeader("User-Agent", System.getProperty("http.agent"));
-			return client.newCall(request.build());
+		public synchronized void pause(long wait) {
+			next = Math.max(next, System.currentTimeMillis() + wait);
 		}
 	}
 }
@@ -29,7 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
 import net.nikr.eve.jeveasset.data.api.my.MyAsset;
 import net.nikr.eve.jeveasset.data.sde.Item;
@@ -189,6 +191,10 @@ public abstract class AbstractGetter<O extends OwnerType> implements Runnable {
 		return ThreadWoker.startReturn(updateTask, updaters, updateProgress);
 	}
 
+	protected final <K> void startSubThreadsStream(Collection<? extends Callable<K>> updaters, int maxInFlight, Consumer<K> consumer) throws InterruptedException, ExecutionException {
+		ThreadWoker.startStream(updateTask, updaters, maxInFlight, consumer);
+	}
+
 	protected final void checkCancelled() {
 		if (updateTask != null && updateTask.isCancelled()) {
 			throw new TaskCancelledException();
@@ -20,6 +20,8 @@
  */
 package net.nikr.eve.jeveasset.io.shared;
 
+import java.util.ArrayList;
+import java.util.List;
 import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
 import net.nikr.eve.jeveasset.data.api.my.MyAsset;
 import net.nikr.eve.jeveasset.data.api.my.MyJournal;
@@ -48,6 +50,7 @@ import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings;
 import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings.ManufacturingFacility;
 import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings.ManufacturingRigs;
 import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings.ManufacturingSecurity;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames;
 import net.nikr.eve.jeveasset.data.settings.PriceData;
 import net.nikr.eve.jeveasset.data.settings.ReprocessSettings;
 import net.nikr.eve.jeveasset.data.settings.Settings;
@@ -76,6 +79,10 @@ public final class ApiIdConverter {
 		ITEM, REPROCESSED, MANUFACTURING
 	}
 
+	private static final int PRICE_COLUMNS = 4; //BPO, BPC, Reprocessed, Manufacturing
+	private static volatile PriceTable priceTable = null;
+	private static int priceTableVersion = 0;
+
 	/*
 	public static String flag(final int flag, final MyAsset parentAsset) {
 		ItemFlag itemFlag = StaticData.get().getItemFlags().get(flag);
@@ -239,6 +246,10 @@ public final class ApiIdConverter {
 		return getPriceType(typeID, isBlueprintCopy, PriceType.ITEM);
 	}
 
+	public static double getPrice(final Item item, final boolean isBlueprintCopy) {
+		return getPriceType(item, isBlueprintCopy, PriceType.ITEM);
+	}
+
 	private static double getPriceReprocessed(final Integer typeID) {
 		return getPriceType(typeID, false, PriceType.REPROCESSED);
 	}
@@ -247,10 +258,75 @@ public final class ApiIdConverter {
 		return getPriceType(typeID, false, PriceType.MANUFACTURING);
 	}
 
+	/**
+	 * Rebuild the resolved price table on next use.
+	 * Must be called when user prices, price settings, manufacturing settings or price data is changed.
+	 */
+	public static void invalidatePrices() {
+		synchronized (PriceTable.class) {
+			priceTableVersion++;
+			priceTable = null;
+		}
+	}
+
 	private static double getPriceType(final Integer typeID, final boolean isBlueprintCopy, PriceType type) {
 		if (typeID == null) {
 			return 0;
 		}
+		return getPriceType(getItem(typeID), isBlueprintCopy, type);
+	}
+
+	private static double getPriceType(final Item item, final boolean isBlueprintCopy, PriceType type) {
+		PriceTable table = getPriceTable(); //Build the table (and set the price slots) before reading the slot
+		int slot = item.getPriceSlot();
+		if (slot >= 0 && slot < table.typeIDs.length && table.typeIDs[slot] == item.getTypeID()) {
+			return table.prices[(slot * PRICE_COLUMNS) + getPriceColumn(isBlueprintCopy, type)];
+		}
+		return resolvePriceType(item, isBlueprintCopy, type);
+	}
+
+	private static int getPriceColumn(final boolean isBlueprintCopy, PriceType type) {
+		switch (type) {
+			case REPROCESSED:
+				return 2;
+			case MANUFACTURING:
+				return 3;
+			default:
+				return isBlueprintCopy ? 1 : 0;
+		}
+	}
+
+	private static PriceTable getPriceTable() {
+		PriceTable table = priceTable;
+		if (table != null) {
+			return table;
+		}
+		synchronized (PriceTable.class) {
+			if (priceTable != null) {
+				return priceTable;
+			}
+			int version = priceTableVersion;
+			List<Item> items = new ArrayList<>(StaticData.get().getItems().values());
+			table = new PriceTable(items.size());
+			for (int slot = 0; slot < items.size(); slot++) {
+				Item item = items.get(slot);
+				int offset = slot * PRICE_COLUMNS;
+				table.typeIDs[slot] = item.getTypeID();
+				table.prices[offset] = resolvePriceType(item, false, PriceType.ITEM);
+				table.prices[offset + 1] = resolvePriceType(item, true, PriceType.ITEM);
+				table.prices[offset + 2] = resolvePriceType(item, false, PriceType.REPROCESSED);
+				table.prices[offset + 3] = resolvePriceType(item, false, PriceType.MANUFACTURING);
+				item.setPriceSlot(slot);
+			}
+			if (version == priceTableVersion) {
+				priceTable = table;
+			}
+			return table;
+		}
+	}
+
+	private static double resolvePriceType(final Item item, final boolean isBlueprintCopy, PriceType type) {
+		final int typeID = item.getTypeID();
 		UserItem<Integer, Double> userPrice;
 		if (isBlueprintCopy) { //Blueprint Copy
 			userPrice = Settings.get().getUserPrices().get(-typeID);
@@ -267,16 +343,13 @@ public final class ApiIdConverter {
 		}
 
 		//Blueprints Base Price
-		Item item = getItem(typeID);
 		//Tech 1
-		if (item.isBlueprint()) {
-			if (Settings.get().isBlueprintBasePriceTech1() && !item.getTypeName().toLowerCase().contains("ii")) {
-				return item.getPriceBase();
-			}
-			//Tech 2
-			if (Settings.get().isBlueprintBasePriceTech2() && item.getTypeName().toLowerCase().contains("ii")) {
-				return item.getPriceBase();
-			}
+		if (item.isBlueprintTech1() && Settings.get().isBlueprintBasePriceTech1()) {
+			return item.getPriceBase();
+		}
+		//Tech 2
+		if (item.isBlueprintTech2() && Settings.get().isBlueprintBasePriceTech2()) {
+			return item.getPriceBase();
 		}
 		//Manufacturing Price for non-market items
 		if (!item.isMarketGroup() && Settings.get().isManufacturingDefault()) {
@@ -506,7 +579,7 @@ public final class ApiIdConverter {
 		if (ownerID == null || ownerID == 0) { //0 (zero) is valid, but, should return empty string
 			return EMPTY_STRING;
 		}
-		String owner = Settings.get().getOwners().get(ownerID);
+		String owner = OwnerNames.getName(ownerID);
 		if (owner != null) {
 			return owner;
 		} else { // OwnerIDs from the journal can be a system ID
@@ -548,7 +621,7 @@ public final class ApiIdConverter {
 				return location;
 			}
 		}
-		location = CitadelGetter.get(locationID).toLocation();
+		location = CitadelGetter.getLocation(locationID);
 		if (location != null) {
 			return location;
 		}
@@ -597,4 +670,13 @@ public final class ApiIdConverter {
 		return new Citadel(planet.getMoonId(), planet.getName(), planet.getSystemId(), false, false, CitadelSource.ESI_MOON);
 	}
 
+	private static class PriceTable {
+		private final int[] typeIDs;
+		private final double[] prices;
+
+		public PriceTable(int size) {
+			typeIDs = new int[size];
+			prices = new double[size * PRICE_COLUMNS];
+		}
+	}
 }
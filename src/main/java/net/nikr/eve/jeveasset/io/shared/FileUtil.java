@@ -45,6 +45,8 @@ public class FileUtil extends FileUtilSimple {
 	private static final String PATH_ASSET_ADDED_DATABASE = "data" + File.separator + "addedsql.db";
 	private static final String PATH_STOCKPILE_IDS_DATABASE = "data" + File.separator + "stockpileids.db";
 	private static final String PATH_PRICE_HISTORY_DATABASE = "data" + File.separator + "pricehistory.db";
+	private static final String PATH_CONTRACT_ITEMS_DATABASE = "data" + File.separator + "contractitems.db";
+	private static final String PATH_WALLET_ARCHIVE_DATABASE = "data" + File.separator + "walletarchive.db";
 	private static final String PATH_TRACKER_DATA = "data" + File.separator + "tracker.json";
 	private static final String PATH_SETTINGS = "data" + File.separator + "settings.xml";
 	private static final String PATH_ITEMS = "data" + File.separator + "items.xml";
@@ -53,9 +55,13 @@ public class FileUtil extends FileUtilSimple {
 	private static final String PATH_LOCATIONS = "data" + File.separator + "locations.xml";
 	private static final String PATH_FLAGS = "data" + File.separator + "flags.xml";
 	private static final String PATH_PRICE_DATA = "data" + File.separator + "pricedata.dat";
+	private static final String PATH_PRICE_DATA_CACHE = "data" + File.separator + "pricedata.bin";
 	private static final String PATH_ASSETS = "data" + File.separator + "assets.xml";
 	private static final String PATH_CONQUERABLE_STATIONS = "data" + File.separator + "conquerable_stations.xml";
 	private static final String PATH_CITADEL = "data" + File.separator + "citadel.xml";
+	private static final String PATH_ESI_CACHE = "data" + File.separator + "esicache";
+	private static final String PATH_OWNER_NAMES = "data" + File.separator + "names.json";
+	private static final String PATH_ESI_METRICS = "data" + File.separator + "esimetrics";
 	private static final String PATH_README = "readme.txt";
 	private static final String PATH_LICENSE = "license.txt";
 	private static final String PATH_CREDITS = "credits.txt";
@@ -152,8 +158,11 @@ public class FileUtil extends FileUtilSimple {
 			Path assetAddedDatabaseFrom = Paths.get(getPathAssetAddedDatabase());
 			Path stockpileIDsDatabaseFrom = Paths.get(getPathStockpileIDsDatabase());
 			Path priceHistoryDatabasFrom = Paths.get(getPathPriceHistoryDatabase());
+			Path contractItemsDatabaseFrom = Paths.get(getPathContractItemsDatabase());
+			Path walletArchiveDatabaseFrom = Paths.get(getPathWalletArchiveDatabase());
 			Path citadelFrom = Paths.get(getPathCitadel());
 			Path priceFrom = Paths.get(getPathPriceData());
+			Path priceCacheFrom = Paths.get(getPathPriceDataCache());
 			Path profilesFrom = Paths.get(getPathProfilesDirectory());
 			Path itemsUpdatesFrom = Paths.get(getPathItemsUpdates());
 			CliOptions.get().setPortable(true);
@@ -163,8 +172,11 @@ public class FileUtil extends FileUtilSimple {
 			Path assetAddedDatabaseTo = Paths.get(getPathAssetAddedDatabase());
 			Path stockpileIDsDatabaseTo = Paths.get(getPathStockpileIDsDatabase());
 			Path priceHistoryDatabasTo = Paths.get(getPathPriceHistoryDatabase());
+			Path contractItemsDatabaseTo = Paths.get(getPathContractItemsDatabase());
+			Path walletArchiveDatabaseTo = Paths.get(getPathWalletArchiveDatabase());
 			Path citadelTo = Paths.get(getPathCitadel());
 			Path priceTo = Paths.get(getPathPriceData());
+			Path priceCacheTo = Paths.get(getPathPriceDataCache());
 			Path profilesTo = Paths.get(getPathProfilesDirectory());
 			Path itemsUpdatesTo = Paths.get(getPathItemsUpdates());
 			if (Files.exists(settingsFrom) && !Files.exists(settingsTo)) {
@@ -221,6 +233,24 @@ public class FileUtil extends FileUtilSimple {
 					LOG.info("	FAILED");
 				}
 			}
+			if (Files.exists(contractItemsDatabaseFrom) && !Files.exists(contractItemsDatabaseTo)) {
+				LOG.info("Importing contract items");
+				try {
+					Files.copy(contractItemsDatabaseFrom, contractItemsDatabaseTo);
+					LOG.info("	OK");
+				} catch (IOException ex) {
+					LOG.info("	FAILED");
+				}
+			}
+			if (Files.exists(walletArchiveDatabaseFrom) && !Files.exists(walletArchiveDatabaseTo)) {
+				LOG.info("Importing wallet archive");
+				try {
+					Files.copy(walletArchiveDatabaseFrom, walletArchiveDatabaseTo);
+					LOG.info("	OK");
+				} catch (IOException ex) {
+					LOG.info("	FAILED");
+				}
+			}
 			if (Files.exists(citadelFrom) && !Files.exists(citadelTo)) {
 				LOG.info("Importing citadels");
 				try {
@@ -239,6 +269,15 @@ public class FileUtil extends FileUtilSimple {
 					LOG.info("	FAILED");
 				}
 			}
+			if (Files.exists(priceCacheFrom) && !Files.exists(priceCacheTo)) {
+				LOG.info("Importing price cache");
+				try {
+					Files.copy(priceCacheFrom, priceCacheTo);
+					LOG.info("	OK");
+				} catch (IOException ex) {
+					LOG.info("	FAILED");
+				}
+			}
 			if (Files.exists(itemsUpdatesFrom) && !Files.exists(itemsUpdatesTo)) {
 				LOG.info("Importing items updates");
 				try {
@@ -307,6 +346,14 @@ public class FileUtil extends FileUtilSimple {
 		return getLocalFile(PATH_PRICE_HISTORY_DATABASE, !CliOptions.get().isPortable());
 	}
 
+	public static String getPathContractItemsDatabase() {
+		return getLocalFile(PATH_CONTRACT_ITEMS_DATABASE, !CliOptions.get().isPortable());
+	}
+
+	public static String getPathWalletArchiveDatabase() {
+		return getLocalFile(PATH_WALLET_ARCHIVE_DATABASE, !CliOptions.get().isPortable());
+	}
+
 	public static String getPathConquerableStations() {
 		return getLocalFile(PATH_CONQUERABLE_STATIONS, !CliOptions.get().isPortable());
 	}
@@ -315,6 +362,22 @@ public class FileUtil extends FileUtilSimple {
 		return getLocalFile(PATH_CITADEL, !CliOptions.get().isPortable());
 	}
 
+	public static String getPathEsiCache() {
+		return getLocalFile(PATH_ESI_CACHE, !CliOptions.get().isPortable());
+	}
+
+	public static String getPathOwnerNames() {
+		return getLocalFile(PATH_OWNER_NAMES, !CliOptions.get().isPortable());
+	}
+
+	public static String getPathEsiMetrics(String filename) {
+		return getLocalFile(PATH_ESI_METRICS + File.separator + filename, !CliOptions.get().isPortable());
+	}
+
+	public static String getPathEsiMetricsDirectory() {
+		return getLocalFile(PATH_ESI_METRICS, !CliOptions.get().isPortable());
+	}
+
 	public static String getPathJumps() {
 		return getLocalFile(PATH_JUMPS, false);
 	}
@@ -327,6 +390,10 @@ public class FileUtil extends FileUtilSimple {
 		return getLocalFile(PATH_PRICE_DATA, !CliOptions.get().isPortable());
 	}
 
+	public static String getPathPriceDataCache() {
+		return getLocalFile(PATH_PRICE_DATA_CACHE, !CliOptions.get().isPortable());
+	}
+
 	public static String getPathAssetsOld() {
 		return getLocalFile(PATH_ASSETS, !CliOptions.get().isPortable());
 	}
@@ -20,15 +20,22 @@
  */
 package net.nikr.eve.jeveasset.io.shared;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,11 +43,48 @@ import org.slf4j.LoggerFactory;
 
 public class ThreadWoker {
 
+	private static final Logger LOG = LoggerFactory.getLogger(ThreadWoker.class);
+
 	private static final int MAIN_THREADS = 100;
 	private static final int SUB_THREADS = 100;
-	private static final ExecutorService RETURN_THREAD_POOL = Executors.newFixedThreadPool(SUB_THREADS);
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor() on JDK 21+ (null on older JVMs or when disabled).
+	 * Disable with -Djeveasset.virtualthreads=false
+	 */
+	private static final Method VIRTUAL_THREADS = getVirtualThreads();
+	private static final ExecutorService RETURN_THREAD_POOL = newExecutor(SUB_THREADS);
 
-	private static final Logger LOG = LoggerFactory.getLogger(ThreadWoker.class);
+	private static Method getVirtualThreads() {
+		if (!Boolean.parseBoolean(System.getProperty("jeveasset.virtualthreads", "true"))) {
+			return null;
+		}
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException | SecurityException ex) {
+			return null; //JDK 20 or older
+		}
+	}
+
+	public static boolean isVirtualThreads() {
+		return VIRTUAL_THREADS != null;
+	}
+
+	/**
+	 * Create a executor for blocking (IO) tasks.
+	 * Virtual threads on JDK 21+ (one thread per task), otherwise a fixed thread pool.
+	 * @param threads number of threads in the fallback thread pool
+	 * @return new executor (must be shutdown)
+	 */
+	public static ExecutorService newExecutor(int threads) {
+		if (VIRTUAL_THREADS != null) {
+			try {
+				return (ExecutorService) VIRTUAL_THREADS.invoke(null);
+			} catch (ReflectiveOperationException | RuntimeException ex) {
+				LOG.warn("Virtual threads failed: " + ex.getMessage());
+			}
+		}
+		return Executors.newFixedThreadPool(threads);
+	}
 
 	public static void start(UpdateTask updateTask, Collection<? extends Runnable> updaters) {
 		start(updateTask, updaters, true);
@@ -55,28 +99,18 @@ public class ThreadWoker {
 	}
 
 	public static void start(UpdateTask updateTask, Collection<? extends Runnable> updaters, boolean updateProgress, int start, int end) {
-		ExecutorService threadPool = Executors.newFixedThreadPool(MAIN_THREADS);
+		ExecutorService threadPool = newExecutor(MAIN_THREADS);
 		try {
 			LOG.info("Starting " + updaters.size() + " main threads");
+			Progress progress = new Progress(updateTask, updaters.size(), updateProgress, start, end);
 			List<Future<?>> futures = new ArrayList<Future<?>>();
 			for (Runnable runnable : updaters) {
-				futures.add(threadPool.submit(runnable));
+				futures.add(progress.submit(threadPool, Executors.callable(runnable)));
 			}
 			threadPool.shutdown();
-			while (!threadPool.awaitTermination(500, TimeUnit.MICROSECONDS)) {
-				if (updateTask != null) {
-					if (updateTask.isCancelled()) {
-						threadPool.shutdownNow();
-					} else if (updateProgress) {
-						int progress = 0;
-						for (Future<?> future : futures) {
-							if (future.isDone()) {
-								progress++;
-							}
-						}
-						updateTask.setTaskProgress(updaters.size(), progress, start, end);
-					}
-				}
+			if (!progress.await(futures)) {
+				threadPool.shutdownNow();
+				return; //Cancelled
 			}
 			//Get errors (if any)
 			for (Future<?> future : futures) {
@@ -86,6 +120,8 @@ public class ThreadWoker {
 			//No problem
 		} catch (ExecutionException ex) {
 			throwExecutionException(ex);
+		} finally {
+			threadPool.shutdown();
 		}
 	}
 
@@ -102,37 +138,129 @@ public class ThreadWoker {
 			throw new TaskCancelledException();
 		}
 		LOG.info("Starting " + updaters.size() + " sub threads");
+		Progress progress = new Progress(updateTask, updaters.size(), updateProgress, start, end);
 		List<Future<K>> futures = new ArrayList<Future<K>>();
 		for (Callable<K> callable : updaters) {
-			futures.add(RETURN_THREAD_POOL.submit(callable));
+			futures.add(progress.submit(RETURN_THREAD_POOL, callable));
 		}
-		int done = 0;
-		while (done < futures.size()) {
-			done = 0;
-			for (Future<?> future : futures) {
-				if (future.isDone()) {
-					done++;
-				}
+		if (!progress.await(futures)) {
+			throw new TaskCancelledException(); //Stop parent Task
+		}
+		return futures;
+	}
+
+	/**
+	 * Run the updaters with at most maxInFlight running at the same time.
+	 * Results are handed to the consumer (on the calling thread) as soon as they're done, in the order they're done.
+	 * A new updater is only started when a result have been consumed.
+	 * If any updater fails, the remaining updaters are cancelled and the ExecutionException is thrown.
+	 * @param <K>
+	 * @param updateTask
+	 * @param updaters
+	 * @param maxInFlight max number of updaters running at the same time
+	 * @param consumer
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static <K> void startStream(UpdateTask updateTask, Collection<? extends Callable<K>> updaters, int maxInFlight, Consumer<K> consumer) throws InterruptedException, ExecutionException {
+		if (updateTask != null && updateTask.isCancelled()) {
+			throw new TaskCancelledException();
+		}
+		LOG.info("Streaming " + updaters.size() + " sub threads");
+		CompletionService<K> completionService = new ExecutorCompletionService<>(RETURN_THREAD_POOL);
+		Iterator<? extends Callable<K>> iterator = updaters.iterator();
+		List<Future<K>> running = new ArrayList<>();
+		try {
+			while (iterator.hasNext() && running.size() < maxInFlight) {
+				running.add(completionService.submit(iterator.next()));
 			}
-			if (updateTask != null) {
-				if (updateTask.isCancelled()) { //If task is cancelled
-					for (Future<?> future : futures) { //cancel all threads
-						future.cancel(true);
-					}
+			while (!running.isEmpty()) {
+				Future<K> future = completionService.poll(500, TimeUnit.MILLISECONDS);
+				if (updateTask != null && updateTask.isCancelled()) {
 					throw new TaskCancelledException(); //Stop parent Task
-				} else if (updateProgress) {
-					updateTask.setTaskProgress(updaters.size(), done, start, end);
 				}
+				if (future == null) {
+					continue;
+				}
+				running.remove(future);
+				consumer.accept(future.get());
+				if (iterator.hasNext()) {
+					running.add(completionService.submit(iterator.next()));
+				}
+			}
+		} finally {
+			for (Future<K> future : running) { //cancel all remaining threads (if any)
+				future.cancel(true);
 			}
-			Thread.sleep(500);
 		}
-		return futures;
 	}
 
 	public static class TaskCancelledException extends RuntimeException {
 
 	}
 
+	/**
+	 * Progress updated by completion callbacks.
+	 * Waiting is woken up as soon as the last task is done, cancel is checked every 500ms.
+	 */
+	private static class Progress {
+
+		private final UpdateTask updateTask;
+		private final int total;
+		private final boolean updateProgress;
+		private final int start;
+		private final int end;
+		private final CountDownLatch latch;
+		private int done = 0;
+
+		public Progress(UpdateTask updateTask, int total, boolean updateProgress, int start, int end) {
+			this.updateTask = updateTask;
+			this.total = total;
+			this.updateProgress = updateProgress;
+			this.start = start;
+			this.end = end;
+			this.latch = new CountDownLatch(total);
+		}
+
+		public <K> Future<K> submit(ExecutorService executor, Callable<K> callable) {
+			FutureTask<K> future = new FutureTask<K>(callable) {
+				@Override
+				protected void done() {
+					taskDone();
+				}
+			};
+			executor.execute(future);
+			return future;
+		}
+
+		private synchronized void taskDone() {
+			done++;
+			if (updateTask != null && updateProgress) {
+				updateTask.setTaskProgress(total, done, start, end);
+			}
+			latch.countDown();
+		}
+
+		/**
+		 * Wait for all tasks to be done.
+		 * If the UpdateTask is cancelled, all tasks are cancelled.
+		 * @param futures
+		 * @return true if all tasks are done, false if cancelled
+		 * @throws InterruptedException
+		 */
+		public boolean await(List<? extends Future<?>> futures) throws InterruptedException {
+			while (!latch.await(500, TimeUnit.MILLISECONDS)) {
+				if (updateTask != null && updateTask.isCancelled()) { //If task is cancelled
+					for (Future<?> future : futures) { //cancel all threads
+						future.cancel(true);
+					}
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	private static <E extends Exception> void throwExecutionException(ExecutionException ex) throws E {
 		throwExecutionException(null, ex);
 	}
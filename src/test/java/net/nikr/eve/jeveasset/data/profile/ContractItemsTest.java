@@ -0,0 +1,111 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.profile;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class ContractItemsTest extends TestUtil {
+
+	//Database file
+	private static final String FILENAME = FileUtil.getLocalFile("testing" + File.separator + "contractitems_testdb.db", false);
+
+	@BeforeClass
+	public static void init() {
+		new File(FILENAME).getParentFile().mkdirs();
+		new File(FILENAME).delete();
+		ContractItems.setConnectionUrl("jdbc:sqlite:" + FILENAME);
+	}
+
+	@AfterClass
+	public static void out() {
+		ContractItems.setConnectionUrl(ContractItems.DEFAULT_CONNECTION_URL);
+		new File(FILENAME).delete();
+	}
+
+	@Test
+	public void testAddGet() {
+		Map<Integer, List<RawContractItem>> add = new HashMap<>();
+		add.put(1, Arrays.asList(create(10L, 34, 100, true), create(11L, 35, 200, null)));
+		add.put(2, Collections.singletonList(create(20L, 36, 1, false)));
+		add.put(3, new ArrayList<>()); //Empty: Ignored
+		ContractItems.add(add);
+
+		assertThat(ContractItems.contains(1), equalTo(true));
+		assertThat(ContractItems.contains(2), equalTo(true));
+		assertThat(ContractItems.contains(3), equalTo(false));
+
+		Map<Integer, List<RawContractItem>> get = ContractItems.get(Arrays.asList(1, 2, 3, 4));
+		assertThat(get.size(), equalTo(2));
+		assertThat(get.get(1).size(), equalTo(2));
+		for (RawContractItem contractItem : get.get(1)) {
+			if (contractItem.getRecordID() == 10L) {
+				assertThat(contractItem.getTypeID(), equalTo(34));
+				assertThat(contractItem.getQuantity(), equalTo(100));
+				assertThat(contractItem.isIncluded(), equalTo(true));
+				assertThat(contractItem.getME(), equalTo(10));
+			} else {
+				assertThat(contractItem.getRecordID(), equalTo(11L));
+				assertThat(contractItem.getTypeID(), equalTo(35));
+				assertThat(contractItem.isIncluded(), nullValue());
+			}
+			assertThat(contractItem.getItemID(), nullValue());
+		}
+		assertThat(get.get(2).get(0).isIncluded(), equalTo(false));
+
+		//Append-only: Stored contracts are not changed
+		ContractItems.add(Collections.singletonMap(2, Collections.singletonList(create(21L, 37, 1, true))));
+		get = ContractItems.get(Collections.singletonList(2));
+		assertThat(get.get(2).size(), equalTo(1));
+		assertThat(get.get(2).get(0).getRecordID(), equalTo(20L));
+
+		//Reload from the database
+		ContractItems.setConnectionUrl("jdbc:sqlite:" + FILENAME);
+		assertThat(ContractItems.contains(1), equalTo(true));
+		assertThat(ContractItems.get(Collections.singletonList(1)).get(1).size(), equalTo(2));
+	}
+
+	private RawContractItem create(long recordID, int typeID, int quantity, Boolean included) {
+		RawContractItem contractItem = RawContractItem.create();
+		contractItem.setRecordID(recordID);
+		contractItem.setTypeID(typeID);
+		contractItem.setQuantity(quantity);
+		contractItem.setIncluded(included);
+		contractItem.setSingleton(false);
+		contractItem.setME(10);
+		return contractItem;
+	}
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.profile;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournalRefType;
+import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.io.shared.DataConverter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class WalletArchiveTest extends TestUtil {
+
+	//Database file
+	private static final String FILENAME = FileUtil.getLocalFile("testing" + File.separator + "walletarchive_testdb.db", false);
+	private static final long DAY = 24L * 60L * 60L * 1000L;
+
+	@BeforeClass
+	public static void init() {
+		new File(FILENAME).getParentFile().mkdirs();
+		new File(FILENAME).delete();
+		WalletArchive.setConnectionUrl("jdbc:sqlite:" + FILENAME);
+	}
+
+	@AfterClass
+	public static void out() {
+		WalletArchive.setConnectionUrl(WalletArchive.DEFAULT_CONNECTION_URL);
+		new File(FILENAME).delete();
+	}
+
+	@Test
+	public void testArchivePaging() {
+		EsiOwner owner = new EsiOwner();
+		owner.setOwnerName("Owner");
+		owner.setOwnerID(1L);
+		Date now = new Date();
+		Set<MyJournal> journals = new HashSet<>();
+		Set<MyTransaction> transactions = new HashSet<>();
+		for (int i = 0; i < 25; i++) {
+			Date date = new Date(now.getTime() - (i * DAY));
+			journals.add(createJournal(owner, i, date));
+			transactions.add(createTransaction(owner, i, date));
+		}
+		owner.setJournal(journals);
+		owner.setTransactions(transactions);
+
+		//Move everything older than 10 days to the archive
+		int archived = WalletArchive.archive(owner, new Date(now.getTime() - (10 * DAY) + 1));
+		assertThat(archived, equalTo(30));
+		assertThat(owner.getJournal().size(), equalTo(10));
+		assertThat(owner.getTransactions().size(), equalTo(10));
+
+		//Journal: newest first
+		WalletArchive.Cursor cursor = new WalletArchive.Cursor();
+		List<MyJournal> page = WalletArchive.getJournal(Collections.singleton(owner), cursor, 10);
+		assertThat(page.size(), equalTo(10));
+		assertThat(cursor.isDone(), equalTo(false));
+		for (int i = 0; i < page.size(); i++) {
+			MyJournal journal = page.get(i);
+			assertThat(journal.getRefID(), equalTo(10L + i));
+			assertThat(journal.getDate().getTime(), equalTo(now.getTime() - ((10 + i) * DAY)));
+			assertThat(journal.getAmount(), equalTo((double) (10 + i)));
+			assertThat(journal.getRefType(), equalTo(RawJournalRefType.PLAYER_DONATION));
+			assertThat(journal.getOwnerName(), equalTo("Owner"));
+		}
+		page = WalletArchive.getJournal(Collections.singleton(owner), cursor, 10);
+		assertThat(page.size(), equalTo(5));
+		assertThat(page.get(0).getRefID(), equalTo(20L));
+		assertThat(cursor.isDone(), equalTo(true));
+		assertThat(WalletArchive.getJournal(Collections.singleton(owner), cursor, 10).isEmpty(), equalTo(true));
+
+		//Transactions
+		cursor = new WalletArchive.Cursor();
+		List<MyTransaction> transactionsPage = WalletArchive.getTransactions(Collections.singleton(owner), cursor, 100);
+		assertThat(transactionsPage.size(), equalTo(15));
+		assertThat(cursor.isDone(), equalTo(true));
+		MyTransaction transaction = transactionsPage.get(0);
+		assertThat(transaction.getTransactionID(), equalTo(10L));
+		assertThat(transaction.getTypeID(), equalTo(34));
+		assertThat(transaction.getQuantity(), equalTo(10));
+		assertThat(transaction.isBuy(), equalTo(true));
+
+		//Archiving again does not duplicate rows
+		owner.setJournal(journals);
+		WalletArchive.archive(owner, new Date(now.getTime() - (10 * DAY) + 1));
+		cursor = new WalletArchive.Cursor();
+		assertThat(WalletArchive.getJournal(Collections.singleton(owner), cursor, 100).size(), equalTo(15));
+
+		//Other owners is not included
+		EsiOwner other = new EsiOwner();
+		other.setOwnerID(2L);
+		assertThat(WalletArchive.getJournal(Collections.singleton(other), new WalletArchive.Cursor(), 100).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testPagingSameID() {
+		//Same IDs and dates for two owners (IDs are only unique per owner)
+		EsiOwner first = new EsiOwner();
+		first.setOwnerName("First");
+		first.setOwnerID(4L);
+		EsiOwner second = new EsiOwner();
+		second.setOwnerName("Second");
+		second.setOwnerID(5L);
+		Date date = new Date(new Date().getTime() - (100 * DAY));
+		Set<OwnerType> owners = new HashSet<>();
+		for (EsiOwner owner : new EsiOwner[] {first, second}) {
+			Set<MyJournal> journals = new HashSet<>();
+			Set<MyTransaction> transactions = new HashSet<>();
+			for (int i = 1000; i < 1005; i++) {
+				journals.add(createJournal(owner, i, date));
+				transactions.add(createTransaction(owner, i, date));
+			}
+			owner.setJournal(journals);
+			owner.setTransactions(transactions);
+			assertThat(WalletArchive.archive(owner, new Date()), equalTo(10));
+			owners.add(owner);
+		}
+		//Page size of one: every row is returned once
+		Set<String> journalKeys = new HashSet<>();
+		WalletArchive.Cursor cursor = new WalletArchive.Cursor();
+		List<MyJournal> journalPage;
+		while (!(journalPage = WalletArchive.getJournal(owners, cursor, 1)).isEmpty()) {
+			for (MyJournal journal : journalPage) {
+				assertThat(journalKeys.add(journal.getOwnerName() + journal.getRefID()), equalTo(true));
+			}
+		}
+		assertThat(journalKeys.size(), equalTo(10));
+		Set<String> transactionKeys = new HashSet<>();
+		cursor = new WalletArchive.Cursor();
+		List<MyTransaction> transactionPage;
+		while (!(transactionPage = WalletArchive.getTransactions(owners, cursor, 3)).isEmpty()) {
+			for (MyTransaction transaction : transactionPage) {
+				assertThat(transactionKeys.add(transaction.getOwnerName() + transaction.getTransactionID()), equalTo(true));
+			}
+		}
+		assertThat(transactionKeys.size(), equalTo(10));
+	}
+
+	@Test
+	public void testRestore() {
+		EsiOwner owner = new EsiOwner();
+		owner.setOwnerName("Restore");
+		owner.setOwnerID(3L);
+		Date now = new Date();
+		Set<MyJournal> journals = new HashSet<>();
+		Set<MyTransaction> transactions = new HashSet<>();
+		for (int i = 0; i < 20; i++) {
+			Date date = new Date(now.getTime() - (i * DAY));
+			journals.add(createJournal(owner, i, date));
+			transactions.add(createTransaction(owner, i, date));
+		}
+		owner.setJournal(journals);
+		owner.setTransactions(transactions);
+		assertThat(WalletArchive.archive(owner, new Date(now.getTime() - (5 * DAY) + 1)), equalTo(30));
+		assertThat(owner.getJournal().size(), equalTo(5));
+
+		//Window extended: Only rows newer than the new window is restored
+		assertThat(WalletArchive.restore(owner, new Date(now.getTime() - (10 * DAY) + 1)), equalTo(10));
+		assertThat(owner.getJournal().size(), equalTo(10));
+		assertThat(owner.getTransactions().size(), equalTo(10));
+		assertThat(WalletArchive.getJournal(Collections.singleton(owner), new WalletArchive.Cursor(), 100).size(), equalTo(10));
+
+		//Archive disabled: Everything is restored
+		assertThat(WalletArchive.restore(owner, null), equalTo(20));
+		assertThat(owner.getJournal().size(), equalTo(20));
+		assertThat(owner.getTransactions().size(), equalTo(20));
+		assertThat(WalletArchive.getJournal(Collections.singleton(owner), new WalletArchive.Cursor(), 100).isEmpty(), equalTo(true));
+		assertThat(WalletArchive.restore(owner, null), equalTo(0));
+	}
+
+	private MyJournal createJournal(EsiOwner owner, long refID, Date date) {
+		RawJournal rawJournal = RawJournal.create();
+		rawJournal.setRefID(refID);
+		rawJournal.setDate(date);
+		rawJournal.setAmount((double) refID);
+		rawJournal.setBalance(1000.0);
+		rawJournal.setRefType(RawJournalRefType.PLAYER_DONATION);
+		rawJournal.setRefTypeString(RawJournalRefType.PLAYER_DONATION.name().toLowerCase());
+		rawJournal.setAccountKey(1000);
+		return DataConverter.toMyJournal(rawJournal, owner);
+	}
+
+	private MyTransaction createTransaction(EsiOwner owner, long transactionID, Date date) {
+		RawTransaction rawTransaction = RawTransaction.create();
+		rawTransaction.setTransactionID(transactionID);
+		rawTransaction.setDate(date);
+		rawTransaction.setTypeID(34);
+		rawTransaction.setQuantity((int) transactionID);
+		rawTransaction.setUnitPrice(5.0);
+		rawTransaction.setClientID(3);
+		rawTransaction.setLocationID(60003760L);
+		rawTransaction.setBuy(true);
+		rawTransaction.setPersonal(true);
+		rawTransaction.setJournalRefID(transactionID);
+		rawTransaction.setAccountKey(1000);
+		return DataConverter.toMyTransaction(rawTransaction, owner);
+	}
+}
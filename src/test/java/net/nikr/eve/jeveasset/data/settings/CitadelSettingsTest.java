@@ -0,0 +1,122 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.settings.Citadel.CitadelSource;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class CitadelSettingsTest extends TestUtil {
+
+	private static final long SYSTEM_ID = 30000142; //Jita
+
+	@Test
+	public void testSnapshot() {
+		CitadelSettings citadelSettings = new CitadelSettings();
+		citadelSettings.put(1099000000001L, createCitadel(1099000000001L, "One", CitadelSource.ESI_STRUCTURES));
+		Iterable<Map.Entry<Long, Citadel>> snapshot = citadelSettings.getCache();
+		citadelSettings.put(1099000000002L, createCitadel(1099000000002L, "Two", CitadelSource.ESI_STRUCTURES));
+		assertThat(size(snapshot), equalTo(1));
+		assertThat(size(citadelSettings.getCache()), equalTo(2));
+		snapshot = citadelSettings.getCache();
+		assertThat(citadelSettings.removeAll(Collections.singleton(1099000000001L)), equalTo(true));
+		assertThat(size(snapshot), equalTo(2));
+		assertThat(size(citadelSettings.getCache()), equalTo(1));
+		assertThat(citadelSettings.get(1099000000001L), nullValue());
+		assertThat(citadelSettings.removeAll(Collections.singleton(1099000000001L)), equalTo(false));
+	}
+
+	@Test
+	public void testPriority() {
+		CitadelSettings citadelSettings = new CitadelSettings();
+		long locationID = 1099000000011L;
+		Citadel structure = createCitadel(locationID, "Structure", CitadelSource.ESI_STRUCTURES);
+		assertThat(citadelSettings.putAll(Collections.singleton(structure)), equalTo(true));
+		MyLocation location = citadelSettings.get(locationID).toLocation();
+		assertThat(location.getStation(), equalTo("Structure"));
+		//Lower priority: ignored
+		Citadel zkill = createCitadel(locationID, "Zkill", CitadelSource.ZKILL);
+		assertThat(citadelSettings.putAll(Collections.singleton(zkill)), equalTo(false));
+		assertThat(citadelSettings.get(locationID), sameInstance(structure));
+		assertThat(location.getStation(), equalTo("Structure")); //Shared MyLocation not changed
+		//Same priority: replaced
+		Citadel locations = createCitadel(locationID, "Locations", CitadelSource.ESI_LOCATIONS);
+		assertThat(citadelSettings.putAll(Collections.singleton(locations)), equalTo(true));
+		assertThat(citadelSettings.get(locationID), sameInstance(locations));
+		assertThat(locations.toLocation(), sameInstance(location));
+		assertThat(location.getStation(), equalTo("Locations"));
+	}
+
+	@Test
+	public void testBatchVisibility() throws InterruptedException {
+		final CitadelSettings citadelSettings = new CitadelSettings();
+		final int batchSize = 200;
+		final int batches = 25;
+		final AtomicBoolean done = new AtomicBoolean(false);
+		final AtomicBoolean partial = new AtomicBoolean(false);
+		Thread reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!done.get()) {
+					if (size(citadelSettings.getCache()) % batchSize != 0) {
+						partial.set(true);
+					}
+				}
+			}
+		});
+		reader.start();
+		for (int batch = 0; batch < batches; batch++) {
+			List<Citadel> citadels = new ArrayList<>();
+			for (int i = 0; i < batchSize; i++) {
+				long locationID = 1099000100000L + (batch * batchSize) + i;
+				citadels.add(createCitadel(locationID, String.valueOf(locationID), CitadelSource.ESI_STRUCTURES));
+			}
+			assertThat(citadelSettings.putAll(citadels), equalTo(true));
+		}
+		done.set(true);
+		reader.join();
+		assertThat(partial.get(), equalTo(false));
+		assertThat(size(citadelSettings.getCache()), equalTo(batchSize * batches));
+	}
+
+	private Citadel createCitadel(long locationID, String name, CitadelSource source) {
+		return new Citadel(locationID, name, SYSTEM_ID, false, true, source);
+	}
+
+	private static int size(Iterable<Map.Entry<Long, Citadel>> iterable) {
+		int size = 0;
+		for (Map.Entry<Long, Citadel> entry : iterable) {
+			size++;
+		}
+		return size;
+	}
+}
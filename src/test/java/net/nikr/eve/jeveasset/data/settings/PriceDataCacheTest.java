@@ -0,0 +1,112 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class PriceDataCacheTest extends TestUtil {
+
+	private static final String FILENAME = FileUtil.getLocalFile("testing" + File.separator + "pricedata_test.bin", false);
+
+	@BeforeClass
+	public static void init() {
+		new File(FILENAME).getParentFile().mkdirs();
+		new File(FILENAME).delete();
+		PriceDataCache.setFilename(FILENAME);
+	}
+
+	@AfterClass
+	public static void out() {
+		PriceDataCache.setFilename(FileUtil.getPathPriceDataCache());
+		new File(FILENAME).delete();
+	}
+
+	@Test
+	public void testUpdateLoad() {
+		assertThat(PriceDataCache.load(), nullValue());
+
+		//Grow past the initial capacity
+		Map<Integer, PriceData> priceData = new HashMap<>();
+		for (int typeID = 1; typeID <= 5000; typeID++) {
+			priceData.put(typeID, create(typeID));
+		}
+		PriceDataCache.update(priceData, 1000L);
+		assertThat(PriceDataCache.get(1).getSellMax(), equalTo(1.0));
+		assertThat(PriceDataCache.get(5001), nullValue());
+
+		//Update in place
+		PriceData changed = create(10);
+		changed.setBuyMin(5.5);
+		Map<Integer, PriceData> update = new HashMap<>();
+		update.put(2, changed);
+		update.put(6000, create(6000));
+		PriceDataCache.update(update, 2000L);
+		PriceDataCache.setKey(42);
+
+		//Reload from file
+		PriceDataCache.setFilename(FILENAME);
+		Map<Integer, PriceData> load = PriceDataCache.load();
+		assertThat(load.size(), equalTo(5001));
+		PriceData priceData2 = load.get(2);
+		assertThat(priceData2.getSellMax(), equalTo(10.0));
+		assertThat(priceData2.getSellAvg(), equalTo(11.0));
+		assertThat(priceData2.getSellMedian(), equalTo(12.0));
+		assertThat(priceData2.getSellPercentile(), equalTo(13.0));
+		assertThat(priceData2.getSellMin(), equalTo(14.0));
+		assertThat(priceData2.getBuyMax(), equalTo(15.0));
+		assertThat(priceData2.getBuyAvg(), equalTo(16.0));
+		assertThat(priceData2.getBuyMedian(), equalTo(17.0));
+		assertThat(priceData2.getBuyPercentile(), equalTo(18.0));
+		assertThat(priceData2.getBuyMin(), equalTo(5.5));
+		assertThat(load.get(6000).getSellMax(), equalTo(6000.0));
+		assertThat(load.get(3).getSellMax(), equalTo(3.0));
+		assertThat(PriceDataCache.getUpdated(2).getTime(), equalTo(2000L));
+		assertThat(PriceDataCache.getUpdated(3).getTime(), equalTo(1000L));
+		assertThat(PriceDataCache.getLastUpdated(), equalTo(2000L));
+		assertThat(PriceDataCache.getKey(), equalTo(42));
+	}
+
+	private PriceData create(int value) {
+		PriceData priceData = new PriceData();
+		priceData.setSellMax(value);
+		priceData.setSellAvg(value + 1);
+		priceData.setSellMedian(value + 2);
+		priceData.setSellPercentile(value + 3);
+		priceData.setSellMin(value + 4);
+		priceData.setBuyMax(value + 5);
+		priceData.setBuyAvg(value + 6);
+		priceData.setBuyMedian(value + 7);
+		priceData.setBuyPercentile(value + 8);
+		priceData.setBuyMin(value + 9);
+		return priceData;
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceMode;
+import net.nikr.eve.jeveasset.data.settings.PriceHistoryDatabase.Resolution;
+import net.nikr.eve.jeveasset.gui.tabs.prices.PriceHistoryTab.PriceHistoryData;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class PriceHistoryDatabaseTest extends TestUtil {
+
+	//Database file
+	private static final String FILENAME = FileUtil.getLocalFile("testing" + File.separator + "pricehistory_testdb.db", false);
+	private static final int TYPE_ID = 34;
+	private static final int TYPE_ID_NEW = 35;
+	private static final int DAYS = 900;
+
+	@BeforeClass
+	public static void init() {
+		new File(FILENAME).getParentFile().mkdirs();
+		new File(FILENAME).delete();
+		PriceHistoryDatabase.setConnectionUrl("jdbc:sqlite:" + FILENAME);
+	}
+
+	@AfterClass
+	public static void out() {
+		PriceHistoryDatabase.setConnectionUrl(PriceHistoryDatabase.DEFAULT_CONNECTION_URL);
+		new File(FILENAME).delete();
+	}
+
+	@Test
+	public void testCompaction() throws ParseException {
+		new PriceHistoryDatabase(true); //Create tables (without compaction)
+		Item item = ApiIdConverter.getItem(TYPE_ID);
+		//Price is the day of month
+		Map<String, Double> expectedMonths = new HashMap<>();
+		Map<String, Integer> expectedCount = new HashMap<>();
+		Set<PriceHistoryData> set = new TreeSet<>();
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+		calendar.add(Calendar.DAY_OF_MONTH, -DAYS);
+		for (int i = 0; i < DAYS; i++) {
+			double price = calendar.get(Calendar.DAY_OF_MONTH);
+			String date = PriceHistoryDatabase.DATE.format(calendar.getTime());
+			set.add(new PriceHistoryData(TYPE_ID, item, date, price));
+			String month = date.substring(0, 8) + "01";
+			expectedMonths.merge(month, price, Double::sum);
+			expectedCount.merge(month, 1, Integer::sum);
+			calendar.add(Calendar.DAY_OF_MONTH, 1);
+		}
+		Map<Item, Set<PriceHistoryData>> data = Collections.singletonMap(item, set);
+		PriceHistoryDatabase.setZKillboard(data, new HashSet<>());
+		assertThat(get(Resolution.DAY).size(), equalTo(DAYS));
+
+		//Old daily rows merged into weekly rows
+		PriceHistoryDatabase.compactData();
+		Set<PriceHistoryData> days = get(Resolution.DAY);
+		Set<PriceHistoryData> weeks = get(Resolution.WEEK);
+		assertThat(days.size() < DAYS, equalTo(true));
+		assertThat(days.size() > PriceHistoryDatabase.DAILY_RETENTION_DAYS, equalTo(true));
+		for (PriceHistoryData priceHistoryData : weeks) {
+			calendar.setTime(priceHistoryData.getDate());
+			assertThat(calendar.get(Calendar.DAY_OF_WEEK), equalTo(Calendar.MONDAY));
+		}
+
+		//Adding the old data again does not change anything
+		PriceHistoryDatabase.setZKillboard(data, new HashSet<>());
+		PriceHistoryDatabase.compactData();
+		assertThat(get(Resolution.DAY).size(), equalTo(days.size()));
+		assertThat(get(Resolution.WEEK).size(), equalTo(weeks.size()));
+
+		//Monthly averages of all the daily rows (including the deleted rows)
+		testMonths(get(Resolution.MONTH), expectedMonths, expectedCount);
+
+		//New type with old data (added after the compaction)
+		Item itemNew = ApiIdConverter.getItem(TYPE_ID_NEW);
+		Set<PriceHistoryData> setNew = new TreeSet<>();
+		for (PriceHistoryData priceHistoryData : set) {
+			setNew.add(new PriceHistoryData(TYPE_ID_NEW, itemNew, priceHistoryData.getDateString(), priceHistoryData.getPrice()));
+		}
+		PriceHistoryDatabase.setZKillboard(Collections.singletonMap(itemNew, setNew), new HashSet<>());
+		assertThat(get(TYPE_ID_NEW, Resolution.DAY).size(), equalTo(days.size()));
+		assertThat(get(TYPE_ID_NEW, Resolution.WEEK).size(), equalTo(weeks.size()));
+		testMonths(get(TYPE_ID_NEW, Resolution.MONTH), expectedMonths, expectedCount);
+	}
+
+	@Test
+	public void testPriceDataRollups() {
+		new PriceHistoryDatabase(true); //Create tables (without compaction)
+		PriceData priceData = new PriceData();
+		priceData.setSellMax(5.0);
+		PriceHistoryDatabase.setPriceData(Collections.singletonMap(TYPE_ID, priceData));
+		for (Resolution resolution : Resolution.values()) {
+			Set<PriceHistoryData> set = PriceHistoryDatabase.getPriceData(Collections.singleton(TYPE_ID), PriceMode.PRICE_SELL_MAX, resolution).get(ApiIdConverter.getItem(TYPE_ID));
+			assertThat(set.size(), equalTo(1));
+			assertThat(set.iterator().next().getPrice(), equalTo(5.0));
+		}
+		//Only the inserted type is updated
+		PriceData priceDataNew = new PriceData();
+		priceDataNew.setSellMax(7.0);
+		PriceHistoryDatabase.setPriceData(Collections.singletonMap(TYPE_ID_NEW, priceDataNew));
+		for (Resolution resolution : Resolution.values()) {
+			Map<Item, Set<PriceHistoryData>> map = PriceHistoryDatabase.getPriceData(new HashSet<>(Arrays.asList(TYPE_ID, TYPE_ID_NEW)), PriceMode.PRICE_SELL_MAX, resolution);
+			assertThat(map.get(ApiIdConverter.getItem(TYPE_ID)).iterator().next().getPrice(), equalTo(5.0));
+			assertThat(map.get(ApiIdConverter.getItem(TYPE_ID_NEW)).iterator().next().getPrice(), equalTo(7.0));
+		}
+	}
+
+	private void testMonths(Set<PriceHistoryData> months, Map<String, Double> expectedMonths, Map<String, Integer> expectedCount) {
+		assertThat(months.size(), equalTo(expectedMonths.size()));
+		for (PriceHistoryData priceHistoryData : months) {
+			String month = priceHistoryData.getDateString();
+			double expected = expectedMonths.get(month) / expectedCount.get(month);
+			assertThat(Math.abs(priceHistoryData.getPrice() - expected) < 0.0001, equalTo(true));
+		}
+	}
+
+	private Set<PriceHistoryData> get(Resolution resolution) {
+		return get(TYPE_ID, resolution);
+	}
+
+	private Set<PriceHistoryData> get(int typeID, Resolution resolution) {
+		return PriceHistoryDatabase.getZKillboard(Collections.singleton(typeID), resolution).get(ApiIdConverter.getItem(typeID));
+	}
+}
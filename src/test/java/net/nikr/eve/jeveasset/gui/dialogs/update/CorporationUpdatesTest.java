@@ -0,0 +1,137 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.dialogs.update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyAccountBalance;
+import net.nikr.eve.jeveasset.data.api.my.MyContract;
+import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.api.raw.RawAccountBalance;
+import net.nikr.eve.jeveasset.data.api.raw.RawBlueprint;
+import net.nikr.eve.jeveasset.data.api.raw.RawContract;
+import net.nikr.eve.jeveasset.io.esi.EsiAccountBalanceGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiAssetsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiBlueprintsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiContractsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiDivisionsGetter;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class CorporationUpdatesTest extends TestUtil {
+
+	@Test
+	public void testSources() {
+		CorporationUpdates corporationUpdates = new CorporationUpdates();
+		EsiOwner first = owner("First", 1);
+		EsiOwner second = owner("Second", 1);
+		EsiOwner other = owner("Other", 2);
+		assertThat(corporationUpdates.getLock(second, EsiAssetsGetter.class), sameInstance(corporationUpdates.getLock(first, EsiAssetsGetter.class)));
+		assertThat(corporationUpdates.getLock(other, EsiAssetsGetter.class), not(sameInstance(corporationUpdates.getLock(first, EsiAssetsGetter.class))));
+		assertThat(corporationUpdates.getLock(second, EsiBlueprintsGetter.class), not(sameInstance(corporationUpdates.getLock(second, EsiAssetsGetter.class))));
+		assertThat(corporationUpdates.getSource(second, EsiAssetsGetter.class), nullValue());
+		corporationUpdates.setSource(first, EsiAssetsGetter.class);
+		corporationUpdates.setSource(second, EsiAssetsGetter.class); //Ignored: first is the source
+		assertThat(corporationUpdates.getSource(second, EsiAssetsGetter.class), equalTo(first));
+		assertThat(corporationUpdates.getSource(other, EsiAssetsGetter.class), nullValue());
+		assertThat(corporationUpdates.getSource(second, EsiBlueprintsGetter.class), nullValue());
+	}
+
+	@Test
+	public void testCopy() {
+		EsiOwner from = owner("From", 1);
+		EsiOwner to = owner("To", 1);
+		Map<Long, RawBlueprint> blueprints = new HashMap<>();
+		blueprints.put(1L, RawBlueprint.create());
+		from.setBlueprints(blueprints);
+		from.setBlueprintsNextUpdate(new Date(1000));
+		from.setAssetDivisions(Collections.singletonMap(1, "Hangar"));
+		to.setEtags("blueprints", "etag");
+		to.setEtags("assets", "etag");
+		CorporationUpdates.copy(EsiBlueprintsGetter.class, from, to);
+		CorporationUpdates.copy(EsiDivisionsGetter.class, from, to);
+		assertThat(to.getBlueprints(), equalTo(blueprints));
+		assertThat(to.getBlueprints() == from.getBlueprints(), equalTo(false));
+		assertThat(to.getBlueprintsNextUpdate(), equalTo(from.getBlueprintsNextUpdate()));
+		assertThat(to.getAssetDivisions(), equalTo(from.getAssetDivisions()));
+		assertThat(to.getEtags("blueprints"), nullValue());
+		assertThat(to.getEtags("assets"), equalTo("etag")); //Other endpoints is kept
+	}
+
+	@Test
+	public void testCopyOwner() {
+		EsiOwner from = owner("From", 1);
+		EsiOwner to = owner("To", 1);
+		from.setAccountBalances(Collections.singletonList(new MyAccountBalance(RawAccountBalance.create(), from)));
+		CorporationUpdates.copy(EsiAccountBalanceGetter.class, from, to);
+		assertThat(to.getAccountBalances().size(), equalTo(1));
+		assertThat(to.getAccountBalances().get(0).getOwnerName(), equalTo("To"));
+		assertThat(from.getAccountBalances().get(0).getOwnerName(), equalTo("From"));
+	}
+
+	@Test
+	public void testCopyContracts() {
+		EsiOwner from = owner("From", 1);
+		EsiOwner to = owner("To", 1);
+		RawContract rawContract = RawContract.create();
+		rawContract.setContractID(1);
+		rawContract.setIssuerID(2);
+		rawContract.setIssuerCorporationID(1);
+		rawContract.setAssigneeID(0);
+		rawContract.setAcceptorID(0);
+		rawContract.setForCorporation(true);
+		MyContract contract = new MyContract(rawContract);
+		MyContractItem contractItem = new MyContractItem(contract);
+		Map<MyContract, List<MyContractItem>> contracts = new HashMap<>();
+		contracts.put(contract, new ArrayList<>(Collections.singletonList(contractItem)));
+		from.setContracts(contracts);
+		CorporationUpdates.copy(EsiContractsGetter.class, from, to);
+		assertThat(to.getContracts().size(), equalTo(1));
+		Map.Entry<MyContract, List<MyContractItem>> entry = to.getContracts().entrySet().iterator().next();
+		assertThat(entry.getKey(), equalTo(contract));
+		//Not shared with the source owner
+		assertThat(entry.getKey(), not(sameInstance(contract)));
+		assertThat(entry.getValue(), not(sameInstance(contracts.get(contract))));
+		assertThat(entry.getValue().size(), equalTo(1));
+		assertThat(entry.getValue().get(0), not(sameInstance(contractItem)));
+		assertThat(entry.getValue().get(0).getContract(), sameInstance(entry.getKey()));
+		entry.getValue().clear();
+		assertThat(from.getContracts().get(contract).size(), equalTo(1));
+	}
+
+	private EsiOwner owner(String name, long corporationID) {
+		EsiOwner esiOwner = new EsiOwner();
+		esiOwner.setOwnerName(name);
+		esiOwner.setOwnerID(corporationID);
+		return esiOwner;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.dialogs.update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class UpdateSchedulerTest {
+
+	@Test
+	public void testDependencies() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		UpdateTask first = new TestTask(scheduler);
+		UpdateTask second = new TestTask(scheduler);
+		scheduler.add("slow", first, new TestJob(order, "slow", 200), Collections.emptyList());
+		scheduler.add("fast", first, new TestJob(order, "fast", 0), Collections.emptyList());
+		scheduler.add("afterFast", second, new TestJob(order, "afterFast", 0), Arrays.asList("fast", "unknown"));
+		scheduler.add("afterBoth", second, new TestJob(order, "afterBoth", 0), Arrays.asList("fast", "slow"));
+		first.update();
+		assertThat(order.contains("slow"), equalTo(true));
+		assertThat(order.contains("fast"), equalTo(true));
+		//Started before "slow" was done
+		assertThat(order.indexOf("afterFast") < order.indexOf("slow"), equalTo(true));
+		second.update();
+		assertThat(order.size(), equalTo(4));
+		assertThat(order.get(3), equalTo("afterBoth"));
+	}
+
+	@Test
+	public void testContractItems() {
+		//Same layout as the update steps: contract items (step 4) only depend on the contracts (step 2)
+		UpdateScheduler scheduler = new UpdateScheduler();
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		UpdateTask step2 = new TestTask(scheduler);
+		UpdateTask step3 = new TestTask(scheduler);
+		UpdateTask step4 = new TestTask(scheduler);
+		scheduler.add("contracts", step2, new TestJob(order, "contracts", 0), Collections.emptyList());
+		scheduler.add("names", step3, new TestJob(order, "names", 500), Collections.singletonList("contracts"));
+		scheduler.add("reset", step4, new TestJob(order, "reset", 0), Collections.emptyList());
+		scheduler.add("contractItems", step4, new TestJob(order, "contractItems", 0), Arrays.asList("reset", "contracts"));
+		step2.update();
+		step3.update();
+		//Started before the step 3 jobs was done
+		assertThat(order.indexOf("contractItems") >= 0, equalTo(true));
+		assertThat(order.indexOf("contractItems") < order.indexOf("names"), equalTo(true));
+		assertThat(order.indexOf("reset") < order.indexOf("contractItems"), equalTo(true));
+		step4.update();
+		assertThat(order.size(), equalTo(4));
+	}
+
+	@Test
+	public void testCancel() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		UpdateTask first = new TestTask(scheduler);
+		UpdateTask second = new TestTask(scheduler);
+		scheduler.add("first", first, new TestJob(order, "first", 0), Collections.emptyList());
+		scheduler.add("second", second, new TestJob(order, "second", 0), Collections.singletonList("first"));
+		scheduler.cancel();
+		first.update();
+		second.update();
+		assertThat(order.isEmpty(), equalTo(true));
+		assertThat(second.isCancelled(), equalTo(true));
+	}
+
+	private static class TestTask extends UpdateTask {
+
+		private final UpdateScheduler scheduler;
+
+		public TestTask(UpdateScheduler scheduler) {
+			super("Test");
+			this.scheduler = scheduler;
+		}
+
+		@Override
+		public void update() {
+			scheduler.waitFor(this);
+		}
+	}
+
+	private static class TestJob implements Runnable {
+
+		private final List<String> order;
+		private final String name;
+		private final long sleep;
+
+		public TestJob(List<String> order, String name, long sleep) {
+			this.order = order;
+			this.name = name;
+			this.sleep = sleep;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Thread.sleep(sleep);
+			} catch (InterruptedException ex) {
+				return;
+			}
+			order.add(name);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class EventListDispatcherTest {
+
+	@Test
+	public void testCoalesce() throws Exception {
+		EventList<Integer> first = new BasicEventList<>();
+		EventList<Integer> second = new BasicEventList<>();
+		AtomicInteger events = new AtomicInteger();
+		first.addListEventListener(listChanges -> {
+			assertThat(SwingUtilities.isEventDispatchThread(), equalTo(true));
+			events.incrementAndGet();
+		});
+		long batches = EventListDispatcher.getBatches();
+		EventListDispatcher.replace(first, Arrays.asList(1, 2, 3));
+		EventListDispatcher.refresh(first);
+		EventListDispatcher.replace(first, Arrays.asList(4, 5));
+		EventListDispatcher.replace(second, Arrays.asList(6));
+		EventListDispatcher.getFuture().join();
+		assertThat(first, equalTo(Arrays.asList(4, 5)));
+		assertThat(second, equalTo(Arrays.asList(6)));
+		assertThat(EventListDispatcher.getBatches() - batches <= 2, equalTo(true));
+		assertThat(events.get() <= 2, equalTo(true));
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		EventList<Integer> eventList = new BasicEventList<>();
+		EventListDispatcher.replace(eventList, Arrays.asList(1, 2, 3)).join();
+		EventListDispatcher.update(eventList, Arrays.asList(1)).join();
+		assertThat(eventList, equalTo(Arrays.asList(2, 3, 1)));
+		EventListDispatcher.update(eventList, Arrays.asList(2, 3, 1)).join();
+		assertThat(eventList, equalTo(Arrays.asList(2, 3, 1)));
+	}
+
+	@Test
+	public void testEDT() throws Exception {
+		EventList<Integer> eventList = new BasicEventList<>();
+		SwingUtilities.invokeAndWait(() -> {
+			EventListDispatcher.replace(eventList, Arrays.asList(1, 2));
+			assertThat(eventList.size(), equalTo(2)); //Applied right away on the EDT
+		});
+	}
+}
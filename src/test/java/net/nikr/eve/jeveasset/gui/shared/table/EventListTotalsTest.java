@@ -0,0 +1,127 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.SortedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import net.nikr.eve.jeveasset.gui.shared.table.EventListTotals.TotalsColumns;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class EventListTotalsTest {
+
+	private static final TotalsColumns<Double> COLUMNS = new TotalsColumns<Double>() {
+		@Override
+		public int getColumnCount() {
+			return 2;
+		}
+
+		@Override
+		public void getValues(Double e, double[] values) {
+			values[0] = e;
+			values[1] = 1;
+		}
+	};
+
+	@Test
+	public void testIncremental() {
+		EventList<Double> eventList = new BasicEventList<>();
+		eventList.addAll(Arrays.asList(1.0, 2.0, 3.0));
+		EventListTotals<Double> totals = new EventListTotals<>(eventList, COLUMNS);
+		eventList.addListEventListener(totals::listChanged);
+		assertTotals(totals, 6, 3);
+		eventList.add(4.0);
+		assertTotals(totals, 10, 4);
+		eventList.remove(0);
+		assertTotals(totals, 9, 3);
+		eventList.set(0, 10.0);
+		assertTotals(totals, 17, 3);
+		eventList.clear();
+		assertTotals(totals, 0, 0);
+	}
+
+	@Test
+	public void testSortAndFilter() {
+		EventList<Double> eventList = new BasicEventList<>();
+		SortedList<Double> sortedList = new SortedList<>(eventList);
+		FilterList<Double> filterList = new FilterList<>(sortedList);
+		EventListTotals<Double> totals = new EventListTotals<>(filterList, COLUMNS);
+		filterList.addListEventListener(totals::listChanged);
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			eventList.add((double) random.nextInt(100));
+		}
+		for (int i = 0; i < 200; i++) {
+			int index = random.nextInt(eventList.size());
+			switch (random.nextInt(4)) {
+				case 0:
+					eventList.add((double) random.nextInt(100));
+					break;
+				case 1:
+					eventList.remove(index);
+					break;
+				case 2:
+					eventList.set(index, (double) random.nextInt(100));
+					break;
+				case 3:
+					final int limit = random.nextInt(100);
+					filterList.setMatcher(item -> item < limit);
+					break;
+			}
+			List<Double> expected = new ArrayList<>(filterList);
+			double sum = 0;
+			for (Double d : expected) {
+				sum = sum + d;
+			}
+			assertTotals(totals, sum, expected.size());
+		}
+	}
+
+	@Test
+	public void testDrift() {
+		EventList<Double> eventList = new BasicEventList<>();
+		for (int i = 0; i < 10; i++) {
+			eventList.add(0.1);
+		}
+		EventListTotals<Double> totals = new EventListTotals<>(eventList, COLUMNS);
+		eventList.addListEventListener(totals::listChanged);
+		for (int i = 0; i < 10000; i++) {
+			eventList.add(1e17 + i);
+			eventList.remove(eventList.size() - 1);
+		}
+		assertThat(Math.abs(totals.getTotal(0) - 1.0) < 1e-9, equalTo(true));
+		assertThat(totals.getTotal(1), equalTo(10.0));
+	}
+
+	private void assertTotals(EventListTotals<Double> totals, double sum, int count) {
+		assertThat(totals.getTotal(0), equalTo(sum));
+		assertThat(totals.getTotal(1), equalTo((double) count));
+		assertThat(totals.size(), equalTo(count));
+	}
+}
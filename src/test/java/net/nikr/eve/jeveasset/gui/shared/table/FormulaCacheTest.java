@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.shared.table;
+
+import java.util.Collections;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class FormulaCacheTest {
+
+	@Test
+	public void testHitAndMiss() {
+		FormulaCache cache = new FormulaCache();
+		Object row = new Object();
+		assertThat(cache.get(row), nullValue());
+		cache.put(row, 1.0, new double[] {1, 2});
+		assertThat(cache.get(row), equalTo((Object) 1.0));
+		assertThat(cache.getHits(), equalTo(1L));
+		assertThat(cache.getMisses(), equalTo(1L));
+	}
+
+	@Test
+	public void testInvalidate() {
+		FormulaCache cache = new FormulaCache();
+		Object row = new Object();
+		cache.put(row, 1.0, new double[] {1, 2});
+		cache.invalidate();
+		assertThat(cache.get(row), nullValue());
+		//Unchanged inputs
+		assertThat(cache.revalidate(row, new double[] {1, 2}), equalTo((Object) 1.0));
+		assertThat(cache.get(row), equalTo((Object) 1.0));
+		//Changed inputs
+		cache.invalidate(Collections.singleton(row));
+		assertThat(cache.get(row), nullValue());
+		assertThat(cache.revalidate(row, new double[] {1, 3}), nullValue());
+		//Untracked inputs
+		cache.put(row, 2.0, null);
+		cache.invalidate();
+		assertThat(cache.revalidate(row, new double[] {1, 3}), nullValue());
+	}
+
+	@Test
+	public void testRemove() {
+		FormulaCache cache = new FormulaCache();
+		Object row = new Object();
+		cache.put(row, 1.0, new double[] {1});
+		cache.remove(Collections.singleton(row));
+		assertThat(cache.size(), equalTo(0));
+		assertThat(cache.revalidate(row, new double[] {1}), nullValue());
+	}
+
+	@Test
+	public void testBounded() {
+		FormulaCache cache = new FormulaCache(10);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i, null);
+		}
+		assertThat(cache.size(), equalTo(10));
+		assertThat(cache.getEvictions(), equalTo(90L));
+		assertThat(cache.get(99), equalTo((Object) 99));
+		assertThat(cache.get(0), nullValue());
+	}
+}
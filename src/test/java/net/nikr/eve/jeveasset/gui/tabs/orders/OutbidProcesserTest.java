@@ -0,0 +1,352 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.tabs.orders;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderRange;
+import net.nikr.eve.jeveasset.data.api.raw.RawPublicMarketOrder;
+import net.nikr.eve.jeveasset.data.settings.Citadel;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.sde.RouteFinder;
+import net.nikr.eve.jeveasset.data.sde.RouteFinder.SystemJumps;
+import net.nikr.eve.jeveasset.data.sde.StaticData;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserInput;
+import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserOutput;
+import net.nikr.eve.jeveasset.io.shared.ApiIdConverter;
+import net.nikr.eve.jeveasset.io.shared.RawConverter;
+import net.troja.eve.esi.model.MarketOrdersResponse;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+/**
+ * Compare OutbidProcesser and RouteFinder.getSystemJumps with the previous implementations
+ * (all pairs and RouteFinder.distanceBetween).
+ */
+public class OutbidProcesserTest extends TestUtil {
+
+	private static final long[] REGION_IDS = {10000002, 10000016, 10000033}; //The Forge, Lonetrek, The Citadel
+	private static final int[] TYPE_IDS = {34, 35, 36};
+	private static final long UNKNOWN_SYSTEM_ID = 30999999;
+	private static final long UNKNOWN_STRUCTURE_ID = 1099999999999L;
+
+	@Test
+	public void testSystemJumps() {
+		RouteFinder routeFinder = RouteFinder.get();
+		List<MyLocation> systems = getSystems();
+		for (int i = 0; i < systems.size(); i = i + 7) {
+			long fromSystemID = systems.get(i).getSystemID();
+			SystemJumps systemJumps = routeFinder.getSystemJumps(fromSystemID, 10);
+			for (MyLocation system : systems) {
+				Integer distance = routeFinder.distanceBetween(fromSystemID, system.getSystemID());
+				int expected = distance == null || distance > 10 ? -1 : distance;
+				assertThat(fromSystemID + " > " + system.getSystemID(), systemJumps.getJumps(system.getSystemID()), equalTo(expected));
+			}
+		}
+		assertThat(routeFinder.getSystemJumps(UNKNOWN_SYSTEM_ID, 10).getJumps(UNKNOWN_SYSTEM_ID), equalTo(0));
+		assertThat(routeFinder.getSystemJumps(UNKNOWN_SYSTEM_ID, 10).size(), equalTo(1));
+	}
+
+	@Test
+	public void testProcess() {
+		List<MyLocation> stations = getStations();
+		Random random = new Random(42);
+		EsiOwner owner = new EsiOwner();
+		owner.setOwnerID(90000001);
+		//Own orders
+		Map<Integer, Set<MyMarketOrder>> typeIDs = new HashMap<>();
+		List<MyMarketOrder> ownOrders = new ArrayList<>();
+		for (long orderID = 1; orderID <= 300; orderID++) {
+			int typeID = TYPE_IDS[random.nextInt(TYPE_IDS.length)];
+			long locationID;
+			if (orderID % 25 == 0) { //Unknown location
+				locationID = UNKNOWN_STRUCTURE_ID;
+			} else {
+				locationID = stations.get(random.nextInt(stations.size())).getLocationID();
+			}
+			MyMarketOrder marketOrder = createOrder(orderID, typeID, locationID, random, owner);
+			ownOrders.add(marketOrder);
+			Set<MyMarketOrder> set = typeIDs.get(typeID);
+			if (set == null) {
+				set = new HashSet<>();
+				typeIDs.put(typeID, set);
+			}
+			set.add(marketOrder);
+		}
+		//Public orders
+		Map<Integer, Set<RawPublicMarketOrder>> publicOrders = new HashMap<>();
+		Set<RawPublicMarketOrder> set = new HashSet<>();
+		for (long orderID = 1; orderID <= 3000; orderID++) {
+			MyLocation station = stations.get(random.nextInt(stations.size()));
+			long locationID = station.getLocationID();
+			long systemID = station.getSystemID();
+			if (orderID % 100 == 0) { //Unknown location
+				locationID = UNKNOWN_STRUCTURE_ID;
+				systemID = UNKNOWN_SYSTEM_ID;
+			}
+			if (orderID <= 300 && orderID % 3 == 0) { //Updated own order
+				MyMarketOrder marketOrder = ownOrders.get((int) orderID - 1);
+				set.add(createPublicOrder(orderID, marketOrder.getTypeID(), marketOrder.isBuyOrder(), marketOrder.getLocationID(), systemID, random));
+			} else {
+				set.add(createPublicOrder(orderID + 1000, TYPE_IDS[random.nextInt(TYPE_IDS.length)], random.nextBoolean(), locationID, systemID, random));
+			}
+		}
+		publicOrders.put(-1, set);
+		for (MarketOrderRange sellOrderRange : new MarketOrderRange[] {MarketOrderRange.STATION, MarketOrderRange.SOLARSYSTEM, MarketOrderRange._5, MarketOrderRange.REGION}) {
+			OutbidProcesserInput input = new OutbidProcesserInput(sellOrderRange);
+			input.getTypeIDs().putAll(typeIDs);
+			input.addOrders(publicOrders, new Date());
+
+			OutbidProcesserOutput expected = new OutbidProcesserOutput();
+			new OldOutbidProcesser(input, expected).process();
+
+			OutbidProcesserOutput output = new OutbidProcesserOutput();
+			OutbidProcesser.process(input, output);
+
+			assertThat(output.hasUnknownLocations(), equalTo(expected.hasUnknownLocations()));
+			assertThat(output.getRegionIDs(), equalTo(expected.getRegionIDs()));
+			assertThat(output.getUpdates(), equalTo(expected.getUpdates()));
+			assertThat(output.getOutbids().keySet(), equalTo(expected.getOutbids().keySet()));
+			for (Map.Entry<Long, Outbid> entry : expected.getOutbids().entrySet()) {
+				Outbid outbid = output.getOutbids().get(entry.getKey());
+				assertThat(sellOrderRange + " " + entry.getKey(), outbid.getPrice(), equalTo(entry.getValue().getPrice()));
+				assertThat(sellOrderRange + " " + entry.getKey(), outbid.getCount(), equalTo(entry.getValue().getCount()));
+			}
+		}
+	}
+
+	private List<MyLocation> getSystems() {
+		List<MyLocation> systems = new ArrayList<>();
+		for (MyLocation location : StaticData.get().getLocations()) {
+			if (location.isSystem() && isRegion(location)) {
+				systems.add(location);
+			}
+		}
+		systems.sort((o1, o2) -> Long.compare(o1.getSystemID(), o2.getSystemID()));
+		return systems;
+	}
+
+	private List<MyLocation> getStations() {
+		List<MyLocation> stations = new ArrayList<>();
+		for (MyLocation location : StaticData.get().getLocations()) {
+			if (location.isStation() && isRegion(location)) {
+				stations.add(location);
+			}
+		}
+		stations.sort((o1, o2) -> Long.compare(o1.getLocationID(), o2.getLocationID()));
+		return stations;
+	}
+
+	private boolean isRegion(MyLocation location) {
+		for (long regionID : REGION_IDS) {
+			if (location.getRegionID() == regionID) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private MyMarketOrder createOrder(long orderID, int typeID, long locationID, Random random, EsiOwner owner) {
+		RawMarketOrder rawMarketOrder = RawMarketOrder.create();
+		rawMarketOrder.setOrderID(orderID);
+		rawMarketOrder.setTypeID(typeID);
+		rawMarketOrder.setLocationID(locationID);
+		rawMarketOrder.setBuyOrder(random.nextBoolean());
+		rawMarketOrder.setCorp(false);
+		rawMarketOrder.setPrice((double) (90 + random.nextInt(20)));
+		rawMarketOrder.setIssued(getDate(random));
+		rawMarketOrder.setRange(MarketOrderRange.values()[random.nextInt(MarketOrderRange.values().length)]);
+		rawMarketOrder.setVolumeRemain(1 + random.nextInt(100));
+		return new MyMarketOrder(rawMarketOrder, ApiIdConverter.getItem(typeID), owner);
+	}
+
+	private RawPublicMarketOrder createPublicOrder(long orderID, int typeID, boolean buyOrder, long locationID, long systemID, Random random) {
+		MarketOrdersResponse response = new MarketOrdersResponse();
+		response.setOrderId(orderID);
+		response.setTypeId(typeID);
+		response.setIsBuyOrder(buyOrder);
+		response.setLocationId(locationID);
+		response.setSystemId((int) systemID);
+		response.setPrice((double) (90 + random.nextInt(20)));
+		response.setIssued(OffsetDateTime.ofInstant(getDate(random).toInstant(), ZoneOffset.UTC));
+		response.setRange(MarketOrdersResponse.RangeEnum.values()[random.nextInt(MarketOrdersResponse.RangeEnum.values().length)]);
+		response.setVolumeRemain(1 + random.nextInt(100));
+		response.setVolumeTotal(100);
+		response.setMinVolume(1);
+		response.setDuration(90);
+		return new RawPublicMarketOrder(response);
+	}
+
+	private Date getDate(Random random) {
+		return Date.from(Instant.ofEpochSecond(1600000000L + random.nextInt(10) * 3600L)); //Few distinct dates: test the issued tie break
+	}
+
+	/**
+	 * The previous implementation: all public orders compared with all own orders of the type.
+	 */
+	private static class OldOutbidProcesser {
+
+		private final OutbidProcesserInput input;
+		private final OutbidProcesserOutput output;
+
+		public OldOutbidProcesser(OutbidProcesserInput input, OutbidProcesserOutput output) {
+			this.input = input;
+			this.output = output;
+		}
+
+		private void process() {
+			//Process order updates
+			for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
+				Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
+				if (orders != null) {
+					for (MyMarketOrder marketOrder : orders) {
+						if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
+							output.getUpdates().put(ordersResponse.getOrderID(), ordersResponse);
+						}
+					}
+				}
+			}
+			//Process outbid
+			for (RawPublicMarketOrder ordersResponse : input.getMarketOrders()) {
+				//Regions with data
+				MyLocation orderLocation = ApiIdConverter.getLocation(ordersResponse.getSystemID());
+				if (!orderLocation.isEmpty()) {
+					output.getRegionIDs().add(orderLocation.getRegionID());
+				}
+				Set<MyMarketOrder> orders = input.getTypeIDs().get(ordersResponse.getTypeID());
+				if (orders != null) {
+					//Orders to match
+					for (MyMarketOrder marketOrder : orders) {
+						if (isSameOrder(marketOrder, ordersResponse)) { //Orders to be updated
+							continue;
+						}
+						if (!isSameType(marketOrder, ordersResponse)) { //Both buy or both sell
+							continue;
+						}
+						if (!isInRange(marketOrder, ordersResponse)) { //Order range overlap
+							continue;
+						}
+						Outbid outbid = output.getOutbids().get(marketOrder.getOrderID());
+						if (outbid == null) {
+							outbid = new Outbid(ordersResponse);
+							output.getOutbids().put(marketOrder.getOrderID(), outbid);
+						}
+						RawPublicMarketOrder rawPublicMarketOrder = output.getUpdates().get(marketOrder.getOrderID());
+						final double price;
+						final Date issued;
+						if (rawPublicMarketOrder != null) { //Updated price/issued
+							price = rawPublicMarketOrder.getPrice();
+							issued = rawPublicMarketOrder.getIssued();
+						} else { //Old price/issued (better than nothing)
+							price = marketOrder.getPrice();
+							issued = marketOrder.getIssued();
+						}
+						if (marketOrder.isBuyOrder()) { //Buy (outbid is higher)
+							outbid.setPrice(Math.max(outbid.getPrice(), ordersResponse.getPrice()));
+							if (ordersResponse.getPrice() > price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
+								outbid.addCount(ordersResponse.getVolumeRemain());
+							}
+						} else { //Sell (outbid is lower)
+							outbid.setPrice(Math.min(outbid.getPrice(), ordersResponse.getPrice()));
+							if (ordersResponse.getPrice() < price || (ordersResponse.getPrice() == price && ordersResponse.getIssued().before(issued))) {
+								outbid.addCount(ordersResponse.getVolumeRemain());
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private boolean isInRange(MyMarketOrder fromMarketOrder, RawPublicMarketOrder toMarketOrder) {
+			Long fromSystemID = getSystemID(fromMarketOrder.getLocationID());
+			Long toSystemID = RawConverter.toLong(toMarketOrder.getSystemID());
+			MyLocation fromSystemLocation = ApiIdConverter.getLocation(fromSystemID);
+			MyLocation toSystemLocation = ApiIdConverter.getLocation(toSystemID);
+			if (fromSystemLocation.isEmpty() || toSystemLocation.isEmpty()) {
+				output.setUnknownLocations();
+				return false; //We can't work with unknown locations
+			}
+			if (!Objects.equals(fromSystemLocation.getRegionID(), toSystemLocation.getRegionID())) {
+				return false; //Must be in same region
+			}
+			MarketOrderRange fromRange;
+			MarketOrderRange toRange;
+			if (fromMarketOrder.isBuyOrder()) {
+				fromRange = fromMarketOrder.getRange();
+				toRange = toMarketOrder.getRange();
+			} else {
+				fromRange = input.getSellOrderRange();
+				toRange = input.getSellOrderRange();
+			}
+			if (fromRange == MarketOrderRange.REGION || toRange == MarketOrderRange.REGION) {
+				return true; //Match everything
+			} else if (fromRange == MarketOrderRange.STATION && toRange == MarketOrderRange.STATION) {
+				return Objects.equals(fromMarketOrder.getLocationID(), toMarketOrder.getLocationID()); //Only match if in the same station
+			} else {
+				int range = OutbidProcesser.getRange(fromRange) + OutbidProcesser.getRange(toRange); //Find overlapping area
+				Integer distance = RouteFinder.get().distanceBetween(fromSystemID, toSystemID);
+				if (distance == null) {
+					return false;
+				}
+				return distance <= range;
+			}
+		}
+
+		private boolean isSameType(MyMarketOrder marketOrder, RawPublicMarketOrder response) {
+			return Objects.equals(marketOrder.isBuyOrder(), response.isBuyOrder());
+		}
+
+		private boolean isSameOrder(MyMarketOrder marketOrder, RawPublicMarketOrder response) {
+			return Objects.equals(marketOrder.getOrderID(), response.getOrderID());
+		}
+
+		private Long getSystemID(long locationID) {
+			Long systemID = input.getLocationToSystem().get(locationID);
+			if (systemID != null) {
+				return systemID;
+			}
+			MyLocation location = ApiIdConverter.getLocation(locationID);
+			if (!location.isEmpty()) {
+				return location.getSystemID();
+			}
+			Citadel citadel = input.getCitadels().get(locationID);
+			if (citadel != null) {
+				return citadel.getSystemID();
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class EsiLimiterTest {
+
+	private static final Runnable NOT_CANCELLED = () -> { };
+
+	@Test
+	public void testIncrease() {
+		EsiLimiter limiter = new EsiLimiter(2, 10, 4);
+		for (int i = 0; i < 100; i++) {
+			long start = limiter.acquire(NOT_CANCELLED);
+			limiter.release(start, 200);
+		}
+		assertThat(limiter.getLimit(), equalTo(10));
+		assertThat(limiter.getInFlight(), equalTo(0));
+		assertThat(limiter.getRequests(), equalTo(100L));
+	}
+
+	@Test
+	public void testDecrease() {
+		EsiLimiter limiter = new EsiLimiter(2, 100, 40);
+		long start = limiter.acquire(NOT_CANCELLED);
+		limiter.release(start, 502);
+		assertThat(limiter.getLimit(), equalTo(20));
+		start = limiter.acquire(NOT_CANCELLED);
+		limiter.release(start, 500);
+		assertThat(limiter.getLimit(), equalTo(20)); //Only cut once per burst
+		assertThat(limiter.getServerErrors(), equalTo(2L));
+	}
+
+	@Test
+	public void testLimit() throws Exception {
+		EsiLimiter limiter = new EsiLimiter(2, 2, 2);
+		long first = limiter.acquire(NOT_CANCELLED);
+		limiter.acquire(NOT_CANCELLED);
+		CountDownLatch acquired = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			limiter.acquire(NOT_CANCELLED);
+			acquired.countDown();
+		});
+		thread.start();
+		assertThat(acquired.await(200, TimeUnit.MILLISECONDS), equalTo(false));
+		assertThat(limiter.getWaiting(), equalTo(1));
+		limiter.release(first, 200);
+		assertThat(acquired.await(1, TimeUnit.SECONDS), equalTo(true));
+		assertThat(limiter.getPeakInFlight(), equalTo(2));
+	}
+
+	@Test
+	public void testErrorLimit() {
+		EsiLimiter limiter = new EsiLimiter();
+		limiter.setErrorLimit(5, 0);
+		assertThat(limiter.getPaused() > 0, equalTo(true));
+		long time = System.currentTimeMillis();
+		long start = limiter.acquire(NOT_CANCELLED); //Wait for the reset
+		assertThat(System.currentTimeMillis() - time >= 900, equalTo(true));
+		limiter.release(start, 200);
+		assertThat(limiter.getErrorLimit() == null, equalTo(true));
+	}
+
+	@Test(expected = TaskCancelledException.class)
+	public void testCancel() {
+		EsiLimiter limiter = new EsiLimiter(1, 1, 1);
+		limiter.acquire(NOT_CANCELLED);
+		AtomicBoolean cancelled = new AtomicBoolean(false);
+		new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ex) {
+				//No problem
+			}
+			cancelled.set(true);
+		}).start();
+		limiter.acquire(() -> {
+			if (cancelled.get()) {
+				throw new TaskCancelledException();
+			}
+		});
+	}
+}
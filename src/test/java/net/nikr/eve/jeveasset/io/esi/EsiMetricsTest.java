@@ -0,0 +1,97 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.IOException;
+import java.util.List;
+import net.nikr.eve.jeveasset.io.esi.EsiMetrics.EndpointMetrics;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import org.junit.Test;
+
+
+public class EsiMetricsTest {
+
+	@Test
+	public void testMetrics() throws IOException {
+		EsiReplayServer server = new EsiReplayServer();
+		server.addCharacter(90000001, 98000001, false);
+		server.setErrorLimit(100, 60);
+		server.start();
+		try {
+			EsiMetrics metrics = new EsiMetrics();
+			OkHttpClient client = new OkHttpClient.Builder().addInterceptor(metrics).build();
+			get(client, server.getUrl() + "/v5/characters/90000001/assets/?page=1");
+			EsiMetrics.retry();
+			get(client, server.getUrl() + "/v5/characters/90000001/assets/?page=2");
+			EsiMetrics.retry();
+			EsiMetrics.clearRetry(); //Retry failed before the request
+			get(client, server.getUrl() + "/latest/markets/prices/");
+
+			List<EndpointMetrics> list = metrics.getMetrics();
+			assertThat(list.size(), equalTo(2));
+			EndpointMetrics assets = find(list, "GET /characters/{id}/assets/");
+			assertThat(assets.getOwnerID(), equalTo(90000001L));
+			assertThat(assets.getRequests(), equalTo(2L));
+			assertThat(assets.getRetries(), equalTo(1L));
+			assertThat(assets.getErrors(), equalTo(0L));
+			assertThat(assets.getBytes() > 0, equalTo(true));
+			assertThat(sum(assets.getHistogram()), equalTo(2L));
+			EndpointMetrics prices = find(list, "GET /markets/prices/");
+			assertThat(prices.getOwnerID(), nullValue());
+			assertThat(prices.getRetries(), equalTo(0L));
+			assertThat(metrics.getTotals().size(), equalTo(2));
+			assertThat(metrics.getErrorLimitMin(), equalTo(100));
+
+			metrics.reset();
+			assertThat(metrics.isEmpty(), equalTo(true));
+		} finally {
+			server.stop();
+		}
+	}
+
+	private void get(OkHttpClient client, String url) throws IOException {
+		try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+			response.body().string();
+		}
+	}
+
+	private EndpointMetrics find(List<EndpointMetrics> list, String endpoint) {
+		for (EndpointMetrics endpointMetrics : list) {
+			if (endpointMetrics.getEndpoint().equals(endpoint)) {
+				return endpointMetrics;
+			}
+		}
+		throw new AssertionError(endpoint + " not found");
+	}
+
+	private long sum(long[] values) {
+		long sum = 0;
+		for (long value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+}
@@ -27,7 +27,7 @@ import java.util.Set;
 import net.nikr.eve.jeveasset.TestUtil;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
-import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -50,14 +50,12 @@ public class EsiNameGetterOnlineTest extends TestUtil {
 			owners.add(esiOwner);
 		}
 
-		Settings.get().getOwners().clear();
-
 		EsiNameGetter esiNameGetter = new EsiNameGetter(null, owners);
 		esiNameGetter.run();
 
 		for (Long id : ids) {
-			Assert.assertNotNull(id + " not set", Settings.get().getOwners().get(id));
-			Assert.assertFalse(id + " is empty", Settings.get().getOwners().get(id).isEmpty());
+			Assert.assertNotNull(id + " not set", OwnerNames.getName(id));
+			Assert.assertFalse(id + " is empty", OwnerNames.getName(id).isEmpty());
 		}
 	}
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class EsiNameGetterTest extends TestUtil {
+
+	private static final String NAMES = "POST /universe/names/";
+
+	@Test
+	public void testBisect() throws IOException {
+		//16 IDs, 1 invalid: 1 failed batch + 2 requests per level (8, 4, 2, 1)
+		Result result = update(93000000, 16, 93000005);
+		assertThat(result.requests, equalTo(9L));
+		assertThat(result.errors, equalTo(false));
+		for (long id = 93000000; id < 93000016; id++) {
+			if (id == 93000005) {
+				assertThat(OwnerNames.getName(id), nullValue());
+			} else {
+				assertThat(OwnerNames.getName(id), equalTo("Character " + id));
+			}
+			assertThat(OwnerNames.isUpdatable(id), equalTo(false));
+		}
+	}
+
+	@Test
+	public void testBisectTwoInvalid() throws IOException {
+		//16 IDs, 2 invalid: at most 1 + 2 (8) + 2 * 2 (4, 2, 1) requests
+		Result result = update(94000000, 16, 94000001, 94000014);
+		assertThat(result.requests <= 15, equalTo(true));
+		assertThat(result.errors, equalTo(false));
+		assertThat(OwnerNames.getName(94000001), nullValue());
+		assertThat(OwnerNames.getName(94000014), nullValue());
+		assertThat(OwnerNames.getName(94000000), equalTo("Character 94000000"));
+		assertThat(OwnerNames.getName(94000015), equalTo("Character 94000015"));
+	}
+
+	@Test
+	public void testValid() throws IOException {
+		Result result = update(95000000, 16);
+		assertThat(result.requests, equalTo(1L));
+		assertThat(OwnerNames.getName(95000007), equalTo("Character 95000007"));
+		//Known names are not looked up again
+		result = update(95000000, 16);
+		assertThat(result.requests, equalTo(0L));
+	}
+
+	private Result update(int first, int count, long... invalid) throws IOException {
+		EsiReplayServer server = new EsiReplayServer();
+		for (long id : invalid) {
+			server.addInvalidID(id);
+		}
+		server.start();
+		AbstractEsiGetter.setEsiUrl(server.getUrl());
+		try {
+			List<OwnerType> owners = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				EsiOwner esiOwner = new EsiOwner();
+				esiOwner.setOwnerID(first + i);
+				owners.add(esiOwner);
+			}
+			EsiNameGetter esiNameGetter = new EsiNameGetter(null, owners);
+			esiNameGetter.run();
+			Long requests = server.getEndpoints().get(NAMES);
+			return new Result(requests != null ? requests : 0, esiNameGetter.hasError());
+		} finally {
+			AbstractEsiGetter.setEsiUrl(null);
+			server.stop();
+		}
+	}
+
+	private static class Result {
+		private final long requests;
+		private final boolean errors;
+
+		public Result(long requests, boolean errors) {
+			this.requests = requests;
+			this.errors = errors;
+		}
+	}
+}
@@ -0,0 +1,692 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loopback stand-in for ESI (like MicroServe, but for the ESI endpoints).
+ * Serve recorded responses (if available) or generated responses for the added characters and corporations.
+ * Pagination, latency, server errors and the error limit headers can be configured.
+ * Use AbstractEsiGetter.setEsiUrl(server.getUrl()) to send the ESI requests to the server.
+ */
+public class EsiReplayServer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiReplayServer.class);
+
+	private static final Pattern VERSION = Pattern.compile("^/(v\\d+|latest|legacy|dev)(?=/)");
+	private static final Pattern ID = Pattern.compile("/\\d+(?=/)");
+	private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+	private static final int STATION_ID = 60003760; //Jita IV - Moon 4 - Caldari Navy Assembly Plant
+	private static final int REGION_ID = 10000002; //The Forge
+	private static final int[] TYPE_IDS = {34, 35, 36, 37, 38, 39, 40, 587, 670};
+
+	private final Gson gson = new Gson();
+	private final Map<Integer, Integer> characters = new ConcurrentHashMap<>(); //characterID = corporationID
+	private final Set<Integer> directors = ConcurrentHashMap.newKeySet();
+	private final Set<Long> invalidIDs = ConcurrentHashMap.newKeySet();
+	private final Set<String> attempted = ConcurrentHashMap.newKeySet();
+	private final Map<String, AtomicLong> endpoints = new ConcurrentHashMap<>();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong serverErrors = new AtomicLong();
+	private final AtomicInteger errorLimitRemain = new AtomicInteger();
+	private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+	private ServerSocket serverSocket;
+	private ExecutorService executor;
+	//Settings
+	private File recordings = null;
+	private int latency = 0;
+	private double errorRate = 0;
+	private boolean failFirst = false;
+	private int errorLimit = 100;
+	private int errorLimitReset = 60;
+	private int pageSize = 1000;
+	private int assets = 1000;
+	private int marketOrders = 50;
+	private int journal = 500;
+	private int transactions = 500;
+	private long errorLimitStart;
+
+	public void start() throws IOException {
+		serverSocket = new ServerSocket(0, 50, Inet4Address.getLoopbackAddress());
+		executor = Executors.newCachedThreadPool();
+		errorLimitRemain.set(errorLimit);
+		errorLimitStart = System.currentTimeMillis();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				while (!serverSocket.isClosed()) {
+					try {
+						Socket socket = serverSocket.accept();
+						sockets.add(socket);
+						executor.execute(new Runnable() {
+							@Override
+							public void run() {
+								serve(socket);
+							}
+						});
+					} catch (IOException ex) {
+						if (!serverSocket.isClosed()) {
+							LOG.error(ex.getMessage(), ex);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	public void stop() {
+		try {
+			serverSocket.close();
+		} catch (IOException ex) {
+			//That is okay
+		}
+		for (Socket socket : sockets) {
+			try {
+				socket.close(); //Close keep-alive connections
+			} catch (IOException ex) {
+				//That is okay
+			}
+		}
+		executor.shutdownNow();
+	}
+
+	public String getUrl() {
+		return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Add a character.
+	 * @param characterID
+	 * @param corporationID
+	 * @param director true, if the character have the director role
+	 */
+	public void addCharacter(int characterID, int corporationID, boolean director) {
+		characters.put(characterID, corporationID);
+		if (director) {
+			directors.add(characterID);
+		}
+	}
+
+	/**
+	 * Invalid IDs fail the whole /universe/names/ request (like ESI).
+	 * @param id
+	 */
+	public void addInvalidID(long id) {
+		invalidIDs.add(id);
+	}
+
+	/**
+	 * Recorded responses: The files are named after the path (without version).
+	 * Ex. /v5/characters/90000001/assets/ is characters_90000001_assets.json
+	 * JSON arrays are paged like the generated responses.
+	 * @param recordings directory or null to generate all responses
+	 */
+	public void setRecordings(File recordings) {
+		this.recordings = recordings;
+	}
+
+	/**
+	 * @param latency delay of all responses in milliseconds
+	 */
+	public void setLatency(int latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * @param errorRate fraction of the requests that fail with 500 Internal Server Error
+	 */
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * @param failFirst true, to fail the first attempt of every distinct request (method, url and body) with 500 Internal Server Error
+	 */
+	public void setFailFirst(boolean failFirst) {
+		this.failFirst = failFirst;
+	}
+
+	/**
+	 * @param errorLimit errors allowed per window (X-Esi-Error-Limit-Remain)
+	 * @param errorLimitReset window size in seconds (X-Esi-Error-Limit-Reset)
+	 */
+	public void setErrorLimit(int errorLimit, int errorLimitReset) {
+		this.errorLimit = errorLimit;
+		this.errorLimitReset = errorLimitReset;
+		errorLimitRemain.set(errorLimit);
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Number of generated rows per owner.
+	 * @param assets
+	 * @param marketOrders
+	 * @param journal
+	 * @param transactions
+	 */
+	public void setRows(int assets, int marketOrders, int journal, int transactions) {
+		this.assets = assets;
+		this.marketOrders = marketOrders;
+		this.journal = journal;
+		this.transactions = transactions;
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getServerErrors() {
+		return serverErrors.get();
+	}
+
+	/**
+	 * @return number of distinct requests (method, url and body), only counted when failing the first attempt
+	 */
+	public long getDistinctRequests() {
+		return attempted.size();
+	}
+
+	/**
+	 * @return number of requests per endpoint (IDs replaced with {id})
+	 */
+	public Map<String, Long> getEndpoints() {
+		Map<String, Long> map = new LinkedHashMap<>();
+		for (Map.Entry<String, AtomicLong> entry : endpoints.entrySet()) {
+			map.put(entry.getKey(), entry.getValue().get());
+		}
+		return map;
+	}
+
+	/**
+	 * Create an unsigned access token (JWT) with the data read by EsiOwnerGetter.
+	 * @param characterID
+	 * @param characterName
+	 * @param scopes
+	 * @return access token
+	 */
+	public static String createAccessToken(int characterID, String characterName, Collection<String> scopes) {
+		JsonObject header = new JsonObject();
+		header.addProperty("alg", "none");
+		header.addProperty("typ", "JWT");
+		JsonObject payload = new JsonObject();
+		JsonArray scp = new JsonArray();
+		for (String scope : scopes) {
+			scp.add(scope);
+		}
+		payload.add("scp", scp);
+		payload.addProperty("jti", "replay");
+		payload.addProperty("kid", "JWT-Signature-Key");
+		payload.addProperty("sub", "CHARACTER:EVE:" + characterID);
+		payload.addProperty("azp", "replay");
+		payload.addProperty("name", characterName);
+		payload.addProperty("owner", "replay");
+		payload.addProperty("exp", String.valueOf(System.currentTimeMillis() / 1000 + 24 * 60 * 60));
+		payload.addProperty("iss", "login.eveonline.com");
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		return encoder.encodeToString(header.toString().getBytes(StandardCharsets.UTF_8))
+				+ "." + encoder.encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8))
+				+ ".signature";
+	}
+
+	private void serve(Socket socket) {
+		try (Socket clientSocket = socket) {
+			InputStream in = new BufferedInputStream(clientSocket.getInputStream());
+			OutputStream out = clientSocket.getOutputStream();
+			String requestLine;
+			while ((requestLine = readLine(in)) != null) { //Keep-alive: one request per loop
+				if (requestLine.isEmpty()) {
+					continue;
+				}
+				int contentLength = 0;
+				String line;
+				while ((line = readLine(in)) != null && !line.isEmpty()) {
+					int index = line.indexOf(':');
+					if (index > 0 && line.substring(0, index).trim().equalsIgnoreCase("Content-Length")) {
+						contentLength = Integer.parseInt(line.substring(index + 1).trim());
+					}
+				}
+				byte[] body = new byte[contentLength];
+				int read = 0;
+				while (read < contentLength) {
+					int count = in.read(body, read, contentLength - read);
+					if (count < 0) {
+						return;
+					}
+					read += count;
+				}
+				String[] parts = requestLine.split(" ");
+				respond(out, parts[0], parts[1], new String(body, StandardCharsets.UTF_8));
+				out.flush();
+			}
+		} catch (IOException ex) {
+			//Connection closed
+		} finally {
+			sockets.remove(socket);
+		}
+	}
+
+	private void respond(OutputStream out, String method, String target, String body) throws IOException {
+		requests.incrementAndGet();
+		int queryIndex = target.indexOf('?');
+		String path = VERSION.matcher(queryIndex < 0 ? target : target.substring(0, queryIndex)).replaceFirst("");
+		Map<String, String> query = parseQuery(queryIndex < 0 ? "" : target.substring(queryIndex + 1));
+		endpoints.computeIfAbsent(method + " " + ID.matcher(path).replaceAll("/{id}"), k -> new AtomicLong()).incrementAndGet();
+		if (latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if ((failFirst && attempted.add(method + " " + target + " " + body))
+				|| (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate)) {
+			serverErrors.incrementAndGet();
+			errorLimitRemain.decrementAndGet();
+			write(out, 500, "Internal Server Error", "{\"error\":\"Internal Server Error\"}", 1);
+			return;
+		}
+		if (method.equals("POST") && path.equals("/universe/names/") && containsInvalidID(body)) {
+			errorLimitRemain.decrementAndGet();
+			write(out, 404, "Not Found", "{\"error\":\"Ensure all IDs are valid before resolving.\"}", 1);
+			return;
+		}
+		JsonElement json = getRecording(path);
+		if (json == null) {
+			json = generate(method, path, query, body);
+		}
+		if (json == null) {
+			errorLimitRemain.decrementAndGet();
+			write(out, 404, "Not Found", "{\"error\":\"Not found\"}", 1);
+			return;
+		}
+		int pages = 1;
+		if (query.containsKey("page") && json.isJsonArray() && json.getAsJsonArray().size() > pageSize) { //Paged endpoint
+			JsonArray array = json.getAsJsonArray();
+			pages = (array.size() + pageSize - 1) / pageSize;
+			int page = Math.max(1, Math.min(pages, parseInt(query.get("page"), 1)));
+			JsonArray paged = new JsonArray();
+			for (int i = (page - 1) * pageSize; i < Math.min(array.size(), page * pageSize); i++) {
+				paged.add(array.get(i));
+			}
+			json = paged;
+		}
+		write(out, 200, "OK", json.toString(), pages);
+	}
+
+	private void write(OutputStream out, int code, String message, String json, int pages) throws IOException {
+		byte[] data = json.getBytes(StandardCharsets.UTF_8);
+		OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+		StringBuilder builder = new StringBuilder();
+		builder.append("HTTP/1.1 ").append(code).append(" ").append(message).append("\r\n");
+		builder.append("Content-Type: application/json; charset=UTF-8\r\n");
+		builder.append("Content-Length: ").append(data.length).append("\r\n");
+		builder.append("Cache-Control: no-store\r\n"); //Measure the requests, not the cache
+		builder.append("Date: ").append(HTTP_DATE.format(now)).append("\r\n");
+		builder.append("Expires: ").append(HTTP_DATE.format(now.plusHours(1))).append("\r\n");
+		builder.append("Last-Modified: ").append(HTTP_DATE.format(now)).append("\r\n");
+		builder.append("ETag: \"").append(Integer.toHexString(json.hashCode())).append("\"\r\n");
+		builder.append("X-Pages: ").append(pages).append("\r\n");
+		builder.append("X-Esi-Error-Limit-Remain: ").append(getErrorLimitRemain()).append("\r\n");
+		builder.append("X-Esi-Error-Limit-Reset: ").append(getErrorLimitReset()).append("\r\n");
+		builder.append("\r\n");
+		out.write(builder.toString().getBytes(StandardCharsets.US_ASCII));
+		out.write(data);
+	}
+
+	private synchronized int getErrorLimitRemain() {
+		if (getErrorLimitReset() <= 0) {
+			errorLimitStart = System.currentTimeMillis();
+			errorLimitRemain.set(errorLimit);
+		}
+		return Math.max(0, errorLimitRemain.get());
+	}
+
+	private synchronized int getErrorLimitReset() {
+		return (int) Math.max(0, errorLimitReset - (System.currentTimeMillis() - errorLimitStart) / 1000);
+	}
+
+	private boolean containsInvalidID(String body) {
+		for (long id : gson.fromJson(body, long[].class)) {
+			if (invalidIDs.contains(id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private JsonElement getRecording(String path) throws IOException {
+		if (recordings == null) {
+			return null;
+		}
+		String name = path.replaceAll("^/+|/+$", "").replace('/', '_') + ".json";
+		File file = new File(recordings, name);
+		if (!file.isFile()) {
+			return null;
+		}
+		return JsonParser.parseString(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	private JsonElement generate(String method, String path, Map<String, String> query, String body) {
+		String[] s = path.replaceAll("^/+|/+$", "").split("/");
+		if (method.equals("POST")) {
+			if (path.equals("/characters/affiliation/")) {
+				JsonArray array = new JsonArray();
+				for (int id : gson.fromJson(body, int[].class)) {
+					Integer corporationID = characters.get(id);
+					if (corporationID != null) {
+						JsonObject object = new JsonObject();
+						object.addProperty("character_id", id);
+						object.addProperty("corporation_id", corporationID);
+						array.add(object);
+					}
+				}
+				return array;
+			} else if (path.equals("/universe/names/")) {
+				JsonArray array = new JsonArray();
+				for (long id : gson.fromJson(body, long[].class)) {
+					boolean corporation = characters.containsValue((int) id);
+					JsonObject object = new JsonObject();
+					object.addProperty("id", id);
+					object.addProperty("name", (corporation ? "Corporation " : "Character ") + id);
+					object.addProperty("category", corporation ? "corporation" : "character");
+					array.add(object);
+				}
+				return array;
+			}
+			return new JsonArray(); //Asset names/locations etc.
+		}
+		if (s.length < 3 || !(s[0].equals("characters") || s[0].equals("corporations"))) {
+			return new JsonArray(); //Public list endpoints
+		}
+		int ownerID = parseInt(s[1], 0);
+		boolean corporation = s[0].equals("corporations");
+		String endpoint = s[2];
+		switch (endpoint) {
+			case "roles": {
+				JsonObject object = new JsonObject();
+				JsonArray roles = new JsonArray();
+				if (directors.contains(ownerID)) {
+					roles.add("Director");
+				}
+				object.add("roles", roles);
+				return object;
+			}
+			case "wallet":
+				if (s.length == 3) {
+					return new JsonPrimitive(1000000000.0);
+				} else if (s[3].equals("journal")) {
+					return journal(ownerID, corporation);
+				} else if (s[3].equals("transactions")) {
+					return transactions(ownerID, corporation, query);
+				}
+				return new JsonArray();
+			case "wallets":
+				if (s.length == 3) {
+					JsonArray array = new JsonArray();
+					for (int division = 1; division <= 7; division++) {
+						JsonObject object = new JsonObject();
+						object.addProperty("division", division);
+						object.addProperty("balance", 1000000000.0 * division);
+						array.add(object);
+					}
+					return array;
+				} else if (s.length > 4 && s[4].equals("journal")) {
+					return journal(ownerID, corporation);
+				} else if (s.length > 4 && s[4].equals("transactions")) {
+					return transactions(ownerID, corporation, query);
+				}
+				return new JsonArray();
+			case "divisions": {
+				JsonObject object = new JsonObject();
+				JsonArray hangar = new JsonArray();
+				JsonArray wallet = new JsonArray();
+				for (int division = 1; division <= 7; division++) {
+					JsonObject hangarDivision = new JsonObject();
+					hangarDivision.addProperty("division", division);
+					hangarDivision.addProperty("name", "Hangar " + division);
+					hangar.add(hangarDivision);
+					JsonObject walletDivision = new JsonObject();
+					walletDivision.addProperty("division", division);
+					walletDivision.addProperty("name", "Wallet " + division);
+					wallet.add(walletDivision);
+				}
+				object.add("hangar", hangar);
+				object.add("wallet", wallet);
+				return object;
+			}
+			case "skills":
+				if (s.length == 3) {
+					JsonObject object = new JsonObject();
+					object.add("skills", new JsonArray());
+					object.addProperty("total_sp", 5000000L);
+					object.addProperty("unallocated_sp", 0);
+					return object;
+				}
+				return new JsonArray();
+			case "ship": {
+				JsonObject object = new JsonObject();
+				object.addProperty("ship_item_id", 1000000000L + ownerID);
+				object.addProperty("ship_name", "Ship " + ownerID);
+				object.addProperty("ship_type_id", 670);
+				return object;
+			}
+			case "location": {
+				JsonObject object = new JsonObject();
+				object.addProperty("solar_system_id", 30000142);
+				object.addProperty("station_id", STATION_ID);
+				return object;
+			}
+			case "assets":
+				if (s.length == 3) {
+					return assets(ownerID);
+				}
+				return new JsonArray();
+			case "orders":
+				if (s.length == 3) {
+					return marketOrders(ownerID, corporation);
+				}
+				return new JsonArray(); //History
+			default:
+				return new JsonArray();
+		}
+	}
+
+	private JsonArray assets(int ownerID) {
+		Random random = new Random(ownerID);
+		JsonArray array = new JsonArray();
+		for (int i = 0; i < assets; i++) {
+			JsonObject object = new JsonObject();
+			object.addProperty("item_id", ownerID * 100000L + i);
+			object.addProperty("type_id", TYPE_IDS[random.nextInt(TYPE_IDS.length)]);
+			object.addProperty("location_id", STATION_ID);
+			object.addProperty("location_flag", "Hangar");
+			object.addProperty("location_type", "station");
+			object.addProperty("quantity", 1 + random.nextInt(10000));
+			object.addProperty("is_singleton", false);
+			array.add(object);
+		}
+		return array;
+	}
+
+	private JsonArray marketOrders(int ownerID, boolean corporation) {
+		Random random = new Random(ownerID);
+		JsonArray array = new JsonArray();
+		for (int i = 0; i < marketOrders; i++) {
+			JsonObject object = new JsonObject();
+			boolean buy = random.nextBoolean();
+			int volume = 1 + random.nextInt(10000);
+			object.addProperty("order_id", ownerID * 100000L + i);
+			object.addProperty("type_id", TYPE_IDS[random.nextInt(TYPE_IDS.length)]);
+			object.addProperty("region_id", REGION_ID);
+			object.addProperty("location_id", STATION_ID);
+			object.addProperty("range", buy ? "region" : "station");
+			object.addProperty("is_buy_order", buy);
+			object.addProperty("price", 1 + random.nextInt(1000));
+			object.addProperty("volume_total", volume);
+			object.addProperty("volume_remain", volume / 2);
+			object.addProperty("issued", OffsetDateTime.now(ZoneOffset.UTC).minusDays(random.nextInt(30)).toString());
+			object.addProperty("duration", 90);
+			object.addProperty("min_volume", 1);
+			if (buy) {
+				object.addProperty("escrow", 0.0);
+			}
+			if (corporation) {
+				object.addProperty("issued_by", ownerID);
+				object.addProperty("wallet_division", 1);
+			} else {
+				object.addProperty("is_corporation", false);
+			}
+			array.add(object);
+		}
+		return array;
+	}
+
+	private JsonArray journal(int ownerID, boolean corporation) {
+		Random random = new Random(ownerID);
+		JsonArray array = new JsonArray();
+		double balance = 1000000000.0;
+		for (int i = 0; i < journal; i++) {
+			JsonObject object = new JsonObject();
+			double amount = random.nextInt(2000000) - 1000000;
+			balance = balance + amount;
+			object.addProperty("id", ownerID * 100000L + i);
+			object.addProperty("date", OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(i).toString());
+			object.addProperty("ref_type", "player_trading");
+			object.addProperty("description", "Replay");
+			object.addProperty("amount", amount);
+			object.addProperty("balance", balance);
+			object.addProperty("first_party_id", ownerID);
+			object.addProperty("second_party_id", corporation ? ownerID : characters.getOrDefault(ownerID, ownerID));
+			array.add(object);
+		}
+		return array;
+	}
+
+	private JsonArray transactions(int ownerID, boolean corporation, Map<String, String> query) {
+		Random random = new Random(ownerID);
+		long fromID = parseLong(query.get("from_id"), Long.MAX_VALUE);
+		JsonArray array = new JsonArray();
+		for (int i = 0; i < transactions; i++) {
+			long transactionID = ownerID * 100000L + transactions - i; //Newest first
+			if (transactionID > fromID) {
+				continue;
+			}
+			JsonObject object = new JsonObject();
+			object.addProperty("transaction_id", transactionID);
+			object.addProperty("date", OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(i).toString());
+			object.addProperty("type_id", TYPE_IDS[random.nextInt(TYPE_IDS.length)]);
+			object.addProperty("location_id", STATION_ID);
+			object.addProperty("unit_price", 1 + random.nextInt(1000));
+			object.addProperty("quantity", 1 + random.nextInt(1000));
+			object.addProperty("client_id", ownerID + 1);
+			object.addProperty("is_buy", random.nextBoolean());
+			object.addProperty("journal_ref_id", ownerID * 100000L + i);
+			if (!corporation) {
+				object.addProperty("is_personal", true);
+			}
+			array.add(object);
+			if (array.size() >= 2500) { //ESI page size
+				break;
+			}
+		}
+		return array;
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) >= 0) {
+			if (b == '\n') {
+				return line.toString(StandardCharsets.US_ASCII.name()).replace("\r", "");
+			}
+			line.write(b);
+		}
+		return line.size() > 0 ? line.toString(StandardCharsets.US_ASCII.name()) : null;
+	}
+
+	private static Map<String, String> parseQuery(String query) throws IOException {
+		Map<String, String> map = new HashMap<>();
+		for (String pair : query.split("&")) {
+			int index = pair.indexOf('=');
+			if (index > 0) {
+				map.put(pair.substring(0, index), URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8.name()));
+			}
+		}
+		return map;
+	}
+
+	private static int parseInt(String value, int defaultValue) {
+		try {
+			return value == null ? defaultValue : Integer.parseInt(value);
+		} catch (NumberFormatException ex) {
+			return defaultValue;
+		}
+	}
+
+	private static long parseLong(String value, long defaultValue) {
+		try {
+			return value == null ? defaultValue : Long.parseLong(value);
+		} catch (NumberFormatException ex) {
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step1Task;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step2Task;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step3Task;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step4Task;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateScheduler;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
+import net.troja.eve.esi.auth.OAuth;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Run the full update (Step 1-4) against EsiReplayServer.
+ * Reports wall time, request count and peak heap.
+ * Not named *Test, so it's not part of the default test run.
+ * Run the tests with -Dtest=EsiUpdateBenchmark or main() for larger benchmarks: characters corporations directors assets latency errorRate
+ */
+public class EsiUpdateBenchmark extends TestUtil {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiUpdateBenchmark.class);
+
+	private static final int CHARACTER_ID = 90000000;
+	private static final int CORPORATION_ID = 98000000;
+
+	@Test
+	public void testUpdate() throws IOException {
+		Result result = run(3, 2, 2, 2500, 0, 0);
+		LOG.info(result.toString());
+		assertThat(result.errors, equalTo(0));
+		assertThat(result.owners, equalTo(7));
+		assertThat(result.requests > 0, equalTo(true));
+		assertThat(result.serverErrors, equalTo(0L));
+		assertThat(result.limiterServerErrors, equalTo(0L));
+	}
+
+	@Test
+	public void testServerErrors() throws IOException {
+		Result expected = run(2, 1, 1, 100, 0, 0);
+		//The first attempt of every request fails with 500 and is retried once: one extra request per error
+		Result result = run(2, 1, 1, 100, 0, 0, true);
+		LOG.info(result.toString());
+		assertThat(result.errors, equalTo(0));
+		assertThat(result.serverErrors > 0, equalTo(true));
+		assertThat(result.serverErrors, equalTo(result.distinctRequests));
+		assertThat(result.requests, equalTo(expected.requests + result.serverErrors));
+		assertThat(result.limiterServerErrors, equalTo(result.serverErrors));
+	}
+
+	public static void main(String[] args) throws IOException {
+		initLog();
+		int characters = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int corporations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int directors = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		int assets = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+		int latency = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+		double errorRate = args.length > 5 ? Double.parseDouble(args[5]) : 0.01;
+		LOG.info(run(characters, corporations, directors, assets, latency, errorRate).toString());
+		System.exit(0);
+	}
+
+	/**
+	 * Update generated owners.
+	 * @param characters number of characters (without corporation roles)
+	 * @param corporations number of corporations
+	 * @param directors number of directors per corporation (each added as a corporation owner)
+	 * @param assets number of assets per owner
+	 * @param latency latency per request in milliseconds
+	 * @param errorRate fraction of requests that fail with a server error
+	 * @return the result
+	 * @throws IOException if the server could not be started
+	 */
+	public static Result run(int characters, int corporations, int directors, int assets, int latency, double errorRate) throws IOException {
+		return run(characters, corporations, directors, assets, latency, errorRate, false);
+	}
+
+	private static Result run(int characters, int corporations, int directors, int assets, int latency, double errorRate, boolean failFirst) throws IOException {
+		EsiReplayServer server = new EsiReplayServer();
+		server.setRows(assets, 50, 1000, 1000);
+		server.setLatency(latency);
+		server.setErrorRate(errorRate);
+		server.setFailFirst(failFirst);
+		if (failFirst) {
+			server.setErrorLimit(10000, 60); //Count the retries, don't wait for the error limit
+		}
+		server.start();
+		AbstractEsiGetter.setEsiUrl(server.getUrl());
+		try {
+			ProfileManager profileManager = new ProfileManager();
+			int characterID = CHARACTER_ID;
+			for (int i = 0; i < corporations; i++) {
+				for (int j = 0; j < directors; j++) {
+					characterID++;
+					server.addCharacter(characterID, CORPORATION_ID + i, true);
+					profileManager.getEsiOwners().add(createOwner(characterID, CORPORATION_ID + i, true));
+				}
+			}
+			for (int i = 0; i < characters; i++) {
+				characterID++;
+				server.addCharacter(characterID, CORPORATION_ID + corporations, false);
+				profileManager.getEsiOwners().add(createOwner(characterID, CORPORATION_ID + corporations, false));
+			}
+			System.gc();
+			List<MemoryPoolMXBean> heap = new ArrayList<>();
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					pool.resetPeakUsage();
+					heap.add(pool);
+				}
+			}
+			EsiLimiter limiter = AbstractEsiGetter.getLimiter();
+			long limiterServerErrors = limiter.getServerErrors();
+			long start = System.currentTimeMillis();
+			UpdateScheduler scheduler = new UpdateScheduler();
+			List<UpdateTask> updateTasks = new ArrayList<>();
+			updateTasks.add(new Step1Task(profileManager, scheduler));
+			Step2Task step2Task = new Step2Task(profileManager, scheduler, true, true, true, true, true, true, true, true, true, true, true);
+			updateTasks.add(step2Task);
+			updateTasks.add(new Step3Task(profileManager, scheduler, step2Task, true));
+			updateTasks.add(new Step4Task(profileManager, scheduler));
+			int errors = 0;
+			for (UpdateTask updateTask : updateTasks) {
+				updateTask.update();
+				if (updateTask.hasError()) {
+					errors++;
+				}
+			}
+			long time = System.currentTimeMillis() - start;
+			long peakHeap = 0;
+			for (MemoryPoolMXBean pool : heap) {
+				peakHeap += pool.getPeakUsage().getUsed(); //Sum of the pool peaks (upper bound)
+			}
+			return new Result(profileManager.getEsiOwners().size(), time, server.getRequests(), server.getServerErrors(), limiter.getServerErrors() - limiterServerErrors, peakHeap, errors, server);
+		} finally {
+			AbstractEsiGetter.setEsiUrl(null);
+			server.stop();
+		}
+	}
+
+	private static EsiOwner createOwner(int characterID, int corporationID, boolean corporation) {
+		Set<String> scopes = new HashSet<>();
+		for (EsiScopes scope : EsiScopes.values()) {
+			if (scope.getScope() != null && (corporation ? scope.isCorporationScope() : scope.isCharacterScope())) {
+				scopes.add(scope.getScope());
+			}
+		}
+		EsiOwner esiOwner = new EsiOwner();
+		esiOwner.setOwnerID(corporation ? corporationID : characterID);
+		esiOwner.setScopes(scopes);
+		OAuth oAuth = (OAuth) esiOwner.getApiClient().getAuthentication("evesso");
+		oAuth.setAccessToken(EsiReplayServer.createAccessToken(characterID, "Character " + characterID, scopes)); //No refresh token: never refreshed
+		return esiOwner;
+	}
+
+	public static class Result {
+		private final int owners;
+		private final long time;
+		private final long requests;
+		private final long serverErrors;
+		private final long distinctRequests;
+		private final long limiterServerErrors;
+		private final long peakHeap;
+		private final int errors;
+		private final String details;
+
+		public Result(int owners, long time, long requests, long serverErrors, long limiterServerErrors, long peakHeap, int errors, EsiReplayServer server) {
+			this.owners = owners;
+			this.time = time;
+			this.requests = requests;
+			this.serverErrors = serverErrors;
+			this.distinctRequests = server.getDistinctRequests();
+			this.limiterServerErrors = limiterServerErrors;
+			this.peakHeap = peakHeap;
+			this.errors = errors;
+			this.details = server.getEndpoints().toString() + "\r\n" + AbstractEsiGetter.getLimiter().toString();
+		}
+
+		@Override
+		public String toString() {
+			return "Owners: " + owners
+					+ " Time: " + time + "ms"
+					+ " Requests: " + requests
+					+ " Server errors: " + serverErrors
+					+ " Peak heap: " + (peakHeap / 1024 / 1024) + "MB"
+					+ " Tasks with errors: " + errors
+					+ "\r\n" + details;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames;
+import net.nikr.eve.jeveasset.data.settings.OwnerNames.OwnerName;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class OwnerNamesTest {
+
+	private final String filename = "names.json";
+
+	@Test
+	public void testWriteRead() {
+		Map<Long, OwnerName> out = new HashMap<>();
+		out.put(1L, new OwnerName("Name \"1\"", 1552492124589L));
+		out.put(2L, new OwnerName(null, 1552492124590L)); //Invalid
+		OwnerNamesWriter.save(filename, out, false);
+		Map<Long, OwnerName> in = OwnerNamesReader.load(filename, false);
+		new File(filename).delete();
+		assertThat(in.size(), equalTo(2));
+		assertThat(in.get(1L).getName(), equalTo("Name \"1\""));
+		assertThat(in.get(1L).getResolved(), equalTo(1552492124589L));
+		assertThat(in.get(2L).getName(), nullValue());
+		assertThat(in.get(2L).isInvalid(), equalTo(true));
+		assertThat(in.get(2L).getResolved(), equalTo(1552492124590L));
+	}
+
+	@Test
+	public void testCache() {
+		assertThat(OwnerNames.isUpdatable(-10L), equalTo(true));
+		OwnerNames.put(-10L, "Name");
+		assertThat(OwnerNames.getName(-10L), equalTo("Name"));
+		assertThat(OwnerNames.isUpdatable(-10L), equalTo(false));
+		OwnerNames.putInvalid(-11L);
+		assertThat(OwnerNames.getName(-11L), nullValue());
+		assertThat(OwnerNames.isUpdatable(-11L), equalTo(false));
+	}
+
+	@Test
+	public void testImportSettings() {
+		long day = 1000L * 60L * 60L * 24L;
+		Map<Long, String> owners = new HashMap<>();
+		Map<Long, Date> ownersNextUpdate = new HashMap<>();
+		owners.put(-20L, "Name");
+		ownersNextUpdate.put(-20L, new Date(System.currentTimeMillis() + day));
+		ownersNextUpdate.put(-21L, new Date(System.currentTimeMillis() + day)); //Invalid
+		ownersNextUpdate.put(-22L, new Date(System.currentTimeMillis() - day)); //Invalid (expired)
+		assertThat(OwnerNames.importSettings(owners, ownersNextUpdate), equalTo(true));
+		assertThat(owners.isEmpty(), equalTo(true));
+		assertThat(ownersNextUpdate.isEmpty(), equalTo(true));
+		assertThat(OwnerNames.getName(-20L), equalTo("Name"));
+		assertThat(OwnerNames.isUpdatable(-20L), equalTo(false));
+		assertThat(OwnerNames.getName(-21L), nullValue());
+		assertThat(OwnerNames.isUpdatable(-21L), equalTo(false));
+		assertThat(OwnerNames.isUpdatable(-22L), equalTo(true));
+		assertThat(OwnerNames.importSettings(owners, ownersNextUpdate), equalTo(false));
+	}
+}
@@ -27,6 +27,7 @@ import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.EveKitOwner;
+import net.nikr.eve.jeveasset.data.profile.ContractItems;
 import net.nikr.eve.jeveasset.data.profile.Profile;
 import net.nikr.eve.jeveasset.data.profile.Profile.DefaultProfile;
 import net.nikr.eve.jeveasset.data.profile.ProfileData;
@@ -43,6 +44,7 @@ import org.junit.Test;
 public class ProfileReadWriteTest extends TestUtil {
 
 	private static final String FILENAME = "target" + File.separator + "profile_read_write_test.xml";
+	private static final String CONTRACT_ITEMS_FILENAME = "target" + File.separator + "profile_read_write_test.db";
 
 	@Test
 	public void testNotNull() {
@@ -57,6 +59,10 @@ public class ProfileReadWriteTest extends TestUtil {
 	private void test(boolean setNull) {
 		AddedData.load();
 		for (ConverterTestOptions options : ConverterTestOptionsGetter.getConverterOptions()) {
+			//Contract items is only saved once per contract ID
+			new File(CONTRACT_ITEMS_FILENAME).delete();
+			ContractItems.setConnectionUrl("jdbc:sqlite:" + CONTRACT_ITEMS_FILENAME);
+
 			Profile saveProfile = new DefaultProfile();
 			//ESI
 			saveProfile.getEsiOwners().add(ConverterTestUtil.getEsiOwner(true, setNull, false, options));
@@ -76,7 +82,7 @@ public class ProfileReadWriteTest extends TestUtil {
 
 			//Update dynamic data
 			ProfileData profileData = new ProfileData(loadProfile);
-			profileData.updateEventLists();
+			profileData.updateEventLists().join(); //Wait for the EventLists to be updated
 
 			//ESI
 			assertEquals(1, loadProfile.getEsiOwners().size());
@@ -101,6 +107,8 @@ public class ProfileReadWriteTest extends TestUtil {
 			File backupFile = new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + "_" + Program.PROGRAM_VERSION.replace(" ", "_") + "_backup.zip");
 			assertTrue(backupFile.delete());
 		}
+		ContractItems.setConnectionUrl(ContractItems.DEFAULT_CONNECTION_URL);
+		new File(CONTRACT_ITEMS_FILENAME).delete();
 	}
 
 }
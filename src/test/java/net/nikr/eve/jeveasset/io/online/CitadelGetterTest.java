@@ -0,0 +1,48 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.online;
+
+import net.nikr.eve.jeveasset.TestUtil;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class CitadelGetterTest extends TestUtil {
+
+	@Test
+	public void testSaveQueue() {
+		assertThat(CitadelGetter.saveQueueEmpty(), equalTo(true));
+		assertThat(CitadelGetter.saveQueueIgnore(), equalTo(false)); //First save: waiting
+		assertThat(CitadelGetter.saveQueueIgnore(), equalTo(true)); //Included in the waiting save
+		assertThat(CitadelGetter.saveQueueIgnore(), equalTo(true));
+		CitadelGetter.saveQueueStart(); //First save: running
+		assertThat(CitadelGetter.saveQueueIgnore(), equalTo(false)); //Second save: waiting
+		assertThat(CitadelGetter.saveQueueIgnore(), equalTo(true)); //Included in the waiting save
+		CitadelGetter.saveQueueRemove(); //First save: done
+		assertThat(CitadelGetter.saveQueueEmpty(), equalTo(false));
+		CitadelGetter.saveQueueStart(); //Second save: running
+		assertThat(CitadelGetter.saveQueueEmpty(), equalTo(false));
+		CitadelGetter.saveQueueRemove(); //Second save: done
+		assertThat(CitadelGetter.saveQueueEmpty(), equalTo(true));
+		CitadelGetter.waitForEmptySaveQueue(); //Does not block
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.online;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.io.online.ZkillboardPricesHistoryGetter.PriceHistoryListener;
+import net.nikr.eve.jeveasset.io.online.ZkillboardPricesHistoryGetter.RateLimitedException;
+import net.nikr.eve.jeveasset.io.online.ZkillboardPricesHistoryGetter.TokenBucket;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class ZkillboardPricesHistoryGetterTest extends TestUtil {
+
+	private int concurrent;
+
+	@Before
+	public void before() {
+		concurrent = Settings.get().getPriceHistoryConcurrent();
+		Settings.get().setPriceHistoryConcurrent(1); //One worker: requests are run in queue order
+	}
+
+	@After
+	public void after() {
+		Settings.get().setPriceHistoryConcurrent(concurrent);
+	}
+
+	@Test
+	public void testTokenBucket() throws InterruptedException {
+		TokenBucket tokenBucket = new TokenBucket(100);
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 4; i++) {
+			tokenBucket.acquire();
+		}
+		assertThat(System.currentTimeMillis() - start >= 300, equalTo(true));
+		tokenBucket.pause(500);
+		start = System.currentTimeMillis();
+		tokenBucket.acquire();
+		assertThat(System.currentTimeMillis() - start >= 450, equalTo(true));
+		tokenBucket.pause(0); //Does not shorten the interval
+		start = System.currentTimeMillis();
+		tokenBucket.acquire();
+		assertThat(System.currentTimeMillis() - start >= 90, equalTo(true));
+	}
+
+	@Test
+	public void testQueue() throws InterruptedException {
+		TestGetter getter = new TestGetter();
+		Listener listener = new Listener(3);
+		Listener priority = new Listener(2);
+		getter.submit(Arrays.asList(1, 2, 3), false, listener);
+		assertThat(getter.started.await(10, TimeUnit.SECONDS), equalTo(true)); //1 is running
+		getter.submit(Collections.singleton(4), true, priority);
+		getter.submit(Collections.singleton(2), true, priority); //Moved to the front, not queued twice
+		getter.release.countDown();
+		assertThat(listener.latch.await(10, TimeUnit.SECONDS), equalTo(true));
+		assertThat(priority.latch.await(10, TimeUnit.SECONDS), equalTo(true));
+		assertThat(getter.getUpdates(), equalTo(Arrays.asList(1, 2, 4, 3)));
+		assertThat(listener.getReceived(), equalTo(Arrays.asList(1, 2, 3)));
+		assertThat(priority.getReceived(), equalTo(Arrays.asList(2, 4)));
+	}
+
+	@Test
+	public void testCancel() throws InterruptedException {
+		TestGetter getter = new TestGetter();
+		Listener cancelled = new Listener(0);
+		Listener listener = new Listener(2);
+		getter.submit(Arrays.asList(1, 2, 3), false, cancelled);
+		assertThat(getter.started.await(10, TimeUnit.SECONDS), equalTo(true)); //1 is running
+		getter.submit(Collections.singleton(3), false, listener);
+		getter.remove(cancelled); //2 is not run, 3 is still wanted by listener
+		getter.submit(Collections.singleton(4), false, listener);
+		getter.release.countDown();
+		assertThat(listener.latch.await(10, TimeUnit.SECONDS), equalTo(true));
+		assertThat(getter.getUpdates(), equalTo(Arrays.asList(1, 3, 4)));
+		assertThat(listener.getReceived(), equalTo(Arrays.asList(3, 4)));
+		assertThat(cancelled.getReceived(), equalTo(Collections.<Integer>emptyList()));
+	}
+
+	@Test
+	public void testRateLimited() throws InterruptedException {
+		TestGetter getter = new TestGetter();
+		getter.release.countDown();
+		getter.rateLimited = 2;
+		Listener listener = new Listener(2);
+		getter.submit(Arrays.asList(1, 2), false, listener);
+		assertThat(listener.latch.await(10, TimeUnit.SECONDS), equalTo(true));
+		assertThat(getter.getUpdates(), equalTo(Arrays.asList(1, 1, 1, 2))); //Retried: not failed
+		assertThat(listener.getReceived(), equalTo(Arrays.asList(1, 2)));
+		for (Map<String, Double> priceHistory : listener.priceHistories) {
+			assertThat(priceHistory, notNullValue());
+		}
+	}
+
+	private static class TestGetter extends ZkillboardPricesHistoryGetter {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<Integer> updates = new ArrayList<>();
+		private int rateLimited = 0;
+
+		@Override
+		Map<String, Double> update(int typeID) throws InterruptedException, RateLimitedException {
+			synchronized (this) {
+				updates.add(typeID);
+			}
+			started.countDown();
+			release.await();
+			synchronized (this) {
+				if (rateLimited > 0) {
+					rateLimited--;
+					throw new RateLimitedException();
+				}
+			}
+			Map<String, Double> priceHistory = new HashMap<>();
+			priceHistory.put("2020-01-01", (double) typeID);
+			return priceHistory;
+		}
+
+		public synchronized List<Integer> getUpdates() {
+			return new ArrayList<>(updates);
+		}
+	}
+
+	private static class Listener implements PriceHistoryListener {
+
+		private final CountDownLatch latch;
+		private final List<Integer> received = new ArrayList<>();
+		private final List<Map<String, Double>> priceHistories = new ArrayList<>();
+
+		public Listener(int count) {
+			latch = new CountDownLatch(count);
+		}
+
+		@Override
+		public synchronized void received(int typeID, Map<String, Double> priceHistory) {
+			received.add(typeID);
+			priceHistories.add(priceHistory);
+			latch.countDown();
+		}
+
+		public synchronized List<Integer> getReceived() {
+			return new ArrayList<>(received);
+		}
+	}
+}
@@ -34,6 +34,8 @@ import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings;
 import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings.ManufacturingFacility;
 import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings.ManufacturingRigs;
 import net.nikr.eve.jeveasset.data.settings.ManufacturingSettings.ManufacturingSecurity;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.gui.dialogs.settings.UserPriceSettingsPanel.UserPrice;
 import net.nikr.eve.jeveasset.gui.shared.Formatter;
 import org.junit.Test;
 
@@ -176,6 +178,37 @@ public class ApiIdConverterTest extends TestUtil {
 		}
 	}
 
+	@Test
+	public void testPriceTable() {
+		Settings.get().getUserPrices().clear();
+		ApiIdConverter.invalidatePrices();
+		Item item = ApiIdConverter.getItem(645); //Dominix
+		Item blueprint = ApiIdConverter.getItem(999); //Dominix Blueprint
+		assertEquals(0, ApiIdConverter.getPrice(999, true), 0);
+		//User prices
+		Settings.get().getUserPrices().put(645, new UserPrice(1000.0, 645, item.getTypeName()));
+		Settings.get().getUserPrices().put(-999, new UserPrice(50.0, -999, blueprint.getTypeName()));
+		ApiIdConverter.invalidatePrices();
+		assertEquals(1000.0, ApiIdConverter.getPrice(645, false), 0);
+		assertEquals(50.0, ApiIdConverter.getPrice(999, true), 0);
+		assertEquals(1000.0, ApiIdConverter.getPrice(item, false), 0);
+		assertEquals(50.0, ApiIdConverter.getPrice(blueprint, true), 0);
+		//Blueprint base price
+		assertEquals(true, blueprint.isBlueprintTech1());
+		assertEquals(false, blueprint.isBlueprintTech2());
+		boolean tech1 = Settings.get().isBlueprintBasePriceTech1();
+		Settings.get().setBlueprintBasePriceTech1(true);
+		assertEquals(blueprint.getPriceBase(), ApiIdConverter.getPrice(999, false), 0);
+		Settings.get().setBlueprintBasePriceTech1(tech1);
+		//Unknown typeID
+		Settings.get().getUserPrices().put(-1, new UserPrice(5.0, -1, ""));
+		assertEquals(5.0, ApiIdConverter.getPrice(-1, false), 0);
+		assertEquals(5.0, ApiIdConverter.getPrice(new Item(-1), false), 0);
+		Settings.get().getUserPrices().clear();
+		ApiIdConverter.invalidatePrices();
+		assertEquals(0, ApiIdConverter.getPrice(-1, false), 0);
+	}
+
 	/**
 	 * Test of location method, of class ApiIdConverter.
 	 */
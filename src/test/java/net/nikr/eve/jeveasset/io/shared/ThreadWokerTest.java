@@ -0,0 +1,131 @@
+/*
+ * Copyright 2009-2023 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+
+public class ThreadWokerTest {
+
+	@Test
+	public void testStartStream() throws Exception {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<Callable<Integer>> updaters = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			final int value = i;
+			updaters.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					Thread.sleep(10);
+					running.decrementAndGet();
+					return value;
+				}
+			});
+		}
+		List<Integer> consumed = new ArrayList<>();
+		ThreadWoker.startStream(null, updaters, 3, consumed::add);
+		assertThat(consumed.size(), equalTo(20));
+		assertThat(consumed.stream().mapToInt(Integer::intValue).sum(), equalTo(190));
+		assertThat(maxRunning.get() <= 3, equalTo(true));
+	}
+
+	@Test(expected = ExecutionException.class)
+	public void testStartStreamError() throws Exception {
+		List<Callable<Integer>> updaters = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			final int value = i;
+			updaters.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					if (value == 5) {
+						throw new IllegalStateException("Test");
+					}
+					return value;
+				}
+			});
+		}
+		ThreadWoker.startStream(null, updaters, 2, value -> { });
+	}
+
+	@Test
+	public void testStartReturn() throws Exception {
+		AtomicInteger progress = new AtomicInteger();
+		UpdateTask updateTask = new UpdateTask("Test") {
+			@Override
+			public void update() { }
+
+			@Override
+			public void setTaskProgress(float progressEnd, float progressNow, int minimum, int maximum) {
+				progress.accumulateAndGet((int) progressNow, Math::max);
+			}
+		};
+		List<Callable<Integer>> updaters = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			final int value = i;
+			updaters.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					Thread.sleep(10);
+					return value;
+				}
+			});
+		}
+		long start = System.currentTimeMillis();
+		List<Future<Integer>> futures = ThreadWoker.startReturn(updateTask, updaters, true);
+		assertThat(System.currentTimeMillis() - start < 500, equalTo(true)); //Done on completion, not on the next poll
+		int sum = 0;
+		for (Future<Integer> future : futures) {
+			sum += future.get();
+		}
+		assertThat(sum, equalTo(190));
+		assertThat(progress.get(), equalTo(20));
+	}
+
+	@Test(expected = TaskCancelledException.class)
+	public void testStartReturnCancel() throws Exception {
+		UpdateTask updateTask = new UpdateTask("Test") {
+			@Override
+			public void update() { }
+		};
+		List<Callable<Integer>> updaters = new ArrayList<>();
+		updaters.add(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				updateTask.cancel(false);
+				Thread.sleep(10000);
+				return 0;
+			}
+		});
+		ThreadWoker.startReturn(updateTask, updaters);
+	}
+}